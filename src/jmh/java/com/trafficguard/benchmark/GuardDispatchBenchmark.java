@@ -0,0 +1,114 @@
+package com.trafficguard.benchmark;
+
+import com.trafficguard.annotation.TrafficGuard;
+import com.trafficguard.annotation.UserRateLimit;
+import com.trafficguard.aspect.TrafficGuardAspect;
+import com.trafficguard.config.TrafficGuardProperties;
+import com.trafficguard.core.DefaultTrafficKeyResolver;
+import com.trafficguard.core.GuardDescriptor;
+import com.trafficguard.core.GuardDescriptorRegistry;
+import com.trafficguard.core.LocalTokenBucket;
+import com.trafficguard.core.RateLimitHeaderSupport;
+import com.trafficguard.metrics.TrafficGuardMetrics;
+import com.trafficguard.policy.GuardPolicy;
+import com.trafficguard.policy.UserRateLimitPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * TrafficGuardAspect + UserRateLimitPolicy 가 요청마다 더하는 비용.
+ *
+ * - direct: 프록시 없이 컨트롤러 호출 (기준선)
+ * - guarded: Spring AOP 프록시 -> aspect -> UserRateLimitPolicy(LOCAL) -> 컨트롤러
+ * - chainCached / chainCold: GuardDescriptorRegistry 캐시 조회와 요청마다 정책 체인을 고르던 방식
+ *
+ * Redis 비용을 빼기 위해 LOCAL backend 를 쓰고, 제한은 걸리지 않을 만큼 크게 둡니다.
+ */
+@State(Scope.Benchmark)
+public class GuardDispatchBenchmark {
+
+    public static class GuardedController {
+        @TrafficGuard
+        @UserRateLimit(rate = 100_000_000, burst = 100_000_000, backend = UserRateLimit.Backend.LOCAL)
+        public String items() {
+            return "ok";
+        }
+    }
+
+    /** MeterRegistry 유무 (metrics=false 면 TrafficGuardMetrics.NOOP) */
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private GuardedController target;
+    private GuardedController proxy;
+    private GuardDescriptorRegistry registry;
+    private List<GuardPolicy> policies;
+    private Method method;
+
+    @Setup
+    public void setUp() throws Exception {
+        UserRateLimitPolicy policy = new UserRateLimitPolicy(null, new LocalTokenBucket(), null,
+                new RateLimitHeaderSupport(), new TrafficGuardProperties());
+        policies = Collections.singletonList(policy);
+        registry = new GuardDescriptorRegistry(policies, new DefaultTrafficKeyResolver());
+        method = GuardedController.class.getMethod("items");
+
+        target = new GuardedController();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new TrafficGuardAspect(registry,
+                metrics ? new TrafficGuardMetrics(new SimpleMeterRegistry()) : TrafficGuardMetrics.NOOP));
+        proxy = factory.getProxy();
+    }
+
+    /** aspect 가 읽는 요청 컨텍스트 (ThreadLocal 이라 스레드마다 설정) */
+    @State(Scope.Thread)
+    public static class RequestState {
+        @Setup(Level.Trial)
+        public void bind() {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items");
+            request.addHeader("openapi-mem-no", "12345");
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, new MockHttpServletResponse()));
+        }
+
+        @TearDown(Level.Trial)
+        public void unbind() {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Benchmark
+    public String direct() {
+        return target.items();
+    }
+
+    @Benchmark
+    public String guarded(RequestState request) {
+        return proxy.items();
+    }
+
+    @Benchmark
+    public List<GuardPolicy> chainCached() {
+        return registry.get(method).chain();
+    }
+
+    @Benchmark
+    public List<GuardPolicy> chainCold() {
+        return GuardDescriptor.of(method, "GuardedController:items", policies).chain();
+    }
+}
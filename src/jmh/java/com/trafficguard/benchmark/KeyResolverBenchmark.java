@@ -0,0 +1,109 @@
+package com.trafficguard.benchmark;
+
+import com.trafficguard.annotation.TrafficGuard;
+import com.trafficguard.annotation.UserRateLimit;
+import com.trafficguard.core.DefaultTrafficKeyResolver;
+import com.trafficguard.core.GuardDescriptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * DefaultTrafficKeyResolver 의 사용자 ID 추출 (헤더 / JSON body / form body).
+ *
+ * body 는 이미 캐싱된 byte[] 를 넘기므로 요청 스트림 읽기 비용은 포함하지 않습니다.
+ * padding 은 사용자 ID 필드 앞에 오는 다른 필드의 바이트 수입니다 (스트리밍 파서가 건너뛰는 양).
+ */
+@State(Scope.Benchmark)
+public class KeyResolverBenchmark {
+
+    static class Handlers {
+        @TrafficGuard
+        @UserRateLimit(rate = 10, burst = 10)
+        public void header() {
+        }
+
+        @TrafficGuard
+        @UserRateLimit(rate = 10, burst = 10, userBodyField = "userId", userSource = UserRateLimit.UserIdSource.BODY_ONLY)
+        public void body() {
+        }
+
+        @TrafficGuard
+        @UserRateLimit(rate = 10, burst = 10, userBodyField = "/header/memberNo", userSource = UserRateLimit.UserIdSource.BODY_ONLY)
+        public void pointer() {
+        }
+    }
+
+    @Param({"0", "4096"})
+    public int padding;
+
+    private final DefaultTrafficKeyResolver resolver = new DefaultTrafficKeyResolver();
+
+    private GuardDescriptor header;
+    private GuardDescriptor body;
+    private GuardDescriptor pointer;
+
+    private Function<String, String> headers;
+    private Function<String, String> formHeaders;
+    private Supplier<byte[]> jsonBody;
+    private Supplier<byte[]> nestedBody;
+    private Supplier<byte[]> formBody;
+
+    @Setup
+    public void setUp() throws Exception {
+        header = descriptor("header");
+        body = descriptor("body");
+        pointer = descriptor("pointer");
+
+        Map<String, String> h = new HashMap<>();
+        h.put("openapi-mem-no", "12345");
+        h.put("Content-Type", "application/json");
+        headers = h::get;
+        Map<String, String> f = new HashMap<>(h);
+        f.put("Content-Type", "application/x-www-form-urlencoded");
+        formHeaders = f::get;
+
+        char[] pad = new char[padding];
+        Arrays.fill(pad, 'x');
+        String filler = new String(pad);
+        byte[] json = ("{\"memo\":\"" + filler + "\",\"items\":[1,2,3],\"userId\":\"mem:12345\"}").getBytes(StandardCharsets.UTF_8);
+        byte[] nested = ("{\"memo\":\"" + filler + "\",\"header\":{\"channel\":\"app\",\"memberNo\":\"12345\"}}").getBytes(StandardCharsets.UTF_8);
+        byte[] form = ("memo=" + filler + "&items=1%2C2%2C3&userId=mem%3A12345").getBytes(StandardCharsets.UTF_8);
+        jsonBody = () -> json;
+        nestedBody = () -> nested;
+        formBody = () -> form;
+    }
+
+    private static GuardDescriptor descriptor(String name) throws NoSuchMethodException {
+        return GuardDescriptor.of(Handlers.class.getMethod(name), "Handlers:" + name);
+    }
+
+    @Benchmark
+    public String header() {
+        return resolver.userId(header, headers, () -> null);
+    }
+
+    @Benchmark
+    public String jsonField() {
+        return resolver.userId(body, headers, jsonBody);
+    }
+
+    @Benchmark
+    public String jsonPointer() {
+        return resolver.userId(pointer, headers, nestedBody);
+    }
+
+    @Benchmark
+    public String formField() {
+        return resolver.userId(body, formHeaders, formBody);
+    }
+}
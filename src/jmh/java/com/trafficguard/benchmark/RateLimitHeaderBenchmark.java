@@ -0,0 +1,58 @@
+package com.trafficguard.benchmark;
+
+import com.trafficguard.core.JoinPointContext;
+import com.trafficguard.core.RateLimitHeaderSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.function.BiConsumer;
+
+/**
+ * RateLimitHeaderSupport 의 응답 헤더 쓰기.
+ *
+ * - servlet: RequestContextHolder 에서 응답을 찾아 setHeader
+ * - writer: JoinPointContext 에 담긴 writer (WebFlux 경로). 헤더 저장 비용을 빼기 위해 Blackhole 로 보냅니다.
+ */
+@State(Scope.Thread)
+public class RateLimitHeaderBenchmark {
+
+    private final RateLimitHeaderSupport support = new RateLimitHeaderSupport();
+    private JoinPointContext ctx;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole bh) {
+        RequestContextHolder.setRequestAttributes(
+                new ServletRequestAttributes(new MockHttpServletRequest(), new MockHttpServletResponse()));
+        ctx = new JoinPointContext("bench:headers", "mem:12345", null);
+        ctx.put(RateLimitHeaderSupport.HEADER_WRITER_ATTR, (BiConsumer<String, String>) (name, value) -> bh.consume(value));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public void servletAllowed() {
+        support.writeHeaders(100, 42.7, 0);
+    }
+
+    @Benchmark
+    public void servletDenied() {
+        support.writeHeaders(100, 0, 1500);
+    }
+
+    @Benchmark
+    public boolean writerAllowed() {
+        return RateLimitHeaderSupport.writeHeaders(ctx, 100, 42.7, 0);
+    }
+}
@@ -0,0 +1,91 @@
+package com.trafficguard.benchmark;
+
+import com.trafficguard.TrafficGuardApplication;
+import com.trafficguard.core.RedisGuard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RedisGuard 판정 1건의 왕복 비용 (스크립트 실행 + 응답 파싱).
+ *
+ * 로컬 Redis(기본 redis://localhost:6379, ./gradlew jmh -PbenchRedis=... 로 변경)에 붙습니다.
+ * - keys=hot: 모든 스레드가 같은 버킷 (한 키에 몰리는 경우)
+ * - keys=spread: 스레드마다 다른 버킷
+ * *Contended 는 16 스레드로 같은 RedissonClient 를 공유합니다.
+ */
+@State(Scope.Benchmark)
+public class RedisGuardBenchmark {
+
+    private static final int BURST = 1_000_000_000;
+    private static final double RATE_PER_SEC = 1_000_000_000.0;
+    private static final long TTL_MILLIS = 60_000;
+
+    @Param({"hot", "spread"})
+    public String keys;
+
+    private ConfigurableApplicationContext context;
+    private RedisGuard redisGuard;
+    private final AtomicInteger threads = new AtomicInteger();
+    private final String run = "bench:jmh:" + System.currentTimeMillis();
+
+    @Setup
+    public void setUp() {
+        String redis = System.getProperty("trafficguard.bench.redis", "redis://localhost:6379");
+        context = new SpringApplicationBuilder(TrafficGuardApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.redis.properties.master-host=" + redis,
+                        "spring.redis.properties.slave-host=" + redis,
+                        "logging.level.com.trafficguard=WARN")
+                .run();
+        redisGuard = context.getBean(RedisGuard.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Bucket {
+        String key;
+
+        @Setup
+        public void setUp(RedisGuardBenchmark bench) {
+            key = "hot".equals(bench.keys)
+                    ? bench.run + ":hot"
+                    : bench.run + ":t" + bench.threads.incrementAndGet();
+        }
+    }
+
+    @Benchmark
+    public RedisGuard.RateDecision tokenBucket(Bucket bucket) {
+        return redisGuard.tokenBucketAllow(bucket.key, RATE_PER_SEC, BURST, TTL_MILLIS);
+    }
+
+    @Benchmark
+    public RedisGuard.RateDecision gcra(Bucket bucket) {
+        return redisGuard.gcraAllow(bucket.key + ":gcra", RATE_PER_SEC, BURST, TTL_MILLIS);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public RedisGuard.RateDecision tokenBucketContended(Bucket bucket) {
+        return redisGuard.tokenBucketAllow(bucket.key, RATE_PER_SEC, BURST, TTL_MILLIS);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public RedisGuard.RateDecision gcraContended(Bucket bucket) {
+        return redisGuard.gcraAllow(bucket.key + ":gcra", RATE_PER_SEC, BURST, TTL_MILLIS);
+    }
+}
@@ -0,0 +1,34 @@
+package com.trafficguard.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 엔드포인트 전체(모든 사용자, 모든 노드 합산) 제한. 예: export API 초당 500회.
+ * 버킷을 shards 개의 하위 버킷(rate/shards, burst/shards)으로 나눠 키 하나에 트래픽이 몰리지 않게 합니다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface GlobalRateLimit {
+    /** 전체 허용 속도 (예: 500) */
+    int rate();
+    /** 시간 단위 */
+    UserRateLimit.TimeUnit timeUnit() default UserRateLimit.TimeUnit.SECOND;
+    /** 전체 버스트. 0이면 rate 와 같음 */
+    int burst() default 0;
+    /** Redis 키 TTL(ms) */
+    long ttlMillis() default 60000L;
+    /** 하위 버킷 수. 하위 버킷마다 버스트가 1 이상이 되도록 burst 를 넘지 않게 줄어듦 */
+    int shards() default 1;
+    /** 하위 버킷 선택 방식 */
+    ShardStrategy strategy() default ShardStrategy.ROUND_ROBIN;
+    /** 선택한 하위 버킷이 비었을 때 시도할 다른 하위 버킷 수 */
+    int maxFallback() default 2;
+
+    enum ShardStrategy {
+        HASH,        // 노드별 고정 하위 버킷 (노드 ID 해시)
+        ROUND_ROBIN  // 요청마다 다음 하위 버킷
+    }
+}
@@ -1,16 +1,18 @@
 package com.trafficguard.annotation;
 
 import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
+@Repeatable(UserRateLimits.class)
 public @interface UserRateLimit {
     /** 허용 속도 (예: 20) */
     int rate();
-    /** 시간 단위 (예: SECOND, MINUTE, HOUR) */
+    /** 시간 단위 (예: SECOND, MINUTE, HOUR, DAY, MONTH) */
     TimeUnit timeUnit() default TimeUnit.SECOND;
     /** 허용 버스트 b (짧은 순간 추가 여유), heavy API면 작게 (2~5 권장) */
     int burst() default 3;
@@ -18,11 +20,24 @@ public @interface UserRateLimit {
     long ttlMillis() default 60000L;
     /** RateLimit 헤더 추가 여부 */
     boolean emitHeaders() default true;
+    /** 버킷 저장소: REDIS(클러스터 전체 공유), LOCAL(노드 단위, Redis 호출 없음), HYBRID(Redis 토큰 리스) */
+    Backend backend() default Backend.REDIS;
+    /**
+     * 제한 알고리즘 (backend = REDIS 에서 적용). GCRA 는 키당 정수 하나로 Token Bucket 과 같은 결과,
+     * SLIDING_WINDOW 는 timeUnit 윈도 동안 rate 건, CALENDAR_WINDOW 는 달력 기준 timeUnit(일/월) 마다 rate 건 (burst 미사용)
+     */
+    Algorithm algorithm() default Algorithm.TOKEN_BUCKET;
+    /** 리소스 전체(모든 사용자 합산) 허용 속도, timeUnit 기준. 0이면 전역 제한 없음 */
+    int globalRate() default 0;
+    /** 전역 제한 버스트. 0이면 globalRate 와 같음 */
+    int globalBurst() default 0;
+    /** CALENDAR_WINDOW 의 타임존 (예: Asia/Seoul). 비어 있으면 traffic-guard.calendar-zone */
+    String zone() default "";
     
     // === 사용자 식별 관련 ===
     /** 사용자 식별 헤더명 (기본값: openapi-mem-no) */
     String userHeader() default "openapi-mem-no";
-    /** Request Body에서 사용자 ID 필드명 (선택사항) */
+    /** Request Body에서 사용자 ID 필드명 또는 JSON pointer (예: "/header/memberNo", 선택사항). form-urlencoded body 는 파라미터명 */
     String userBodyField() default "";
     /** 사용자 ID 추출 우선순위: HEADER_FIRST, BODY_FIRST */
     UserIdSource userSource() default UserIdSource.HEADER_FIRST;
@@ -34,11 +49,25 @@ public @interface UserRateLimit {
         BODY_ONLY      // body만
     }
     
+    enum Backend {
+        REDIS,  // Redis Lua 스크립트 (모든 노드가 하나의 버킷 공유)
+        LOCAL,  // 인메모리 lock-free 버킷 (노드별 독립 제한)
+        HYBRID  // Redis 버킷에서 토큰을 묶음으로 빌려와 로컬에서 소비
+    }
+    
+    enum Algorithm {
+        TOKEN_BUCKET,   // token-bucket.lua
+        GCRA,           // gcra.lua (TAT 정수 하나, 허용 시에만 쓰기)
+        SLIDING_WINDOW, // sliding-window.lua (이전/현재 윈도 카운터 가중합)
+        CALENDAR_WINDOW // fixed-window.lua (달력 기준 고정 윈도, INCR 1회 + 윈도 끝 만료)
+    }
+    
     enum TimeUnit {
         SECOND(1),     // 초
         MINUTE(60),    // 분
         HOUR(3600),    // 시간
-        DAY(86400);    // 일
+        DAY(86400),    // 일
+        MONTH(2592000); // 월 (rate 환산 시 30일 기준, CALENDAR_WINDOW 는 실제 달력 월)
         
         private final int seconds;
         
@@ -0,0 +1,16 @@
+package com.trafficguard.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * @UserRateLimit 여러 개를 한 메서드에 지정할 때의 컨테이너 (예: 20/s AND 1000/hour AND 10000/day).
+ * 모든 제한을 한 번의 Lua 호출로 판정하며, 하나라도 거절하면 어느 버킷도 차감하지 않습니다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface UserRateLimits {
+    UserRateLimit[] value();
+}
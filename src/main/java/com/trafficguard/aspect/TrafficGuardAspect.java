@@ -4,38 +4,53 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import com.trafficguard.core.GuardDescriptor;
+import com.trafficguard.core.GuardDescriptorRegistry;
 import com.trafficguard.core.JoinPointContext;
 import com.trafficguard.core.TrafficKeyResolver;
 import com.trafficguard.exception.*;
+import com.trafficguard.metrics.TrafficGuardMetrics;
 import com.trafficguard.policy.GuardPolicy;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.lang.reflect.Method;
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Aspect
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET) // WebFlux 는 TrafficGuardWebFilter
+@ConditionalOnProperty(prefix = "traffic-guard", name = "enforcement", havingValue = "ASPECT", matchIfMissing = true)
 @Order(0)
 public class TrafficGuardAspect {
-    private final List<GuardPolicy> policies;
+    private final GuardDescriptorRegistry descriptors;
     private final TrafficKeyResolver keyResolver;
+    private final TrafficGuardMetrics metrics;
+
+    @Autowired
+    public TrafficGuardAspect(GuardDescriptorRegistry descriptors, TrafficGuardMetrics metrics) {
+        this.descriptors = descriptors;
+        this.keyResolver = descriptors.keyResolver();
+        this.metrics = metrics;
+    }
+
+    public TrafficGuardAspect(GuardDescriptorRegistry descriptors) {
+        this(descriptors, TrafficGuardMetrics.NOOP);
+    }
 
     public TrafficGuardAspect(List<GuardPolicy> policies, TrafficKeyResolver resolver) {
-        this.policies = policies.stream()
-                .sorted(Comparator.comparingInt(GuardPolicy::order))
-                .collect(Collectors.toList());
-        this.keyResolver = resolver;
+        this(new GuardDescriptorRegistry(policies, resolver));
     }
 
     @Around("@annotation(com.trafficguard.annotation.TrafficGuard)")
@@ -43,9 +58,8 @@ public class TrafficGuardAspect {
         Method method = ((MethodSignature) pjp.getSignature()).getMethod();
 
         try {
-            List<GuardPolicy> chain = policies.stream()
-                    .filter(p -> p.supports(method))
-                    .collect(Collectors.toList());
+            GuardDescriptor descriptor = descriptors.get(method);
+            List<GuardPolicy> chain = descriptor.chain();
 
             // 지원하는 GuardPolicy가 없으면 그냥 진행 (TrafficKeyResolver 호출하지 않음) -> 로깅만
             if (chain.isEmpty()) {
@@ -54,17 +68,29 @@ public class TrafficGuardAspect {
             }
 
             JoinPointContext ctx = new JoinPointContext(
-                    keyResolver.resourceKey(method),
-                    keyResolver.userId(method),
+                    descriptor,
+                    keyResolver.userId(descriptor),
                     keyResolver.planId()
             );
 
-            for (GuardPolicy p : chain) p.before(method, ctx);
-
+            // before 를 통과한 정책만 after 호출 (뒤 정책이 거절해도 앞에서 얻은 permit 반납)
+            TrafficGuardMetrics.PolicyMeters[] meters = metrics.meters(descriptor);
+            int entered = 0;
             try {
+                for (GuardPolicy p : chain) {
+                    long start = System.nanoTime();
+                    try {
+                        p.before(method, ctx);
+                    } catch (RateLimitExceededException e) {
+                        meters[entered].denied(start);
+                        throw e;
+                    }
+                    meters[entered].allowed(start, ctx.consumeFailedOpen());
+                    entered++;
+                }
                 return pjp.proceed();
             } finally {
-                for (int i = chain.size() - 1; i >= 0; i--) {
+                for (int i = entered - 1; i >= 0; i--) {
                     chain.get(i).after(method, ctx);
                 }
             }
@@ -77,6 +103,9 @@ public class TrafficGuardAspect {
         } catch (InvalidRequestException e) {
             log.warn("TrafficGuardAspect - InvalidRequestException: {}", e.getMessage());
             return handleException(HttpStatus.BAD_REQUEST, "BAD_REQUEST", e.getMessage());
+        } catch (PayloadTooLargeException e) {
+            log.warn("TrafficGuardAspect - PayloadTooLargeException: {}", e.getMessage());
+            return handleException(HttpStatus.PAYLOAD_TOO_LARGE, "PAYLOAD_TOO_LARGE", e.getMessage());
         } catch (InternalTrafficException e) {
             log.error("TrafficGuardAspect - InternalTrafficException: {}", e.getMessage());
             return handleException(HttpStatus.INTERNAL_SERVER_ERROR, "INTERNAL_SERVER_ERROR", e.getMessage());
@@ -0,0 +1,28 @@
+package com.trafficguard.config;
+
+import com.trafficguard.core.DefaultTrafficKeyResolver;
+import com.trafficguard.core.GuardDescriptorRegistry;
+import com.trafficguard.filter.TrafficGuardWebFilter;
+import com.trafficguard.metrics.TrafficGuardMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.HandlerMapping;
+
+/**
+ * WebFlux(spring.main.web-application-type=reactive) 에서는 AOP 대신 WebFilter 로 @TrafficGuard 를 적용합니다.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTrafficGuardConfig {
+    @Bean
+    public TrafficGuardWebFilter trafficGuardWebFilter(GuardDescriptorRegistry guardDescriptorRegistry,
+                                                       DefaultTrafficKeyResolver defaultTrafficKeyResolver,
+                                                       @Qualifier("requestMappingHandlerMapping") HandlerMapping requestMappingHandlerMapping,
+                                                       TrafficGuardMetrics trafficGuardMetrics,
+                                                       TrafficGuardProperties properties) {
+        return new TrafficGuardWebFilter(guardDescriptorRegistry, defaultTrafficKeyResolver, requestMappingHandlerMapping, trafficGuardMetrics,
+                properties.getBody().getMaxBytes());
+    }
+}
@@ -1,5 +1,6 @@
 package com.trafficguard.config;
 
+import com.trafficguard.core.RedisShardRing;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.redisson.Redisson;
@@ -16,12 +17,20 @@ import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import javax.annotation.PreDestroy;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RequiredArgsConstructor
 @Configuration
 public class RedisConfig {
+    /** SHARDED 모드에서 첫 번째를 제외한 샤드 클라이언트 (첫 번째는 redisson 빈) */
+    private final List<RedissonClient> shardClients = new ArrayList<>();
+
     @Bean
     @ConfigurationProperties(prefix = "spring.redis.properties")
     public RedisProperties redisProperties() {
@@ -40,14 +49,53 @@ public class RedisConfig {
     @ConditionalOnBean(RedisProperties.class)
     public RedissonClient redisson(RedisProperties redisProperties) throws IOException {
         Config config = new Config();
-        config.useMasterSlaveServers()
-                .setMasterAddress(redisProperties.getMasterHost())
-                .addSlaveAddress(redisProperties.getSlaveHost())
-                .setReadMode(ReadMode.SLAVE);
+        if (redisProperties.getMode() == Mode.CLUSTER) {
+            // 스크립트는 첫 번째 키의 슬롯을 가진 마스터로 라우팅됨 (RedisGuard 가 한 호출의 키를 같은 슬롯에 둠)
+            config.useClusterServers()
+                    .addNodeAddress(redisProperties.getNodes().toArray(new String[0]))
+                    .setReadMode(ReadMode.SLAVE);
+        } else if (redisProperties.getMode() == Mode.SHARDED) {
+            // 기본 클라이언트(RedisTemplate, StringRedisTemplate, RedisUtil)는 첫 번째 노드에 고정. limiter 스크립트만 redisShardRing 으로 나뉨
+            config.useSingleServer().setAddress(redisProperties.getNodes().get(0));
+        } else {
+            config.useMasterSlaveServers()
+                    .setMasterAddress(redisProperties.getMasterHost())
+                    .addSlaveAddress(redisProperties.getSlaveHost())
+                    .setReadMode(ReadMode.SLAVE);
+        }
 
         return Redisson.create(config);
     }
 
+    /**
+     * limiter 스크립트를 보낼 Redis 마스터 링.
+     * SHARDED 면 nodes 마다 독립 클라이언트를 두고 consistent hashing 으로 나누며, 그 외에는 redisson 하나뿐인 링입니다.
+     */
+    @Bean
+    public RedisShardRing<RedissonClient> redisShardRing(RedisProperties redisProperties, RedissonClient redisson) {
+        if (!redisProperties.isSharded()) {
+            return new RedisShardRing<>(Collections.singletonMap("default", redisson), 1);
+        }
+        Map<String, RedissonClient> shards = new LinkedHashMap<>();
+        for (String node : redisProperties.getNodes()) {
+            if (shards.isEmpty()) {
+                shards.put(node, redisson);
+                continue;
+            }
+            Config config = new Config();
+            config.useSingleServer().setAddress(node);
+            RedissonClient client = Redisson.create(config);
+            shardClients.add(client);
+            shards.put(node, client);
+        }
+        return new RedisShardRing<>(shards, redisProperties.getVirtualNodes());
+    }
+
+    @PreDestroy
+    public void shutdownShardClients() {
+        shardClients.forEach(RedissonClient::shutdown);
+    }
+
     @Bean
     public StringRedisTemplate stringRedisTemplate(RedissonConnectionFactory redissonConnectionFactory) {
         StringRedisTemplate redisTemplate = new StringRedisTemplate();
@@ -70,10 +118,29 @@ public class RedisConfig {
         return redisTemplate;
     }
 
+    public enum Mode {
+        MASTER_SLAVE,  // master-host + slave-host
+        CLUSTER,       // Redis Cluster (nodes 중 일부만 적어도 나머지는 자동 탐색)
+        SHARDED        // 독립 마스터 목록(nodes), 클라이언트 consistent hashing 으로 limiter 키를 나눔
+    }
+
     @Data
     public static class RedisProperties {
+        private Mode mode = Mode.MASTER_SLAVE;
         private String masterHost;
         private String slaveHost;
+        /** CLUSTER: 시드 노드, SHARDED: 독립 마스터 (예: redis://10.0.0.1:6379). SHARDED 는 주소가 링 위치를 정하므로 순서/표기를 바꾸지 않음 */
+        private List<String> nodes = new ArrayList<>();
+        /** SHARDED: 마스터당 링 위의 가상 노드 수 (클수록 고르게 나뉨) */
+        private int virtualNodes = 160;
+
+        public boolean isCluster() {
+            return mode == Mode.CLUSTER;
+        }
+
+        public boolean isSharded() {
+            return mode == Mode.SHARDED;
+        }
     }
 
     /**
@@ -86,6 +153,105 @@ public class RedisConfig {
     public DefaultRedisScript<List<Object>> tokenBucketScript() {
         return RedisScriptLoader.loadTokenBucketScript();
     }
+
+    /**
+     * 단일 키 Token Bucket 스크립트 (traffic-guard.bucket-format=PACKED)
+     * KEYS[1]=bucket, KEYS[2]=legacy tokens, KEYS[3]=legacy ts (이관 시에만)
+     * ARGV[1]=ratePerSec, ARGV[2]=burst, ARGV[3]=nowMs, ARGV[4]=ttlMs
+     * return {allowed(0/1), microTokens(int), retryAfterMs(int)}
+     */
+    @Bean
+    public DefaultRedisScript<List<Object>> tokenBucketPackedScript() {
+        return RedisScriptLoader.loadPackedTokenBucketScript();
+    }
+
+    /**
+     * GCRA 스크립트 (algorithm = GCRA)
+     * KEYS[1]=tat
+     * ARGV[1]=emissionIntervalUs, ARGV[2]=burst, ARGV[3]=nowUs
+     * return {allowed(0/1), remaining(int), retryAfterMs(int)}
+     */
+    @Bean
+    public DefaultRedisScript<List<Object>> gcraScript() {
+        return RedisScriptLoader.loadGcraScript();
+    }
+
+    /**
+     * Sliding Window Counter 스크립트 (algorithm = SLIDING_WINDOW)
+     * KEYS[1]=current window counter, KEYS[2]=previous window counter
+     * ARGV[1]=limit, ARGV[2]=windowMs, ARGV[3]=elapsedMs
+     * return {allowed(0/1), remaining(int), retryAfterMs(int)}
+     */
+    @Bean
+    public DefaultRedisScript<List<Object>> slidingWindowScript() {
+        return RedisScriptLoader.loadSlidingWindowScript();
+    }
+
+    /**
+     * Calendar Fixed Window 스크립트 (algorithm = CALENDAR_WINDOW)
+     * KEYS[1]=window counter
+     * ARGV[1]=limit, ARGV[2]=windowEndMs, ARGV[3]=nowMs
+     * return {allowed(0/1), remaining(int), retryAfterMs(int)}
+     */
+    @Bean
+    public DefaultRedisScript<List<Object>> fixedWindowScript() {
+        return RedisScriptLoader.loadFixedWindowScript();
+    }
+
+    /**
+     * Semaphore Lease 스크립트 (@GlobalSemaphore)
+     * KEYS[1]=holders hash, KEYS[2]=expiry zset
+     * ARGV[1]=permits, ARGV[2]=holderId, ARGV[3]=desired, ARGV[4]=nowMs, ARGV[5]=leaseMs
+     * return {held(int), available(int)}
+     */
+    @Bean
+    public DefaultRedisScript<List<Object>> semaphoreLeaseScript() {
+        return RedisScriptLoader.loadSemaphoreLeaseScript();
+    }
+
+    /**
+     * User Semaphore 스크립트 (@UserSemaphore)
+     * KEYS[1]=lease zset
+     * ARGV[1]=permits, ARGV[2]=leaseId, ARGV[3]=nowMs, ARGV[4]=leaseMs, ARGV[5..]=released leaseIds
+     * return {acquired(0/1), remaining(int)}
+     */
+    @Bean
+    public DefaultRedisScript<List<Object>> userSemaphoreScript() {
+        return RedisScriptLoader.loadUserSemaphoreScript();
+    }
+
+    /**
+     * Multi Token Bucket 스크립트 (여러 제한을 한 번에, all-or-nothing)
+     * KEYS[1..n]=bucket
+     * ARGV[1]=nowMs, ARGV[2+3(i-1)..]=ratePerSec, burst, ttlMs
+     * return {allowed(0/1), microTokens(int), retryAfterMs(int), limitingIndex(1-based)}
+     */
+    @Bean
+    public DefaultRedisScript<List<Object>> multiTokenBucketScript() {
+        return RedisScriptLoader.loadMultiTokenBucketScript();
+    }
+
+    /**
+     * Batch Token Bucket 스크립트 (micro-batching, 요청별 독립 판정)
+     * KEYS[i]=bucket (중복 가능)
+     * ARGV[1]=nowMs, ARGV[2+3(i-1)..]=ratePerSec, burst, ttlMs
+     * return {allowed1, microTokens1, retryAfterMs1, allowed2, ...}
+     */
+    @Bean
+    public DefaultRedisScript<List<Object>> batchTokenBucketScript() {
+        return RedisScriptLoader.loadBatchTokenBucketScript();
+    }
+
+    /**
+     * Token Lease 스크립트 (HYBRID backend)
+     * KEYS[1]=bucket
+     * ARGV[1]=ratePerSec, ARGV[2]=burst, ARGV[3]=nowMs, ARGV[4]=ttlMs, ARGV[5]=requested, ARGV[6]=returned
+     * return {granted(int), microTokens(int), retryAfterMs(int)}
+     */
+    @Bean
+    public DefaultRedisScript<List<Object>> tokenLeaseScript() {
+        return RedisScriptLoader.loadTokenLeaseScript();
+    }
 }
 
 
@@ -46,6 +46,87 @@ public class RedisScriptLoader {
     public static DefaultRedisScript<List<Object>> loadTokenBucketScript() {
         return loadScript("token-bucket.lua");
     }
+
+    /**
+     * 단일 키(고정소수점) 포맷 Token Bucket 스크립트를 로드합니다.
+     *
+     * @return 단일 키 Token Bucket용 DefaultRedisScript
+     */
+    public static DefaultRedisScript<List<Object>> loadPackedTokenBucketScript() {
+        return loadScript("token-bucket-packed.lua");
+    }
+
+    /**
+     * GCRA 스크립트를 로드합니다.
+     *
+     * @return GCRA용 DefaultRedisScript
+     */
+    public static DefaultRedisScript<List<Object>> loadGcraScript() {
+        return loadScript("gcra.lua");
+    }
+
+    /**
+     * Sliding Window Counter 스크립트를 로드합니다.
+     *
+     * @return Sliding Window Counter용 DefaultRedisScript
+     */
+    public static DefaultRedisScript<List<Object>> loadSlidingWindowScript() {
+        return loadScript("sliding-window.lua");
+    }
+
+    /**
+     * 달력 기준 고정 윈도 스크립트를 로드합니다.
+     *
+     * @return Calendar Fixed Window용 DefaultRedisScript
+     */
+    public static DefaultRedisScript<List<Object>> loadFixedWindowScript() {
+        return loadScript("fixed-window.lua");
+    }
+
+    /**
+     * 분산 세마포어 리스 스크립트를 로드합니다.
+     *
+     * @return Semaphore Lease용 DefaultRedisScript
+     */
+    public static DefaultRedisScript<List<Object>> loadSemaphoreLeaseScript() {
+        return loadScript("semaphore-lease.lua");
+    }
+
+    /**
+     * 사용자 세마포어 스크립트를 로드합니다.
+     *
+     * @return User Semaphore용 DefaultRedisScript
+     */
+    public static DefaultRedisScript<List<Object>> loadUserSemaphoreScript() {
+        return loadScript("user-semaphore.lua");
+    }
+
+    /**
+     * 다중 토큰 버킷(all-or-nothing) 스크립트를 로드합니다.
+     *
+     * @return Multi Token Bucket용 DefaultRedisScript
+     */
+    public static DefaultRedisScript<List<Object>> loadMultiTokenBucketScript() {
+        return loadScript("multi-token-bucket.lua");
+    }
+
+    /**
+     * 배치 토큰 버킷(micro-batching) 스크립트를 로드합니다.
+     *
+     * @return Batch Token Bucket용 DefaultRedisScript
+     */
+    public static DefaultRedisScript<List<Object>> loadBatchTokenBucketScript() {
+        return loadScript("batch-token-bucket.lua");
+    }
+
+    /**
+     * Token Lease(HYBRID) 스크립트를 로드합니다.
+     *
+     * @return Token Lease용 DefaultRedisScript
+     */
+    public static DefaultRedisScript<List<Object>> loadTokenLeaseScript() {
+        return loadScript("token-lease.lua");
+    }
 }
 
 
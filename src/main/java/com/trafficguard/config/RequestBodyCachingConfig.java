@@ -0,0 +1,25 @@
+package com.trafficguard.config;
+
+import com.trafficguard.filter.RequestBodyCachingFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * 서블릿 앱의 request body 캐싱. enforcement(ASPECT/INTERCEPTOR)와 관계없이 필터 단계에서 요청을 감싸
+ * 사용자 ID 추출과 @RequestBody 가 같은 body 를 읽게 합니다.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RequestBodyCachingConfig {
+
+    @Bean
+    public FilterRegistrationBean<RequestBodyCachingFilter> requestBodyCachingFilter(TrafficGuardProperties properties) {
+        FilterRegistrationBean<RequestBodyCachingFilter> registration =
+                new FilterRegistrationBean<>(new RequestBodyCachingFilter(properties.getBody().getMaxBytes()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+        return registration;
+    }
+}
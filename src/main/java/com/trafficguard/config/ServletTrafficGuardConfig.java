@@ -0,0 +1,30 @@
+package com.trafficguard.config;
+
+import com.trafficguard.core.GuardDescriptorRegistry;
+import com.trafficguard.filter.TrafficGuardHandlerInterceptor;
+import com.trafficguard.metrics.TrafficGuardMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 서블릿 앱에서 traffic-guard.enforcement=INTERCEPTOR 이면 AOP 대신 HandlerInterceptor 로 @TrafficGuard 를 적용합니다.
+ * 거절되는 요청은 인자 바인딩(@RequestBody 역직렬화) 비용을 치르지 않습니다.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "traffic-guard", name = "enforcement", havingValue = "INTERCEPTOR")
+public class ServletTrafficGuardConfig implements WebMvcConfigurer {
+    private final TrafficGuardHandlerInterceptor trafficGuardHandlerInterceptor;
+
+    public ServletTrafficGuardConfig(GuardDescriptorRegistry guardDescriptorRegistry, TrafficGuardMetrics trafficGuardMetrics) {
+        this.trafficGuardHandlerInterceptor = new TrafficGuardHandlerInterceptor(guardDescriptorRegistry, trafficGuardMetrics);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(trafficGuardHandlerInterceptor);
+    }
+}
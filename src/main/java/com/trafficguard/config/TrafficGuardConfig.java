@@ -0,0 +1,64 @@
+package com.trafficguard.config;
+
+import com.trafficguard.annotation.TrafficGuard;
+import com.trafficguard.core.DecisionBatcher;
+import com.trafficguard.core.DeniedBucketCache;
+import com.trafficguard.core.GuardDescriptorRegistry;
+import com.trafficguard.core.RedisGuard;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+@Configuration
+public class TrafficGuardConfig {
+    @Bean
+    @ConfigurationProperties(prefix = "traffic-guard")
+    public TrafficGuardProperties trafficGuardProperties() {
+        return new TrafficGuardProperties();
+    }
+
+    /**
+     * 토큰 버킷 판정 micro-batching (RedisGuard 가 PACKED 포맷에서 사용).
+     * 배치는 RedisGuard 로 실행하고 RedisGuard 는 이 빈을 주입받으므로, 실행 시점에 ObjectProvider 로 찾습니다.
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "traffic-guard.batch", name = "enabled", havingValue = "true")
+    public DecisionBatcher decisionBatcher(TrafficGuardProperties properties, ObjectProvider<RedisGuard> redisGuard) {
+        TrafficGuardProperties.Batch batch = properties.getBatch();
+        return new DecisionBatcher(buckets -> redisGuard.getObject().batchTokenBucketAllow(buckets),
+                batch.getWindowMicros(), batch.getMaxBatchSize(), batch.getMaxInFlight());
+    }
+
+    /** 거절된 버킷 로컬 캐시 */
+    @Bean
+    @ConditionalOnProperty(prefix = "traffic-guard.denied-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public DeniedBucketCache deniedBucketCache(TrafficGuardProperties properties) {
+        return new DeniedBucketCache(properties.getDeniedCache().getMaxSize());
+    }
+
+    /**
+     * 시작 시 빈의 @TrafficGuard 메서드마다 GuardDescriptor 를 미리 만듭니다.
+     * 잘못된 어노테이션 조합은 첫 요청이 아니라 애플리케이션 시작에서 실패합니다.
+     */
+    @Bean
+    public SmartInitializingSingleton guardDescriptorPreloader(ConfigurableListableBeanFactory beanFactory,
+                                                               GuardDescriptorRegistry guardDescriptorRegistry) {
+        return () -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                Class<?> type = beanFactory.getType(name, false);
+                if (type == null) {
+                    continue;
+                }
+                ReflectionUtils.doWithMethods(ClassUtils.getUserClass(type), guardDescriptorRegistry::get,
+                        m -> AnnotationUtils.findAnnotation(m, TrafficGuard.class) != null);
+            }
+        };
+    }
+}
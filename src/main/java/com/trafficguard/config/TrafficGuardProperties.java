@@ -0,0 +1,151 @@
+package com.trafficguard.config;
+
+import com.trafficguard.annotation.UserRateLimit;
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * traffic-guard.* 설정
+ */
+@Data
+public class TrafficGuardProperties {
+    /** 서블릿 앱에서 정책을 실행하는 위치 */
+    private Enforcement enforcement = Enforcement.ASPECT;
+    /** Redis 토큰 버킷 저장 포맷 */
+    private BucketFormat bucketFormat = BucketFormat.PACKED;
+    /** PACKED 포맷 사용 시, 단일 키가 없으면 2-key 포맷 키를 읽어 이관 (이관 완료 후 false 로 두면 GET 2회 절약) */
+    private boolean migrateLegacyBuckets = true;
+    private Lease lease = new Lease();
+    private Semaphore semaphore = new Semaphore();
+    private UserSemaphore userSemaphore = new UserSemaphore();
+    private Batch batch = new Batch();
+    private DeniedCache deniedCache = new DeniedCache();
+    private Scripts scripts = new Scripts();
+    private Body body = new Body();
+    /** 테넌트(planId)별 리소스당 제한. 키는 planId, "default" 는 설정되지 않은 plan 에 적용 */
+    private Map<String, PlanLimit> plans = new LinkedHashMap<>();
+    /** CALENDAR_WINDOW 기본 타임존 (어노테이션 zone 미지정 시). 비어 있으면 시스템 타임존 */
+    private String calendarZone = "";
+
+    public enum Enforcement {
+        ASPECT,      // @Around (인자 바인딩/@RequestBody 역직렬화 이후)
+        INTERCEPTOR  // HandlerInterceptor.preHandle (핸들러 매핑 직후, 인자 바인딩 이전)
+    }
+
+    public enum BucketFormat {
+        LEGACY,  // tb:<key>:tokens + tb:<key>:ts (float 문자열)
+        PACKED   // tb:<key> = "microTokens:lastTsMs" (정수)
+    }
+
+    /**
+     * HYBRID backend 의 토큰 리스 설정
+     * 노드 하나가 버킷당 최대 maxTokens 개를 ttlMillis 동안만 들고 있으므로,
+     * 전역 허용량 오차는 "노드 수 x 리스 크기" 이내로 제한됩니다.
+     */
+    @Data
+    public static class Lease {
+        /** 리스 유효시간(ms). 만료되면 남은 토큰은 Redis 버킷으로 반환 */
+        private long ttlMillis = 200;
+        /** 한 번에 빌릴 수 있는 최대 토큰 수 */
+        private int maxTokens = 50;
+        /** burst 대비 리스 크기 상한 비율 (0~1) */
+        private double maxBurstRatio = 0.5;
+    }
+
+    /**
+     * @GlobalSemaphore 설정
+     * 노드는 세마포어마다 prefetch 개까지 여분 permit 을 미리 받아 두고 로컬에서 나눠 씁니다.
+     * 보유 permit 은 heartbeat 마다 갱신되며, 노드가 죽으면 leaseMillis 후 회수됩니다.
+     */
+    @Data
+    public static class Semaphore {
+        /** 세마포어당 미리 받아 둘 여분 permit 수 (0이면 매 요청 Redis 호출) */
+        private int prefetch = 2;
+        /** 보유 permit 갱신 및 여분 반환 주기(ms) */
+        private long heartbeatMillis = 1000;
+        /** 어노테이션 leaseMillis 가 0일 때 사용할 리스 유효시간(ms). heartbeatMillis 보다 충분히 커야 함 */
+        private long defaultLeaseMillis = 10000;
+        /** tryAcquireWaitMillis 동안 재시도 간격(ms) */
+        private long retryIntervalMillis = 20;
+    }
+
+    /**
+     * @UserSemaphore 설정
+     * 반납은 응답 경로에서 Redis 를 호출하지 않고 큐에 쌓았다가 flushMillis 마다 파이프라인으로 모아 보냅니다.
+     */
+    @Data
+    public static class UserSemaphore {
+        /** 반납 큐 flush 주기(ms) */
+        private long releaseFlushMillis = 5;
+        /** 한 번에 보낼 최대 반납 수 */
+        private int releaseBatchSize = 512;
+        /** Redis 에 보내지 못하고 쌓아 둘 최대 반납 수. 넘치면 버리고 리스 만료에 맡김 */
+        private int maxPendingReleases = 100_000;
+        /** acquire 스크립트 호출에 함께 실을 같은 키 반납의 최대 수 */
+        private int maxPiggybackReleases = 256;
+    }
+
+    /**
+     * 테넌트(plan) 제한. @UserRateLimit 이 붙은 리소스마다 plan 별 버킷 하나로 평가합니다.
+     */
+    @Data
+    public static class PlanLimit {
+        /** 허용 속도 */
+        private int rate;
+        /** 시간 단위 */
+        private UserRateLimit.TimeUnit timeUnit = UserRateLimit.TimeUnit.SECOND;
+        /** 버스트. 0이면 rate 와 같음 */
+        private int burst;
+    }
+
+    /**
+     * RedisGuard.tokenBucketAllow micro-batching 설정 (bucketFormat = PACKED 에서만 동작, LEGACY 키 이관은 하지 않음)
+     * windowMicros 동안 또는 maxBatchSize 개까지 모은 판정을 스크립트 한 번으로 처리합니다.
+     */
+    @Data
+    public static class Batch {
+        private boolean enabled = false;
+        /** 첫 요청 이후 추가 요청을 기다리는 시간(us) */
+        private long windowMicros = 200;
+        /** 배치 최대 크기 */
+        private int maxBatchSize = 64;
+        /** 동시에 실행할 수 있는 배치 수 */
+        private int maxInFlight = 4;
+    }
+
+    /**
+     * 거절된 Redis 토큰 버킷의 로컬 캐시 설정
+     * 거절 응답의 retryAfterMs 동안은 같은 버킷 키 요청을 Redis 호출 없이 거절합니다.
+     */
+    @Data
+    public static class DeniedCache {
+        private boolean enabled = true;
+        /** 기억할 최대 버킷 수. 가득 차면 만료된 항목을 정리하고, 그래도 가득 차 있으면 새 거절은 기록하지 않음 */
+        private int maxSize = 100_000;
+    }
+
+    /**
+     * 리미터 Lua 스크립트 실행 설정 (RedisScriptRegistry)
+     */
+    @Data
+    public static class Scripts {
+        /** 시작 시 SCRIPT LOAD 로 모든 스크립트를 서버 캐시에 올림 */
+        private boolean preload = true;
+        /** Redis 7 이상에서 스크립트를 FUNCTION 라이브러리로 등록해 FCALL 로 호출 (등록 실패 시 EVALSHA) */
+        private boolean useFunctions = false;
+    }
+
+    /**
+     * 사용자 ID 추출을 위한 request body 캐싱 설정 (서블릿 RequestBodyCachingFilter, WebFlux TrafficGuardWebFilter)
+     */
+    @Data
+    public static class Body {
+        /**
+         * 캐싱할 최대 body 크기. JSON/폼 요청마다 최대 이만큼 힙을 씀.
+         * 넘으면(Content-Length 가 있으면 읽기 전에) body 에서 사용자 ID 를 찾는 요청을 413 으로 거절
+         */
+        private int maxBytes = 1024 * 1024;
+    }
+}
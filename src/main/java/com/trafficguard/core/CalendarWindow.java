@@ -0,0 +1,64 @@
+package com.trafficguard.core;
+
+import com.trafficguard.annotation.UserRateLimit;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 달력 기준 고정 윈도 (timeUnit 경계를 지정한 타임존의 벽시계로 정렬)
+ * 예: DAY + Asia/Seoul 이면 KST 00:00 ~ 다음날 00:00, MONTH 면 매월 1일 00:00 부터.
+ */
+public final class CalendarWindow {
+    private final long startMillis;
+    private final long endMillis;
+
+    private CalendarWindow(long startMillis, long endMillis) {
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+    }
+
+    public static CalendarWindow of(UserRateLimit.TimeUnit unit, ZoneId zone, long nowMillis) {
+        ZonedDateTime now = Instant.ofEpochMilli(nowMillis).atZone(zone);
+        ZonedDateTime start;
+        ZonedDateTime end;
+        switch (unit) {
+            case SECOND:
+                start = now.truncatedTo(ChronoUnit.SECONDS);
+                end = start.plusSeconds(1);
+                break;
+            case MINUTE:
+                start = now.truncatedTo(ChronoUnit.MINUTES);
+                end = start.plusMinutes(1);
+                break;
+            case HOUR:
+                start = now.truncatedTo(ChronoUnit.HOURS);
+                end = start.plusHours(1);
+                break;
+            case DAY:
+                // DST 전환일에도 자정 기준 (23h/25h 하루)
+                start = now.toLocalDate().atStartOfDay(zone);
+                end = now.toLocalDate().plusDays(1).atStartOfDay(zone);
+                break;
+            case MONTH:
+                start = now.toLocalDate().withDayOfMonth(1).atStartOfDay(zone);
+                end = now.toLocalDate().withDayOfMonth(1).plusMonths(1).atStartOfDay(zone);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported time unit: " + unit);
+        }
+        return new CalendarWindow(start.toInstant().toEpochMilli(), end.toInstant().toEpochMilli());
+    }
+
+    /** 윈도 시작 시각(epoch ms). 카운터 키 구분에 사용 */
+    public long startMillis() {
+        return startMillis;
+    }
+
+    /** 윈도 끝 시각(epoch ms). 카운터 키가 이 시각에 만료 */
+    public long endMillis() {
+        return endMillis;
+    }
+}
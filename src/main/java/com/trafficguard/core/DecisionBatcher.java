@@ -0,0 +1,193 @@
+package com.trafficguard.core;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 동시에 들어온 토큰 버킷 판정을 모아 스크립트 한 번으로 처리합니다 (micro-batching).
+ *
+ * - 수집 스레드는 첫 요청이 들어온 뒤 windowMicros 동안, 또는 maxBatchSize 개가 찰 때까지 요청을 모읍니다.
+ * - 모은 배치는 실행 풀(maxInFlight 개)에서 실행하므로 여러 배치가 동시에 Redis 를 기다릴 수 있습니다.
+ *   실행 풀이 모두 바쁘면 수집 스레드가 직접 실행합니다 (그동안 다음 배치가 자연스럽게 커짐).
+ * - 각 호출자는 자기 요청의 RateDecision 으로 완료됩니다.
+ *
+ * 추가 지연은 최대 windowMicros + 배치 실행 시간입니다.
+ * shutdown 과 겹친 요청도 예외로 완료되므로 (RedisGuard 에서 fail-open) 호출자가 영원히 기다리는 일은 없습니다.
+ */
+@Slf4j
+public class DecisionBatcher {
+    /** 배치 크기 분포 구간 상한: 1, 2, 4, 8, ... (마지막 구간은 그 이상) */
+    /** 배치 크기 분포 구간 수 (구간 i 는 [2^i, 2^(i+1)), 마지막 구간은 그 이상 전체) */
+    public static final int HISTOGRAM_BUCKETS = 12;
+
+    private final Function<List<RedisGuard.BucketSpec>, List<RedisGuard.RateDecision>> executor;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final ExecutorService workers;
+    private final Thread collector;
+    private final LongAdder[] histogram = new LongAdder[HISTOGRAM_BUCKETS];
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder decisions = new LongAdder();
+    private volatile boolean running = true;
+
+    public DecisionBatcher(Function<List<RedisGuard.BucketSpec>, List<RedisGuard.RateDecision>> executor,
+                           long windowMicros, int maxBatchSize, int maxInFlight) {
+        this.executor = executor;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0L, windowMicros));
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+            histogram[i] = new LongAdder();
+        }
+        // 거절된 배치는 수집 스레드가 직접 실행 (CallerRunsPolicy 는 shutdown 이후 배치를 완료하지 않고 버림)
+        this.workers = new ThreadPoolExecutor(Math.max(1, maxInFlight), Math.max(1, maxInFlight), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), r -> {
+                    Thread t = new Thread(r, "traffic-guard-batch-worker");
+                    t.setDaemon(true);
+                    return t;
+                }, (task, pool) -> task.run());
+        this.collector = new Thread(this::collect, "traffic-guard-batch-collector");
+        this.collector.setDaemon(true);
+        this.collector.start();
+    }
+
+    public CompletableFuture<RedisGuard.RateDecision> submit(RedisGuard.BucketSpec bucket) {
+        Pending p = new Pending(bucket);
+        if (!running) {
+            p.future.completeExceptionally(new IllegalStateException("batcher stopped"));
+            return p.future;
+        }
+        queue.add(p);
+        if (!running && queue.remove(p)) {
+            // running 확인과 add 사이에 shutdown 이 큐를 비운 경우 - 수집 스레드가 없으므로 직접 완료
+            p.future.completeExceptionally(new IllegalStateException("batcher stopped"));
+        }
+        return p.future;
+    }
+
+    private void collect() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                Pending first = queue.take();
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    // 이미 쌓인 요청은 대기 없이 가져오고, 비었을 때만 남은 윈도만큼 기다림
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                List<Pending> ready = batch;
+                batch = new ArrayList<>(maxBatchSize);
+                workers.execute(() -> execute(ready));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        for (Pending p : batch) {
+            p.future.completeExceptionally(new IllegalStateException("batcher stopped"));
+        }
+    }
+
+    private void execute(List<Pending> batch) {
+        record(batch.size());
+        List<RedisGuard.BucketSpec> buckets = new ArrayList<>(batch.size());
+        for (Pending p : batch) {
+            buckets.add(p.bucket);
+        }
+        try {
+            List<RedisGuard.RateDecision> results = executor.apply(buckets);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(results.get(i));
+            }
+        } catch (Exception e) {
+            for (Pending p : batch) {
+                p.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void record(int size) {
+        batches.increment();
+        decisions.add(size);
+        // floor(log2(size)) 구간
+        int idx = Math.min(HISTOGRAM_BUCKETS - 1, 31 - Integer.numberOfLeadingZeros(size));
+        histogram[idx].increment();
+    }
+
+    /**
+     * 배치 크기 분포. index i 는 크기 [2^i, 2^(i+1)) 배치 수 (마지막 구간은 그 이상 전체)
+     */
+    public long[] batchSizeHistogram() {
+        long[] snapshot = new long[HISTOGRAM_BUCKETS];
+        for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+            snapshot[i] = histogram[i].sum();
+        }
+        return snapshot;
+    }
+
+    /** 크기가 구간 bucket 에 속한 배치 수 (메트릭 조회용, 배열을 만들지 않음) */
+    public long batchesOfSize(int bucket) {
+        return histogram[bucket].sum();
+    }
+
+    /** 구간 bucket 의 이름: "1", "2-3", "4-7", ..., 마지막은 "2048+" */
+    public static String sizeRange(int bucket) {
+        int from = 1 << bucket;
+        if (bucket == HISTOGRAM_BUCKETS - 1) {
+            return from + "+";
+        }
+        return bucket == 0 ? "1" : from + "-" + ((from << 1) - 1);
+    }
+
+    /** 실행한 배치 수 */
+    public long batchCount() {
+        return batches.sum();
+    }
+
+    /** 배치로 처리한 판정 수 */
+    public long decisionCount() {
+        return decisions.sum();
+    }
+
+    public void shutdown() {
+        running = false;
+        collector.interrupt();
+        workers.shutdown();
+        Pending p;
+        while ((p = queue.poll()) != null) {
+            p.future.completeExceptionally(new IllegalStateException("batcher stopped"));
+        }
+    }
+
+    private static final class Pending {
+        private final RedisGuard.BucketSpec bucket;
+        private final CompletableFuture<RedisGuard.RateDecision> future = new CompletableFuture<>();
+
+        private Pending(RedisGuard.BucketSpec bucket) {
+            this.bucket = bucket;
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package com.trafficguard.core;
 
 import org.springframework.context.annotation.Primary;
-import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
@@ -9,15 +9,21 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 import com.trafficguard.exception.UserIdentificationException;
 import com.trafficguard.exception.InvalidRequestException;
 import com.trafficguard.exception.InternalTrafficException;
-
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trafficguard.exception.PayloadTooLargeException;
+import com.trafficguard.filter.CachedBodyHttpServletRequest;
+import com.trafficguard.filter.RequestBodyCachingFilter;
+import org.springframework.web.util.WebUtils;
 
 import com.trafficguard.annotation.UserRateLimit;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Slf4j
 @Primary
@@ -25,6 +31,9 @@ import java.lang.reflect.Method;
 public class DefaultTrafficKeyResolver implements TrafficKeyResolver {
     private static final String HDR_MEMBER_NO = "openapi-mem-no";
     private static final String HDR_PLAN_ID   = "X-Plan-Id";
+    private static final String HDR_CONTENT_TYPE = "Content-Type";
+    /** 캐싱된 request body (byte[], 이전 방식의 String 도 허용) 를 담는 request 속성 */
+    private static final String CACHED_BODY_ATTR = "cachedRequestBody";
 
     @Override
     public String resourceKey(Method method) {
@@ -44,32 +53,63 @@ public class DefaultTrafficKeyResolver implements TrafficKeyResolver {
             throw new InternalTrafficException("request context not available");
         }
 
+        return userId(method, req::getHeader, () -> getRequestBody(req));
+    }
+
+    @Override
+    public String userId(GuardDescriptor descriptor) {
+
+        HttpServletRequest req = currentRequest();
+        if (req == null) {
+            throw new InternalTrafficException("request context not available");
+        }
+
+        return userId(descriptor, req::getHeader, () -> getRequestBody(req));
+    }
+
+    /**
+     * 서블릿 요청이 아닌 경우(WebFlux 등)에도 같은 규칙으로 사용자 ID 를 추출합니다.
+     *
+     * @param headers 헤더명 -> 값 (없으면 null)
+     * @param body    캐싱된 request body 바이트 (없으면 null)
+     */
+    public String userId(Method method, Function<String, String> headers, Supplier<byte[]> body) {
+
         // 어노테이션 정보가 없으면 기본 동작
         if (method == null) {
-            return extractUserIdFromHeader(req, HDR_MEMBER_NO);
+            return extractUserIdFromHeader(headers, HDR_MEMBER_NO);
         }
 
-        UserRateLimit ann = AnnotationUtils.findAnnotation(method, UserRateLimit.class);
+        // 여러 개 지정된 경우 사용자 식별 설정은 첫 번째 것을 사용
+        Set<UserRateLimit> anns = AnnotatedElementUtils.findMergedRepeatableAnnotations(method, UserRateLimit.class);
+        return userId(anns.isEmpty() ? null : anns.iterator().next(), headers, body);
+    }
+
+    /** descriptor 에 해석해 둔 @UserRateLimit 으로 사용자 ID 를 추출합니다 (리플렉션 없음). */
+    public String userId(GuardDescriptor descriptor, Function<String, String> headers, Supplier<byte[]> body) {
+        return userId(descriptor.userRateLimit(), headers, body);
+    }
+
+    private String userId(UserRateLimit ann, Function<String, String> headers, Supplier<byte[]> body) {
         if (ann == null) {
-            return extractUserIdFromHeader(req, HDR_MEMBER_NO);
+            return extractUserIdFromHeader(headers, HDR_MEMBER_NO);
         }
-
-        return extractUserIdWithAnnotation(req, ann);
+        return extractUserIdWithAnnotation(headers, body, ann);
     }
 
-    private String extractUserIdWithAnnotation(HttpServletRequest req, UserRateLimit ann) {
+    private String extractUserIdWithAnnotation(Function<String, String> headers, Supplier<byte[]> body, UserRateLimit ann) {
         String headerValue = null;
         String bodyValue = null;
 
         // 헤더에서 추출
         if (ann.userSource() != UserRateLimit.UserIdSource.BODY_ONLY) {
             boolean headerRequired = (ann.userSource() == UserRateLimit.UserIdSource.HEADER_ONLY);
-            headerValue = extractUserIdFromHeader(req, ann.userHeader(), headerRequired);
+            headerValue = extractUserIdFromHeader(headers, ann.userHeader(), headerRequired);
         }
 
         // Body에서 추출
         if (ann.userSource() != UserRateLimit.UserIdSource.HEADER_ONLY && !ann.userBodyField().isEmpty()) {
-            bodyValue = extractUserIdFromBody(req, ann.userBodyField());
+            bodyValue = extractUserIdFromBody(body.get(), ann.userBodyField(), headers.apply(HDR_CONTENT_TYPE));
         }
 
         // 우선순위에 따라 반환
@@ -99,12 +139,12 @@ public class DefaultTrafficKeyResolver implements TrafficKeyResolver {
         return result;
     }
 
-    private String extractUserIdFromHeader(HttpServletRequest req, String headerName) {
-        return extractUserIdFromHeader(req, headerName, true);
+    private String extractUserIdFromHeader(Function<String, String> headers, String headerName) {
+        return extractUserIdFromHeader(headers, headerName, true);
     }
 
-    private String extractUserIdFromHeader(HttpServletRequest req, String headerName, boolean required) {
-        String value = trimOrNull(req.getHeader(headerName));
+    private String extractUserIdFromHeader(Function<String, String> headers, String headerName, boolean required) {
+        String value = trimOrNull(headers.apply(headerName));
         if (value == null || value.isEmpty()) {
             if (required) {
                 throw new UserIdentificationException("missing " + headerName);
@@ -114,28 +154,22 @@ public class DefaultTrafficKeyResolver implements TrafficKeyResolver {
         return "mem:" + value;
     }
 
-    private String extractUserIdFromBody(HttpServletRequest req, String fieldName) {
+    private String extractUserIdFromBody(byte[] body, String fieldName, String contentType) {
         try {
-            // Request Body 읽기 (AOP에서 캐싱된 것 사용)
-            String body = getRequestBody(req);
-
-            if (body == null || body.isEmpty()) {
+            if (body == null || body.length == 0) {
                 log.warn("DefaultTrafficKeyResolver - body is null or empty");
                 return null;
             }
 
-            // JSON 파싱 (Jackson 사용)
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode jsonNode = mapper.readTree(body);
-            JsonNode fieldNode = jsonNode.get(fieldName);
-            
-            if (fieldNode == null || fieldNode.isNull()) {
+            // 스트리밍 파싱 (필드를 찾으면 나머지 body 는 읽지 않음)
+            String value = UserIdBodyExtractor.extract(body, fieldName, contentType);
+
+            if (value == null) {
                 log.warn("DefaultTrafficKeyResolver - fieldNode is null");
                 return null;
             }
 
-            String value = fieldNode.asText();
-            if (value == null || value.isEmpty()) {
+            if (value.isEmpty()) {
                 throw new UserIdentificationException("missing " + fieldName + " in request body");
             }
             
@@ -146,15 +180,57 @@ public class DefaultTrafficKeyResolver implements TrafficKeyResolver {
         }
     }
 
-    private String getRequestBody(HttpServletRequest req) {
-        // AOP에서 캐싱된 Request Body 사용
-        return (String) req.getAttribute("cachedRequestBody");
+    /** 이 메서드의 사용자 ID 를 찾으려면 request body 가 필요한지 (첫 번째 @UserRateLimit 기준) */
+    public static boolean needsRequestBody(Method method) {
+        Set<UserRateLimit> anns = AnnotatedElementUtils.findMergedRepeatableAnnotations(method, UserRateLimit.class);
+        if (anns.isEmpty()) {
+            return false;
+        }
+        UserRateLimit ann = anns.iterator().next();
+        return ann.userSource() != UserRateLimit.UserIdSource.HEADER_ONLY
+                && !ann.userBodyField().isEmpty();
+    }
+
+    /**
+     * RequestBodyCachingFilter 가 감싼 요청에서 body 를 가져옵니다 (다시 복사하지 않고 캐싱된 배열을 그대로 씀).
+     */
+    private byte[] getRequestBody(HttpServletRequest req) {
+        Object cached = req.getAttribute(CACHED_BODY_ATTR);
+        if (cached instanceof byte[]) {
+            return (byte[]) cached;
+        }
+        if (cached instanceof String) {
+            return ((String) cached).getBytes(StandardCharsets.UTF_8);
+        }
+        if (!RequestBodyCachingFilter.isCacheable(req)) {
+            // JSON/폼이 아닌 body 는 캐싱하지 않음
+            return null;
+        }
+        CachedBodyHttpServletRequest wrapper = WebUtils.getNativeRequest(req, CachedBodyHttpServletRequest.class);
+        if (wrapper == null) {
+            log.warn("DefaultTrafficKeyResolver - RequestBodyCachingFilter is not registered");
+            return null;
+        }
+        try {
+            byte[] body = wrapper.getBody();
+            req.setAttribute(CACHED_BODY_ATTR, body);
+            return body;
+        } catch (CachedBodyHttpServletRequest.BodyTooLargeException e) {
+            throw new PayloadTooLargeException(e.getMessage());
+        } catch (IOException e) {
+            throw new InvalidRequestException("failed to read request body: " + e.getMessage());
+        }
     }
 
     @Override
     public String planId() {
         HttpServletRequest req = currentRequest();
-        String plan = (req != null) ? trimOrNull(req.getHeader(HDR_PLAN_ID)) : null;
+        return req != null ? planId(req::getHeader) : "default";
+    }
+
+    /** 서블릿 요청이 아닌 경우의 planId (헤더명 -> 값) */
+    public String planId(Function<String, String> headers) {
+        String plan = trimOrNull(headers.apply(HDR_PLAN_ID));
         return (plan != null) ? plan : "default";
     }
 
@@ -0,0 +1,86 @@
+package com.trafficguard.core;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Redis 토큰 버킷이 거절하며 알려준 "다시 토큰이 생기는 시각"을 노드 안에 기억해 두는 캐시.
+ *
+ * 그 시각까지는 버킷이 비어 있음이 보장되므로(리필은 시간으로만, 소비는 다른 노드에서만 일어남)
+ * Redis 를 호출하지 않고 같은 결과(거절, 남은 Retry-After)를 돌려줄 수 있습니다.
+ * 항목은 만료 시각이 지나면 무효이며, maxSize 를 넘으면 만료된 항목을 정리하고 그래도 가득 차 있으면 새 항목을 기록하지 않습니다.
+ */
+@Slf4j
+public class DeniedBucketCache {
+    private final ConcurrentHashMap<String, Long> deniedUntil = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean(false);
+    private final int maxSize;
+    private final LongSupplier clock;
+
+    public DeniedBucketCache(int maxSize) {
+        this(maxSize, System::currentTimeMillis);
+    }
+
+    DeniedBucketCache(int maxSize, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    /**
+     * 버킷이 아직 비어 있으면 남은 대기 시간(ms), 아니면 0.
+     */
+    public long retryAfterMs(String bucketKey) {
+        Long until = deniedUntil.get(bucketKey);
+        if (until == null) {
+            return 0;
+        }
+        long remaining = until - clock.getAsLong();
+        if (remaining <= 0) {
+            deniedUntil.remove(bucketKey, until);
+            return 0;
+        }
+        return remaining;
+    }
+
+    /** 거절 결과를 기록합니다. retryAfterMs 가 0 이하이면 기록하지 않습니다. */
+    public void recordDenied(String bucketKey, long retryAfterMs) {
+        if (retryAfterMs <= 0) {
+            return;
+        }
+        long now = clock.getAsLong();
+        if (deniedUntil.size() >= maxSize) {
+            sweep(now);
+            if (deniedUntil.size() >= maxSize) {
+                return;
+            }
+        }
+        deniedUntil.merge(bucketKey, now + retryAfterMs, Math::max);
+    }
+
+    /** 현재 기억하고 있는 버킷 수 (만료된 항목 포함) */
+    public int size() {
+        return deniedUntil.size();
+    }
+
+    private void sweep(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int before = deniedUntil.size();
+            for (Iterator<Map.Entry<String, Long>> it = deniedUntil.entrySet().iterator(); it.hasNext(); ) {
+                if (it.next().getValue() <= now) {
+                    it.remove();
+                }
+            }
+            log.debug("DeniedBucketCache - swept expired entries: {} -> {}", before, deniedUntil.size());
+        } finally {
+            sweeping.set(false);
+        }
+    }
+}
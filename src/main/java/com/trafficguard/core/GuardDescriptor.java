@@ -0,0 +1,247 @@
+package com.trafficguard.core;
+
+import com.trafficguard.annotation.GlobalRateLimit;
+import com.trafficguard.annotation.GlobalSemaphore;
+import com.trafficguard.annotation.TrafficGuard;
+import com.trafficguard.annotation.UserRateLimit;
+import com.trafficguard.annotation.UserSemaphore;
+import com.trafficguard.policy.GuardPolicy;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+
+import java.lang.reflect.Method;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * @TrafficGuard 메서드 하나에 대한 불변 정보. GuardDescriptorRegistry 가 메서드당 한 번 만들어 재사용하며,
+ * 요청 경로(aspect/interceptor/WebFilter, 키 리졸버, 정책)는 리플렉션 대신 이 값을 읽습니다.
+ *
+ * - 해석된 어노테이션과 이 메서드를 지원하는 정책 체인 (order 순)
+ * - 리소스 키와 버킷 키 prefix
+ * - @UserRateLimit 별 초당 rate, TTL, 복합 제한 키 suffix 와 전역(globalRate) 버킷
+ *
+ * 잘못된 어노테이션 조합은 만들 때 IllegalStateException 으로 거절합니다 (TrafficGuardConfig 가 시작 시 미리 만듦).
+ */
+public final class GuardDescriptor {
+    private final Method method;
+    private final String resourceKey;
+    private final boolean guarded;
+    private final List<GuardPolicy> chain;
+    private final List<UserLimit> userLimits;
+    private final UserRateLimit userRateLimit;
+    private final boolean needsRequestBody;
+    private final boolean composite;
+    private final boolean redisTokenBucket;
+    private final List<RedisGuard.BucketSpec> globalBuckets;
+    private final List<Integer> globalLimits;
+    private final GlobalRateLimit globalRateLimit;
+    private final GlobalSemaphore globalSemaphore;
+    private final UserSemaphore userSemaphore;
+    private final String userKeyPrefix;
+    private final String planKeyPrefix;
+
+    private GuardDescriptor(Method method, String resourceKey, List<GuardPolicy> policies) {
+        this.method = method;
+        this.resourceKey = resourceKey;
+        this.guarded = AnnotationUtils.findAnnotation(method, TrafficGuard.class) != null;
+        // @TrafficGuard 가 없으면 정책을 실행하지 않으므로 체인도 만들지 않음
+        this.chain = guarded
+                ? Collections.unmodifiableList(policies.stream()
+                        .filter(p -> p.supports(method))
+                        .collect(Collectors.toList()))
+                : Collections.emptyList();
+        this.userKeyPrefix = "user:" + resourceKey + ":";
+        this.planKeyPrefix = "plan:" + resourceKey + ":";
+
+        // 여러 개 지정된 경우 사용자 식별/헤더 설정은 첫 번째 것을 사용
+        List<UserRateLimit> anns = new ArrayList<>(AnnotatedElementUtils.findMergedRepeatableAnnotations(method, UserRateLimit.class));
+        List<UserLimit> limits = new ArrayList<>(anns.size());
+        List<RedisGuard.BucketSpec> globals = new ArrayList<>();
+        List<Integer> globalRates = new ArrayList<>();
+        Set<String> suffixes = new HashSet<>();
+        for (UserRateLimit ann : anns) {
+            // 제한이 하나면 단일 버킷과 같은 키, 여러 개면 제한마다 별도 버킷 (선언 순서가 바뀌어도 같은 키)
+            String suffix = anns.size() == 1 ? "" : ":" + ann.rate() + "/" + ann.timeUnit().name();
+            if (anns.size() > 1) {
+                // 여러 제한은 한 스크립트에서 Redis 토큰 버킷으로만 판정하므로 다른 backend/algorithm 은 조용히 바뀌지 않게 거절
+                if (ann.backend() != UserRateLimit.Backend.REDIS || ann.algorithm() != UserRateLimit.Algorithm.TOKEN_BUCKET) {
+                    throw new IllegalStateException("repeated @UserRateLimit supports only backend=REDIS, algorithm=TOKEN_BUCKET: "
+                            + resourceKey + " (" + ann.backend() + ", " + ann.algorithm() + ")");
+                }
+                // 같은 rate/timeUnit 은 같은 버킷 키를 쓰므로 burst 만 다른 제한이 한 버킷을 두 번 차감함
+                if (!suffixes.add(suffix)) {
+                    throw new IllegalStateException("duplicate @UserRateLimit rate/timeUnit " + ann.rate() + "/" + ann.timeUnit()
+                            + ": " + resourceKey);
+                }
+            }
+            limits.add(new UserLimit(ann, suffix, resourceKey));
+            if (ann.globalRate() > 0) {
+                globals.add(new RedisGuard.BucketSpec("global:" + resourceKey + ":" + ann.globalRate() + "/" + ann.timeUnit().name(),
+                        ann.timeUnit().getRatePerSecond(ann.globalRate()),
+                        ann.globalBurst() > 0 ? ann.globalBurst() : ann.globalRate(),
+                        ttlMillis(ann.timeUnit(), ann.ttlMillis())));
+                globalRates.add(ann.globalRate());
+            }
+        }
+        this.userLimits = Collections.unmodifiableList(limits);
+        this.userRateLimit = anns.isEmpty() ? null : anns.get(0);
+        this.needsRequestBody = userRateLimit != null
+                && userRateLimit.userSource() != UserRateLimit.UserIdSource.HEADER_ONLY
+                && !userRateLimit.userBodyField().isEmpty();
+        this.composite = anns.size() > 1 || !globals.isEmpty();
+        this.redisTokenBucket = !anns.isEmpty() && anns.stream().allMatch(a ->
+                a.backend() == UserRateLimit.Backend.REDIS && a.algorithm() == UserRateLimit.Algorithm.TOKEN_BUCKET);
+        this.globalBuckets = Collections.unmodifiableList(globals);
+        this.globalLimits = Collections.unmodifiableList(globalRates);
+
+        this.globalRateLimit = AnnotationUtils.findAnnotation(method, GlobalRateLimit.class);
+        if (globalRateLimit != null && !globals.isEmpty()) {
+            // 둘 다 리소스 전체 제한 - 어느 쪽이 적용되는지 모호하므로 하나만 허용
+            throw new IllegalStateException("@GlobalRateLimit and @UserRateLimit(globalRate) cannot be combined: " + resourceKey);
+        }
+        this.globalSemaphore = AnnotationUtils.findAnnotation(method, GlobalSemaphore.class);
+        this.userSemaphore = AnnotationUtils.findAnnotation(method, UserSemaphore.class);
+    }
+
+    /**
+     * @param policies order 순으로 정렬된 전체 정책. 이 메서드를 지원하는 것만 체인에 남김
+     */
+    public static GuardDescriptor of(Method method, String resourceKey, List<GuardPolicy> policies) {
+        return new GuardDescriptor(method, resourceKey, policies);
+    }
+
+    /** 정책 체인 없이 어노테이션 정보만 필요한 경우 (정책을 직접 호출하는 경로) */
+    public static GuardDescriptor of(Method method, String resourceKey) {
+        return new GuardDescriptor(method, resourceKey, Collections.emptyList());
+    }
+
+    /**
+     * timeUnit에 따라 적절한 TTL을 계산합니다.
+     * 기본 TTL이 timeUnit보다 짧으면 timeUnit의 2배로 설정합니다.
+     */
+    public static long ttlMillis(UserRateLimit.TimeUnit timeUnit, long defaultTtlMillis) {
+        long timeUnitMillis = timeUnit.getSeconds() * 1000L;
+        return defaultTtlMillis < timeUnitMillis ? timeUnitMillis * 2 : defaultTtlMillis;
+    }
+
+    public Method method() {
+        return method;
+    }
+
+    public String resourceKey() {
+        return resourceKey;
+    }
+
+    /** @TrafficGuard 가 붙어 있는지 */
+    public boolean guarded() {
+        return guarded;
+    }
+
+    /** 이 메서드를 지원하는 정책 (order 순, @TrafficGuard 가 없으면 빈 목록) */
+    public List<GuardPolicy> chain() {
+        return chain;
+    }
+
+    /** 선언된 @UserRateLimit (없으면 빈 목록) */
+    public List<UserLimit> userLimits() {
+        return userLimits;
+    }
+
+    /** 사용자 식별/헤더 설정에 쓰는 첫 번째 @UserRateLimit (없으면 null) */
+    public UserRateLimit userRateLimit() {
+        return userRateLimit;
+    }
+
+    /** 사용자 ID 를 찾으려면 request body 가 필요한지 */
+    public boolean needsRequestBody() {
+        return needsRequestBody;
+    }
+
+    /** plan 제한이 없어도 복합 판정(여러 제한 또는 globalRate)이 필요한지 */
+    public boolean composite() {
+        return composite;
+    }
+
+    /** 모든 @UserRateLimit 이 REDIS 토큰 버킷인지 (사용자 버킷을 테넌트/전역 버킷과 한 스크립트로 판정할 수 있는지) */
+    public boolean redisTokenBucket() {
+        return redisTokenBucket;
+    }
+
+    /** globalRate 가 지정된 제한의 전역 버킷 (선언 순) */
+    public List<RedisGuard.BucketSpec> globalBuckets() {
+        return globalBuckets;
+    }
+
+    /** globalBuckets 와 같은 순서의 globalRate */
+    public List<Integer> globalLimits() {
+        return globalLimits;
+    }
+
+    public GlobalRateLimit globalRateLimit() {
+        return globalRateLimit;
+    }
+
+    public GlobalSemaphore globalSemaphore() {
+        return globalSemaphore;
+    }
+
+    public UserSemaphore userSemaphore() {
+        return userSemaphore;
+    }
+
+    /** "user:" + resourceKey + ":" (뒤에 userId) */
+    public String userKeyPrefix() {
+        return userKeyPrefix;
+    }
+
+    /** "plan:" + resourceKey + ":" (뒤에 planId) */
+    public String planKeyPrefix() {
+        return planKeyPrefix;
+    }
+
+    /** @UserRateLimit 하나와 미리 계산한 값 */
+    public static final class UserLimit {
+        private final UserRateLimit annotation;
+        private final double ratePerSecond;
+        private final long ttlMillis;
+        private final String keySuffix;
+
+        private UserLimit(UserRateLimit annotation, String keySuffix, String resourceKey) {
+            if (!annotation.zone().isEmpty()) {
+                try {
+                    ZoneId.of(annotation.zone());
+                } catch (DateTimeException e) {
+                    throw new IllegalStateException("invalid zone '" + annotation.zone() + "' on " + resourceKey + ": " + e.getMessage(), e);
+                }
+            }
+            this.annotation = annotation;
+            this.ratePerSecond = annotation.timeUnit().getRatePerSecond(annotation.rate());
+            this.ttlMillis = GuardDescriptor.ttlMillis(annotation.timeUnit(), annotation.ttlMillis());
+            this.keySuffix = keySuffix;
+        }
+
+        public UserRateLimit annotation() {
+            return annotation;
+        }
+
+        public double ratePerSecond() {
+            return ratePerSecond;
+        }
+
+        public long ttlMillis() {
+            return ttlMillis;
+        }
+
+        /** 복합 제한에서 사용자 버킷 키 뒤에 붙는 suffix (제한이 하나면 "") */
+        public String keySuffix() {
+            return keySuffix;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.trafficguard.core;
+
+import com.trafficguard.policy.GuardPolicy;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 메서드별 GuardDescriptor 캐시. 처음 호출될 때 한 번 만들고 이후에는 조회만 합니다.
+ */
+@Component
+public class GuardDescriptorRegistry {
+    private final List<GuardPolicy> policies;
+    private final TrafficKeyResolver keyResolver;
+    private final ConcurrentHashMap<Method, GuardDescriptor> descriptors = new ConcurrentHashMap<>();
+
+    public GuardDescriptorRegistry(List<GuardPolicy> policies, TrafficKeyResolver keyResolver) {
+        this.policies = policies.stream()
+                .sorted(Comparator.comparingInt(GuardPolicy::order))
+                .collect(Collectors.toList());
+        this.keyResolver = keyResolver;
+    }
+
+    public GuardDescriptor get(Method method) {
+        GuardDescriptor descriptor = descriptors.get(method);
+        if (descriptor != null) {
+            return descriptor;
+        }
+        return descriptors.computeIfAbsent(method, m -> GuardDescriptor.of(m, keyResolver.resourceKey(m), policies));
+    }
+
+    public TrafficKeyResolver keyResolver() {
+        return keyResolver;
+    }
+}
@@ -2,6 +2,7 @@ package com.trafficguard.core;
 
 import lombok.Getter;
 
+import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -10,10 +11,35 @@ public class JoinPointContext {
     private final String resourceKey;
     private final String userId;
     private final String planId;
+    /** 메서드의 미리 계산된 정보 (정책을 직접 호출하는 경우 null) */
+    private final GuardDescriptor descriptor;
     private final Map<String,Object> attrs = new HashMap<>();
+    /** 직전 정책이 Redis 오류로 판정 없이 허용했는지 (메트릭 기록 시 초기화) */
+    private boolean failedOpen;
 
     public JoinPointContext(String resourceKey, String userId, String planId) {
-        this.resourceKey = resourceKey; this.userId = userId; this.planId = planId;
+        this.resourceKey = resourceKey; this.userId = userId; this.planId = planId; this.descriptor = null;
+    }
+
+    public JoinPointContext(GuardDescriptor descriptor, String userId, String planId) {
+        this.resourceKey = descriptor.resourceKey(); this.userId = userId; this.planId = planId; this.descriptor = descriptor;
+    }
+
+    /** 컨텍스트의 descriptor, 없으면 method 로 새로 만듦 */
+    public GuardDescriptor descriptor(Method method) {
+        return descriptor != null ? descriptor : GuardDescriptor.of(method, resourceKey);
+    }
+
+    /** 정책이 fail-open 으로 허용한 경우 호출 */
+    public void markFailedOpen() {
+        failedOpen = true;
+    }
+
+    /** fail-open 여부를 읽고 초기화합니다 (정책마다 따로 기록) */
+    public boolean consumeFailedOpen() {
+        boolean f = failedOpen;
+        failedOpen = false;
+        return f;
     }
 
     public void put(String k, Object v){
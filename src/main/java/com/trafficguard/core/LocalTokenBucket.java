@@ -0,0 +1,139 @@
+package com.trafficguard.core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 노드 내부에서만 동작하는 lock-free Token Bucket (backend = LOCAL)
+ *
+ * token-bucket.lua 와 동일한 refill/burst/retryAfter 의미를 가지지만,
+ * 버킷 상태를 "토큰이 0개가 되는 기준 시각(ns)" 하나의 long 으로 표현합니다.
+ *   tokens(now) = min(burst, (now - zero) / interval)
+ * 토큰 1개 소비는 zero 를 interval 만큼 미는 것이므로 상태 변경은 CAS 한 번으로 끝납니다.
+ */
+@Slf4j
+@Component
+public class LocalTokenBucket {
+    /** 이 개수를 넘으면 가득 찬(=삭제해도 결과가 같은) 버킷을 정리 */
+    private static final int SWEEP_THRESHOLD = 10_000;
+    /** 정리 중 제거된 버킷 표시. 이 값을 본 스레드는 맵에서 다시 조회 */
+    private static final long RETIRED = Long.MIN_VALUE;
+    /** burst * interval 오버플로우 방지 상한 (약 36년) */
+    private static final long MAX_CAPACITY_NANOS = 1L << 60;
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean(false);
+    private final LongSupplier nanoClock;
+    private volatile int nextSweepSize = SWEEP_THRESHOLD;
+
+    public LocalTokenBucket() {
+        this(System::nanoTime);
+    }
+
+    LocalTokenBucket(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    public RedisGuard.RateDecision tryAcquire(String bucketKey, double ratePerSec, int burst, long ttlMillis) {
+        long now = nanoClock.getAsLong();
+        long interval = intervalNanos(ratePerSec, burst);
+        long capacity = capacityNanos(interval, burst);
+
+        Bucket bucket = buckets.get(bucketKey);
+        for (;;) {
+            if (bucket == null) {
+                bucket = createBucket(bucketKey, now, capacity);
+            }
+            long zero = bucket.get();
+            if (zero == RETIRED) {
+                bucket = null;
+                continue;
+            }
+
+            // burst 상한 적용: 가득 찬 버킷은 now - capacity 기준
+            long base = (now - zero > capacity) ? now - capacity : zero;
+            long elapsed = now - base;
+
+            if (elapsed < interval) {
+                // 토큰 부족 - 상태 변경 없이 거절
+                long retryAfterMs = ratePerSec > 0
+                        ? (interval - elapsed + 999_999L) / 1_000_000L
+                        : ttlMillis;
+                return new RedisGuard.RateDecision(false, (double) elapsed / interval, retryAfterMs);
+            }
+
+            long next = base + interval;
+            if (bucket.compareAndSet(zero, next)) {
+                return new RedisGuard.RateDecision(true, (double) (now - next) / interval, 0);
+            }
+        }
+    }
+
+    /** 현재 노드가 들고 있는 버킷 수 */
+    public int size() {
+        return buckets.size();
+    }
+
+    private Bucket createBucket(String bucketKey, long now, long capacity) {
+        Bucket bucket = buckets.computeIfAbsent(bucketKey, k -> new Bucket(now - capacity, capacity));
+        if (buckets.size() >= nextSweepSize) {
+            sweep(now);
+        }
+        return bucket;
+    }
+
+    /**
+     * 가득 찬 버킷만 제거합니다. 새로 만들어지는 버킷도 가득 찬 상태이므로 결과가 달라지지 않습니다.
+     * 제거 직전에 RETIRED 로 CAS 하여 동시에 소비 중인 스레드가 잃어버린 버킷에 쓰지 않도록 합니다.
+     */
+    private void sweep(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int before = buckets.size();
+            for (Map.Entry<String, Bucket> e : buckets.entrySet()) {
+                Bucket bucket = e.getValue();
+                long zero = bucket.get();
+                if (zero != RETIRED && now - zero >= bucket.capacityNanos && bucket.compareAndSet(zero, RETIRED)) {
+                    buckets.remove(e.getKey(), bucket);
+                }
+            }
+            int after = buckets.size();
+            nextSweepSize = Math.max(SWEEP_THRESHOLD, after * 2);
+            log.debug("LocalTokenBucket - swept idle buckets: {} -> {}", before, after);
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private static long intervalNanos(double ratePerSec, int burst) {
+        if (ratePerSec <= 0) {
+            // 리필 없음: burst 만큼만 쓰고 사실상 충전되지 않는 간격
+            return MAX_CAPACITY_NANOS / Math.max(1, burst);
+        }
+        return Math.max(1L, (long) (1_000_000_000.0 / ratePerSec));
+    }
+
+    private static long capacityNanos(long interval, int burst) {
+        if (burst <= 0) {
+            return 0;
+        }
+        return interval > MAX_CAPACITY_NANOS / burst ? MAX_CAPACITY_NANOS : interval * burst;
+    }
+
+    private static final class Bucket extends AtomicLong {
+        private final long capacityNanos;
+
+        Bucket(long zero, long capacityNanos) {
+            super(zero);
+            this.capacityNanos = capacityNanos;
+        }
+    }
+}
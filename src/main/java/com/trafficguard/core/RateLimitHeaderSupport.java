@@ -7,19 +7,41 @@ import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import javax.servlet.http.HttpServletResponse;
+import java.util.function.BiConsumer;
 
 @Component
 public class RateLimitHeaderSupport {
+    /** JoinPointContext 에 응답 헤더 writer(BiConsumer<String, String>)를 담는 키. 서블릿 요청이 없는 경로(WebFlux)에서 사용 */
+    public static final String HEADER_WRITER_ATTR = "rateLimit.headerWriter";
+
     public void writeHeaders(int limit, double remaining, long retryAfterMs){
         RequestAttributes ra = RequestContextHolder.getRequestAttributes();
         if (!(ra instanceof ServletRequestAttributes)) return;
         HttpServletResponse resp = ((ServletRequestAttributes) ra).getResponse();
         if (resp == null) return;
 
-        resp.setHeader("RateLimit-Limit", String.valueOf(limit));
-        resp.setHeader("RateLimit-Remaining", String.valueOf(Math.max(0, (int)Math.floor(remaining))));
+        write(resp::setHeader, limit, remaining, retryAfterMs);
+    }
+
+    /**
+     * 컨텍스트에 헤더 writer 가 있으면 그쪽으로 씁니다.
+     *
+     * @return writer 가 있어 헤더를 썼으면 true
+     */
+    @SuppressWarnings("unchecked")
+    public static boolean writeHeaders(JoinPointContext ctx, int limit, double remaining, long retryAfterMs) {
+        BiConsumer<String, String> writer = (BiConsumer<String, String>) ctx.get(HEADER_WRITER_ATTR);
+        if (writer == null) return false;
+
+        write(writer, limit, remaining, retryAfterMs);
+        return true;
+    }
+
+    private static void write(BiConsumer<String, String> writer, int limit, double remaining, long retryAfterMs) {
+        writer.accept("RateLimit-Limit", String.valueOf(limit));
+        writer.accept("RateLimit-Remaining", String.valueOf(Math.max(0, (int)Math.floor(remaining))));
         if (retryAfterMs > 0) {
-            resp.setHeader("Retry-After", String.valueOf(Math.max(1, retryAfterMs/1000)));
+            writer.accept("Retry-After", String.valueOf(Math.max(1, retryAfterMs/1000)));
         }
     }
 }
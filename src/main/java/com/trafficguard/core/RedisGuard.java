@@ -1,13 +1,29 @@
 package com.trafficguard.core;
 
+import com.trafficguard.annotation.UserRateLimit;
+import com.trafficguard.config.RedisConfig;
+import com.trafficguard.config.TrafficGuardProperties;
+import com.trafficguard.metrics.TrafficGuardMetrics;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.dao.DataAccessException;
+import org.redisson.api.RBatch;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 @Slf4j
 @Component
@@ -17,9 +33,19 @@ public class RedisGuard {
         private final boolean allowed;
         private final double remainingTokens;
         private final long retryAfterMs;
+        private final boolean failedOpen;
 
         public RateDecision(boolean allowed, double remainingTokens, long retryAfterMs) {
-            this.allowed = allowed; this.remainingTokens = remainingTokens; this.retryAfterMs = retryAfterMs;
+            this(allowed, remainingTokens, retryAfterMs, false);
+        }
+
+        RateDecision(boolean allowed, double remainingTokens, long retryAfterMs, boolean failedOpen) {
+            this.allowed = allowed; this.remainingTokens = remainingTokens; this.retryAfterMs = retryAfterMs; this.failedOpen = failedOpen;
+        }
+
+        /** Redis 오류/잘못된 응답으로 판정 없이 허용한 결과 */
+        public static RateDecision failOpen(double remainingTokens) {
+            return new RateDecision(true, remainingTokens, 0, true);
         }
 
         public boolean allowed() {
@@ -33,60 +59,832 @@ public class RedisGuard {
         public long retryAfterMs() {
             return retryAfterMs;
         }
+
+        /** 판정 없이 허용(fail-open)했는지 */
+        public boolean failedOpen() {
+            return failedOpen;
+        }
+    }
+
+    /** 여러 버킷을 한 번에 판정할 때의 버킷 하나 */
+    public static class BucketSpec {
+        private final String key;
+        private final String hashTag;
+        private final double ratePerSec;
+        private final int burst;
+        private final long ttlMillis;
+
+        public BucketSpec(String key, double ratePerSec, int burst, long ttlMillis) {
+            this(key, key, ratePerSec, burst, ttlMillis);
+        }
+
+        /**
+         * @param hashTag 클러스터 모드에서 슬롯을 정하는 key 의 앞부분. 같은 hashTag 의 버킷은 같은 슬롯에 놓여 한 번의 스크립트로 판정됩니다.
+         */
+        public BucketSpec(String key, String hashTag, double ratePerSec, int burst, long ttlMillis) {
+            if (!key.startsWith(hashTag)) {
+                throw new IllegalArgumentException("hashTag must be a prefix of key: " + hashTag + " / " + key);
+            }
+            this.key = key; this.hashTag = hashTag; this.ratePerSec = ratePerSec; this.burst = burst; this.ttlMillis = ttlMillis;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public String hashTag() {
+            return hashTag;
+        }
+
+        public double ratePerSec() {
+            return ratePerSec;
+        }
+
+        public int burst() {
+            return burst;
+        }
+
+        public long ttlMillis() {
+            return ttlMillis;
+        }
     }
 
+    /** 여러 버킷 판정 결과. 남은 토큰/재시도 시간은 가장 제한적인 버킷(limitingIndex) 기준 */
+    public static class CompositeDecision extends RateDecision {
+        private final int limitingIndex;
+
+        public CompositeDecision(boolean allowed, double remainingTokens, long retryAfterMs, int limitingIndex) {
+            this(allowed, remainingTokens, retryAfterMs, limitingIndex, false);
+        }
+
+        private CompositeDecision(boolean allowed, double remainingTokens, long retryAfterMs, int limitingIndex, boolean failedOpen) {
+            super(allowed, remainingTokens, retryAfterMs, failedOpen);
+            this.limitingIndex = limitingIndex;
+        }
+
+        /** Redis 오류/잘못된 응답으로 판정 없이 허용한 결과 */
+        public static CompositeDecision failOpen(double remainingTokens) {
+            return new CompositeDecision(true, remainingTokens, 0, 0, true);
+        }
+
+        /** 가장 제한적인 버킷의 인덱스 (0부터) */
+        public int limitingIndex() {
+            return limitingIndex;
+        }
+    }
+
+    public static class TokenLease {
+        private final int granted;
+        private final double remainingTokens;
+        private final long retryAfterMs;
+
+        public TokenLease(int granted, double remainingTokens, long retryAfterMs) {
+            this.granted = granted; this.remainingTokens = remainingTokens; this.retryAfterMs = retryAfterMs;
+        }
+
+        /** Redis 버킷에서 빌려온 토큰 수 (0이면 거절) */
+        public int granted() {
+            return granted;
+        }
+
+        /** 리스 후 Redis 버킷에 남은 토큰 */
+        public double remainingTokens() {
+            return remainingTokens;
+        }
+
+        public long retryAfterMs() {
+            return retryAfterMs;
+        }
+    }
+
+    public static class PermitLease {
+        private final int held;
+        private final int available;
+
+        public PermitLease(int held, int available) {
+            this.held = held; this.available = available;
+        }
+
+        /** 이 보유자가 Redis 세마포어에서 들고 있는 permit 수 */
+        public int held() {
+            return held;
+        }
+
+        /** 아무도 들고 있지 않은 permit 수 */
+        public int available() {
+            return available;
+        }
+    }
+
+    /** 단일 키 포맷의 토큰 단위 (1 token = 1,000,000 micro-tokens) */
+    private static final double MICRO = 1_000_000.0;
+
     private final StringRedisTemplate rt;
+    private final RedisScriptRegistry scripts;
+    private final TrafficGuardMetrics metrics;
     private final DefaultRedisScript<List<Object>> tokenBucket;
+    private final DefaultRedisScript<List<Object>> tokenBucketPacked;
+    private final DefaultRedisScript<List<Object>> multiTokenBucket;
+    private final DefaultRedisScript<List<Object>> batchTokenBucket;
+    private final DecisionBatcher batcher;
+    private final DeniedBucketCache deniedCache;
+    private final DefaultRedisScript<List<Object>> tokenLease;
+    private final DefaultRedisScript<List<Object>> gcra;
+    private final DefaultRedisScript<List<Object>> slidingWindow;
+    private final DefaultRedisScript<List<Object>> fixedWindow;
+    private final DefaultRedisScript<List<Object>> semaphoreLease;
+    private final DefaultRedisScript<List<Object>> userSemaphore;
+    private final ZoneId calendarZone;
+    private final boolean packed;
+    private final boolean migrateLegacy;
+    /** Redis Cluster: 키를 hash tag 로 묶고 여러 슬롯에 걸친 배치/복합 판정은 슬롯별로 나눠 실행 */
+    private final boolean cluster;
+    /** 클라이언트 샤딩(SHARDED): hash tag 로 샤드를 고르고 여러 샤드에 걸친 판정은 샤드별로 나눠 실행 */
+    private final boolean sharded;
 
-    public RedisGuard(StringRedisTemplate rt, DefaultRedisScript<List<Object>> tokenBucket) {
-        this.rt = rt; this.tokenBucket = tokenBucket;
+    /**
+     * 스크립트는 RedisScriptRegistry 에서 이름으로 찾습니다 (RedisConfig 의 빈 이름에서 "Script" 를 뗀 것).
+     *
+     * @param batcher     micro-batching (traffic-guard.batch.enabled, 없으면 null). PACKED 포맷에서만 사용
+     * @param deniedCache 거절된 버킷 로컬 캐시 (traffic-guard.denied-cache.enabled, 없으면 null)
+     */
+    public RedisGuard(StringRedisTemplate rt,
+                      RedisScriptRegistry scripts,
+                      TrafficGuardProperties properties,
+                      RedisConfig.RedisProperties redisProperties,
+                      TrafficGuardMetrics metrics,
+                      @Nullable DecisionBatcher batcher,
+                      @Nullable DeniedBucketCache deniedCache) {
+        this.rt = rt; this.scripts = scripts; this.metrics = metrics;
+        this.tokenBucket = scripts.script("tokenBucket"); this.tokenBucketPacked = scripts.script("tokenBucketPacked");
+        this.tokenLease = scripts.script("tokenLease");
+        this.multiTokenBucket = scripts.script("multiTokenBucket"); this.batchTokenBucket = scripts.script("batchTokenBucket");
+        this.gcra = scripts.script("gcra"); this.slidingWindow = scripts.script("slidingWindow"); this.fixedWindow = scripts.script("fixedWindow");
+        this.semaphoreLease = scripts.script("semaphoreLease"); this.userSemaphore = scripts.script("userSemaphore");
+        this.calendarZone = properties.getCalendarZone() == null || properties.getCalendarZone().isEmpty()
+                ? ZoneId.systemDefault() : ZoneId.of(properties.getCalendarZone());
+        this.packed = properties.getBucketFormat() == TrafficGuardProperties.BucketFormat.PACKED;
+        this.migrateLegacy = properties.isMigrateLegacyBuckets();
+        this.cluster = redisProperties.isCluster();
+        this.sharded = redisProperties.isSharded();
+        if (batcher != null && !packed) {
+            log.warn("RedisGuard - traffic-guard.batch requires bucket-format PACKED, batching disabled");
+        }
+        this.batcher = packed ? batcher : null;
+        this.deniedCache = deniedCache;
     }
 
     public RateDecision tokenBucketAllow(String bucketKey, double ratePerSec, int burst, long ttlMillis) {
-        List<String> keys = Arrays.asList("tb:"+bucketKey+":tokens", "tb:"+bucketKey+":ts");
+        try {
+            return tokenBucketAllowAsync(bucketKey, ratePerSec, burst, ttlMillis).toCompletableFuture().join();
+        } catch (Exception e) {
+            // 비동기 경로에서 이미 fail-open 처리하므로 여기는 join 자체의 예외만 해당
+            log.error("오류 발생: 임시로 ratelimit 해제: {}", e.getMessage(), e);
+            metrics.redisError("tokenBucketAllow");
+            return RateDecision.failOpen(burst);
+        }
+    }
+
+    /**
+     * 토큰 버킷 판정을 호출 스레드를 막지 않고 수행합니다 (Redisson 비동기 EVALSHA).
+     * Redis 오류 시에도 예외 대신 허용 결과로 완료됩니다 (fail-open).
+     */
+    public CompletionStage<RateDecision> tokenBucketAllowAsync(String bucketKey, double ratePerSec, int burst, long ttlMillis) {
+        long deniedMs = deniedCache != null ? deniedCache.retryAfterMs(bucketKey) : 0;
+        if (deniedMs > 0) {
+            // 아직 비어 있는 버킷 - Redis 를 호출하지 않고 거절
+            return CompletableFuture.completedFuture(new RateDecision(false, 0, deniedMs));
+        }
+
+        CompletableFuture<RateDecision> decision;
+        if (batcher != null) {
+            decision = batcher.submit(new BucketSpec(bucketKey, ratePerSec, burst, ttlMillis));
+        } else if (packed) {
+            decision = packedTokenBucketAllowAsync(bucketKey, ratePerSec, burst, ttlMillis);
+        } else {
+            decision = legacyTokenBucketAllowAsync(bucketKey, ratePerSec, burst, ttlMillis);
+        }
+        if (deniedCache != null) {
+            decision = decision.thenApply(d -> {
+                if (!d.allowed()) {
+                    deniedCache.recordDenied(bucketKey, d.retryAfterMs());
+                }
+                return d;
+            });
+        }
+        return decision.exceptionally(e -> {
+            log.error("레디스 오류: 임시로 ratelimit 해제: {}", e.getMessage(), e);
+            metrics.redisError("tokenBucketAllowAsync");
+            return RateDecision.failOpen(burst);
+        });
+    }
+
+    private CompletableFuture<RateDecision> legacyTokenBucketAllowAsync(String bucketKey, double ratePerSec, int burst, long ttlMillis) {
+        List<String> keys = Arrays.asList(key("tb:", bucketKey, ":tokens"), key("tb:", bucketKey, ":ts"));
         long now = System.currentTimeMillis();
 
-        log.info("RedisGuard.tokenBucketAllow - bucketKey: {}, ratePerSec: {}, burst: {}, ttlMillis: {}, now: {}",
+        log.debug("RedisGuard.tokenBucketAllow - bucketKey: {}, ratePerSec: {}, burst: {}, ttlMillis: {}, now: {}",
                 bucketKey, ratePerSec, burst, ttlMillis, now);
-        log.info("RedisGuard.tokenBucketAllow - keys: {}", keys);
+        log.debug("RedisGuard.tokenBucketAllow - keys: {}", keys);
 
-        try {
-            List<Object> res = rt.execute(tokenBucket, keys,
-                    String.valueOf(ratePerSec),
-                    String.valueOf(burst),
-                    String.valueOf(now),
-                    String.valueOf(ttlMillis)
-            );
-            
-            log.info("RedisGuard.tokenBucketAllow - Redis result: {}", res);
-            
-            if (res.size() < 3) {
+        return scripts.evalAsync(tokenBucket, keys,
+                String.valueOf(ratePerSec),
+                String.valueOf(burst),
+                String.valueOf(now),
+                String.valueOf(ttlMillis)
+        ).thenApply(res -> {
+            log.debug("RedisGuard.tokenBucketAllow - Redis result: {}", res);
+
+            if (res == null || res.size() < 3) {
                 log.warn("RedisGuard.tokenBucketAllow - Invalid Redis result: {}", res);
                 // Redis 결과가 유효하지 않을 때도 요청 허용 (fail-open 방식)
-                return new RateDecision(true, burst, 0);
+                return RateDecision.failOpen(burst);
             }
-            
+
             int allowed = Integer.parseInt(String.valueOf(res.get(0)));
             double tokens = Double.parseDouble(String.valueOf(res.get(1)));
             long retry = Long.parseLong(String.valueOf(res.get(2)));
-            
+
             RateDecision decision = new RateDecision(allowed == 1, tokens, retry);
-            log.info("RedisGuard.tokenBucketAllow - Final decision: allowed={}, tokens={}, retry={}",
+            log.debug("RedisGuard.tokenBucketAllow - Final decision: allowed={}, tokens={}, retry={}",
                     decision.allowed(), decision.remainingTokens(), decision.retryAfterMs());
-            
+
             return decision;
+        });
+    }
 
-        } catch (DataAccessException e) {
-            log.error("레디스 오류: 임시로 ratelimit 해제: {}", e.getMessage(), e);
-            return new RateDecision(true, burst, 0);
+    /**
+     * 단일 키 포맷 버킷. 스크립트가 정수(micro-token)만 반환하므로 문자열 float 파싱이 없습니다.
+     */
+    private CompletableFuture<RateDecision> packedTokenBucketAllowAsync(String bucketKey, double ratePerSec, int burst, long ttlMillis) {
+        List<String> keys = migrateLegacy
+                ? Arrays.asList(key("tb:", bucketKey, ""), key("tb:", bucketKey, ":tokens"), key("tb:", bucketKey, ":ts"))
+                : Collections.singletonList(key("tb:", bucketKey, ""));
+        long now = System.currentTimeMillis();
+
+        log.debug("RedisGuard.tokenBucketAllow - bucketKey: {}, ratePerSec: {}, burst: {}, ttlMillis: {}, now: {}",
+                bucketKey, ratePerSec, burst, ttlMillis, now);
+
+        return scripts.evalAsync(tokenBucketPacked, keys,
+                String.valueOf(ratePerSec),
+                String.valueOf(burst),
+                String.valueOf(now),
+                String.valueOf(ttlMillis)
+        ).thenApply(res -> {
+            if (res == null || res.size() < 3) {
+                log.warn("RedisGuard.tokenBucketAllow - Invalid Redis result: {}", res);
+                // fail-open
+                return RateDecision.failOpen(burst);
+            }
+
+            boolean allowed = ((Number) res.get(0)).longValue() == 1L;
+            double tokens = ((Number) res.get(1)).longValue() / MICRO;
+            long retry = ((Number) res.get(2)).longValue();
+            return new RateDecision(allowed, tokens, retry);
+        });
+    }
+
+    /**
+     * 여러 토큰 버킷을 한 번의 Lua 호출로 판정합니다 (단일 키 포맷).
+     * 모든 버킷이 허용할 때만 전부 차감하고, 하나라도 거절하면 아무것도 차감하지 않습니다.
+     */
+    public CompositeDecision multiTokenBucketAllow(List<BucketSpec> buckets) {
+        try {
+            return multiTokenBucketAllowAsync(buckets).toCompletableFuture().join();
         } catch (Exception e) {
-            log.error("RedisGuard.tokenBucketAllow - Unexpected error: {}", e.getMessage(), e);
-            // 예상치 못한 오류 시에도 요청 허용 (fail-open 방식)
             log.error("오류 발생: 임시로 ratelimit 해제: {}", e.getMessage(), e);
-            return new RateDecision(true, burst, 0);
+            metrics.redisError("multiTokenBucketAllow");
+            return CompositeDecision.failOpen(buckets.get(0).burst());
         }
     }
-}
 
+    /**
+     * multiTokenBucketAllow 의 비동기 버전. Redis 오류 시에도 허용 결과로 완료됩니다 (fail-open).
+     */
+    public CompletionStage<CompositeDecision> multiTokenBucketAllowAsync(List<BucketSpec> buckets) {
+        if (deniedCache != null) {
+            // 하나라도 아직 비어 있으면 전체 거절 (아무것도 차감하지 않는 것과 같은 결과)
+            for (int i = 0; i < buckets.size(); i++) {
+                long deniedMs = deniedCache.retryAfterMs(buckets.get(i).key());
+                if (deniedMs > 0) {
+                    return CompletableFuture.completedFuture(new CompositeDecision(false, 0, deniedMs, i));
+                }
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        List<List<Integer>> groups = partitionGroups(buckets);
+        CompletableFuture<CompositeDecision> decision = groups == null
+                ? evalMultiTokenBucket(buckets, now)
+                : evalMultiTokenBucketPerSlot(buckets, groups, now);
+
+        return decision.thenApply(d -> {
+            if (!d.allowed() && deniedCache != null) {
+                deniedCache.recordDenied(buckets.get(d.limitingIndex()).key(), d.retryAfterMs());
+            }
+            return d;
+        }).exceptionally(e -> {
+            log.error("레디스 오류: 임시로 ratelimit 해제: {}", e.getMessage(), e);
+            metrics.redisError("multiTokenBucketAllowAsync");
+            return CompositeDecision.failOpen(buckets.get(0).burst());
+        });
+    }
+
+    private CompletableFuture<CompositeDecision> evalMultiTokenBucket(List<BucketSpec> buckets, long now) {
+        List<String> keys = new ArrayList<>(buckets.size());
+        String[] args = new String[1 + buckets.size() * 3];
+        args[0] = String.valueOf(now);
+        for (int i = 0; i < buckets.size(); i++) {
+            BucketSpec b = buckets.get(i);
+            keys.add(key(b));
+            args[1 + i * 3] = String.valueOf(b.ratePerSec());
+            args[2 + i * 3] = String.valueOf(b.burst());
+            args[3 + i * 3] = String.valueOf(b.ttlMillis());
+        }
+
+        log.debug("RedisGuard.multiTokenBucketAllow - keys: {}", keys);
+
+        return scripts.evalAsync(multiTokenBucket, keys, (Object[]) args).thenApply(res -> {
+            if (res == null || res.size() < 4) {
+                log.warn("RedisGuard.multiTokenBucketAllow - Invalid Redis result: {}", res);
+                // fail-open
+                return CompositeDecision.failOpen(buckets.get(0).burst());
+            }
+
+            boolean allowed = ((Number) res.get(0)).longValue() == 1L;
+            double tokens = ((Number) res.get(1)).longValue() / MICRO;
+            long retry = ((Number) res.get(2)).longValue();
+            int limiting = ((Number) res.get(3)).intValue() - 1;
+            return new CompositeDecision(allowed, tokens, retry, limiting);
+        });
+    }
+
+    /**
+     * 클러스터/샤딩에서 버킷이 여러 슬롯(샤드)에 걸친 경우(사용자 + 플랜/전역 버킷) 슬롯마다 따로 판정하고 결과를 합칩니다.
+     * - 첫 번째 버킷(사용자)의 슬롯을 먼저 판정하고, 허용한 경우에만 나머지 슬롯을 동시에 판정합니다. 사용자 제한에 걸린 요청은 공유 버킷을 차감하지 않습니다.
+     * - 나머지 슬롯 중 하나라도 거절하면 허용한 슬롯에서 차감한 토큰을 되돌려(refund) all-or-nothing 을 지킵니다.
+     *   되돌리기 전의 짧은 순간에는 다른 요청이 토큰 1개가 적은 상태를 볼 수 있습니다.
+     */
+    private CompletableFuture<CompositeDecision> evalMultiTokenBucketPerSlot(List<BucketSpec> buckets, List<List<Integer>> groups, long now) {
+        List<Integer> first = groups.get(0);
+        return evalMultiTokenBucket(subset(buckets, first), now).thenCompose(head -> {
+            if (!head.allowed()) {
+                return CompletableFuture.completedFuture(
+                        new CompositeDecision(false, head.remainingTokens(), head.retryAfterMs(), first.get(head.limitingIndex())));
+            }
+            List<CompletableFuture<CompositeDecision>> parts = new ArrayList<>(groups.size());
+            parts.add(CompletableFuture.completedFuture(head));
+            for (int g = 1; g < groups.size(); g++) {
+                parts.add(evalMultiTokenBucket(subset(buckets, groups.get(g)), now));
+            }
+            return CompletableFuture.allOf(parts.toArray(new CompletableFuture[0]))
+                    .thenApply(ignored -> mergeSlotDecisions(buckets, groups, parts, now));
+        });
+    }
+
+    private CompositeDecision mergeSlotDecisions(List<BucketSpec> buckets, List<List<Integer>> groups,
+                                                 List<CompletableFuture<CompositeDecision>> parts, long now) {
+        CompositeDecision limiting = null;
+        int limitingIndex = 0;
+        boolean allowed = true;
+        boolean failedOpen = false;
+        for (int g = 0; g < parts.size(); g++) {
+            CompositeDecision d = parts.get(g).join();
+            allowed &= d.allowed();
+            failedOpen |= d.failedOpen();
+            // 거절한 슬롯 중 가장 오래 기다려야 하는 것, 모두 허용이면 남은 토큰이 가장 적은 것
+            boolean tighter = limiting == null
+                    || (!d.allowed() && (limiting.allowed() || d.retryAfterMs() > limiting.retryAfterMs()))
+                    || (d.allowed() && limiting.allowed() && d.remainingTokens() < limiting.remainingTokens());
+            if (tighter) {
+                limiting = d;
+                limitingIndex = groups.get(g).get(d.limitingIndex());
+            }
+        }
+        if (!allowed) {
+            for (int g = 0; g < parts.size(); g++) {
+                CompositeDecision d = parts.get(g).join();
+                if (d.allowed() && !d.failedOpen()) {
+                    refund(subset(buckets, groups.get(g)), now);
+                }
+            }
+        }
+        return new CompositeDecision(allowed, limiting.remainingTokens(), limiting.retryAfterMs(), limitingIndex, allowed && failedOpen);
+    }
+
+    /**
+     * 차감한 토큰을 1개씩 되돌립니다 (token-lease 스크립트의 반환만 사용, burst 상한).
+     * 결과를 기다리지 않으며, 실패하면 그 토큰은 리필로 회복됩니다.
+     */
+    private void refund(List<BucketSpec> buckets, long now) {
+        for (BucketSpec b : buckets) {
+            scripts.evalAsync(tokenLease, Collections.singletonList(key(b)),
+                    String.valueOf(b.ratePerSec()),
+                    String.valueOf(b.burst()),
+                    String.valueOf(now),
+                    String.valueOf(b.ttlMillis()),
+                    "0",
+                    "1"
+            ).whenComplete((res, e) -> {
+                if (e != null) {
+                    log.warn("RedisGuard.refund - failed for {}: {}", b.key(), e.getMessage());
+                    metrics.redisError("refund");
+                }
+            });
+        }
+    }
+
+    private static List<BucketSpec> subset(List<BucketSpec> buckets, List<Integer> indexes) {
+        List<BucketSpec> subset = new ArrayList<>(indexes.size());
+        for (int i : indexes) {
+            subset.add(buckets.get(i));
+        }
+        return subset;
+    }
+
+    /**
+     * 여러 요청의 토큰 버킷 판정을 한 번의 Lua 호출로 처리합니다 (요청별 독립 판정, 단일 키 포맷).
+     * 같은 버킷이 여러 번 있으면 순서대로 이어서 판정합니다. 클러스터/샤딩에서는 슬롯(샤드)마다 한 번씩 동시에 호출합니다.
+     */
+    public List<RateDecision> batchTokenBucketAllow(List<BucketSpec> buckets) {
+        long now = System.currentTimeMillis();
+        List<List<Integer>> groups = partitionGroups(buckets);
+        if (groups == null) {
+            return evalBatchTokenBucket(buckets, now).join();
+        }
+
+        List<CompletableFuture<List<RateDecision>>> parts = new ArrayList<>(groups.size());
+        for (List<Integer> group : groups) {
+            parts.add(evalBatchTokenBucket(subset(buckets, group), now));
+        }
+        RateDecision[] decisions = new RateDecision[buckets.size()];
+        for (int g = 0; g < parts.size(); g++) {
+            List<RateDecision> part = parts.get(g).join();
+            List<Integer> group = groups.get(g);
+            for (int j = 0; j < group.size(); j++) {
+                decisions[group.get(j)] = part.get(j);
+            }
+        }
+        return Arrays.asList(decisions);
+    }
+
+    /** 오류/잘못된 응답이면 모두 허용 (fail-open) */
+    private CompletableFuture<List<RateDecision>> evalBatchTokenBucket(List<BucketSpec> buckets, long now) {
+        List<String> keys = new ArrayList<>(buckets.size());
+        String[] args = new String[1 + buckets.size() * 3];
+        args[0] = String.valueOf(now);
+        for (int i = 0; i < buckets.size(); i++) {
+            BucketSpec b = buckets.get(i);
+            keys.add(key(b));
+            args[1 + i * 3] = String.valueOf(b.ratePerSec());
+            args[2 + i * 3] = String.valueOf(b.burst());
+            args[3 + i * 3] = String.valueOf(b.ttlMillis());
+        }
+
+        log.debug("RedisGuard.batchTokenBucketAllow - size: {}", buckets.size());
+
+        return scripts.evalAsync(batchTokenBucket, keys, (Object[]) args).thenApply(res -> {
+            List<RateDecision> decisions = new ArrayList<>(buckets.size());
+            if (res == null || res.size() < buckets.size() * 3) {
+                log.warn("RedisGuard.batchTokenBucketAllow - Invalid Redis result: {}", res);
+                // fail-open
+                for (BucketSpec b : buckets) {
+                    decisions.add(RateDecision.failOpen(b.burst()));
+                }
+                return decisions;
+            }
+
+            for (int i = 0; i < buckets.size(); i++) {
+                boolean allowed = ((Number) res.get(i * 3)).longValue() == 1L;
+                double tokens = ((Number) res.get(i * 3 + 1)).longValue() / MICRO;
+                long retry = ((Number) res.get(i * 3 + 2)).longValue();
+                decisions.add(new RateDecision(allowed, tokens, retry));
+            }
+            return decisions;
+        }).exceptionally(e -> {
+            log.error("레디스 오류: 임시로 ratelimit 해제: {}", e.getMessage(), e);
+            metrics.redisError("batchTokenBucketAllow");
+            List<RateDecision> decisions = new ArrayList<>(buckets.size());
+            for (BucketSpec b : buckets) {
+                decisions.add(RateDecision.failOpen(b.burst()));
+            }
+            return decisions;
+        });
+    }
+
+    /**
+     * prefix + key + suffix. 클러스터/샤딩 모드면 key 를 hash tag 로 감싸 한 호출이 건드리는 키(tokens/ts, 현재/이전 윈도 등)를 같은 슬롯에 둡니다.
+     */
+    private String key(String prefix, String key, String suffix) {
+        return cluster || sharded ? RedisSlots.tagged(prefix, key, suffix) : prefix + key + suffix;
+    }
+
+    /** 버킷의 Redis 키. 클러스터/샤딩 모드면 hashTag 부분만 {} 로 감쌈 (예: tb:{user:R:u1}:5/SECOND) */
+    private String key(BucketSpec b) {
+        return key("tb:", b.hashTag(), b.key().substring(b.hashTag().length()));
+    }
+
+    /**
+     * 버킷들이 여러 슬롯(클러스터) 또는 샤드(SHARDED)에 걸치면 슬롯/샤드별 인덱스 묶음 (입력 순서 유지, 첫 묶음은 항상 0번 버킷을 포함).
+     * 한 곳에 모이거나 둘 다 아니면 null.
+     */
+    private List<List<Integer>> partitionGroups(List<BucketSpec> buckets) {
+        if (!(cluster || sharded && scripts.shardCount() > 1) || buckets.size() < 2) {
+            return null;
+        }
+        Map<Integer, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < buckets.size(); i++) {
+            String key = key(buckets.get(i));
+            int partition = cluster ? RedisSlots.slot(key) : scripts.shardIndex(key);
+            groups.computeIfAbsent(partition, s -> new ArrayList<>()).add(i);
+        }
+        return groups.size() == 1 ? null : new ArrayList<>(groups.values());
+    }
+
+    /** 거절된 버킷 로컬 캐시 (비활성이면 null) */
+    public DeniedBucketCache deniedCache() {
+        return deniedCache;
+    }
+
+    /** micro-batching 상태 (비활성이면 null) */
+    public DecisionBatcher batcher() {
+        return batcher;
+    }
+
+    /**
+     * GCRA: 키당 정수(TAT) 하나만 읽고, 허용할 때만 씁니다.
+     * Token Bucket(ratePerSec, burst)과 같은 허용/거절 결과를 내며, 키는 버킷이 다시 가득 차는 시각에 만료됩니다.
+     * rate <= 0 이면 ttlMillis 마다 1개씩 충전되는 것으로 처리합니다.
+     */
+    public RateDecision gcraAllow(String bucketKey, double ratePerSec, int burst, long ttlMillis) {
+        List<String> keys = Collections.singletonList(key("gcra:", bucketKey, ""));
+        long emissionIntervalUs = ratePerSec > 0
+                ? Math.max(1L, Math.round(1_000_000.0 / ratePerSec))
+                : ttlMillis * 1000L;
+        long nowUs = System.currentTimeMillis() * 1000L;
+
+        log.debug("RedisGuard.gcraAllow - bucketKey: {}, emissionIntervalUs: {}, burst: {}", bucketKey, emissionIntervalUs, burst);
+
+        try {
+            List<Object> res = scripts.eval(gcra, keys,
+                    String.valueOf(emissionIntervalUs),
+                    String.valueOf(burst),
+                    String.valueOf(nowUs)
+            );
+
+            if (res == null || res.size() < 3) {
+                log.warn("RedisGuard.gcraAllow - Invalid Redis result: {}", res);
+                // fail-open
+                return RateDecision.failOpen(burst);
+            }
+
+            boolean allowed = ((Number) res.get(0)).longValue() == 1L;
+            double remaining = ((Number) res.get(1)).longValue();
+            long retry = ((Number) res.get(2)).longValue();
+            return new RateDecision(allowed, remaining, retry);
+
+        } catch (Exception e) {
+            log.error("레디스 오류: 임시로 ratelimit 해제: {}", e.getMessage(), e);
+            metrics.redisError("gcraAllow");
+            return RateDecision.failOpen(burst);
+        }
+    }
+
+    /**
+     * Sliding Window Counter: windowMillis 동안 limit 건.
+     * 이전/현재 고정 윈도(epoch 기준 정렬) 카운터를 가중합하며, 카운터 키는 다음 윈도가 끝나면 만료됩니다.
+     */
+    public RateDecision slidingWindowAllow(String bucketKey, int limit, long windowMillis) {
+        long now = System.currentTimeMillis();
+        long window = now / windowMillis;
+        long elapsed = now - window * windowMillis;
+        List<String> keys = Arrays.asList(key("sw:", bucketKey, ":" + window), key("sw:", bucketKey, ":" + (window - 1)));
+
+        log.debug("RedisGuard.slidingWindowAllow - bucketKey: {}, limit: {}, windowMillis: {}, elapsed: {}",
+                bucketKey, limit, windowMillis, elapsed);
+
+        try {
+            List<Object> res = scripts.eval(slidingWindow, keys,
+                    String.valueOf(limit),
+                    String.valueOf(windowMillis),
+                    String.valueOf(elapsed)
+            );
+
+            if (res == null || res.size() < 3) {
+                log.warn("RedisGuard.slidingWindowAllow - Invalid Redis result: {}", res);
+                // fail-open
+                return RateDecision.failOpen(limit);
+            }
+
+            boolean allowed = ((Number) res.get(0)).longValue() == 1L;
+            double remaining = ((Number) res.get(1)).longValue();
+            long retry = ((Number) res.get(2)).longValue();
+            return new RateDecision(allowed, remaining, retry);
+
+        } catch (Exception e) {
+            log.error("레디스 오류: 임시로 ratelimit 해제: {}", e.getMessage(), e);
+            metrics.redisError("slidingWindowAllow");
+            return RateDecision.failOpen(limit);
+        }
+    }
+
+    /**
+     * 달력 기준 고정 윈도 쿼터: timeUnit(일/월 등) 윈도마다 limit 건.
+     * 윈도 경계는 zone(비어 있으면 traffic-guard.calendar-zone) 기준이며, 카운터 키는 윈도 끝 시각에 만료됩니다.
+     */
+    public RateDecision calendarWindowAllow(String bucketKey, int limit, UserRateLimit.TimeUnit unit, String zone) {
+        long now = System.currentTimeMillis();
+        try {
+            // 잘못된 zone 도 fail-open (어노테이션의 zone 은 GuardDescriptor 가 시작 시 검증)
+            ZoneId zoneId = zone == null || zone.isEmpty() ? calendarZone : ZoneId.of(zone);
+            CalendarWindow window = CalendarWindow.of(unit, zoneId, now);
+            List<String> keys = Collections.singletonList(key("fw:", bucketKey, ":" + window.startMillis()));
+
+            log.debug("RedisGuard.calendarWindowAllow - bucketKey: {}, limit: {}, unit: {}, zone: {}, windowEnd: {}",
+                    bucketKey, limit, unit, zoneId, window.endMillis());
+
+            List<Object> res = scripts.eval(fixedWindow, keys,
+                    String.valueOf(limit),
+                    String.valueOf(window.endMillis()),
+                    String.valueOf(now)
+            );
+
+            if (res == null || res.size() < 3) {
+                log.warn("RedisGuard.calendarWindowAllow - Invalid Redis result: {}", res);
+                // fail-open
+                return RateDecision.failOpen(limit);
+            }
+
+            boolean allowed = ((Number) res.get(0)).longValue() == 1L;
+            double remaining = ((Number) res.get(1)).longValue();
+            long retry = ((Number) res.get(2)).longValue();
+            return new RateDecision(allowed, remaining, retry);
+
+        } catch (Exception e) {
+            log.error("레디스 오류: 임시로 ratelimit 해제: {}", e.getMessage(), e);
+            metrics.redisError("calendarWindowAllow");
+            return RateDecision.failOpen(limit);
+        }
+    }
+
+    /**
+     * 버킷에서 토큰을 최대 requested 개 빌려오고, 이전 리스에서 남은 returned 개를 반환합니다.
+     * requested 가 0이면 반환만 수행합니다. 버킷은 tokenBucketAllow 와 같은 포맷(bucketFormat)으로 읽고 씁니다.
+     */
+    public TokenLease leaseTokens(String bucketKey, double ratePerSec, int burst, long ttlMillis, int requested, int returned) {
+        List<String> keys = packed
+                ? Collections.singletonList(key("tb:", bucketKey, ""))
+                : Arrays.asList(key("tb:", bucketKey, ":tokens"), key("tb:", bucketKey, ":ts"));
+        long now = System.currentTimeMillis();
+
+        log.debug("RedisGuard.leaseTokens - bucketKey: {}, requested: {}, returned: {}", bucketKey, requested, returned);
+
+        try {
+            List<Object> res = scripts.eval(tokenLease, keys,
+                    String.valueOf(ratePerSec),
+                    String.valueOf(burst),
+                    String.valueOf(now),
+                    String.valueOf(ttlMillis),
+                    String.valueOf(requested),
+                    String.valueOf(returned)
+            );
+
+            if (res == null || res.size() < 3) {
+                log.warn("RedisGuard.leaseTokens - Invalid Redis result: {}", res);
+                // fail-open: 요청한 만큼 빌려준 것으로 처리
+                return new TokenLease(requested, burst, 0);
+            }
+
+            int granted = ((Number) res.get(0)).intValue();
+            double tokens = ((Number) res.get(1)).longValue() / MICRO;
+            long retry = ((Number) res.get(2)).longValue();
+            return new TokenLease(granted, tokens, retry);
+
+        } catch (Exception e) {
+            log.error("레디스 오류: 임시로 token lease 허용: {}", e.getMessage(), e);
+            metrics.redisError("leaseTokens");
+            return new TokenLease(requested, burst, 0);
+        }
+    }
+
+    /**
+     * 분산 세마포어에서 holderId 가 들고 있을 permit 수를 desired 로 맞추고 leaseMillis 동안 유지합니다.
+     * 늘릴 때는 남은 permit 까지만 받으며, 갱신하지 않은 보유자의 permit 은 만료 후 회수됩니다.
+     */
+    public PermitLease holdPermits(String semaphoreKey, int permits, String holderId, int desired, long leaseMillis) {
+        List<String> keys = Arrays.asList(key("sem:", semaphoreKey, ":holders"), key("sem:", semaphoreKey, ":expiry"));
+        long now = System.currentTimeMillis();
+
+        log.debug("RedisGuard.holdPermits - semaphoreKey: {}, permits: {}, holder: {}, desired: {}", semaphoreKey, permits, holderId, desired);
 
+        try {
+            List<Object> res = scripts.eval(semaphoreLease, keys,
+                    String.valueOf(permits),
+                    holderId,
+                    String.valueOf(desired),
+                    String.valueOf(now),
+                    String.valueOf(leaseMillis)
+            );
 
+            if (res == null || res.size() < 2) {
+                log.warn("RedisGuard.holdPermits - Invalid Redis result: {}", res);
+                // fail-open: 원하는 만큼 보유한 것으로 처리
+                return new PermitLease(desired, permits);
+            }
+
+            return new PermitLease(((Number) res.get(0)).intValue(), ((Number) res.get(1)).intValue());
+
+        } catch (Exception e) {
+            log.error("레디스 오류: 임시로 semaphore 해제: {}", e.getMessage(), e);
+            metrics.redisError("holdPermits");
+            return new PermitLease(desired, permits);
+        }
+    }
+
+    /**
+     * 사용자 세마포어에서 leaseId 로 permit 하나를 leaseMillis 동안 얻습니다.
+     * released 는 같은 키에서 아직 Redis 에 반영되지 않은 반납분으로, 판정 전에 먼저 제거합니다.
+     */
+    public boolean userSemaphoreAcquire(String semaphoreKey, int permits, String leaseId, long leaseMillis, List<String> released) {
+        List<String> keys = Collections.singletonList(key("usem:", semaphoreKey, ""));
+        long now = System.currentTimeMillis();
+
+        log.debug("RedisGuard.userSemaphoreAcquire - semaphoreKey: {}, permits: {}, leaseId: {}, released: {}",
+                semaphoreKey, permits, leaseId, released.size());
+
+        Object[] args = new Object[4 + released.size()];
+        args[0] = String.valueOf(permits);
+        args[1] = leaseId;
+        args[2] = String.valueOf(now);
+        args[3] = String.valueOf(leaseMillis);
+        for (int i = 0; i < released.size(); i++) {
+            args[4 + i] = released.get(i);
+        }
+
+        try {
+            List<Object> res = scripts.eval(userSemaphore, keys, args);
+
+            if (res == null || res.size() < 2) {
+                log.warn("RedisGuard.userSemaphoreAcquire - Invalid Redis result: {}", res);
+                // fail-open
+                return true;
+            }
+            return ((Number) res.get(0)).longValue() == 1L;
+
+        } catch (Exception e) {
+            log.error("레디스 오류: 임시로 semaphore 해제: {}", e.getMessage(), e);
+            metrics.redisError("userSemaphoreAcquire");
+            return true;
+        }
+    }
+
+    /**
+     * 사용자 세마포어 리스를 한 번의 파이프라인으로 반납합니다. (semaphoreKey -> leaseIds)
+     * 샤딩 모드면 샤드마다 RBatch 하나로 보냅니다.
+     *
+     * @return 반납이 Redis 에 반영됐는지. 실패하면 호출자가 다시 보낼 수 있음 (ZREM 이므로 중복 반납은 무해)
+     */
+    public boolean releaseUserSemaphores(Map<String, List<String>> leases) {
+        if (leases.isEmpty()) {
+            return true;
+        }
+        log.debug("RedisGuard.releaseUserSemaphores - keys: {}", leases.size());
+
+        try {
+            if (sharded && scripts.shardCount() > 1) {
+                releaseUserSemaphoresPerShard(leases);
+                return true;
+            }
+            rt.executePipelined((RedisCallback<Object>) connection -> {
+                for (Map.Entry<String, List<String>> e : leases.entrySet()) {
+                    byte[][] members = new byte[e.getValue().size()][];
+                    for (int i = 0; i < members.length; i++) {
+                        members[i] = e.getValue().get(i).getBytes(StandardCharsets.UTF_8);
+                    }
+                    connection.zSetCommands().zRem(key("usem:", e.getKey(), "").getBytes(StandardCharsets.UTF_8), members);
+                }
+                return null;
+            });
+            return true;
+        } catch (Exception e) {
+            log.warn("RedisGuard.releaseUserSemaphores - failed: {}", e.getMessage());
+            metrics.redisError("releaseUserSemaphores");
+            return false;
+        }
+    }
+
+    private void releaseUserSemaphoresPerShard(Map<String, List<String>> leases) {
+        Map<RedissonClient, RBatch> batches = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> e : leases.entrySet()) {
+            String key = key("usem:", e.getKey(), "");
+            batches.computeIfAbsent(scripts.client(key), RedissonClient::createBatch)
+                    .getScoredSortedSet(key, StringCodec.INSTANCE)
+                    .removeAllAsync(e.getValue());
+        }
+        List<CompletableFuture<?>> results = new ArrayList<>(batches.size());
+        for (RBatch batch : batches.values()) {
+            results.add(batch.executeAsync().toCompletableFuture());
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).join();
+    }
+}
@@ -0,0 +1,287 @@
+package com.trafficguard.core;
+
+import com.trafficguard.config.TrafficGuardProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.FunctionMode;
+import org.redisson.api.FunctionResult;
+import org.redisson.api.RFunction;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 리미터 Lua 스크립트(RedisConfig 의 DefaultRedisScript 빈)를 한곳에서 실행합니다.
+ *
+ * - 시작 시 SCRIPT LOAD 로 모든 스크립트를 올려 두고, 요청 경로에서는 EVALSHA 만 보냅니다.
+ * - failover/재시작으로 서버 스크립트 캐시가 비면(NOSCRIPT) EVAL 로 한 번 더 보내 다시 올립니다.
+ * - traffic-guard.scripts.use-functions=true 이고 Redis 7 이상이면 스크립트를 FUNCTION 라이브러리로 등록해 FCALL 로 호출합니다.
+ *   라이브러리가 사라지면 다시 등록하고, 등록에 실패하면(Redis 7 미만 등) EVALSHA 로 동작합니다.
+ * - 캐시 miss(NOSCRIPT, 함수 없음)는 스크립트별로 셉니다.
+ * - 클라이언트 샤딩(spring.redis.properties.mode=SHARDED)이면 샤드마다 스크립트를 올리고,
+ *   호출은 첫 번째 키의 routingKey(hash tag)로 consistent-hash ring 에서 고른 샤드에 보냅니다.
+ */
+@Slf4j
+@Component
+public class RedisScriptRegistry {
+    /** FUNCTION 라이브러리 이름 */
+    public static final String LIBRARY_NAME = "trafficguard";
+
+    private static final String FUNCTION_PREFIX = "tg_";
+
+    private final RedisShardRing<RedissonClient> clients;
+    private final RedisShardRing<Shard> shards;
+    private final boolean preload;
+    private final boolean useFunctions;
+    /** sha1 -> 스크립트 이름 (빈 이름에서 "Script" 를 뗀 것) */
+    private final Map<String, String> names = new LinkedHashMap<>();
+    private final Map<String, DefaultRedisScript<List<Object>>> scripts = new LinkedHashMap<>();
+    private final String library;
+    private final ConcurrentHashMap<String, LongAdder> misses = new ConcurrentHashMap<>();
+    private final LongAdder totalMisses = new LongAdder();
+    private final LongAdder reloads = new LongAdder();
+
+    /** Redis 마스터 하나의 스크립트 실행 상태 */
+    private static final class Shard {
+        private final RScript script;
+        private final RFunction function;
+        /** 진행 중인 라이브러리 재등록 (동시에 miss 가 나도 FUNCTION LOAD 는 한 번만) */
+        private final AtomicReference<CompletableFuture<Void>> reloading = new AtomicReference<>();
+        private volatile boolean functionsLoaded;
+
+        private Shard(RedissonClient redisson) {
+            this.script = redisson.getScript(StringCodec.INSTANCE);
+            this.function = redisson.getFunction(StringCodec.INSTANCE);
+        }
+    }
+
+    public RedisScriptRegistry(RedisShardRing<RedissonClient> redisShardRing,
+                               Map<String, DefaultRedisScript<List<Object>>> scripts,
+                               TrafficGuardProperties properties) {
+        this.clients = redisShardRing;
+        this.shards = redisShardRing.map(Shard::new);
+        this.preload = properties.getScripts().isPreload();
+        this.useFunctions = properties.getScripts().isUseFunctions();
+        for (Map.Entry<String, DefaultRedisScript<List<Object>>> e : scripts.entrySet()) {
+            String name = e.getKey().endsWith("Script")
+                    ? e.getKey().substring(0, e.getKey().length() - "Script".length())
+                    : e.getKey();
+            this.names.put(e.getValue().getSha1(), name);
+            this.scripts.put(name, e.getValue());
+            this.misses.put(name, new LongAdder());
+        }
+        this.library = buildLibrary(this.scripts);
+    }
+
+    /**
+     * 시작 시 스크립트(또는 라이브러리)를 올립니다. Redis 에 연결할 수 없어도 시작은 계속하며, 첫 호출에서 다시 올립니다.
+     */
+    @PostConstruct
+    public void load() {
+        shards.shardsByName().forEach(this::load);
+    }
+
+    private void load(String name, Shard shard) {
+        if (useFunctions) {
+            try {
+                shard.function.loadAndReplace(LIBRARY_NAME, library);
+                shard.functionsLoaded = true;
+                log.info("RedisScriptRegistry - FUNCTION library '{}' loaded on {} ({} functions)", LIBRARY_NAME, name, scripts.size());
+                return;
+            } catch (Exception e) {
+                log.warn("RedisScriptRegistry - FUNCTION LOAD failed on {}, falling back to EVALSHA: {}", name, e.getMessage());
+            }
+        }
+        if (!preload) {
+            return;
+        }
+        for (Map.Entry<String, DefaultRedisScript<List<Object>>> e : scripts.entrySet()) {
+            try {
+                shard.script.scriptLoad(e.getValue().getScriptAsString());
+            } catch (Exception ex) {
+                log.warn("RedisScriptRegistry - SCRIPT LOAD failed on {} for {}: {}", name, e.getKey(), ex.getMessage());
+                return;
+            }
+        }
+        log.info("RedisScriptRegistry - {} scripts preloaded on {}", scripts.size(), name);
+    }
+
+    /**
+     * 이름으로 스크립트를 찾습니다 (RedisConfig 의 빈 이름에서 "Script" 를 뗀 것, 예: tokenBucketPacked).
+     */
+    public DefaultRedisScript<List<Object>> script(String name) {
+        DefaultRedisScript<List<Object>> script = scripts.get(name);
+        if (script == null) {
+            throw new IllegalStateException("unknown script: " + name + " (registered: " + scripts.keySet() + ")");
+        }
+        return script;
+    }
+
+    /**
+     * 스크립트를 비동기 실행합니다. 정수 응답은 Long, 문자열 응답은 String 으로 옵니다.
+     */
+    public CompletableFuture<List<Object>> evalAsync(DefaultRedisScript<?> redisScript, List<String> keys, Object... args) {
+        Shard shard = shards.shards().get(keys.isEmpty() ? 0 : shardIndex(keys.get(0)));
+        List<Object> scriptKeys = new ArrayList<>(keys);
+        if (shard.functionsLoaded) {
+            return fcallAsync(shard, redisScript, scriptKeys, args);
+        }
+        RScript script = shard.script;
+        CompletableFuture<List<Object>> result = new CompletableFuture<>();
+        script.<List<Object>>evalShaAsync(RScript.Mode.READ_WRITE, redisScript.getSha1(), RScript.ReturnType.MULTI, scriptKeys, args)
+                .whenComplete((res, e) -> {
+                    if (e == null) {
+                        result.complete(res);
+                    } else if (String.valueOf(e.getMessage()).contains("NOSCRIPT")) {
+                        // EVAL 이 스크립트를 서버 캐시에 다시 올리므로 이후 EVALSHA 는 성공
+                        recordMiss(redisScript);
+                        script.<List<Object>>evalAsync(RScript.Mode.READ_WRITE, redisScript.getScriptAsString(), RScript.ReturnType.MULTI, scriptKeys, args)
+                                .whenComplete((retried, retryError) -> complete(result, retried, retryError));
+                    } else {
+                        result.completeExceptionally(e);
+                    }
+                });
+        return result;
+    }
+
+    /**
+     * 동기 경로용. Redis 오류는 CompletionException 으로 던집니다.
+     */
+    public List<Object> eval(DefaultRedisScript<?> redisScript, List<String> keys, Object... args) {
+        return evalAsync(redisScript, keys, args).join();
+    }
+
+    private CompletableFuture<List<Object>> fcallAsync(Shard shard, DefaultRedisScript<?> redisScript, List<Object> keys, Object[] args) {
+        RFunction function = shard.function;
+        String fn = FUNCTION_PREFIX + names.get(redisScript.getSha1());
+        CompletableFuture<List<Object>> result = new CompletableFuture<>();
+        function.<List<Object>>callAsync(FunctionMode.WRITE, fn, FunctionResult.MULTI, keys, args)
+                .whenComplete((res, e) -> {
+                    if (e == null) {
+                        result.complete(res);
+                    } else if (String.valueOf(e.getMessage()).contains("Function not found")) {
+                        // failover 후 라이브러리가 없는 노드 - 다시 등록하고 한 번 더 호출
+                        recordMiss(redisScript);
+                        reloadLibrary(shard).whenComplete((ignored, loadError) -> {
+                            if (loadError != null) {
+                                result.completeExceptionally(loadError);
+                                return;
+                            }
+                            function.<List<Object>>callAsync(FunctionMode.WRITE, fn, FunctionResult.MULTI, keys, args)
+                                    .whenComplete((retried, retryError) -> complete(result, retried, retryError));
+                        });
+                    } else {
+                        result.completeExceptionally(e);
+                    }
+                });
+        return result;
+    }
+
+    private CompletableFuture<Void> reloadLibrary(Shard shard) {
+        CompletableFuture<Void> current = shard.reloading.get();
+        if (current != null) {
+            return current;
+        }
+        CompletableFuture<Void> mine = new CompletableFuture<>();
+        if (!shard.reloading.compareAndSet(null, mine)) {
+            return reloadLibrary(shard);
+        }
+        reloads.increment();
+        shard.function.loadAndReplaceAsync(LIBRARY_NAME, library).whenComplete((ignored, e) -> {
+            shard.reloading.set(null);
+            if (e == null) {
+                mine.complete(null);
+            } else {
+                mine.completeExceptionally(e);
+            }
+        });
+        return mine;
+    }
+
+    private void recordMiss(DefaultRedisScript<?> redisScript) {
+        totalMisses.increment();
+        String name = names.get(redisScript.getSha1());
+        if (name != null) {
+            misses.get(name).increment();
+        }
+    }
+
+    private static <T> void complete(CompletableFuture<T> result, T value, Throwable error) {
+        if (error == null) {
+            result.complete(value);
+        } else {
+            result.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * 스크립트마다 redis.register_function 으로 감싼 라이브러리 코드.
+     * 스크립트 본문은 KEYS/ARGV 를 그대로 쓰므로 같은 이름의 인자로 받습니다.
+     */
+    static String buildLibrary(Map<String, DefaultRedisScript<List<Object>>> scripts) {
+        StringBuilder sb = new StringBuilder("#!lua name=").append(LIBRARY_NAME).append('\n');
+        for (Map.Entry<String, DefaultRedisScript<List<Object>>> e : scripts.entrySet()) {
+            sb.append("redis.register_function('").append(FUNCTION_PREFIX).append(e.getKey())
+                    .append("', function(KEYS, ARGV)\n")
+                    .append(e.getValue().getScriptAsString())
+                    .append("\nend)\n");
+        }
+        return sb.toString();
+    }
+
+    /** 모든 샤드에서 FCALL 로 호출 중인지 (false 면 하나 이상이 EVALSHA) */
+    public boolean functionsLoaded() {
+        for (Shard shard : shards.shards()) {
+            if (!shard.functionsLoaded) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** 샤드(독립 Redis 마스터) 수. SHARDED 가 아니면 1 */
+    public int shardCount() {
+        return shards.shards().size();
+    }
+
+    /** key 가 가는 샤드의 인덱스 (0..shardCount-1) */
+    public int shardIndex(String key) {
+        return shards.shards().size() == 1 ? 0 : shards.indexOf(RedisSlots.routingKey(key));
+    }
+
+    /** key 가 가는 샤드의 클라이언트 (스크립트가 아닌 명령용) */
+    public RedissonClient client(String key) {
+        return clients.shards().get(shardIndex(key));
+    }
+
+    /** 전체 스크립트 캐시 miss 횟수 */
+    public long cacheMisses() {
+        return totalMisses.sum();
+    }
+
+    /** 스크립트 이름(예: "tokenBucketPacked") -> 캐시 miss 횟수 */
+    public Map<String, Long> cacheMissesByScript() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (String name : scripts.keySet()) {
+            result.put(name, misses.get(name).sum());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /** FUNCTION 라이브러리 재등록 횟수 */
+    public long libraryReloads() {
+        return reloads.sum();
+    }
+}
@@ -0,0 +1,115 @@
+package com.trafficguard.core;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 독립 Redis 마스터(샤드)에 키를 나누는 consistent-hash ring.
+ *
+ * - 샤드마다 virtualNodes 개의 점을 링에 두고, 키는 해시값 이후 첫 번째 점의 샤드로 갑니다.
+ * - 점 위치는 샤드 이름(주소)만으로 정해지므로 샤드를 빼면 그 샤드의 키만 다른 샤드로 옮겨지고, 추가하면 새 샤드가 가져가는 키만 옮겨집니다.
+ * - 링은 불변이며 조회는 배열 이분 탐색입니다.
+ *
+ * @param <T> 샤드 (예: RedissonClient)
+ */
+public final class RedisShardRing<T> {
+    private final Map<String, T> shards;
+    private final int virtualNodes;
+    private final List<T> owners;
+    private final long[] points;
+    /** points[i] 의 샤드 인덱스 (owners 기준) */
+    private final int[] pointOwners;
+
+    /**
+     * @param shards 샤드 이름 -> 샤드 (이름은 점 위치를 정하므로 주소처럼 바뀌지 않는 값을 씀)
+     */
+    public RedisShardRing(Map<String, T> shards, int virtualNodes) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("at least one shard is required");
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be positive: " + virtualNodes);
+        }
+        this.shards = Collections.unmodifiableMap(new LinkedHashMap<>(shards));
+        this.virtualNodes = virtualNodes;
+        this.owners = Collections.unmodifiableList(new ArrayList<>(shards.values()));
+
+        int n = shards.size() * virtualNodes;
+        long[][] entries = new long[n][];
+        int e = 0;
+        int owner = 0;
+        for (String name : shards.keySet()) {
+            for (int v = 0; v < virtualNodes; v++) {
+                entries[e++] = new long[]{hash(name + "#" + v), owner};
+            }
+            owner++;
+        }
+        // 같은 해시값이면 이름 순서가 앞선 샤드 (결정적)
+        Arrays.sort(entries, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        this.points = new long[n];
+        this.pointOwners = new int[n];
+        for (int i = 0; i < n; i++) {
+            points[i] = entries[i][0];
+            pointOwners[i] = (int) entries[i][1];
+        }
+    }
+
+    public T get(String key) {
+        return owners.get(indexOf(key));
+    }
+
+    /** 키가 가는 샤드의 인덱스 (shards() 순서) */
+    public int indexOf(String key) {
+        if (owners.size() == 1) {
+            return 0;
+        }
+        int i = Arrays.binarySearch(points, hash(key));
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return pointOwners[i == points.length ? 0 : i];
+    }
+
+    public List<T> shards() {
+        return owners;
+    }
+
+    public Map<String, T> shardsByName() {
+        return shards;
+    }
+
+    /** 같은 이름/점 위치에 샤드만 바꾼 링 */
+    public <R> RedisShardRing<R> map(Function<T, R> mapper) {
+        Map<String, R> mapped = new LinkedHashMap<>();
+        shards.forEach((name, shard) -> mapped.put(name, mapper.apply(shard)));
+        return new RedisShardRing<>(mapped, virtualNodes);
+    }
+
+    /** name 샤드를 뺀 링 (나머지 샤드의 점은 그대로) */
+    public RedisShardRing<T> without(String name) {
+        Map<String, T> rest = new LinkedHashMap<>(shards);
+        rest.remove(name);
+        return new RedisShardRing<>(rest, virtualNodes);
+    }
+
+    /** 64비트 FNV-1a + splitmix64 finalizer (짧은 키에서도 고르게 퍼지도록) */
+    static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 30;
+        h *= 0xbf58476d1ce4e5b9L;
+        h ^= h >>> 27;
+        h *= 0x94d049bb133111ebL;
+        h ^= h >>> 31;
+        return h;
+    }
+}
@@ -0,0 +1,78 @@
+package com.trafficguard.core;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Redis Cluster 해시 슬롯 계산 (CLUSTER KEYSLOT 과 같은 결과).
+ *
+ * 키에 비어 있지 않은 {...} 가 있으면 첫 번째 것의 안쪽만 해시하므로, 같은 hash tag 를 가진 키는 같은 슬롯에 놓입니다.
+ * 클라이언트 샤딩(RedisShardRing)도 같은 규칙(routingKey)으로 샤드를 고릅니다.
+ */
+public final class RedisSlots {
+    public static final int SLOTS = 16384;
+
+    /** CRC16-CCITT (XMODEM, poly 0x1021) */
+    private static final int[] CRC16_TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc = i << 8;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+            }
+            CRC16_TABLE[i] = crc & 0xFFFF;
+        }
+    }
+
+    private RedisSlots() {
+    }
+
+    public static int slot(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        int start = 0;
+        int end = bytes.length;
+        int open = indexOf(bytes, (byte) '{', 0);
+        if (open >= 0) {
+            int close = indexOf(bytes, (byte) '}', open + 1);
+            if (close > open + 1) {
+                start = open + 1;
+                end = close;
+            }
+        }
+        return crc16(bytes, start, end) % SLOTS;
+    }
+
+    /** 키에 비어 있지 않은 hash tag 가 있으면 그 안쪽, 없으면 키 전체 (같은 슬롯/샤드에 놓이는 기준) */
+    public static String routingKey(String key) {
+        int open = key.indexOf('{');
+        if (open >= 0) {
+            int close = key.indexOf('}', open + 1);
+            if (close > open + 1) {
+                return key.substring(open + 1, close);
+            }
+        }
+        return key;
+    }
+
+    /** hashTag 를 {} 로 감싼 키 (prefix + "{" + hashTag + "}" + suffix) */
+    public static String tagged(String prefix, String hashTag, String suffix) {
+        return prefix + "{" + hashTag + "}" + suffix;
+    }
+
+    static int crc16(byte[] bytes, int start, int end) {
+        int crc = 0;
+        for (int i = start; i < end; i++) {
+            crc = ((crc << 8) ^ CRC16_TABLE[((crc >>> 8) ^ bytes[i]) & 0xFF]) & 0xFFFF;
+        }
+        return crc;
+    }
+
+    private static int indexOf(byte[] bytes, byte b, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,264 @@
+package com.trafficguard.core;
+
+import com.trafficguard.config.TrafficGuardProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * @GlobalSemaphore: 클러스터 전체 동시 실행 수 제한.
+ *
+ * - 노드는 세마포어마다 Redis 에서 permit 을 묶음으로 보유(held)하고, 로컬에서 나눠 씁니다(inUse).
+ * - 보유 permit 이 남아 있으면 acquire/release 모두 Redis 를 호출하지 않습니다.
+ * - 보유 permit 은 heartbeat 마다 "사용 중 + 여분 prefetch" 로 맞춰 갱신하고, 한동안 쓰지 않으면 여분을 반환합니다.
+ *   갱신 주기는 min(heartbeatMillis, leaseMillis / 3) 이므로 leaseMillis 가 heartbeat 보다 짧아도 사용 중인 permit 이 만료되지 않습니다.
+ * - Redis 의 보유 정보는 leaseMillis 후 만료되므로, 노드가 죽어도 permit 이 영구히 새지 않습니다.
+ * - Redis 호출은 풀 모니터 밖에서 하므로 release() 는 Redis I/O 를 기다리지 않습니다 (event loop 에서 호출해도 안전).
+ *
+ * 모든 permit 은 Redis 에서 먼저 확보하므로 전체 동시 실행 수는 permits 를 넘지 않습니다.
+ * 대신 여분 permit 을 다른 노드가 쓰지 못하는 시간이 최대 heartbeatMillis 만큼 생깁니다.
+ */
+@Slf4j
+@Component
+public class SemaphoreLeaseGuard {
+    /** heartbeat 몇 번 동안 쓰이지 않은 빈 풀을 정리할지 */
+    private static final long IDLE_EVICT_BEATS = 10;
+    /** 리스 한 번이 유효한 동안 최소 몇 번 갱신할지 */
+    private static final long RENEWALS_PER_LEASE = 3;
+    private static final long MIN_RENEW_MILLIS = 10;
+
+    private final RedisGuard redisGuard;
+    private final TrafficGuardProperties.Semaphore props;
+    private final LongSupplier clock;
+    private final String holderId = UUID.randomUUID().toString();
+    private final ConcurrentHashMap<String, Pool> pools = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService heartbeat;
+
+    @Autowired
+    public SemaphoreLeaseGuard(RedisGuard redisGuard, TrafficGuardProperties properties) {
+        this(redisGuard, properties, System::currentTimeMillis, true);
+    }
+
+    SemaphoreLeaseGuard(RedisGuard redisGuard, TrafficGuardProperties properties, LongSupplier clock, boolean startHeartbeat) {
+        this.redisGuard = redisGuard;
+        this.props = properties.getSemaphore();
+        this.clock = clock;
+        if (startHeartbeat) {
+            this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "traffic-guard-semaphore-heartbeat");
+                t.setDaemon(true);
+                return t;
+            });
+            scheduleRenewal();
+        } else {
+            this.heartbeat = null;
+        }
+    }
+
+    /** 다음 갱신을 가장 짧은 풀 갱신 주기 뒤로 예약 (풀의 leaseMillis 가 바뀌면 다음 주기부터 반영) */
+    private void scheduleRenewal() {
+        if (heartbeat.isShutdown()) {
+            return;
+        }
+        heartbeat.schedule(() -> {
+            try {
+                renewLeases();
+            } finally {
+                scheduleRenewal();
+            }
+        }, nextRenewDelay(), TimeUnit.MILLISECONDS);
+    }
+
+    /** 풀 하나의 갱신 주기: heartbeatMillis 와 leaseMillis / 3 중 짧은 쪽 */
+    private long renewInterval(long leaseMillis) {
+        long interval = props.getHeartbeatMillis();
+        if (leaseMillis > 0) {
+            interval = Math.min(interval, leaseMillis / RENEWALS_PER_LEASE);
+        }
+        return Math.max(MIN_RENEW_MILLIS, interval);
+    }
+
+    /** 다음 heartbeat 까지의 지연(ms): 관리 중인 풀의 갱신 주기 중 최소값 */
+    long nextRenewDelay() {
+        long delay = renewInterval(0);
+        for (Pool pool : pools.values()) {
+            synchronized (pool) {
+                delay = Math.min(delay, renewInterval(pool.leaseMillis));
+            }
+        }
+        return delay;
+    }
+
+    /**
+     * permit 하나를 얻습니다. waitMillis 동안 얻지 못하면 false.
+     *
+     * @param leaseMillis Redis 보유 정보 만료 시간 (0이면 traffic-guard.semaphore.default-lease-millis)
+     */
+    public boolean tryAcquire(String semaphoreKey, int permits, long leaseMillis, long waitMillis) {
+        long lease = leaseMillis > 0 ? leaseMillis : props.getDefaultLeaseMillis();
+        long deadline = clock.getAsLong() + Math.max(0L, waitMillis);
+
+        for (;;) {
+            Pool pool = pools.computeIfAbsent(semaphoreKey, k -> new Pool());
+            synchronized (pool) {
+                if (pools.get(semaphoreKey) != pool) {
+                    // heartbeat 가 정리한 풀 - 새 풀로 다시 시도
+                    continue;
+                }
+                pool.permits = permits;
+                pool.leaseMillis = lease;
+                pool.active = true;
+
+                // fast path: 보유 중인 여분 permit 사용
+                if (pool.inUse < pool.held) {
+                    pool.inUse++;
+                    return true;
+                }
+            }
+
+            // slow path: 이번 요청 + 여분 prefetch 만큼 보유하도록 요청 (Redis 호출은 풀 모니터 밖에서)
+            pool.io.lock();
+            try {
+                int desired;
+                synchronized (pool) {
+                    if (pools.get(semaphoreKey) != pool) {
+                        continue;
+                    }
+                    // 기다리는 동안 다른 스레드가 보유 수를 늘렸으면 그대로 사용
+                    if (pool.inUse < pool.held) {
+                        pool.inUse++;
+                        return true;
+                    }
+                    desired = Math.min(permits, pool.inUse + 1 + props.getPrefetch());
+                }
+                int held = redisGuard.holdPermits(semaphoreKey, permits, holderId, desired, lease).held();
+                synchronized (pool) {
+                    pool.held = held;
+                    if (pool.inUse < pool.held) {
+                        pool.inUse++;
+                        return true;
+                    }
+                }
+            } finally {
+                pool.io.unlock();
+            }
+
+            long remaining = deadline - clock.getAsLong();
+            if (remaining <= 0) {
+                return false;
+            }
+            try {
+                Thread.sleep(Math.min(remaining, Math.max(1L, props.getRetryIntervalMillis())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * permit 하나를 반납합니다. 로컬 풀에만 돌려놓고, Redis 반환은 heartbeat 에서 처리합니다.
+     */
+    public void release(String semaphoreKey) {
+        Pool pool = pools.get(semaphoreKey);
+        if (pool == null) {
+            return;
+        }
+        synchronized (pool) {
+            if (pool.inUse > 0) {
+                pool.inUse--;
+            }
+        }
+    }
+
+    /**
+     * 보유 permit 의 리스를 갱신하고, 직전 주기에 쓰이지 않은 여분 permit 은 Redis 로 돌려줍니다.
+     * 풀마다 renewInterval(leaseMillis) 가 지난 것만 갱신합니다.
+     */
+    void renewLeases() {
+        long now = clock.getAsLong();
+        for (Map.Entry<String, Pool> e : pools.entrySet()) {
+            Pool pool = e.getValue();
+            pool.io.lock();
+            try {
+                int permits;
+                int desired;
+                long lease;
+                synchronized (pool) {
+                    if (now - pool.renewedAt < renewInterval(pool.leaseMillis)) {
+                        continue;
+                    }
+                    int keep = pool.active ? props.getPrefetch() : 0;
+                    // 리스가 만료되어 held < inUse 가 됐다면 사용 중인 만큼은 다시 확보 시도
+                    desired = Math.min(Math.max(pool.held, pool.inUse), pool.inUse + keep);
+
+                    if (pool.active) {
+                        pool.lastActive = now;
+                    }
+                    pool.active = false;
+
+                    if (desired == 0 && pool.held == 0) {
+                        if (now - pool.lastActive > props.getHeartbeatMillis() * IDLE_EVICT_BEATS) {
+                            pools.remove(e.getKey(), pool);
+                        }
+                        continue;
+                    }
+                    permits = pool.permits;
+                    lease = pool.leaseMillis;
+                }
+                int held = redisGuard.holdPermits(e.getKey(), permits, holderId, desired, lease).held();
+                synchronized (pool) {
+                    pool.held = held;
+                    pool.renewedAt = now;
+                }
+            } catch (Exception ex) {
+                log.warn("SemaphoreLeaseGuard - failed to renew lease {}: {}", e.getKey(), ex.getMessage());
+            } finally {
+                pool.io.unlock();
+            }
+        }
+    }
+
+    /** 현재 노드가 관리하는 세마포어 수 */
+    public int size() {
+        return pools.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+        // 종료 시 보유 permit 을 모두 반환
+        for (Map.Entry<String, Pool> e : pools.entrySet()) {
+            Pool pool = e.getValue();
+            if (pool.held > 0) {
+                redisGuard.holdPermits(e.getKey(), pool.permits, holderId, 0, pool.leaseMillis);
+            }
+        }
+        pools.clear();
+    }
+
+    // io 를 제외한 모든 필드는 synchronized(pool) 안에서만 접근
+    private static final class Pool {
+        /** 풀의 Redis 호출(holdPermits)을 순서대로 실행. 모니터와 분리해 release() 가 I/O 를 기다리지 않게 함 */
+        private final ReentrantLock io = new ReentrantLock();
+        private int held;
+        private int inUse;
+        private int permits;
+        private long leaseMillis;
+        private boolean active;
+        private long lastActive;
+        private long renewedAt;
+    }
+}
@@ -0,0 +1,56 @@
+package com.trafficguard.core;
+
+import com.trafficguard.annotation.GlobalRateLimit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 하위 버킷으로 나눈 전역 토큰 버킷.
+ *
+ * - 하위 버킷 i 는 rate/shards 로 충전되고, burst 는 하위 버킷에 고르게 나눕니다 (합계 = 전체 제한).
+ * - 하위 버킷 키는 서로 다른 키이므로 Redis 샤드(클러스터 슬롯)에 나뉘어 처리량이 샤드 수에 비례합니다.
+ * - 선택한 하위 버킷이 비어 있으면 이웃 하위 버킷을 maxFallback 개까지 차례로 시도합니다.
+ */
+@Slf4j
+@Component
+public class ShardedBucketGuard {
+    private final RedisGuard redisGuard;
+    private final int nodeHash = UUID.randomUUID().hashCode() & Integer.MAX_VALUE;
+    private final AtomicInteger roundRobin = new AtomicInteger();
+
+    public ShardedBucketGuard(RedisGuard redisGuard) {
+        this.redisGuard = redisGuard;
+    }
+
+    public RedisGuard.RateDecision tryAcquire(String bucketKey, double ratePerSec, int burst, long ttlMillis,
+                                              int shards, GlobalRateLimit.ShardStrategy strategy, int maxFallback) {
+        // 하위 버킷마다 burst 가 1 이상이 되도록
+        int n = Math.max(1, Math.min(shards, burst));
+        if (n == 1) {
+            return redisGuard.tokenBucketAllow(bucketKey, ratePerSec, burst, ttlMillis);
+        }
+
+        int first = strategy == GlobalRateLimit.ShardStrategy.HASH
+                ? nodeHash % n
+                : (roundRobin.getAndIncrement() & Integer.MAX_VALUE) % n;
+        int attempts = 1 + Math.max(0, Math.min(maxFallback, n - 1));
+        double shardRate = ratePerSec / n;
+
+        long minRetry = Long.MAX_VALUE;
+        for (int a = 0; a < attempts; a++) {
+            int shard = (first + a) % n;
+            // 나머지는 앞쪽 하위 버킷에 1개씩 더 배분
+            int shardBurst = burst / n + (shard < burst % n ? 1 : 0);
+            RedisGuard.RateDecision d = redisGuard.tokenBucketAllow(bucketKey + ":" + shard, shardRate, shardBurst, ttlMillis);
+            if (d.allowed()) {
+                return d;
+            }
+            minRetry = Math.min(minRetry, d.retryAfterMs());
+            log.debug("ShardedBucketGuard - shard {} of {} empty, fallback", shard, bucketKey);
+        }
+        return new RedisGuard.RateDecision(false, 0, minRetry);
+    }
+}
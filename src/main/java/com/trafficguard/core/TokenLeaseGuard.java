@@ -0,0 +1,205 @@
+package com.trafficguard.core;
+
+import com.trafficguard.config.TrafficGuardProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * HYBRID backend: Redis 버킷에서 토큰을 묶음으로 빌려와(lease) 노드 로컬에서 소비합니다.
+ *
+ * - 리스 안의 토큰은 CAS 로만 소비하므로 대부분의 요청은 Redis 를 호출하지 않습니다.
+ * - 리스 크기는 직전 리스의 소비 속도 x 리스 유효시간으로 정하고, maxTokens / burst * maxBurstRatio 로 제한합니다.
+ * - 만료된 리스의 남은 토큰은 다음 리스 요청 또는 백그라운드 반환 작업에서 Redis 로 돌려줍니다.
+ *
+ * 모든 토큰은 Redis 버킷에서 먼저 차감되므로 허용량이 전역 제한을 넘지 않고, 소비 시점만 최대 ttlMillis 만큼 밀립니다.
+ * 따라서 임의 구간의 허용량 오차는 "노드 수 x 리스 크기 상한" 이내입니다.
+ */
+@Slf4j
+@Component
+public class TokenLeaseGuard {
+    /** 만료 후 리스 유효시간의 이 배수만큼 지나면 리스 정보 제거 */
+    private static final long IDLE_EVICT_FACTOR = 10;
+
+    private final RedisGuard redisGuard;
+    private final TrafficGuardProperties.Lease props;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, Lease> leases = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService returner;
+
+    @Autowired
+    public TokenLeaseGuard(RedisGuard redisGuard, TrafficGuardProperties properties) {
+        this(redisGuard, properties, System::currentTimeMillis, true);
+    }
+
+    TokenLeaseGuard(RedisGuard redisGuard, TrafficGuardProperties properties, LongSupplier clock, boolean startReturner) {
+        this.redisGuard = redisGuard;
+        this.props = properties.getLease();
+        this.clock = clock;
+        if (startReturner) {
+            this.returner = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "traffic-guard-lease-returner");
+                t.setDaemon(true);
+                return t;
+            });
+            long period = Math.max(10L, props.getTtlMillis());
+            returner.scheduleWithFixedDelay(this::returnExpiredLeases, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            this.returner = null;
+        }
+    }
+
+    public RedisGuard.RateDecision tryAcquire(String bucketKey, double ratePerSec, int burst, long ttlMillis) {
+        long now = clock.getAsLong();
+        Lease lease = leases.computeIfAbsent(bucketKey, k -> new Lease());
+
+        // fast path: 유효한 리스에서 토큰 하나 소비
+        int left = lease.tryTake(now);
+        if (left >= 0) {
+            return new RedisGuard.RateDecision(true, left + lease.redisRemaining, 0);
+        }
+
+        // slow path: 버킷당 한 스레드만 Redis 에서 새 리스를 받아옴
+        synchronized (lease) {
+            if (leases.get(bucketKey) != lease) {
+                // 반환 작업이 정리한 리스 - 새 리스로 다시 시도
+                return tryAcquire(bucketKey, ratePerSec, burst, ttlMillis);
+            }
+            left = lease.tryTake(now);
+            if (left >= 0) {
+                return new RedisGuard.RateDecision(true, left + lease.redisRemaining, 0);
+            }
+
+            int leftover = now >= lease.expiresAt ? lease.tokens.getAndSet(0) : 0;
+            int requested = nextLeaseSize(lease, now, leftover, burst);
+
+            RedisGuard.TokenLease granted = redisGuard.leaseTokens(bucketKey, ratePerSec, burst, ttlMillis, requested, leftover);
+            lease.ratePerSec = ratePerSec;
+            lease.burst = burst;
+            lease.ttlMillis = ttlMillis;
+            lease.redisRemaining = granted.remainingTokens();
+
+            if (granted.granted() <= 0) {
+                lease.expiresAt = 0;
+                return new RedisGuard.RateDecision(false, granted.remainingTokens(), granted.retryAfterMs());
+            }
+
+            // 한 개는 이번 요청이 바로 사용
+            lease.granted = granted.granted();
+            lease.leasedAt = now;
+            lease.tokens.set(granted.granted() - 1);
+            lease.expiresAt = now + props.getTtlMillis();
+            return new RedisGuard.RateDecision(true, granted.granted() - 1 + granted.remainingTokens(), 0);
+        }
+    }
+
+    /**
+     * 직전 리스의 소비 속도로 다음 리스 크기를 정합니다.
+     */
+    private int nextLeaseSize(Lease lease, long now, int leftover, int burst) {
+        int cap = Math.min(props.getMaxTokens(), (int) Math.floor(burst * props.getMaxBurstRatio()));
+        if (cap <= 1) {
+            return 1;
+        }
+        if (lease.leasedAt == 0) {
+            return 1;
+        }
+        // 이번 요청 포함 소비량 / 경과 시간
+        long elapsed = Math.max(1L, now - lease.leasedAt);
+        double consumed = lease.granted - leftover + 1;
+        double observedPerMs = consumed / elapsed;
+        lease.ratePerMs = lease.ratePerMs == 0 ? observedPerMs : (lease.ratePerMs + observedPerMs) / 2;
+
+        int size = (int) Math.ceil(lease.ratePerMs * props.getTtlMillis());
+        return Math.max(1, Math.min(cap, size));
+    }
+
+    /**
+     * 만료된 리스의 남은 토큰을 Redis 로 돌려주고, 비어 있는 리스는 정리합니다.
+     */
+    void returnExpiredLeases() {
+        long now = clock.getAsLong();
+        for (Map.Entry<String, Lease> e : leases.entrySet()) {
+            Lease lease = e.getValue();
+            if (now < lease.expiresAt) {
+                continue;
+            }
+            try {
+                synchronized (lease) {
+                    if (now < lease.expiresAt) {
+                        continue;
+                    }
+                    int leftover = lease.tokens.getAndSet(0);
+                    if (leftover > 0) {
+                        redisGuard.leaseTokens(e.getKey(), lease.ratePerSec, lease.burst, lease.ttlMillis, 0, leftover);
+                    }
+                    // 한동안 쓰이지 않은 리스만 제거 (소비 속도 이력 유지)
+                    if (now - lease.expiresAt > props.getTtlMillis() * IDLE_EVICT_FACTOR) {
+                        leases.remove(e.getKey(), lease);
+                    }
+                }
+            } catch (Exception ex) {
+                log.warn("TokenLeaseGuard - failed to return lease {}: {}", e.getKey(), ex.getMessage());
+            }
+        }
+    }
+
+    /** 현재 노드가 들고 있는 리스 수 */
+    public int size() {
+        return leases.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (returner != null) {
+            returner.shutdownNow();
+        }
+        // 종료 시 들고 있던 토큰을 모두 반환
+        for (Map.Entry<String, Lease> e : leases.entrySet()) {
+            Lease lease = e.getValue();
+            int leftover = lease.tokens.getAndSet(0);
+            if (leftover > 0) {
+                redisGuard.leaseTokens(e.getKey(), lease.ratePerSec, lease.burst, lease.ttlMillis, 0, leftover);
+            }
+        }
+        leases.clear();
+    }
+
+    private static final class Lease {
+        private final AtomicInteger tokens = new AtomicInteger();
+        private volatile long expiresAt;
+        private volatile double redisRemaining;
+        // 아래 필드는 synchronized(lease) 안에서만 변경
+        private long leasedAt;
+        private int granted;
+        private double ratePerMs;
+        private double ratePerSec;
+        private int burst;
+        private long ttlMillis;
+
+        /** 토큰을 하나 소비하고 남은 수를 반환. 리스가 만료됐거나 비어 있으면 -1 */
+        int tryTake(long now) {
+            if (now >= expiresAt) {
+                return -1;
+            }
+            for (;;) {
+                int current = tokens.get();
+                if (current <= 0) {
+                    return -1;
+                }
+                if (tokens.compareAndSet(current, current - 1)) {
+                    return current - 1;
+                }
+            }
+        }
+    }
+}
@@ -8,6 +8,10 @@ public interface TrafficKeyResolver {
     /** 인증 컨텍스트/헤더 등에서 유저 ID */
     String userId();
     String userId(Method method);
+    /** 미리 계산된 descriptor 로 유저 ID (기본: userId(method)) */
+    default String userId(GuardDescriptor descriptor) {
+        return userId(descriptor.method());
+    }
     /** 필요시 테넌트/플랜 ID */
     String planId();
 }
@@ -0,0 +1,125 @@
+package com.trafficguard.core;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * request body 에서 userBodyField 값 하나를 꺼냅니다.
+ *
+ * - JSON: 공유 JsonFactory 의 스트리밍 파서로 읽으며, 필드를 찾으면 나머지 body 는 읽지 않습니다.
+ *   필드명("userId") 또는 JSON pointer("/header/memberNo", "/items/0/id")를 지원합니다.
+ * - application/x-www-form-urlencoded: 같은 이름의 첫 번째 파라미터 값 (pointer 의 앞 '/' 는 무시)
+ */
+public final class UserIdBodyExtractor {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded";
+    /** userBodyField -> pointer (어노테이션 값이라 종류가 많지 않음) */
+    private static final ConcurrentHashMap<String, JsonPointer> POINTERS = new ConcurrentHashMap<>();
+
+    private UserIdBodyExtractor() {
+    }
+
+    /**
+     * @param contentType 요청 Content-Type (없으면 JSON 으로 간주)
+     * @return 필드 값 (필드가 없거나 null 이면 null, 객체/배열이면 "")
+     * @throws IOException JSON 이 깨졌거나 form 값을 디코딩할 수 없는 경우
+     */
+    public static String extract(byte[] body, String field, String contentType) throws IOException {
+        if (isForm(contentType)) {
+            return extractForm(new String(body, StandardCharsets.UTF_8), formName(field));
+        }
+        // 캐싱된 byte[] 를 그대로 파싱 (인코딩은 Jackson 이 감지)
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            return match(parser, parser.nextToken(), pointer(field));
+        }
+    }
+
+    private static boolean isForm(String contentType) {
+        return contentType != null && contentType.regionMatches(true, 0, FORM_CONTENT_TYPE, 0, FORM_CONTENT_TYPE.length());
+    }
+
+    private static String formName(String field) {
+        return field.startsWith("/") ? field.substring(1) : field;
+    }
+
+    /**
+     * 현재 토큰(값의 시작)에서 pointer 를 따라 내려갑니다. 경로에 없는 형제 값은 skipChildren 으로 건너뜁니다.
+     */
+    private static String match(JsonParser parser, JsonToken token, JsonPointer pointer) throws IOException {
+        if (token == null) {
+            throw new IOException("empty JSON body");
+        }
+        if (pointer.matches()) {
+            if (token == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            // JsonNode.asText 와 같이 객체/배열은 "" 로 취급
+            return token.isScalarValue() ? parser.getValueAsString() : "";
+        }
+        if (token == JsonToken.START_OBJECT) {
+            String name = pointer.getMatchingProperty();
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                boolean found = name.equals(parser.getCurrentName());
+                token = parser.nextToken();
+                if (found) {
+                    return match(parser, token, pointer.tail());
+                }
+                parser.skipChildren();
+            }
+            return null;
+        }
+        if (token == JsonToken.START_ARRAY) {
+            int index = pointer.getMatchingIndex();
+            if (index < 0) {
+                return null;
+            }
+            int i = 0;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                if (i++ == index) {
+                    return match(parser, token, pointer.tail());
+                }
+                parser.skipChildren();
+            }
+            return null;
+        }
+        return null;
+    }
+
+    static String extractForm(String body, String name) throws UnsupportedEncodingException {
+        int pos = 0;
+        int length = body.length();
+        while (pos <= length) {
+            int amp = body.indexOf('&', pos);
+            int end = amp < 0 ? length : amp;
+            int eq = body.indexOf('=', pos);
+            int keyEnd = eq < 0 || eq > end ? end : eq;
+            if (decode(body.substring(pos, keyEnd)).equals(name)) {
+                return keyEnd == end ? "" : decode(body.substring(keyEnd + 1, end));
+            }
+            pos = end + 1;
+        }
+        return null;
+    }
+
+    private static String decode(String s) throws UnsupportedEncodingException {
+        return s.indexOf('%') < 0 && s.indexOf('+') < 0 ? s : URLDecoder.decode(s, "UTF-8");
+    }
+
+    private static JsonPointer pointer(String field) {
+        JsonPointer pointer = POINTERS.get(field);
+        if (pointer != null) {
+            return pointer;
+        }
+        return POINTERS.computeIfAbsent(field, f -> f.startsWith("/")
+                ? JsonPointer.compile(f)
+                : JsonPointer.compile("/" + f.replace("~", "~0").replace("/", "~1")));
+    }
+}
@@ -0,0 +1,266 @@
+package com.trafficguard.core;
+
+import com.trafficguard.config.TrafficGuardProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * @UserSemaphore: 사용자별 진행 중 요청 수 제한.
+ *
+ * - acquire 는 요청마다 leaseId 를 Redis ZSET 에 leaseMillis 동안 등록합니다 (스크립트 1회).
+ * - release 는 Redis 를 호출하지 않고 반납 큐에 넣으며, 백그라운드에서 releaseFlushMillis 마다 파이프라인으로 모아 보냅니다.
+ * - 같은 키의 acquire 는 아직 반영이 확인되지 않은 반납분(큐에 남은 것과 파이프라인으로 보내는 중인 것)을
+ *   스크립트 호출에 함께 실어 먼저 ZREM 합니다. 이 노드에서 반납한 리스가 반납 지연 때문에 permit 을 차지하지 않습니다.
+ *   한 번에 싣는 반납은 maxPiggybackReleases 개까지입니다.
+ * - 파이프라인이 실패하면 반납분을 큐에 되돌려 다음 flush 에서 다시 보냅니다 (ZREM 이므로 중복 반납은 무해).
+ * - 반납은 리스 만료 시각과 함께 보관하며, 만료된 반납은 Redis 에서도 이미 정리되므로 보내지 않고 버립니다.
+ *   큐는 maxPendingReleases 개까지만 쌓고, 넘치는 반납은 버려 리스 만료에 맡깁니다 (Redis 장애 중 메모리 상한).
+ * - 노드가 죽어 반납이 유실되면 리스는 leaseMillis 후 만료되며, 그때까지는 permit 을 차지합니다.
+ */
+@Slf4j
+@Component
+public class UserSemaphoreGuard {
+    private final RedisGuard redisGuard;
+    private final TrafficGuardProperties.UserSemaphore props;
+    private final LongSupplier clock;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong sequence = new AtomicLong();
+    /** semaphoreKey -> 아직 Redis 에 보내지 않은 반납 */
+    private final ConcurrentHashMap<String, ConcurrentLinkedQueue<Lease>> pending = new ConcurrentHashMap<>();
+    /** semaphoreKey -> flush 가 큐에서 꺼내 파이프라인으로 보내는 중인 반납 (반영 확인 전까지 acquire 에도 실음) */
+    private final ConcurrentHashMap<String, Set<Lease>> sending = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final ScheduledExecutorService flusher;
+
+    @Autowired
+    public UserSemaphoreGuard(RedisGuard redisGuard, TrafficGuardProperties properties) {
+        this(redisGuard, properties, System::currentTimeMillis, true);
+    }
+
+    UserSemaphoreGuard(RedisGuard redisGuard, TrafficGuardProperties properties, LongSupplier clock, boolean startFlusher) {
+        this.redisGuard = redisGuard;
+        this.props = properties.getUserSemaphore();
+        this.clock = clock;
+        if (startFlusher) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "traffic-guard-semaphore-release");
+                t.setDaemon(true);
+                return t;
+            });
+            long period = Math.max(1L, props.getReleaseFlushMillis());
+            flusher.scheduleWithFixedDelay(this::flushReleases, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    /**
+     * permit 하나를 얻습니다.
+     *
+     * @return 얻은 리스. 거절이면 null
+     */
+    public Lease tryAcquire(String semaphoreKey, int permits, long leaseMillis) {
+        long now = clock.getAsLong();
+        Lease lease = new Lease(nodeId + ":" + sequence.incrementAndGet(), now + leaseMillis);
+        return redisGuard.userSemaphoreAcquire(semaphoreKey, permits, lease.id(), leaseMillis, unconfirmed(semaphoreKey, now)) ? lease : null;
+    }
+
+    /**
+     * 아직 Redis 반영이 확인되지 않은 반납 중 만료되지 않은 것, 최대 maxPiggybackReleases 개 (큐를 먼저, 보내는 중인 것을 나중에 읽음).
+     * flush 는 sending 에 넣은 뒤 큐에서 빼므로 둘 중 한 곳에서는 반드시 보입니다. 큐에서는 빼지 않습니다 (acquire 가 실패해도 유실 없음).
+     * 싣지 못한 나머지는 flush 가 보냅니다.
+     */
+    private List<String> unconfirmed(String semaphoreKey, long now) {
+        ConcurrentLinkedQueue<Lease> queue = pending.get(semaphoreKey);
+        Set<Lease> inFlight = sending.get(semaphoreKey);
+        if ((queue == null || queue.isEmpty()) && (inFlight == null || inFlight.isEmpty())) {
+            return Collections.emptyList();
+        }
+        int max = props.getMaxPiggybackReleases();
+        List<String> leases = new ArrayList<>();
+        if (queue != null) {
+            collect(queue, now, max, leases);
+        }
+        if (inFlight != null) {
+            collect(inFlight, now, max, leases);
+        }
+        return leases;
+    }
+
+    private static void collect(Iterable<Lease> from, long now, int max, List<String> to) {
+        for (Lease lease : from) {
+            if (to.size() >= max) {
+                return;
+            }
+            if (lease.expireAtMillis() > now) {
+                to.add(lease.id());
+            }
+        }
+    }
+
+    /**
+     * 리스를 반납 큐에 넣습니다. 실제 반납은 비동기로 모아서 처리합니다.
+     * 이미 만료됐거나 큐가 maxPendingReleases 개로 찼으면 버립니다 (리스는 만료 시각에 Redis 에서 정리됨).
+     */
+    public void release(String semaphoreKey, Lease lease) {
+        if (lease.expireAtMillis() <= clock.getAsLong()) {
+            return;
+        }
+        if (pendingCount.incrementAndGet() > props.getMaxPendingReleases()) {
+            pendingCount.decrementAndGet();
+            if (droppedCount.getAndIncrement() % 10_000 == 0) {
+                log.warn("UserSemaphoreGuard - release queue full ({}), dropping releases until leases expire", props.getMaxPendingReleases());
+            }
+            return;
+        }
+        // 큐 추가를 compute 안에서 해야 flush 의 빈 큐 정리와 겹쳐도 유실되지 않음
+        pending.compute(semaphoreKey, (k, queue) -> {
+            ConcurrentLinkedQueue<Lease> q = queue != null ? queue : new ConcurrentLinkedQueue<>();
+            q.add(lease);
+            return q;
+        });
+    }
+
+    /**
+     * 대기 중인 반납을 releaseBatchSize 단위 파이프라인으로 보냅니다. 실패하면 큐에 되돌리고 다음 주기에 다시 보냅니다.
+     * (shutdown 과 주기 실행이 겹쳐도 큐를 꺼내는 쪽은 하나)
+     */
+    synchronized void flushReleases() {
+        while (pendingCount.get() > 0) {
+            long now = clock.getAsLong();
+            Map<String, List<Lease>> batch = new HashMap<>();
+            int size = 0;
+            for (Map.Entry<String, ConcurrentLinkedQueue<Lease>> e : pending.entrySet()) {
+                List<Lease> leases = drain(e.getKey(), props.getReleaseBatchSize() - size, now);
+                if (leases.isEmpty()) {
+                    // 빈 큐 정리
+                    pending.computeIfPresent(e.getKey(), (k, q) -> q.isEmpty() ? null : q);
+                    continue;
+                }
+                batch.put(e.getKey(), leases);
+                size += leases.size();
+                if (size >= props.getReleaseBatchSize()) {
+                    break;
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            pendingCount.addAndGet(-size);
+            Map<String, List<String>> ids = new HashMap<>(batch.size() * 2);
+            batch.forEach((key, leases) -> {
+                List<String> list = new ArrayList<>(leases.size());
+                leases.forEach(lease -> list.add(lease.id()));
+                ids.put(key, list);
+            });
+            boolean released;
+            try {
+                released = redisGuard.releaseUserSemaphores(ids);
+            } catch (Exception ex) {
+                log.warn("UserSemaphoreGuard - failed to flush releases: {}", ex.getMessage());
+                released = false;
+            }
+            if (!released) {
+                // 되돌린 뒤 sending 에서 빼야 acquire 가 항상 한 곳에서 봄
+                batch.forEach((key, leases) -> leases.forEach(lease -> release(key, lease)));
+            }
+            batch.forEach(this::sent);
+            if (!released) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 큐에서 만료되지 않은 반납을 최대 max 개 꺼냄. 꺼내기 전에 sending 에 넣어 acquire 가 놓치지 않게 함 (꺼내는 쪽은 flush 하나).
+     * 만료된 반납은 보내지 않고 버림.
+     */
+    private List<Lease> drain(String semaphoreKey, int max, long now) {
+        ConcurrentLinkedQueue<Lease> queue = pending.get(semaphoreKey);
+        if (queue == null) {
+            return Collections.emptyList();
+        }
+        List<Lease> leases = new ArrayList<>();
+        Lease lease;
+        while (leases.size() < max && (lease = queue.peek()) != null) {
+            if (lease.expireAtMillis() <= now) {
+                queue.poll();
+                pendingCount.decrementAndGet();
+                continue;
+            }
+            sending.computeIfAbsent(semaphoreKey, k -> ConcurrentHashMap.newKeySet()).add(lease);
+            queue.poll();
+            leases.add(lease);
+        }
+        return leases;
+    }
+
+    private void sent(String semaphoreKey, List<Lease> leases) {
+        sending.computeIfPresent(semaphoreKey, (k, inFlight) -> {
+            inFlight.removeAll(leases);
+            return inFlight.isEmpty() ? null : inFlight;
+        });
+    }
+
+    /** 아직 Redis 에 보내지 않은 반납 수 */
+    public int pendingReleases() {
+        return pendingCount.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        flushReleases();
+    }
+
+    /** acquire 로 얻은 리스. expireAtMillis 이후에는 Redis 에서 만료되므로 반납할 필요가 없음 */
+    public static final class Lease {
+        private final String id;
+        private final long expireAtMillis;
+
+        public Lease(String id, long expireAtMillis) {
+            this.id = id; this.expireAtMillis = expireAtMillis;
+        }
+
+        /** Redis ZSET 에 등록한 leaseId */
+        public String id() {
+            return id;
+        }
+
+        /** Redis 에서 리스가 만료되는 시각(ms) */
+        public long expireAtMillis() {
+            return expireAtMillis;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Lease && id.equals(((Lease) o).id);
+        }
+
+        @Override
+        public int hashCode() {
+            return id.hashCode();
+        }
+    }
+}
@@ -79,6 +79,14 @@ public class RateLimitDemoController {
         return Collections.singletonList("Analytics data");
     }
 
+    @GetMapping("/search")
+    @TrafficGuard
+    @UserRateLimit(rate = 5, timeUnit = UserRateLimit.TimeUnit.SECOND, burst = 5)   // 초당 5개
+    @UserRateLimit(rate = 100, timeUnit = UserRateLimit.TimeUnit.HOUR, burst = 100) // AND 시간당 100개
+    public List<String> search() {
+        return Collections.singletonList("Search results");
+    }
+
     @GetMapping("/traffic-guard-only")
     @TrafficGuard
     // @UserRateLimit 없음 - TrafficGuard만 있는 경우
@@ -0,0 +1,294 @@
+package com.trafficguard.filter;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * request body 를 처음 읽을 때 maxBytes 까지 메모리에 담아 두고, 이후 getInputStream/getReader 마다 처음부터 다시 읽을 수 있게 합니다.
+ * 사용자 ID 추출과 HttpMessageConverter(@RequestBody)가 같은 byte[] 를 공유합니다.
+ *
+ * - body 를 읽지 않는 요청에는 비용이 없습니다.
+ * - Content-Length 를 알면 그 크기의 배열 하나에 바로 읽으므로 body 바이트는 한 번만 복사됩니다.
+ * - maxBytes 를 넘는 body 는 캐싱하지 않습니다. Content-Length 로 알 수 있으면 읽기 전에 판단하고,
+ *   getBody 는 예외를 던지지만 getInputStream 은 원래 스트림(읽은 앞부분 포함)을 그대로 넘겨 핸들러는 body 를 받을 수 있습니다.
+ * - application/x-www-form-urlencoded POST 의 getParameter* 는 query string 과 캐싱된 body 로 답합니다 (ContentCachingRequestWrapper 와 같음).
+ *   컨테이너가 body 를 먼저 읽지 않으므로 @RequestParam 과 body 의 사용자 ID 추출이 어느 순서로 일어나도 같은 값을 봅니다.
+ *   래퍼보다 앞에서 이미 파라미터를 파싱해 스트림이 비어 있으면 반대로 파라미터로 body 를 다시 만듭니다.
+ */
+public class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
+    /** traffic-guard.body.max-bytes 기본값 (1MB) */
+    public static final int DEFAULT_MAX_BYTES = 1024 * 1024;
+
+    private static final int CHUNK = 8192;
+
+    private static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded";
+
+    private final int maxBytes;
+    private byte[] body;
+    private int length;
+    private boolean oversized;
+    private boolean passedThrough;
+    /** 컨테이너가 이미 파싱한 파라미터로 body 를 다시 만든 경우 */
+    private boolean fromParameters;
+    private Map<String, String[]> parameters;
+
+    public CachedBodyHttpServletRequest(HttpServletRequest request) {
+        this(request, DEFAULT_MAX_BYTES);
+    }
+
+    public CachedBodyHttpServletRequest(HttpServletRequest request, int maxBytes) {
+        super(request);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * body 전체 (아직 읽지 않았으면 지금 읽음). 반환된 배열은 복사본이 아니므로 수정하지 않아야 합니다.
+     *
+     * @throws BodyTooLargeException body 가 maxBytes 를 넘는 경우
+     */
+    public byte[] getBody() throws IOException {
+        cache();
+        if (oversized) {
+            throw new BodyTooLargeException(maxBytes);
+        }
+        if (length != body.length) {
+            // Content-Length 보다 짧게 끝난 body
+            body = Arrays.copyOf(body, length);
+        }
+        return body;
+    }
+
+    /** body 가 maxBytes 를 넘는지 (아직 읽지 않았으면 지금 판단) */
+    public boolean isOversized() throws IOException {
+        cache();
+        return oversized;
+    }
+
+    private void cache() throws IOException {
+        if (body != null) {
+            return;
+        }
+        long contentLength = getContentLengthLong();
+        if (contentLength > maxBytes) {
+            // 읽기 전에 거절 - 스트림은 건드리지 않음
+            oversized = true;
+            body = new byte[0];
+            return;
+        }
+        InputStream in = super.getInputStream();
+        byte[] buffer = new byte[contentLength >= 0 ? (int) contentLength : Math.min(CHUNK, maxBytes + 1)];
+        int n = 0;
+        while (true) {
+            if (n == buffer.length) {
+                if (contentLength >= 0 || n > maxBytes) {
+                    break;
+                }
+                buffer = Arrays.copyOf(buffer, (int) Math.min((long) maxBytes + 1, buffer.length * 2L));
+            }
+            int read = in.read(buffer, n, buffer.length - n);
+            if (read < 0) {
+                break;
+            }
+            n += read;
+        }
+        body = buffer;
+        length = n;
+        oversized = n > maxBytes;
+        if (n == 0 && contentLength > 0 && isFormPost()) {
+            // 앞선 필터가 getParameter 로 body 를 이미 소비함
+            body = formBody(super.getParameterMap());
+            length = body.length;
+            fromParameters = true;
+        }
+    }
+
+    private boolean isFormPost() {
+        String contentType = getContentType();
+        return contentType != null && contentType.regionMatches(true, 0, FORM_CONTENT_TYPE, 0, FORM_CONTENT_TYPE.length())
+                && "POST".equalsIgnoreCase(getMethod());
+    }
+
+    private byte[] formBody(Map<String, String[]> params) throws UnsupportedEncodingException {
+        String encoding = charset().name();
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String[]> e : params.entrySet()) {
+            for (String value : e.getValue()) {
+                if (sb.length() > 0) {
+                    sb.append('&');
+                }
+                sb.append(URLEncoder.encode(e.getKey(), encoding)).append('=').append(URLEncoder.encode(value, encoding));
+            }
+        }
+        return sb.toString().getBytes(charset());
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        if (parameters == null) {
+            if (!isFormPost()) {
+                return super.getParameterMap();
+            }
+            try {
+                cache();
+            } catch (IOException e) {
+                throw new IllegalStateException("failed to read form parameters: " + e.getMessage(), e);
+            }
+            parameters = oversized || fromParameters ? super.getParameterMap() : parseParameters();
+        }
+        return parameters;
+    }
+
+    @Override
+    public String getParameter(String name) {
+        String[] values = getParameterMap().get(name);
+        return values != null && values.length > 0 ? values[0] : null;
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(getParameterMap().keySet());
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        return getParameterMap().get(name);
+    }
+
+    /** query string 다음에 body 의 파라미터 (같은 이름은 순서대로 모음) */
+    private Map<String, String[]> parseParameters() {
+        Charset charset = charset();
+        Map<String, List<String>> values = new LinkedHashMap<>();
+        try {
+            addParameters(values, getQueryString(), charset);
+            addParameters(values, new String(body, 0, length, charset), charset);
+        } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+            throw new IllegalStateException("failed to parse form parameters: " + e.getMessage(), e);
+        }
+        Map<String, String[]> params = new LinkedHashMap<>(values.size() * 2);
+        values.forEach((name, list) -> params.put(name, list.toArray(new String[0])));
+        return Collections.unmodifiableMap(params);
+    }
+
+    private static void addParameters(Map<String, List<String>> values, String query, Charset charset) throws UnsupportedEncodingException {
+        if (query == null || query.isEmpty()) {
+            return;
+        }
+        for (String pair : query.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), charset.name());
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), charset.name());
+            values.computeIfAbsent(name, k -> new ArrayList<>(1)).add(value);
+        }
+    }
+
+    private Charset charset() {
+        String encoding = getCharacterEncoding();
+        return encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        cache();
+        InputStream in = new ByteArrayInputStream(body, 0, length);
+        if (oversized) {
+            // 캐싱하지 않은 body - 읽은 앞부분과 나머지 원래 스트림을 한 번만 넘김
+            if (passedThrough) {
+                throw new IllegalStateException("oversized request body has already been read");
+            }
+            passedThrough = true;
+            in = new SequenceInputStream(in, super.getInputStream());
+        }
+        return new DelegatingServletInputStream(in);
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset()));
+    }
+
+    /** body 가 traffic-guard.body.max-bytes 를 넘는 경우 */
+    public static class BodyTooLargeException extends IOException {
+        public BodyTooLargeException(int maxBytes) {
+            super("request body exceeds " + maxBytes + " bytes");
+        }
+    }
+
+    private static final class DelegatingServletInputStream extends ServletInputStream {
+        private final InputStream in;
+        private boolean finished;
+
+        private DelegatingServletInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        /** 이미 메모리에 있는 body 이므로 곧바로 읽을 수 있다고 알리고 끝까지 읽었음을 알림 */
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            try {
+                if (!finished) {
+                    readListener.onDataAvailable();
+                }
+                readListener.onAllDataRead();
+            } catch (IOException e) {
+                readListener.onError(e);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            finished = b < 0;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            finished = n < 0;
+            return n;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return in.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.trafficguard.filter;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 인자 바인딩 전후 어디서 body 에서 사용자 ID 를 읽어도 @RequestBody 가 같은 body 를 다시 읽을 수 있도록 요청을 감쌉니다.
+ * body 는 누군가 처음 읽을 때 maxBytes 까지만 캐싱됩니다.
+ *
+ * 감싼 요청은 핸들러가 body 를 읽기만 해도 maxBytes 까지 힙에 올리므로, 사용자 ID 를 찾을 수 있는
+ * JSON(application/json, +json)과 application/x-www-form-urlencoded 요청만 감쌉니다. 업로드/바이너리 body 는 그대로 흘려보냅니다.
+ */
+public class RequestBodyCachingFilter extends OncePerRequestFilter {
+    private final int maxBytes;
+
+    public RequestBodyCachingFilter() {
+        this(CachedBodyHttpServletRequest.DEFAULT_MAX_BYTES);
+    }
+
+    public RequestBodyCachingFilter(int maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean wrap = !(request instanceof CachedBodyHttpServletRequest) && isCacheable(request);
+        filterChain.doFilter(wrap ? new CachedBodyHttpServletRequest(request, maxBytes) : request, response);
+    }
+
+    /** body 에서 사용자 ID 를 찾을 수 있는 content type 인지 (JSON 또는 폼) */
+    public static boolean isCacheable(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            MediaType type = MediaType.parseMediaType(contentType);
+            return MediaType.APPLICATION_FORM_URLENCODED.includes(type)
+                    || MediaType.APPLICATION_JSON.includes(type)
+                    || "application".equals(type.getType()) && type.getSubtype().endsWith("+json");
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.trafficguard.filter;
+
+import com.trafficguard.core.GuardDescriptor;
+import com.trafficguard.core.GuardDescriptorRegistry;
+import com.trafficguard.core.JoinPointContext;
+import com.trafficguard.core.TrafficKeyResolver;
+import com.trafficguard.exception.InternalTrafficException;
+import com.trafficguard.exception.InvalidRequestException;
+import com.trafficguard.exception.PayloadTooLargeException;
+import com.trafficguard.exception.RateLimitExceededException;
+import com.trafficguard.exception.UserIdentificationException;
+import com.trafficguard.metrics.TrafficGuardMetrics;
+import com.trafficguard.policy.GuardPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 서블릿 앱에서 traffic-guard.enforcement=INTERCEPTOR 일 때의 @TrafficGuard. TrafficGuardAspect 와 같은 GuardPolicy 체인을
+ * 핸들러 매핑 직후(preHandle), 인자 바인딩/@RequestBody 역직렬화 이전에 실행합니다.
+ *
+ * - 거절된 요청은 HttpMessageConverter 를 거치지 않으며, 429 응답 body 는 미리 만들어 둔 바이트를 그대로 씁니다.
+ * - body 에서 사용자 ID 를 찾아야 하면 RequestBodyCachingFilter 가 감싼 요청에서 body 를 읽습니다 (핸들러도 다시 읽을 수 있음).
+ * - after 는 afterCompletion 에서 before 를 통과한 정책에만 역순으로 호출합니다.
+ * - 비동기 핸들러(Callable, DeferredResult, CompletableFuture 등)는 첫 dispatch 에서만 판정하고, ASYNC 재dispatch 의
+ *   preHandle 은 건너뜁니다. after 는 비동기 처리가 끝난 뒤 ASYNC dispatch 의 afterCompletion 에서 호출합니다.
+ */
+@Slf4j
+public class TrafficGuardHandlerInterceptor implements AsyncHandlerInterceptor {
+    /** 캐싱된 request body (byte[]) 를 담는 request 속성. DefaultTrafficKeyResolver 가 읽음 */
+    public static final String CACHED_BODY_ATTR = "cachedRequestBody";
+
+    private static final String GUARD_STATE_ATTR = TrafficGuardHandlerInterceptor.class.getName() + ".state";
+
+    /** 429 응답 body. 거절이 몰릴 때 요청마다 포맷/인코딩하지 않도록 한 번만 만듦 (상세 사유는 로그에만 남김) */
+    private static final byte[] TOO_MANY_REQUESTS_BODY =
+            "{\"error\":\"TOO_MANY_REQUESTS\",\"message\":\"rate limit exceeded\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final GuardDescriptorRegistry descriptors;
+    private final TrafficKeyResolver keyResolver;
+    private final TrafficGuardMetrics metrics;
+
+    public TrafficGuardHandlerInterceptor(GuardDescriptorRegistry descriptors, TrafficGuardMetrics metrics) {
+        this.descriptors = descriptors;
+        this.keyResolver = descriptors.keyResolver();
+        this.metrics = metrics;
+    }
+
+    public TrafficGuardHandlerInterceptor(GuardDescriptorRegistry descriptors) {
+        this(descriptors, TrafficGuardMetrics.NOOP);
+    }
+
+    public TrafficGuardHandlerInterceptor(List<GuardPolicy> policies, TrafficKeyResolver keyResolver) {
+        this(new GuardDescriptorRegistry(policies, keyResolver));
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        // 비동기 핸들러의 재dispatch - 첫 dispatch 에서 이미 판정했으므로 다시 차감하지 않음
+        if (request.getDispatcherType() == DispatcherType.ASYNC || request.getAttribute(GUARD_STATE_ATTR) != null) {
+            return true;
+        }
+        Method method = ((HandlerMethod) handler).getMethod();
+        GuardDescriptor descriptor = descriptors.get(method);
+        if (!descriptor.guarded()) {
+            return true;
+        }
+
+        List<GuardPolicy> chain = descriptor.chain();
+
+        // 지원하는 GuardPolicy가 없으면 그냥 진행 (TrafficKeyResolver 호출하지 않음) -> 로깅만
+        if (chain.isEmpty()) {
+            log.warn("TrafficGuardHandlerInterceptor must be used with GuardPolicy");
+            return true;
+        }
+
+        GuardState state = null;
+        try {
+            cacheBodyIfNeeded(descriptor, request);
+            JoinPointContext ctx = new JoinPointContext(
+                    descriptor,
+                    keyResolver.userId(descriptor),
+                    keyResolver.planId()
+            );
+
+            // before 를 통과한 정책만 after 호출 (뒤 정책이 거절해도 앞에서 얻은 permit 반납)
+            state = new GuardState(method, chain, ctx);
+            TrafficGuardMetrics.PolicyMeters[] meters = metrics.meters(descriptor);
+            for (GuardPolicy p : chain) {
+                long start = System.nanoTime();
+                try {
+                    p.before(method, ctx);
+                } catch (RateLimitExceededException e) {
+                    meters[state.entered].denied(start);
+                    throw e;
+                }
+                meters[state.entered].allowed(start, ctx.consumeFailedOpen());
+                state.entered++;
+            }
+            request.setAttribute(GUARD_STATE_ATTR, state);
+            return true;
+        } catch (UserIdentificationException e) {
+            log.warn("TrafficGuardHandlerInterceptor - UserIdentificationException: {}", e.getMessage());
+            writeError(response, HttpStatus.UNAUTHORIZED, "UNAUTHORIZED", e.getMessage());
+        } catch (RateLimitExceededException e) {
+            log.warn("TrafficGuardHandlerInterceptor - RateLimitExceededException: {}", e.getMessage());
+            writeError(response, HttpStatus.TOO_MANY_REQUESTS, TOO_MANY_REQUESTS_BODY);
+        } catch (InvalidRequestException e) {
+            log.warn("TrafficGuardHandlerInterceptor - InvalidRequestException: {}", e.getMessage());
+            writeError(response, HttpStatus.BAD_REQUEST, "BAD_REQUEST", e.getMessage());
+        } catch (PayloadTooLargeException e) {
+            log.warn("TrafficGuardHandlerInterceptor - PayloadTooLargeException: {}", e.getMessage());
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, "PAYLOAD_TOO_LARGE", e.getMessage());
+        } catch (InternalTrafficException e) {
+            log.error("TrafficGuardHandlerInterceptor - InternalTrafficException: {}", e.getMessage());
+            writeError(response, HttpStatus.INTERNAL_SERVER_ERROR, "INTERNAL_SERVER_ERROR", e.getMessage());
+        } finally {
+            // 거절된 경우 afterCompletion 이 호출되지 않으므로 여기서 반납
+            if (state != null && request.getAttribute(GUARD_STATE_ATTR) == null) {
+                state.release();
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        // 비동기 처리가 아직 진행 중이면 ASYNC dispatch 의 afterCompletion 에서 반납
+        if (WebAsyncUtils.getAsyncManager(request).isConcurrentHandlingStarted()) {
+            return;
+        }
+        GuardState state = (GuardState) request.getAttribute(GUARD_STATE_ATTR);
+        if (state != null) {
+            request.removeAttribute(GUARD_STATE_ATTR);
+            state.release();
+        }
+    }
+
+    /**
+     * body 에서 사용자 ID 를 찾아야 하면 캐싱 래퍼에서 body 를 읽어 속성에 담습니다 (캐싱된 byte[] 를 그대로 공유).
+     * JSON/폼이 아닌 body 는 읽지 않으며, 사용자 ID 는 body 없이 (헤더 또는 401) 결정됩니다.
+     */
+    private void cacheBodyIfNeeded(GuardDescriptor descriptor, HttpServletRequest request) {
+        if (!descriptor.needsRequestBody() || request.getAttribute(CACHED_BODY_ATTR) != null
+                || !RequestBodyCachingFilter.isCacheable(request)) {
+            return;
+        }
+        CachedBodyHttpServletRequest cached = WebUtils.getNativeRequest(request, CachedBodyHttpServletRequest.class);
+        if (cached == null) {
+            // 래퍼 없이 읽으면 @RequestBody 가 빈 스트림을 받으므로 읽지 않음
+            throw new InternalTrafficException("RequestBodyCachingFilter is not registered");
+        }
+        try {
+            request.setAttribute(CACHED_BODY_ATTR, cached.getBody());
+        } catch (CachedBodyHttpServletRequest.BodyTooLargeException e) {
+            throw new PayloadTooLargeException(e.getMessage());
+        } catch (IOException e) {
+            throw new InvalidRequestException("failed to read request body: " + e.getMessage());
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String error, String message) throws IOException {
+        String jsonResponse = String.format("{\"error\":\"%s\",\"message\":\"%s\"}", error, message);
+        writeError(response, status, jsonResponse.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, byte[] body) throws IOException {
+        if (response.isCommitted()) {
+            throw new IllegalStateException("Failed to handle traffic exception: response already committed");
+        }
+        response.setStatus(status.value());
+        response.setContentType("application/json;charset=UTF-8");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+        response.flushBuffer();
+    }
+
+    /** preHandle 에서 before 를 통과한 정책과 컨텍스트 (afterCompletion 에서 반납) */
+    private static final class GuardState {
+        private final Method method;
+        private final List<GuardPolicy> chain;
+        private final JoinPointContext ctx;
+        private int entered;
+
+        private GuardState(Method method, List<GuardPolicy> chain, JoinPointContext ctx) {
+            this.method = method;
+            this.chain = chain;
+            this.ctx = ctx;
+        }
+
+        private void release() {
+            for (int i = entered - 1; i >= 0; i--) {
+                try {
+                    chain.get(i).after(method, ctx);
+                } catch (Exception e) {
+                    log.error("TrafficGuardHandlerInterceptor - after failed: {}", e.getMessage(), e);
+                }
+            }
+            entered = 0;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.trafficguard.filter;
+
+import com.trafficguard.core.DefaultTrafficKeyResolver;
+import com.trafficguard.core.GuardDescriptor;
+import com.trafficguard.core.GuardDescriptorRegistry;
+import com.trafficguard.core.JoinPointContext;
+import com.trafficguard.core.RateLimitHeaderSupport;
+import com.trafficguard.core.TrafficKeyResolver;
+import com.trafficguard.exception.InternalTrafficException;
+import com.trafficguard.exception.InvalidRequestException;
+import com.trafficguard.exception.PayloadTooLargeException;
+import com.trafficguard.exception.RateLimitExceededException;
+import com.trafficguard.exception.UserIdentificationException;
+import com.trafficguard.metrics.TrafficGuardMetrics;
+import com.trafficguard.policy.GuardPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * WebFlux 용 @TrafficGuard. TrafficGuardAspect 와 같은 GuardPolicy 체인을 ServerWebExchange 기준으로 실행합니다.
+ *
+ * - 핸들러 메서드는 RequestMappingHandlerMapping 으로 찾고, @TrafficGuard 가 없으면 그대로 통과합니다.
+ * - 사용자 ID 는 DefaultTrafficKeyResolver 와 같은 규칙(헤더/JSON body)으로 추출합니다. body 가 필요하면 한 번 읽어 캐싱합니다.
+ *   캐싱은 maxBytes(traffic-guard.body.max-bytes)까지이며, 넘는 body 는 413 으로 거절합니다.
+ * - 정책은 beforeAsync 로 이벤트 루프를 막지 않고 판정하며, 비동기 구현이 없는 정책만 boundedElastic 에서 before 를 실행합니다.
+ * - after 는 응답 처리가 끝나거나 취소되면 before 를 통과한 정책에만 한 번 호출합니다.
+ */
+@Slf4j
+public class TrafficGuardWebFilter implements WebFilter, Ordered {
+    /** 캐싱된 request body (byte[]) 를 담는 exchange 속성. 서블릿의 request attribute 와 같은 이름 */
+    public static final String CACHED_BODY_ATTR = "cachedRequestBody";
+
+    private final GuardDescriptorRegistry descriptors;
+    private final DefaultTrafficKeyResolver userIdResolver;
+    private final HandlerMapping handlerMapping;
+    private final TrafficGuardMetrics metrics;
+    private final int maxBytes;
+
+    public TrafficGuardWebFilter(GuardDescriptorRegistry descriptors, DefaultTrafficKeyResolver userIdResolver,
+                                 HandlerMapping handlerMapping, TrafficGuardMetrics metrics, int maxBytes) {
+        this.descriptors = descriptors;
+        this.userIdResolver = userIdResolver;
+        this.handlerMapping = handlerMapping;
+        this.metrics = metrics;
+        this.maxBytes = maxBytes;
+    }
+
+    public TrafficGuardWebFilter(GuardDescriptorRegistry descriptors, DefaultTrafficKeyResolver userIdResolver,
+                                 HandlerMapping handlerMapping, TrafficGuardMetrics metrics) {
+        this(descriptors, userIdResolver, handlerMapping, metrics, CachedBodyHttpServletRequest.DEFAULT_MAX_BYTES);
+    }
+
+    public TrafficGuardWebFilter(GuardDescriptorRegistry descriptors, DefaultTrafficKeyResolver userIdResolver,
+                                 HandlerMapping handlerMapping) {
+        this(descriptors, userIdResolver, handlerMapping, TrafficGuardMetrics.NOOP);
+    }
+
+    public TrafficGuardWebFilter(List<GuardPolicy> policies, TrafficKeyResolver keyResolver,
+                                 DefaultTrafficKeyResolver userIdResolver, HandlerMapping handlerMapping) {
+        this(new GuardDescriptorRegistry(policies, keyResolver), userIdResolver, handlerMapping);
+    }
+
+    @Override
+    public int getOrder() {
+        return 0;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        return handlerMapping.getHandler(exchange)
+                // 매핑 실패(404/405 등)는 DispatcherHandler 가 처리
+                .onErrorResume(e -> Mono.empty())
+                .filter(HandlerMethod.class::isInstance)
+                .map(h -> descriptors.get(((HandlerMethod) h).getMethod()))
+                .filter(GuardDescriptor::guarded)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(d -> d.isPresent() ? guard(d.get(), exchange, chain) : chain.filter(exchange));
+    }
+
+    private Mono<Void> guard(GuardDescriptor descriptor, ServerWebExchange exchange, WebFilterChain chain) {
+        Method method = descriptor.method();
+        List<GuardPolicy> matched = descriptor.chain();
+
+        // 지원하는 GuardPolicy가 없으면 그냥 진행 -> 로깅만
+        if (matched.isEmpty()) {
+            log.warn("TrafficGuardWebFilter must be used with GuardPolicy");
+            return chain.filter(exchange);
+        }
+
+        return cacheBodyIfNeeded(descriptor, exchange).flatMap(ex -> {
+            HttpHeaders requestHeaders = ex.getRequest().getHeaders();
+            JoinPointContext ctx = new JoinPointContext(
+                    descriptor,
+                    userIdResolver.userId(descriptor, requestHeaders::getFirst, () -> ex.getAttribute(CACHED_BODY_ATTR)),
+                    userIdResolver.planId(requestHeaders::getFirst)
+            );
+            ServerHttpResponse response = ex.getResponse();
+            ctx.put(RateLimitHeaderSupport.HEADER_WRITER_ATTR, (BiConsumer<String, String>) response.getHeaders()::set);
+
+            // before 를 통과한 정책만 after 호출 (뒤 정책이 거절해도 앞에서 얻은 permit 반납)
+            // 종료 신호가 하위(에러 응답 쓰기)로 전달되기 전에 반납 (doFinally 는 응답을 쓴 뒤에 실행됨)
+            AtomicInteger entered = new AtomicInteger();
+            Runnable release = () -> {
+                for (int i = entered.getAndSet(0) - 1; i >= 0; i--) {
+                    after(matched.get(i), method, ctx);
+                }
+            };
+            TrafficGuardMetrics.PolicyMeters[] meters = metrics.meters(descriptor);
+            return Flux.range(0, matched.size())
+                    .concatMap(i -> before(matched.get(i), meters[i], method, ctx).doOnSuccess(v -> entered.incrementAndGet()))
+                    .then(Mono.defer(() -> chain.filter(ex)))
+                    .doOnTerminate(release)
+                    .doOnCancel(release);
+        }).onErrorResume(e -> handleException(exchange, e));
+    }
+
+    private Mono<Void> before(GuardPolicy policy, TrafficGuardMetrics.PolicyMeters meters, Method method, JoinPointContext ctx) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            CompletionStage<Void> stage = policy.beforeAsync(method, ctx);
+            Mono<Void> decision;
+            if (stage != null) {
+                decision = Mono.fromCompletionStage(stage);
+            } else {
+                // 비동기 구현이 없는 정책은 이벤트 루프를 막지 않도록 별도 스레드에서 실행
+                decision = Mono.<Void>fromRunnable(() -> policy.before(method, ctx))
+                        .subscribeOn(Schedulers.boundedElastic());
+            }
+            return decision
+                    .doOnSuccess(v -> meters.allowed(start, ctx.consumeFailedOpen()))
+                    .doOnError(e -> {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        if (cause instanceof RateLimitExceededException) {
+                            meters.denied(start);
+                        }
+                    });
+        });
+    }
+
+    private void after(GuardPolicy policy, Method method, JoinPointContext ctx) {
+        try {
+            policy.after(method, ctx);
+        } catch (Exception e) {
+            log.error("TrafficGuardWebFilter - after failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * body 에서 사용자 ID 를 찾아야 하면 body 를 한 번 읽어 속성에 담고, 컨트롤러가 다시 읽을 수 있는 exchange 를 돌려줍니다.
+     * Content-Length 가 maxBytes 를 넘으면 읽지 않고, 모르면 maxBytes + 1 바이트까지만 모아 넘는지 판단합니다.
+     */
+    private Mono<ServerWebExchange> cacheBodyIfNeeded(GuardDescriptor descriptor, ServerWebExchange exchange) {
+        if (!descriptor.needsRequestBody() || exchange.getAttribute(CACHED_BODY_ATTR) != null) {
+            return Mono.just(exchange);
+        }
+        if (exchange.getRequest().getHeaders().getContentLength() > maxBytes) {
+            return Mono.error(new PayloadTooLargeException("request body exceeds " + maxBytes + " bytes"));
+        }
+        return DataBufferUtils.join(DataBufferUtils.takeUntilByteCount(exchange.getRequest().getBody(), maxBytes + 1L))
+                .map(buffer -> {
+                    if (buffer.readableByteCount() > maxBytes) {
+                        DataBufferUtils.release(buffer);
+                        throw new PayloadTooLargeException("request body exceeds " + maxBytes + " bytes");
+                    }
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .defaultIfEmpty(new byte[0])
+                .map(bytes -> {
+                    ServerHttpRequest request = new ServerHttpRequestDecorator(exchange.getRequest()) {
+                        @Override
+                        public Flux<DataBuffer> getBody() {
+                            return Flux.defer(() -> Flux.just(exchange.getResponse().bufferFactory().wrap(bytes)));
+                        }
+                    };
+                    ServerWebExchange cached = exchange.mutate().request(request).build();
+                    cached.getAttributes().put(CACHED_BODY_ATTR, bytes);
+                    return cached;
+                });
+    }
+
+    private Mono<Void> handleException(ServerWebExchange exchange, Throwable error) {
+        Throwable e = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (e instanceof UserIdentificationException) {
+            log.warn("TrafficGuardWebFilter - UserIdentificationException: {}", e.getMessage());
+            return writeError(exchange, HttpStatus.UNAUTHORIZED, "UNAUTHORIZED", e.getMessage());
+        } else if (e instanceof RateLimitExceededException) {
+            log.warn("TrafficGuardWebFilter - RateLimitExceededException: {}", e.getMessage());
+            return writeError(exchange, HttpStatus.TOO_MANY_REQUESTS, "TOO_MANY_REQUESTS", e.getMessage());
+        } else if (e instanceof InvalidRequestException) {
+            log.warn("TrafficGuardWebFilter - InvalidRequestException: {}", e.getMessage());
+            return writeError(exchange, HttpStatus.BAD_REQUEST, "BAD_REQUEST", e.getMessage());
+        } else if (e instanceof PayloadTooLargeException) {
+            log.warn("TrafficGuardWebFilter - PayloadTooLargeException: {}", e.getMessage());
+            return writeError(exchange, HttpStatus.PAYLOAD_TOO_LARGE, "PAYLOAD_TOO_LARGE", e.getMessage());
+        } else if (e instanceof InternalTrafficException) {
+            log.error("TrafficGuardWebFilter - InternalTrafficException: {}", e.getMessage());
+            return writeError(exchange, HttpStatus.INTERNAL_SERVER_ERROR, "INTERNAL_SERVER_ERROR", e.getMessage());
+        }
+        return Mono.error(e);
+    }
+
+    private Mono<Void> writeError(ServerWebExchange exchange, HttpStatus status, String error, String message) {
+        ServerHttpResponse response = exchange.getResponse();
+        if (response.isCommitted()) {
+            return Mono.error(new RuntimeException("Failed to handle traffic exception: " + message));
+        }
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.parseMediaType("application/json;charset=UTF-8"));
+        String jsonResponse = String.format("{\"error\":\"%s\",\"message\":\"%s\"}", error, message);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(jsonResponse.getBytes(StandardCharsets.UTF_8))));
+    }
+}
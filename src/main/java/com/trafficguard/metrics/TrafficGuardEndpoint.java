@@ -0,0 +1,93 @@
+package com.trafficguard.metrics;
+
+import com.trafficguard.config.TrafficGuardProperties;
+import com.trafficguard.core.DecisionBatcher;
+import com.trafficguard.core.RedisGuard;
+import com.trafficguard.core.RedisScriptRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /actuator/trafficguard - 리소스별 판정 통계, 배칭 통계(배칭 사용 시)와 현재 설정.
+ * (management.endpoints.web.exposure.include 에 trafficguard 를 추가해야 노출됨)
+ */
+@Component
+@Endpoint(id = "trafficguard")
+public class TrafficGuardEndpoint {
+    private final TrafficGuardMetrics metrics;
+    private final RedisScriptRegistry scripts;
+    private final TrafficGuardProperties properties;
+    private final RedisGuard redisGuard;
+
+    public TrafficGuardEndpoint(TrafficGuardMetrics metrics, RedisScriptRegistry scripts, TrafficGuardProperties properties,
+                                RedisGuard redisGuard) {
+        this.metrics = metrics;
+        this.scripts = scripts;
+        this.properties = properties;
+        this.redisGuard = redisGuard;
+    }
+
+    @ReadOperation
+    public Map<String, Object> trafficGuard() {
+        Map<String, List<Map<String, Object>>> resources = new TreeMap<>();
+        for (TrafficGuardMetrics.PolicyMeters[] chain : metrics.all()) {
+            for (TrafficGuardMetrics.PolicyMeters m : chain) {
+                resources.computeIfAbsent(m.resource(), r -> new ArrayList<>()).add(stats(m));
+            }
+        }
+
+        Map<String, Object> script = new LinkedHashMap<>();
+        script.put("functionsLoaded", scripts.functionsLoaded());
+        script.put("cacheMisses", scripts.cacheMisses());
+        script.put("cacheMissesByScript", scripts.cacheMissesByScript());
+        script.put("libraryReloads", scripts.libraryReloads());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("resources", resources);
+        result.put("scripts", script);
+        DecisionBatcher batcher = redisGuard.batcher();
+        if (batcher != null) {
+            result.put("batch", batch(batcher));
+        }
+        result.put("config", properties);
+        return result;
+    }
+
+    private Map<String, Object> batch(DecisionBatcher batcher) {
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        for (int i = 0; i < DecisionBatcher.HISTOGRAM_BUCKETS; i++) {
+            sizes.put(DecisionBatcher.sizeRange(i), batcher.batchesOfSize(i));
+        }
+        long batches = batcher.batchCount();
+        Map<String, Object> batch = new LinkedHashMap<>();
+        batch.put("batches", batches);
+        batch.put("decisions", batcher.decisionCount());
+        batch.put("meanSize", batches == 0 ? 0.0 : (double) batcher.decisionCount() / batches);
+        batch.put("sizeHistogram", sizes);
+        return batch;
+    }
+
+    private Map<String, Object> stats(TrafficGuardMetrics.PolicyMeters m) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("policy", m.policy());
+        stats.put("engine", m.engine());
+        stats.put("allowed", (long) m.allowedCount());
+        stats.put("denied", (long) m.deniedCount());
+        stats.put("failOpen", (long) m.failedOpenCount());
+        Timer latency = m.latency();
+        if (latency != null) {
+            stats.put("meanMillis", latency.mean(TimeUnit.MILLISECONDS));
+            stats.put("maxMillis", latency.max(TimeUnit.MILLISECONDS));
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,77 @@
+package com.trafficguard.metrics;
+
+import com.trafficguard.core.DecisionBatcher;
+import com.trafficguard.core.DeniedBucketCache;
+import com.trafficguard.core.LocalTokenBucket;
+import com.trafficguard.core.RedisGuard;
+import com.trafficguard.core.RedisScriptRegistry;
+import com.trafficguard.core.SemaphoreLeaseGuard;
+import com.trafficguard.core.TokenLeaseGuard;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * 노드 안 캐시 크기와 스크립트 캐시 miss 를 조회 시점에 읽는 미터 (요청 경로 비용 없음).
+ *
+ * - trafficguard.cache.size: cache=denied|local_bucket|token_lease|semaphore_lease
+ * - trafficguard.scripts.cache.misses, trafficguard.scripts.library.reloads
+ * - trafficguard.batch.size: size=1|2-3|4-7|...|2048+ 구간별 배치 수, trafficguard.batch.decisions (배칭 사용 시)
+ */
+@Component
+public class TrafficGuardMeterBinder implements MeterBinder {
+    private final RedisGuard redisGuard;
+    private final LocalTokenBucket localTokenBucket;
+    private final TokenLeaseGuard tokenLeaseGuard;
+    private final SemaphoreLeaseGuard semaphoreLeaseGuard;
+    private final RedisScriptRegistry scripts;
+
+    public TrafficGuardMeterBinder(RedisGuard redisGuard, LocalTokenBucket localTokenBucket, TokenLeaseGuard tokenLeaseGuard,
+                                   SemaphoreLeaseGuard semaphoreLeaseGuard, RedisScriptRegistry scripts) {
+        this.redisGuard = redisGuard;
+        this.localTokenBucket = localTokenBucket;
+        this.tokenLeaseGuard = tokenLeaseGuard;
+        this.semaphoreLeaseGuard = semaphoreLeaseGuard;
+        this.scripts = scripts;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        DeniedBucketCache deniedCache = redisGuard.deniedCache();
+        if (deniedCache != null) {
+            cacheSize(registry, "denied", deniedCache, DeniedBucketCache::size);
+        }
+        cacheSize(registry, "local_bucket", localTokenBucket, LocalTokenBucket::size);
+        cacheSize(registry, "token_lease", tokenLeaseGuard, TokenLeaseGuard::size);
+        cacheSize(registry, "semaphore_lease", semaphoreLeaseGuard, SemaphoreLeaseGuard::size);
+
+        FunctionCounter.builder("trafficguard.scripts.cache.misses", scripts, RedisScriptRegistry::cacheMisses)
+                .description("NOSCRIPT / missing FUNCTION library")
+                .register(registry);
+        FunctionCounter.builder("trafficguard.scripts.library.reloads", scripts, RedisScriptRegistry::libraryReloads)
+                .register(registry);
+
+        DecisionBatcher batcher = redisGuard.batcher();
+        if (batcher != null) {
+            for (int i = 0; i < DecisionBatcher.HISTOGRAM_BUCKETS; i++) {
+                int bucket = i;
+                FunctionCounter.builder("trafficguard.batch.size", batcher, b -> b.batchesOfSize(bucket))
+                        .description("batched token bucket round trips by batch size")
+                        .tag("size", DecisionBatcher.sizeRange(bucket))
+                        .register(registry);
+            }
+            FunctionCounter.builder("trafficguard.batch.decisions", batcher, DecisionBatcher::decisionCount)
+                    .register(registry);
+        }
+    }
+
+    private <T> void cacheSize(MeterRegistry registry, String cache, T obj, ToIntFunction<T> size) {
+        Gauge.builder("trafficguard.cache.size", obj, o -> size.applyAsInt(o))
+                .tag("cache", cache)
+                .register(registry);
+    }
+}
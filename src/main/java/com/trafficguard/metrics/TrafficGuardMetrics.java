@@ -0,0 +1,166 @@
+package com.trafficguard.metrics;
+
+import com.trafficguard.core.GuardDescriptor;
+import com.trafficguard.policy.GuardPolicy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 정책 판정 메트릭 (Micrometer).
+ *
+ * - trafficguard.decision.latency: before 실행 시간 (resource, policy, engine)
+ * - trafficguard.decisions: 판정 수 (resource, policy, engine, outcome=allowed|denied|fail_open)
+ * - trafficguard.redis.errors: Redis 호출 오류 수 (operation)
+ *
+ * 미터는 GuardDescriptor 체인마다 한 번 만들어 두므로 요청 경로에서는 태그/미터 객체를 만들지 않습니다.
+ * MeterRegistry 가 없으면 아무것도 기록하지 않습니다.
+ */
+@Component
+public class TrafficGuardMetrics {
+    /** 기록하지 않는 인스턴스 (테스트, 정책을 직접 호출하는 경우) */
+    public static final TrafficGuardMetrics NOOP = new TrafficGuardMetrics((MeterRegistry) null);
+
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<GuardDescriptor, PolicyMeters[]> meters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> redisErrors = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TrafficGuardMetrics(ObjectProvider<MeterRegistry> registry) {
+        this(registry.getIfAvailable());
+    }
+
+    public TrafficGuardMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * descriptor 체인과 같은 순서의 정책별 미터.
+     */
+    public PolicyMeters[] meters(GuardDescriptor descriptor) {
+        PolicyMeters[] m = meters.get(descriptor);
+        if (m != null) {
+            return m;
+        }
+        return meters.computeIfAbsent(descriptor, this::create);
+    }
+
+    private PolicyMeters[] create(GuardDescriptor descriptor) {
+        List<GuardPolicy> chain = descriptor.chain();
+        PolicyMeters[] m = new PolicyMeters[chain.size()];
+        for (int i = 0; i < m.length; i++) {
+            GuardPolicy policy = chain.get(i);
+            String engine = policy.engine(descriptor);
+            m[i] = new PolicyMeters(registry, descriptor.resourceKey(), policy.getClass().getSimpleName(), engine != null ? engine : "UNKNOWN");
+        }
+        return m;
+    }
+
+    /** Redis 호출이 실패해 fail-open 또는 무시한 경우 */
+    public void redisError(String operation) {
+        if (registry == null) {
+            return;
+        }
+        redisErrors.computeIfAbsent(operation, op -> Counter.builder("trafficguard.redis.errors")
+                .tag("operation", op)
+                .register(registry)).increment();
+    }
+
+    /** 지금까지 판정한 descriptor 별 미터 (actuator endpoint 용) */
+    public Collection<PolicyMeters[]> all() {
+        return Collections.unmodifiableCollection(meters.values());
+    }
+
+    /** 정책 하나의 미터. 요청 경로에서 호출하는 메서드는 할당하지 않습니다. */
+    public static final class PolicyMeters {
+        private final String resource;
+        private final String policy;
+        private final String engine;
+        private final Timer latency;
+        private final Counter allowed;
+        private final Counter denied;
+        private final Counter failedOpen;
+
+        PolicyMeters(MeterRegistry registry, String resource, String policy, String engine) {
+            this.resource = resource;
+            this.policy = policy;
+            this.engine = engine;
+            if (registry == null) {
+                this.latency = null;
+                this.allowed = null;
+                this.denied = null;
+                this.failedOpen = null;
+                return;
+            }
+            this.latency = Timer.builder("trafficguard.decision.latency")
+                    .tags("resource", resource, "policy", policy, "engine", engine)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.allowed = counter(registry, "allowed");
+            this.denied = counter(registry, "denied");
+            this.failedOpen = counter(registry, "fail_open");
+        }
+
+        private Counter counter(MeterRegistry registry, String outcome) {
+            return Counter.builder("trafficguard.decisions")
+                    .tags("resource", resource, "policy", policy, "engine", engine, "outcome", outcome)
+                    .register(registry);
+        }
+
+        /** before 를 통과한 경우 (failedOpen 이면 Redis 오류로 판정 없이 허용) */
+        public void allowed(long startNanos, boolean failedOpen) {
+            if (latency == null) {
+                return;
+            }
+            latency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            (failedOpen ? this.failedOpen : allowed).increment();
+        }
+
+        /** before 가 거절한 경우 */
+        public void denied(long startNanos) {
+            if (latency == null) {
+                return;
+            }
+            latency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            denied.increment();
+        }
+
+        public String resource() {
+            return resource;
+        }
+
+        public String policy() {
+            return policy;
+        }
+
+        public String engine() {
+            return engine;
+        }
+
+        /** endpoint 용 (MeterRegistry 가 없으면 null) */
+        public Timer latency() {
+            return latency;
+        }
+
+        public double allowedCount() {
+            return allowed != null ? allowed.count() : 0;
+        }
+
+        public double deniedCount() {
+            return denied != null ? denied.count() : 0;
+        }
+
+        public double failedOpenCount() {
+            return failedOpen != null ? failedOpen.count() : 0;
+        }
+    }
+}
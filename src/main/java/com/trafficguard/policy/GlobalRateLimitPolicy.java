@@ -0,0 +1,75 @@
+package com.trafficguard.policy;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import com.trafficguard.annotation.GlobalRateLimit;
+import com.trafficguard.core.GuardDescriptor;
+import com.trafficguard.core.JoinPointContext;
+import com.trafficguard.core.RedisGuard;
+import com.trafficguard.core.ShardedBucketGuard;
+import com.trafficguard.exception.RateLimitExceededException;
+
+import java.lang.reflect.Method;
+
+/**
+ * @GlobalRateLimit: 엔드포인트 전체 제한. 사용자 제한(@Order(20))에서 거절될 요청이 전역 토큰을 쓰지 않도록 그 다음에 실행합니다.
+ */
+@Slf4j
+@Component
+@Order(30)
+@AllArgsConstructor
+public class GlobalRateLimitPolicy implements GuardPolicy {
+    private final ShardedBucketGuard shardedBucketGuard;
+
+    @Override
+    public boolean supports(Method method) {
+        return AnnotationUtils.findAnnotation(method, GlobalRateLimit.class) != null;
+    }
+
+    @Override
+    public void before(Method method, JoinPointContext joinPointContext) {
+
+        GlobalRateLimit ann = globalRateLimit(method, joinPointContext);
+        if (ann == null) {
+            log.error("GlobalRateLimitPolicy - no annotation found");
+            return;
+        }
+
+        String bucketKey = "grl:"+joinPointContext.getResourceKey();
+        double ratePerSecond = ann.timeUnit().getRatePerSecond(ann.rate());
+        int burst = ann.burst() > 0 ? ann.burst() : ann.rate();
+        // UserRateLimitPolicy 와 같이 TTL 이 timeUnit 보다 짧으면 timeUnit 의 2배
+        long timeUnitMillis = ann.timeUnit().getSeconds() * 1000L;
+        long ttlMillis = ann.ttlMillis() < timeUnitMillis ? timeUnitMillis * 2 : ann.ttlMillis();
+
+        log.debug("GlobalRateLimitPolicy - bucketKey: {}, ratePerSecond: {}, burst: {}, shards: {}",
+                bucketKey, ratePerSecond, burst, ann.shards());
+
+        RedisGuard.RateDecision d = shardedBucketGuard.tryAcquire(bucketKey, ratePerSecond, burst, ttlMillis,
+                ann.shards(), ann.strategy(), ann.maxFallback());
+
+        if (d.failedOpen()) {
+            joinPointContext.markFailedOpen();
+        }
+
+        if (!d.allowed()) {
+            log.warn("Global Rate Limit Exceeded: " + bucketKey + ":" + ratePerSecond + ":" + d.retryAfterMs());
+
+            throw new RateLimitExceededException("[GLOBAL_RATE_LIMIT] " + "resource:" + joinPointContext.getResourceKey());
+        }
+    }
+
+    /** descriptor 에 해석해 둔 어노테이션 (정책을 직접 호출한 경우에만 리플렉션) */
+    private GlobalRateLimit globalRateLimit(Method method, JoinPointContext joinPointContext) {
+        GuardDescriptor descriptor = joinPointContext.getDescriptor();
+        return descriptor != null ? descriptor.globalRateLimit() : AnnotationUtils.findAnnotation(method, GlobalRateLimit.class);
+    }
+
+    @Override
+    public void after(Method method, JoinPointContext joinPointContext) {
+
+    }
+}
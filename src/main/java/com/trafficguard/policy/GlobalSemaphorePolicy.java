@@ -1,30 +1,65 @@
 package com.trafficguard.policy;
 
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import com.trafficguard.annotation.GlobalSemaphore;
+import com.trafficguard.core.GuardDescriptor;
 import com.trafficguard.core.JoinPointContext;
+import com.trafficguard.core.SemaphoreLeaseGuard;
+import com.trafficguard.exception.RateLimitExceededException;
 
 import java.lang.reflect.Method;
 
+@Slf4j
 @Component
 @Order(1)
+@AllArgsConstructor
 public class GlobalSemaphorePolicy implements GuardPolicy {
+    /** before 에서 permit 을 얻은 세마포어 키 (after 에서 반납) */
+    static final String ACQUIRED_KEY = "globalSemaphore.key";
+
+    private final SemaphoreLeaseGuard semaphoreLeaseGuard;
 
     @Override
     public boolean supports(Method method) {
-        return false;
+        return AnnotationUtils.findAnnotation(method, GlobalSemaphore.class) != null;
     }
 
     @Override
     public void before(Method method, JoinPointContext joinPointContext) {
 
+        GlobalSemaphore ann = globalSemaphore(method, joinPointContext);
+        if (ann == null) {
+            log.error("GlobalSemaphorePolicy - no annotation found");
+            return;
+        }
+
+        String semaphoreKey = "global:"+joinPointContext.getResourceKey();
+        log.debug("GlobalSemaphorePolicy - semaphoreKey: {}, permits: {}, leaseMillis: {}, waitMillis: {}",
+                semaphoreKey, ann.permits(), ann.leaseMillis(), ann.tryAcquireWaitMillis());
+
+        if (!semaphoreLeaseGuard.tryAcquire(semaphoreKey, ann.permits(), ann.leaseMillis(), ann.tryAcquireWaitMillis())) {
+            log.warn("Global Semaphore Exceeded: " + semaphoreKey + ":" + ann.permits());
+
+            throw new RateLimitExceededException("[GLOBAL_SEMAPHORE] " + "resource:" + joinPointContext.getResourceKey());
+        }
+        joinPointContext.put(ACQUIRED_KEY, semaphoreKey);
+    }
+
+    /** descriptor 에 해석해 둔 어노테이션 (정책을 직접 호출한 경우에만 리플렉션) */
+    private GlobalSemaphore globalSemaphore(Method method, JoinPointContext joinPointContext) {
+        GuardDescriptor descriptor = joinPointContext.getDescriptor();
+        return descriptor != null ? descriptor.globalSemaphore() : AnnotationUtils.findAnnotation(method, GlobalSemaphore.class);
     }
 
     @Override
     public void after(Method method, JoinPointContext joinPointContext) {
-
+        String semaphoreKey = joinPointContext.get(ACQUIRED_KEY, String.class);
+        if (semaphoreKey != null) {
+            semaphoreLeaseGuard.release(semaphoreKey);
+        }
     }
 }
-
-
-
@@ -1,8 +1,10 @@
 package com.trafficguard.policy;
 
+import com.trafficguard.core.GuardDescriptor;
 import com.trafficguard.core.JoinPointContext;
 
 import java.lang.reflect.Method;
+import java.util.concurrent.CompletionStage;
 
 public interface GuardPolicy {
     /** 우선순위(작을수록 먼저 실행). 또는 @Order 사용 가능 */
@@ -14,9 +16,15 @@ public interface GuardPolicy {
     /** 사전 검사(거절 시 예외 던짐). acquire 등은 여기서 */
     void before(Method method, JoinPointContext joinPointContext);
 
+    /**
+     * 호출 스레드를 막지 않는 사전 검사 (WebFlux). 거절 시 stage 가 예외로 완료됩니다.
+     * 비동기 구현이 없으면 null 을 반환하며, 호출자가 before 를 별도 스레드에서 실행합니다.
+     */
+    default CompletionStage<Void> beforeAsync(Method method, JoinPointContext joinPointContext) { return null; }
+
+    /** 메트릭 engine 태그 (판정 백엔드). descriptor 당 한 번 호출됩니다 */
+    default String engine(GuardDescriptor descriptor) { return "REDIS"; }
+
     /** 사후 정리(release 등) */
     void after(Method method, JoinPointContext joinPointContext);
 }
-
-
-
@@ -1,17 +1,26 @@
 package com.trafficguard.policy;
 
 import lombok.AllArgsConstructor;
-import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import com.trafficguard.exception.RateLimitExceededException;
 import com.trafficguard.annotation.UserRateLimit;
+import com.trafficguard.config.TrafficGuardProperties;
+import com.trafficguard.core.GuardDescriptor;
 import com.trafficguard.core.JoinPointContext;
+import com.trafficguard.core.LocalTokenBucket;
 import com.trafficguard.core.RateLimitHeaderSupport;
 import com.trafficguard.core.RedisGuard;
+import com.trafficguard.core.TokenLeaseGuard;
 import lombok.extern.slf4j.Slf4j;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 @Slf4j
 @Component
@@ -19,43 +28,137 @@ import java.lang.reflect.Method;
 @AllArgsConstructor
 public class UserRateLimitPolicy implements GuardPolicy {
     private final RedisGuard redisGuard;
+    private final LocalTokenBucket localTokenBucket;
+    private final TokenLeaseGuard tokenLeaseGuard;
     private final RateLimitHeaderSupport rateLimitHeaderSupport;
+    private final TrafficGuardProperties trafficGuardProperties;
 
     @Override
     public boolean supports(Method method) {
-        return AnnotationUtils.findAnnotation(method, UserRateLimit.class) != null;
+        return !AnnotatedElementUtils.findMergedRepeatableAnnotations(method, UserRateLimit.class).isEmpty();
     }
 
     @Override
     public void before(Method method, JoinPointContext joinPointContext) {
 
-        UserRateLimit ann = AnnotationUtils.findAnnotation(method, UserRateLimit.class);
-        if (ann == null) {
+        GuardDescriptor descriptor = joinPointContext.descriptor(method);
+        List<GuardDescriptor.UserLimit> limits = descriptor.userLimits();
+        if (limits.isEmpty()) {
             log.error("UserRateLimitPolicy - no annotation found");
             return;
         }
+        TrafficGuardProperties.PlanLimit planLimit = planLimit(joinPointContext.getPlanId());
+        if (atomic(descriptor, planLimit != null)) {
+            CompositeLimit composite = compositeLimit(descriptor, planLimit, joinPointContext);
+            checkComposite(composite, redisGuard.multiTokenBucketAllow(composite.buckets), null, joinPointContext);
+            return;
+        }
+
+        // 초당 rate / TTL 은 descriptor 에 미리 계산되어 있음
+        GuardDescriptor.UserLimit limit = limits.get(0);
+        String bucketKey = descriptor.userKeyPrefix() + joinPointContext.getUserId();
+        log.debug("UserRateLimitPolicy - bucketKey: {}, ratePerSecond: {}, burst: {}, ttlMillis: {}, backend: {}",
+                bucketKey, limit.ratePerSecond(), limit.annotation().burst(), limit.ttlMillis(), limit.annotation().backend());
+
+        RedisGuard.RateDecision d = decide(limit, bucketKey);
+
+        check(limit, bucketKey, d, joinPointContext);
+
+        // 사용자 제한을 통과한 요청만 테넌트/전역 토큰을 사용
+        CompositeLimit shared = sharedLimit(descriptor, planLimit, joinPointContext);
+        if (shared != null) {
+            checkComposite(shared, redisGuard.multiTokenBucketAllow(shared.buckets), d, joinPointContext);
+        }
+    }
+
+    /**
+     * 사용자 버킷과 테넌트/전역 버킷을 한 스크립트로(all-or-nothing) 판정할지.
+     * - 제한이 여러 개면 항상 (여러 제한 조합은 Redis 토큰 버킷으로 평가)
+     * - 제한이 하나면 그 제한이 REDIS 토큰 버킷(PACKED)이고 테넌트/전역 버킷이 있을 때만.
+     *   그 외에는 어노테이션의 backend/algorithm 으로 사용자 제한을 먼저 판정하고(키도 그대로), 통과하면 테넌트/전역 버킷을 판정합니다.
+     */
+    private boolean atomic(GuardDescriptor descriptor, boolean hasPlan) {
+        if (descriptor.userLimits().size() > 1) {
+            return true;
+        }
+        return (hasPlan || !descriptor.globalBuckets().isEmpty())
+                && descriptor.redisTokenBucket()
+                && trafficGuardProperties.getBucketFormat() == TrafficGuardProperties.BucketFormat.PACKED;
+    }
+
+    /** 한 스크립트로 복합 판정하면 REDIS_MULTI, 아니면 사용자 제한의 backend (REDIS 는 알고리즘까지) */
+    @Override
+    public String engine(GuardDescriptor descriptor) {
+        if (descriptor.userLimits().isEmpty()) {
+            return "NONE";
+        }
+        if (atomic(descriptor, !trafficGuardProperties.getPlans().isEmpty())) {
+            return "REDIS_MULTI";
+        }
+        UserRateLimit ann = descriptor.userLimits().get(0).annotation();
+        return ann.backend() == UserRateLimit.Backend.REDIS
+                ? "REDIS_" + ann.algorithm().name()
+                : ann.backend().name();
+    }
 
-        // 시간 단위를 초 단위로 변환 (소수점 포함)
-        double ratePerSecond = ann.timeUnit().getRatePerSecond(ann.rate());
+    /**
+     * REDIS 토큰 버킷(단일/복합)과 테넌트/전역 버킷은 Redisson 비동기 EVALSHA 로, LOCAL 은 인메모리라 바로 판정합니다.
+     * 그 외(HYBRID, GCRA, SLIDING_WINDOW, CALENDAR_WINDOW)는 null 을 반환해 호출자가 별도 스레드에서 before 를 실행합니다.
+     */
+    @Override
+    public CompletionStage<Void> beforeAsync(Method method, JoinPointContext joinPointContext) {
+        GuardDescriptor descriptor = joinPointContext.descriptor(method);
+        List<GuardDescriptor.UserLimit> limits = descriptor.userLimits();
+        if (limits.isEmpty()) {
+            log.error("UserRateLimitPolicy - no annotation found");
+            return CompletableFuture.completedFuture(null);
+        }
+        TrafficGuardProperties.PlanLimit planLimit = planLimit(joinPointContext.getPlanId());
+        if (atomic(descriptor, planLimit != null)) {
+            CompositeLimit composite = compositeLimit(descriptor, planLimit, joinPointContext);
+            return redisGuard.multiTokenBucketAllowAsync(composite.buckets)
+                    .thenAccept(d -> checkComposite(composite, d, null, joinPointContext));
+        }
 
-        // timeUnit에 따라 TTL을 동적으로 계산
-        long ttlMillis = calculateTtlMillis(ann.timeUnit(), ann.ttlMillis());
+        GuardDescriptor.UserLimit limit = limits.get(0);
+        UserRateLimit ann = limit.annotation();
+        String bucketKey = descriptor.userKeyPrefix() + joinPointContext.getUserId();
+        CompletionStage<RedisGuard.RateDecision> decision;
+        if (ann.backend() == UserRateLimit.Backend.LOCAL) {
+            decision = CompletableFuture.completedFuture(
+                    localTokenBucket.tryAcquire(bucketKey, limit.ratePerSecond(), ann.burst(), limit.ttlMillis()));
+        } else if (ann.backend() == UserRateLimit.Backend.REDIS && ann.algorithm() == UserRateLimit.Algorithm.TOKEN_BUCKET) {
+            decision = redisGuard.tokenBucketAllowAsync(bucketKey, limit.ratePerSecond(), ann.burst(), limit.ttlMillis());
+        } else {
+            return null;
+        }
 
-        String bucketKey = "user:"+joinPointContext.getResourceKey()+":"+joinPointContext.getUserId();
-        log.debug("UserRateLimitPolicy - bucketKey: {}, ratePerSecond: {}, burst: {}, ttlMillis: {}",
-                bucketKey, ratePerSecond, ann.burst(), ttlMillis);
+        CompositeLimit shared = sharedLimit(descriptor, planLimit, joinPointContext);
+        return decision.thenCompose(d -> {
+            check(limit, bucketKey, d, joinPointContext);
+            if (shared == null) {
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+            return redisGuard.multiTokenBucketAllowAsync(shared.buckets)
+                    .thenAccept(sd -> checkComposite(shared, sd, d, joinPointContext));
+        });
+    }
 
-        RedisGuard.RateDecision d = redisGuard.tokenBucketAllow(bucketKey, ratePerSecond, ann.burst(), ttlMillis);
-        
-        log.debug("UserRateLimitPolicy - redisGuard.tokenBucketAllow() completed, result: allowed={}, tokens={}, retry={}", 
+    private void check(GuardDescriptor.UserLimit limit, String bucketKey, RedisGuard.RateDecision d, JoinPointContext joinPointContext) {
+        UserRateLimit ann = limit.annotation();
+        log.debug("UserRateLimitPolicy - rate decision completed, result: allowed={}, tokens={}, retry={}", 
                 d.allowed(), d.remainingTokens(), d.retryAfterMs());
 
+        if (d.failedOpen()) {
+            joinPointContext.markFailedOpen();
+        }
+
         if (ann.emitHeaders()) {
-            rateLimitHeaderSupport.writeHeaders(ann.rate(), d.remainingTokens(), d.retryAfterMs());
+            writeHeaders(joinPointContext, ann.rate(), d.remainingTokens(), d.retryAfterMs());
         }
 
         if (!d.allowed()) {
-            log.warn("Rate Limit Exceeded: " + bucketKey + ":" + ratePerSecond + ":" + d.remainingTokens() + ":" + d.retryAfterMs());
+            log.warn("Rate Limit Exceeded: " + bucketKey + ":" + limit.ratePerSecond() + ":" + d.remainingTokens() + ":" + d.retryAfterMs());
 
             throw new RateLimitExceededException("[USER_RATE_LIMIT] " + "userId: " + joinPointContext.getUserId() + " resource:" + joinPointContext.getResourceKey());
         }
@@ -63,24 +166,139 @@ public class UserRateLimitPolicy implements GuardPolicy {
         log.debug("UserRateLimitPolicy - rate limit check passed");
     }
 
-    @Override
-    public void after(Method method, JoinPointContext joinPointContext) {
+    /**
+     * 여러 제한을 한 번의 Lua 호출로 판정하기 위한 버킷 목록.
+     * - 사용자: @UserRateLimit 각각 (예: 20/s AND 1000/hour)
+     * - 테넌트: traffic-guard.plans 의 planId 제한 (리소스별)
+     * - 전역: globalRate 가 지정된 경우 리소스별 전체 제한
+     * 모두 Redis 토큰 버킷으로 평가하며, 하나라도 거절하면 어느 버킷도 차감하지 않습니다.
+     * 사용자 버킷이 맨 앞이므로 클러스터/샤딩에서는 사용자 버킷이 허용한 뒤에만 테넌트/전역 버킷을 차감합니다.
+     */
+    private CompositeLimit compositeLimit(GuardDescriptor descriptor, TrafficGuardProperties.PlanLimit planLimit, JoinPointContext joinPointContext) {
+        List<GuardDescriptor.UserLimit> limits = descriptor.userLimits();
+        String bucketKey = descriptor.userKeyPrefix() + joinPointContext.getUserId();
+        UserRateLimit first = limits.get(0).annotation();
 
+        CompositeLimit composite = new CompositeLimit(first.emitHeaders());
+        for (GuardDescriptor.UserLimit limit : limits) {
+            UserRateLimit ann = limit.annotation();
+            // 사용자의 제한들은 같은 hash tag (클러스터에서 한 슬롯)
+            composite.buckets.add(new RedisGuard.BucketSpec(bucketKey + limit.keySuffix(), bucketKey, limit.ratePerSecond(), ann.burst(), limit.ttlMillis()));
+            composite.limits.add(ann.rate());
+        }
+        addShared(composite, descriptor, planLimit, joinPointContext);
+        log.debug("UserRateLimitPolicy - bucketKey: {}, plan: {}, buckets: {}", bucketKey, joinPointContext.getPlanId(), composite.buckets.size());
+        return composite;
+    }
+
+    /** 사용자 제한을 어노테이션의 engine 으로 따로 판정할 때의 테넌트/전역 버킷 (없으면 null) */
+    private CompositeLimit sharedLimit(GuardDescriptor descriptor, TrafficGuardProperties.PlanLimit planLimit, JoinPointContext joinPointContext) {
+        if (planLimit == null && descriptor.globalBuckets().isEmpty()) {
+            return null;
+        }
+        CompositeLimit shared = new CompositeLimit(descriptor.userLimits().get(0).annotation().emitHeaders());
+        addShared(shared, descriptor, planLimit, joinPointContext);
+        return shared;
+    }
+
+    private void addShared(CompositeLimit composite, GuardDescriptor descriptor, TrafficGuardProperties.PlanLimit planLimit, JoinPointContext joinPointContext) {
+        if (planLimit != null) {
+            composite.buckets.add(bucket(descriptor.planKeyPrefix() + joinPointContext.getPlanId(),
+                    planLimit.getRate(), planLimit.getTimeUnit(), planLimit.getBurst() > 0 ? planLimit.getBurst() : planLimit.getRate(),
+                    descriptor.userLimits().get(0).annotation().ttlMillis()));
+            composite.limits.add(planLimit.getRate());
+        }
+        // 전역 버킷은 사용자와 무관하므로 descriptor 의 BucketSpec 을 그대로 사용
+        composite.buckets.addAll(descriptor.globalBuckets());
+        composite.limits.addAll(descriptor.globalLimits());
     }
 
     /**
-     * timeUnit에 따라 적절한 TTL을 계산합니다.
-     * 기본 TTL이 timeUnit보다 짧으면 timeUnit의 2배로 설정합니다.
+     * 헤더는 가장 제한적인 버킷 기준으로 씁니다.
+     * @param userDecision 사용자 제한을 먼저 따로 판정했으면 그 결과 (헤더를 이미 썼으므로 이쪽이 더 제한적일 때만 덮어씀), 아니면 null
      */
-    private long calculateTtlMillis(UserRateLimit.TimeUnit timeUnit, long defaultTtlMillis) {
-        long timeUnitMillis = timeUnit.getSeconds() * 1000L;
-        
-        // 기본 TTL이 timeUnit보다 짧으면 timeUnit의 2배로 설정
-        if (defaultTtlMillis < timeUnitMillis) {
-            return timeUnitMillis * 2;
-        }
-        
-        return defaultTtlMillis;
+    private void checkComposite(CompositeLimit composite, RedisGuard.CompositeDecision d, RedisGuard.RateDecision userDecision, JoinPointContext joinPointContext) {
+        String limitingKey = composite.buckets.get(d.limitingIndex()).key();
+        int limit = composite.limits.get(d.limitingIndex());
+
+        log.debug("UserRateLimitPolicy - rate decision completed, result: allowed={}, tokens={}, retry={}, limiting={}",
+                d.allowed(), d.remainingTokens(), d.retryAfterMs(), limitingKey);
+
+        if (d.failedOpen()) {
+            joinPointContext.markFailedOpen();
+        }
+
+        boolean tighter = userDecision == null || !d.allowed() || d.remainingTokens() < userDecision.remainingTokens();
+        if (composite.emitHeaders && tighter) {
+            writeHeaders(joinPointContext, limit, d.remainingTokens(), d.retryAfterMs());
+        }
+
+        if (!d.allowed()) {
+            log.warn("Rate Limit Exceeded: " + limitingKey + ":" + limit + ":" + d.remainingTokens() + ":" + d.retryAfterMs());
+
+            throw new RateLimitExceededException("[USER_RATE_LIMIT] " + "userId: " + joinPointContext.getUserId() + " resource:" + joinPointContext.getResourceKey());
+        }
+
+        log.debug("UserRateLimitPolicy - rate limit check passed");
+    }
+
+    /** WebFlux 경로는 컨텍스트의 헤더 writer, 서블릿 경로는 현재 응답에 씁니다. */
+    private void writeHeaders(JoinPointContext joinPointContext, int limit, double remaining, long retryAfterMs) {
+        if (!RateLimitHeaderSupport.writeHeaders(joinPointContext, limit, remaining, retryAfterMs)) {
+            rateLimitHeaderSupport.writeHeaders(limit, remaining, retryAfterMs);
+        }
+    }
+
+    private RedisGuard.BucketSpec bucket(String key, int rate, UserRateLimit.TimeUnit timeUnit, int burst, long ttlMillis) {
+        return new RedisGuard.BucketSpec(key, timeUnit.getRatePerSecond(rate), burst, GuardDescriptor.ttlMillis(timeUnit, ttlMillis));
+    }
+
+    /** planId 의 테넌트 제한. 없으면 traffic-guard.plans.default, 그것도 없으면 null */
+    private TrafficGuardProperties.PlanLimit planLimit(String planId) {
+        Map<String, TrafficGuardProperties.PlanLimit> plans = trafficGuardProperties.getPlans();
+        if (plans.isEmpty()) {
+            return null;
+        }
+        TrafficGuardProperties.PlanLimit limit = planId != null ? plans.get(planId) : null;
+        return limit != null ? limit : plans.get("default");
+    }
+
+    @Override
+    public void after(Method method, JoinPointContext joinPointContext) {
+
+    }
+
+    private static final class CompositeLimit {
+        private final boolean emitHeaders;
+        private final List<RedisGuard.BucketSpec> buckets = new ArrayList<>();
+        private final List<Integer> limits = new ArrayList<>();
+
+        private CompositeLimit(boolean emitHeaders) {
+            this.emitHeaders = emitHeaders;
+        }
+    }
+
+    private RedisGuard.RateDecision decide(GuardDescriptor.UserLimit limit, String bucketKey) {
+        UserRateLimit ann = limit.annotation();
+        double ratePerSecond = limit.ratePerSecond();
+        long ttlMillis = limit.ttlMillis();
+        switch (ann.backend()) {
+            case LOCAL:
+                return localTokenBucket.tryAcquire(bucketKey, ratePerSecond, ann.burst(), ttlMillis);
+            case HYBRID:
+                return tokenLeaseGuard.tryAcquire(bucketKey, ratePerSecond, ann.burst(), ttlMillis);
+            default:
+                switch (ann.algorithm()) {
+                    case GCRA:
+                        return redisGuard.gcraAllow(bucketKey, ratePerSecond, ann.burst(), ttlMillis);
+                    case SLIDING_WINDOW:
+                        return redisGuard.slidingWindowAllow(bucketKey, ann.rate(), ann.timeUnit().getSeconds() * 1000L);
+                    case CALENDAR_WINDOW:
+                        return redisGuard.calendarWindowAllow(bucketKey, ann.rate(), ann.timeUnit(), ann.zone());
+                    default:
+                        return redisGuard.tokenBucketAllow(bucketKey, ratePerSecond, ann.burst(), ttlMillis);
+                }
+        }
     }
 }
 
@@ -0,0 +1,68 @@
+package com.trafficguard.policy;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import com.trafficguard.annotation.UserSemaphore;
+import com.trafficguard.core.GuardDescriptor;
+import com.trafficguard.core.JoinPointContext;
+import com.trafficguard.core.UserSemaphoreGuard;
+import com.trafficguard.exception.RateLimitExceededException;
+
+import java.lang.reflect.Method;
+
+@Slf4j
+@Component
+@Order(10)
+@AllArgsConstructor
+public class UserSemaphorePolicy implements GuardPolicy {
+    /** before 에서 얻은 세마포어 키 / 리스 (after 에서 반납) */
+    static final String KEY_ATTR = "userSemaphore.key";
+    static final String LEASE_ATTR = "userSemaphore.lease";
+
+    private final UserSemaphoreGuard userSemaphoreGuard;
+
+    @Override
+    public boolean supports(Method method) {
+        return AnnotationUtils.findAnnotation(method, UserSemaphore.class) != null;
+    }
+
+    @Override
+    public void before(Method method, JoinPointContext joinPointContext) {
+
+        UserSemaphore ann = userSemaphore(method, joinPointContext);
+        if (ann == null) {
+            log.error("UserSemaphorePolicy - no annotation found");
+            return;
+        }
+
+        // UserRateLimitPolicy 의 버킷 키와 같은 형식
+        String semaphoreKey = "user:"+joinPointContext.getResourceKey()+":"+joinPointContext.getUserId();
+        log.debug("UserSemaphorePolicy - semaphoreKey: {}, permits: {}, leaseMillis: {}", semaphoreKey, ann.permits(), ann.leaseMillis());
+
+        UserSemaphoreGuard.Lease lease = userSemaphoreGuard.tryAcquire(semaphoreKey, ann.permits(), ann.leaseMillis());
+        if (lease == null) {
+            log.warn("User Semaphore Exceeded: " + semaphoreKey + ":" + ann.permits());
+
+            throw new RateLimitExceededException("[USER_SEMAPHORE] " + "userId: " + joinPointContext.getUserId() + " resource:" + joinPointContext.getResourceKey());
+        }
+        joinPointContext.put(KEY_ATTR, semaphoreKey);
+        joinPointContext.put(LEASE_ATTR, lease);
+    }
+
+    /** descriptor 에 해석해 둔 어노테이션 (정책을 직접 호출한 경우에만 리플렉션) */
+    private UserSemaphore userSemaphore(Method method, JoinPointContext joinPointContext) {
+        GuardDescriptor descriptor = joinPointContext.getDescriptor();
+        return descriptor != null ? descriptor.userSemaphore() : AnnotationUtils.findAnnotation(method, UserSemaphore.class);
+    }
+
+    @Override
+    public void after(Method method, JoinPointContext joinPointContext) {
+        UserSemaphoreGuard.Lease lease = joinPointContext.get(LEASE_ATTR, UserSemaphoreGuard.Lease.class);
+        if (lease != null) {
+            userSemaphoreGuard.release(joinPointContext.get(KEY_ATTR, String.class), lease);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+-- Batch Token Bucket Script (micro-batching)
+-- 여러 요청의 토큰 버킷 판정(token-bucket-packed.lua 와 같은 단일 키 포맷)을 한 번에 처리한다.
+-- 요청마다 독립적으로 판정하며, 같은 키가 여러 번 나오면 앞 요청의 결과가 반영된 상태로 이어서 판정한다.
+-- 키마다 상태가 바뀐 경우에만 마지막에 한 번 쓴다.
+-- KEYS[i]=bucket (중복 가능)
+-- ARGV[1]=nowMs, ARGV[2+3(i-1)..4+3(i-1)]=ratePerSec, burst, ttlMs (KEYS[i] 요청의 설정)
+-- return {allowed1, microTokens1, retryAfterMs1, allowed2, ...}
+
+local SCALE = 1000000
+local now = tonumber(ARGV[1])
+
+local state = {}
+local order = {}
+local result = {}
+
+for i = 1, #KEYS do
+  local key = KEYS[i]
+  local base = 2 + 3 * (i - 1)
+  local r = tonumber(ARGV[base])
+  local cap = tonumber(ARGV[base + 1]) * SCALE
+  local ttl = tonumber(ARGV[base + 2])
+
+  local s = state[key]
+  if not s then
+    s = {tokens = cap, ts = now, dirty = false, ttl = ttl}
+    local packed = redis.call('GET', key)
+    if packed then
+      local sep = string.find(packed, ':', 1, true)
+      s.tokens = tonumber(string.sub(packed, 1, sep - 1))
+      s.ts = tonumber(string.sub(packed, sep + 1))
+    end
+    state[key] = s
+    order[#order + 1] = key
+  end
+
+  -- 시계 역행 방지
+  local ts = now
+  if s.ts > ts then ts = s.ts end
+
+  local t = s.tokens
+  if r and r > 0 then
+    t = t + math.floor(r * (ts - s.ts) * (SCALE / 1000))
+  end
+  if t > cap then t = cap end
+  if t < 0 then t = 0 end
+
+  if t >= SCALE then
+    t = t - SCALE
+    s.tokens = t
+    s.ts = ts
+    s.dirty = true
+    s.ttl = ttl
+    result[#result + 1] = 1
+    result[#result + 1] = t
+    result[#result + 1] = 0
+  else
+    -- 거절: 상태 그대로 (리필은 다음 판정에서 s.ts 기준으로 다시 계산)
+    local retryAfter = ttl
+    if r and r > 0 then
+      retryAfter = math.ceil((SCALE - t) / (r * (SCALE / 1000)))
+    end
+    result[#result + 1] = 0
+    result[#result + 1] = t
+    result[#result + 1] = retryAfter
+  end
+end
+
+for _, key in ipairs(order) do
+  local s = state[key]
+  if s.dirty then
+    redis.call('SET', key, s.tokens .. ':' .. s.ts, 'PX', s.ttl)
+  end
+end
+
+return result
@@ -0,0 +1,24 @@
+-- Calendar Fixed Window Quota Script
+-- 달력 기준 윈도(일/월 등)마다 카운터 하나를 INCR 하고, 첫 요청에서 윈도 끝 시각에 만료되도록 한다.
+-- 윈도가 고정이므로 한도를 넘은 뒤의 INCR 은 결과에 영향이 없다 (쓰기 1회로 판정).
+-- KEYS[1]=window counter
+-- ARGV[1]=limit, ARGV[2]=windowEndMs(epoch), ARGV[3]=nowMs
+-- return {allowed(0/1), remaining(int), retryAfterMs(int)}
+
+local key = KEYS[1]
+local limit = tonumber(ARGV[1])
+local windowEnd = tonumber(ARGV[2])
+local now = tonumber(ARGV[3])
+
+local count = redis.call('INCR', key)
+if count == 1 then
+  redis.call('PEXPIREAT', key, windowEnd)
+end
+
+if count <= limit then
+  return {1, limit - count, 0}
+end
+
+local retryAfter = windowEnd - now
+if retryAfter < 1 then retryAfter = 1 end
+return {0, 0, retryAfter}
@@ -0,0 +1,27 @@
+-- GCRA (Generic Cell Rate Algorithm) Rate Limiting Script
+-- 버킷 대신 "이론적 도착 시각(TAT, us)" 정수 하나만 저장한다.
+-- burst b, 방출 간격 T(=1/rate) 일 때 Token Bucket(rate, b)과 같은 허용/거절 결과를 낸다.
+-- KEYS[1]=tat
+-- ARGV[1]=emissionIntervalUs, ARGV[2]=burst, ARGV[3]=nowUs
+-- return {allowed(0/1), remaining(int), retryAfterMs(int)}
+
+local key = KEYS[1]
+local t = tonumber(ARGV[1])
+local b = tonumber(ARGV[2])
+local now = tonumber(ARGV[3])
+
+local tat = tonumber(redis.call('GET', key) or now)
+if tat < now then tat = now end
+
+local newTat = tat + t
+-- 이 시각 이후에야 요청을 받을 수 있다 (burst 만큼 앞당겨 허용)
+local allowAt = newTat - b * t
+
+if now < allowAt then
+  -- 거절: 상태를 바꾸지 않으므로 쓰지 않는다
+  return {0, 0, math.ceil((allowAt - now) / 1000)}
+end
+
+-- 허용: TAT 이후에는 버킷이 가득 찬 것과 같으므로 그때 만료
+redis.call('SET', key, newTat, 'PX', math.ceil((newTat - now) / 1000))
+return {1, math.floor((now - allowAt) / t), 0}
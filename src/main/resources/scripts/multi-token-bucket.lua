@@ -0,0 +1,75 @@
+-- Multi Token Bucket Script (all-or-nothing)
+-- 여러 버킷(token-bucket-packed.lua 와 같은 단일 키 포맷)을 한 번에 판정한다.
+-- 모든 버킷에 토큰이 있을 때만 전부 1개씩 차감하고, 하나라도 부족하면 아무것도 쓰지 않는다.
+-- KEYS[1..n]=bucket
+-- ARGV[1]=nowMs, ARGV[2+3(i-1)..4+3(i-1)]=ratePerSec, burst, ttlMs (KEYS[i] 의 설정)
+-- return {allowed(0/1), microTokens(int), retryAfterMs(int), limitingIndex(1-based)}
+--   허용: 차감 후 남은 토큰이 가장 적은 버킷, 거절: 재시도까지 가장 오래 기다려야 하는 버킷
+
+local SCALE = 1000000
+local n = #KEYS
+local now = tonumber(ARGV[1])
+
+local newTokens = {}
+local stamps = {}
+local allowed = true
+local retryAfter = 0
+local limiting = 1
+
+for i = 1, n do
+  local base = 2 + 3 * (i - 1)
+  local r = tonumber(ARGV[base])
+  local cap = tonumber(ARGV[base + 1]) * SCALE
+  local ttl = tonumber(ARGV[base + 2])
+
+  local tokens = cap
+  local lastTs = now
+  local packed = redis.call('GET', KEYS[i])
+  if packed then
+    local sep = string.find(packed, ':', 1, true)
+    tokens = tonumber(string.sub(packed, 1, sep - 1))
+    lastTs = tonumber(string.sub(packed, sep + 1))
+  end
+
+  -- 시계 역행 방지 (버킷별)
+  local ts = now
+  if lastTs > ts then ts = lastTs end
+
+  local t = tokens
+  if r and r > 0 then
+    t = tokens + math.floor(r * (ts - lastTs) * (SCALE / 1000))
+  end
+  if t > cap then t = cap end
+  if t < 0 then t = 0 end
+  newTokens[i] = t
+  stamps[i] = ts
+
+  if t < SCALE then
+    local wait = ttl
+    if r and r > 0 then
+      wait = math.ceil((SCALE - t) / (r * (SCALE / 1000)))
+    end
+    if allowed or wait > retryAfter then
+      retryAfter = wait
+      limiting = i
+    end
+    allowed = false
+  end
+end
+
+if not allowed then
+  -- 거절: 어떤 버킷도 쓰지 않는다
+  return {0, newTokens[limiting], retryAfter, limiting}
+end
+
+local minTokens = -1
+for i = 1, n do
+  local base = 2 + 3 * (i - 1)
+  local t = newTokens[i] - SCALE
+  redis.call('SET', KEYS[i], t .. ':' .. stamps[i], 'PX', tonumber(ARGV[base + 2]))
+  if minTokens < 0 or t < minTokens then
+    minTokens = t
+    limiting = i
+  end
+end
+return {1, minTokens, 0, limiting}
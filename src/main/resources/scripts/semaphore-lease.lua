@@ -0,0 +1,47 @@
+-- Distributed Semaphore Lease Script
+-- 보유자(노드)별 보유 permit 수를 HASH 에, 보유자별 만료 시각을 ZSET 에 저장한다.
+-- 보유자가 갱신하지 않으면(노드 장애) 만료 시각 이후 다음 호출에서 permit 이 회수된다.
+-- 요청 값은 증감이 아니라 "원하는 보유 수"(절대값)이므로 재시도해도 안전하다.
+-- KEYS[1]=holders hash (holder -> permits), KEYS[2]=expiry zset (holder -> expireAtMs)
+-- ARGV[1]=permits, ARGV[2]=holderId, ARGV[3]=desired, ARGV[4]=nowMs, ARGV[5]=leaseMs
+-- return {held(int), available(int)}
+
+local holdersKey = KEYS[1]
+local expiryKey = KEYS[2]
+local permits = tonumber(ARGV[1])
+local holder = ARGV[2]
+local desired = tonumber(ARGV[3])
+local now = tonumber(ARGV[4])
+local lease = tonumber(ARGV[5])
+
+-- 만료된 보유자 회수
+local expired = redis.call('ZRANGEBYSCORE', expiryKey, '-inf', now)
+if #expired > 0 then
+  redis.call('HDEL', holdersKey, unpack(expired))
+  redis.call('ZREMRANGEBYSCORE', expiryKey, '-inf', now)
+end
+
+-- 다른 보유자가 들고 있는 수 (보유자 = 노드 수 수준이므로 HVALS 로 충분)
+local mine = tonumber(redis.call('HGET', holdersKey, holder) or 0)
+local total = 0
+for _, v in ipairs(redis.call('HVALS', holdersKey)) do
+  total = total + tonumber(v)
+end
+local others = total - mine
+
+-- 줄이는 것은 항상 허용, 늘리는 것은 남은 permit 까지만
+local held = desired
+if held > permits - others then held = permits - others end
+if held < 0 then held = 0 end
+
+if held > 0 then
+  redis.call('HSET', holdersKey, holder, held)
+  redis.call('ZADD', expiryKey, now + lease, holder)
+  redis.call('PEXPIRE', holdersKey, lease * 2)
+  redis.call('PEXPIRE', expiryKey, lease * 2)
+elseif mine > 0 then
+  redis.call('HDEL', holdersKey, holder)
+  redis.call('ZREM', expiryKey, holder)
+end
+
+return {held, permits - others - held}
@@ -0,0 +1,46 @@
+-- Sliding Window Counter Rate Limiting Script
+-- 고정 윈도 카운터 2개(이전/현재)를 이전 윈도의 남은 비율로 가중합하여 근사한다.
+--   weighted = prev * (W - elapsed) / W + cur
+-- 키당 정수 카운터 하나이며, 허용 시에만 INCR 한다.
+-- KEYS[1]=current window counter, KEYS[2]=previous window counter
+-- ARGV[1]=limit, ARGV[2]=windowMs, ARGV[3]=elapsedMs (현재 윈도 시작부터 경과)
+-- return {allowed(0/1), remaining(int), retryAfterMs(int)}
+
+local curKey = KEYS[1]
+local prevKey = KEYS[2]
+local limit = tonumber(ARGV[1])
+local w = tonumber(ARGV[2])
+local elapsed = tonumber(ARGV[3])
+
+local cur = tonumber(redis.call('GET', curKey) or 0)
+local prev = tonumber(redis.call('GET', prevKey) or 0)
+
+-- 정수 비교를 위해 W 배 스케일: prev * (W - elapsed) + cur * W
+local weighted = prev * (w - elapsed) + cur * w
+
+if weighted + w <= limit * w then
+  cur = redis.call('INCR', curKey)
+  if cur == 1 then
+    -- 다음 윈도까지는 "이전 윈도"로 쓰이므로 그때까지만 유지
+    redis.call('PEXPIRE', curKey, 2 * w - elapsed)
+  end
+  return {1, math.floor((limit * w - weighted - w) / w), 0}
+end
+
+-- 거절: 가중합이 limit - 1 이하로 떨어지는 시각 계산
+local retryAfter
+local room = limit - 1 - cur
+if room >= 0 and prev > 0 then
+  -- 현재 윈도 안에서 prev 비중이 줄어들며 가능해지는 시점
+  retryAfter = math.ceil(w - (room * w) / prev) - elapsed
+elseif cur > 0 then
+  -- 다음 윈도로 넘어가 cur 가 prev 가 된 뒤 가능해지는 시점
+  local next = w - math.floor(((limit - 1) * w) / cur)
+  if next < 0 then next = 0 end
+  retryAfter = (w - elapsed) + next
+else
+  retryAfter = w - elapsed
+end
+if retryAfter < 1 then retryAfter = 1 end
+
+return {0, 0, retryAfter}
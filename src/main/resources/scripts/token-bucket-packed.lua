@@ -0,0 +1,65 @@
+-- Token Bucket Rate Limiting Script (단일 키, 고정소수점 포맷)
+-- 버킷 하나를 키 하나에 "microTokens:lastTsMs" 정수 쌍으로 저장한다. (1 token = 1,000,000 micro-tokens)
+-- KEYS[1]=bucket, KEYS[2]=legacy tokens, KEYS[3]=legacy ts (선택: 2-key 포맷에서 이관할 때만 전달)
+-- ARGV[1]=ratePerSec, ARGV[2]=burst, ARGV[3]=nowMs, ARGV[4]=ttlMs
+-- return {allowed(0/1), microTokens(int), retryAfterMs(int)}
+
+local SCALE = 1000000
+local bucketKey = KEYS[1]
+local r = tonumber(ARGV[1])
+local cap = tonumber(ARGV[2]) * SCALE
+local now = tonumber(ARGV[3])
+local ttl = tonumber(ARGV[4])
+
+-- 초기 로드 (없으면 가득 찬 상태로 시작)
+local tokens = cap
+local lastTs = now
+local migrated = false
+
+local packed = redis.call('GET', bucketKey)
+if packed then
+  local sep = string.find(packed, ':', 1, true)
+  tokens = tonumber(string.sub(packed, 1, sep - 1))
+  lastTs = tonumber(string.sub(packed, sep + 1))
+elseif KEYS[2] then
+  -- 2-key 포맷(tb:<key>:tokens, tb:<key>:ts) 이관: 한 번 읽고 삭제
+  local legacyTokens = redis.call('GET', KEYS[2])
+  if legacyTokens then
+    tokens = math.floor(tonumber(legacyTokens) * SCALE)
+    lastTs = tonumber(redis.call('GET', KEYS[3]) or now)
+    redis.call('DEL', KEYS[2], KEYS[3])
+    migrated = true
+  end
+end
+
+-- 시계 역행 방지
+if lastTs > now then now = lastTs end
+
+-- 리필: r <= 0이면 리필 없음. 정수 micro-token 단위로 내림
+local newTokens = tokens
+if r and r > 0 then
+  newTokens = tokens + math.floor(r * (now - lastTs) * (SCALE / 1000))
+end
+
+-- 상/하한 캡
+if newTokens > cap then newTokens = cap end
+if newTokens < 0 then newTokens = 0 end
+
+if newTokens >= SCALE then
+  newTokens = newTokens - SCALE
+  redis.call('SET', bucketKey, newTokens .. ':' .. now, 'PX', ttl)
+  return {1, newTokens, 0}
+end
+
+-- 거절: 저장 상태(tokens, lastTs)가 그대로이므로 쓰지 않는다.
+-- 리필은 다음 호출에서 lastTs 기준으로 다시 계산되므로 결과가 같다.
+if migrated then
+  redis.call('SET', bucketKey, tokens .. ':' .. lastTs, 'PX', ttl)
+end
+
+local retryAfter = ttl
+if r and r > 0 then
+  -- 부족한 micro-token / (ms당 충전 micro-token), 올림
+  retryAfter = math.ceil((SCALE - newTokens) / (r * (SCALE / 1000)))
+end
+return {0, newTokens, retryAfter}
@@ -0,0 +1,76 @@
+-- Token Lease Script (HYBRID backend)
+-- 토큰 버킷에서 토큰을 한 번에 여러 개 빌려가고(lease) 남은 토큰을 돌려받는다.
+-- 버킷 포맷은 traffic-guard.bucket-format 을 따른다.
+--   PACKED: KEYS[1]=bucket, token-bucket-packed.lua 와 같은 단일 키("microTokens:lastTsMs")
+--   LEGACY: KEYS[1]=tokens, KEYS[2]=ts, token-bucket.lua 와 같은 2-key 포맷(float 토큰 수, 시각)
+-- ARGV[1]=ratePerSec, ARGV[2]=burst, ARGV[3]=nowMs, ARGV[4]=ttlMs, ARGV[5]=requested, ARGV[6]=returned
+-- return {granted(int), microTokens(int), retryAfterMs(int)}
+
+local SCALE = 1000000
+local bucketKey = KEYS[1]
+local legacy = #KEYS > 1
+local r = tonumber(ARGV[1])
+local cap = tonumber(ARGV[2]) * SCALE
+local now = tonumber(ARGV[3])
+local ttl = tonumber(ARGV[4])
+local requested = tonumber(ARGV[5])
+local returned = tonumber(ARGV[6])
+
+-- 초기 로드 (없으면 가득 찬 상태로 시작)
+local tokens = cap
+local lastTs = now
+if legacy then
+  local t = redis.call('GET', bucketKey)
+  if t then tokens = math.floor(tonumber(t) * SCALE) end
+  local ts = redis.call('GET', KEYS[2])
+  if ts then lastTs = tonumber(ts) end
+else
+  local packed = redis.call('GET', bucketKey)
+  if packed then
+    local sep = string.find(packed, ':', 1, true)
+    tokens = tonumber(string.sub(packed, 1, sep - 1))
+    lastTs = tonumber(string.sub(packed, sep + 1))
+  end
+end
+
+-- 시계 역행 방지
+if lastTs > now then now = lastTs end
+
+-- 리필 + 반환된 토큰 적립
+local newTokens = tokens
+if r and r > 0 then
+  newTokens = tokens + math.floor(r * (now - lastTs) * (SCALE / 1000))
+end
+if returned and returned > 0 then
+  newTokens = newTokens + returned * SCALE
+end
+
+-- 상/하한 캡 (반환 토큰도 burst 를 넘길 수 없음)
+if newTokens > cap then newTokens = cap end
+if newTokens < 0 then newTokens = 0 end
+
+-- 정수 토큰만 빌려준다
+local granted = math.floor(newTokens / SCALE)
+if granted > requested then granted = requested end
+if granted < 0 then granted = 0 end
+newTokens = newTokens - granted * SCALE
+
+-- 빌려주거나 돌려받은 것이 없으면 상태가 그대로이므로 쓰지 않는다
+if granted > 0 or (returned and returned > 0) then
+  if legacy then
+    redis.call('SET', bucketKey, newTokens / SCALE, 'PX', ttl)
+    redis.call('SET', KEYS[2], now, 'PX', ttl)
+  else
+    redis.call('SET', bucketKey, newTokens .. ':' .. now, 'PX', ttl)
+  end
+end
+
+local retryAfter = 0
+if granted == 0 and requested > 0 then
+  if r and r > 0 then
+    retryAfter = math.ceil((SCALE - newTokens) / (r * (SCALE / 1000)))
+  else
+    retryAfter = ttl
+  end
+end
+return {granted, newTokens, retryAfter}
@@ -0,0 +1,28 @@
+-- User Semaphore Acquire Script
+-- 사용자별 진행 중 요청을 ZSET(leaseId -> expireAtMs)에 저장한다.
+-- 반납되지 않은 리스(노드 장애 등)는 만료 시각 이후 다음 호출에서 정리된다.
+-- 아직 반납 배치에 실리지 않은 같은 키의 반납분은 ARGV[5..] 로 함께 받아 먼저 제거한다.
+-- KEYS[1]=lease zset
+-- ARGV[1]=permits, ARGV[2]=leaseId, ARGV[3]=nowMs, ARGV[4]=leaseMs, ARGV[5..]=released leaseIds
+-- return {acquired(0/1), remaining(int)}
+
+local key = KEYS[1]
+local permits = tonumber(ARGV[1])
+local leaseId = ARGV[2]
+local now = tonumber(ARGV[3])
+local lease = tonumber(ARGV[4])
+
+-- unpack 은 Lua 스택 한도를 넘으면 실패하므로 나눠서 제거
+for i = 5, #ARGV, 1000 do
+  redis.call('ZREM', key, unpack(ARGV, i, math.min(i + 999, #ARGV)))
+end
+redis.call('ZREMRANGEBYSCORE', key, '-inf', now)
+
+local inFlight = redis.call('ZCARD', key)
+if inFlight >= permits then
+  return {0, 0}
+end
+
+redis.call('ZADD', key, now + lease, leaseId)
+redis.call('PEXPIRE', key, lease)
+return {1, permits - inFlight - 1}
@@ -51,6 +51,16 @@ class UserRateLimitAnnotationTest {
         assertThat(timeUnit.getRatePerSecond(172800)).isEqualTo(2.0);
     }
 
+    @Test
+    void testTimeUnit_Months() {
+        // Given
+        UserRateLimit.TimeUnit timeUnit = UserRateLimit.TimeUnit.MONTH;
+
+        // When & Then - rate 환산은 30일 기준
+        assertThat(timeUnit.getSeconds()).isEqualTo(30 * 86400);
+        assertThat(timeUnit.getRatePerSecond(2592000)).isEqualTo(1.0);
+    }
+
     @Test
     void testTimeUnit_FractionalRates() {
         // Given
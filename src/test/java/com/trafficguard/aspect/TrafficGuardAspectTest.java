@@ -9,8 +9,10 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import com.trafficguard.annotation.TrafficGuard;
 import com.trafficguard.annotation.UserRateLimit;
+import com.trafficguard.core.GuardDescriptor;
 import com.trafficguard.core.JoinPointContext;
 import com.trafficguard.core.TrafficKeyResolver;
+import com.trafficguard.exception.RateLimitExceededException;
 import com.trafficguard.policy.GuardPolicy;
 
 import java.lang.reflect.Method;
@@ -54,6 +56,7 @@ class TrafficGuardAspectTest {
         // TrafficKeyResolver stubbing
         when(keyResolver.resourceKey(any(Method.class))).thenReturn("TestController:trafficGuardedMethod");
         when(keyResolver.userId(any(Method.class))).thenReturn("mem:12345");
+        when(keyResolver.userId(any(GuardDescriptor.class))).thenReturn("mem:12345");
         when(keyResolver.planId()).thenReturn("default");
     }
 
@@ -142,6 +145,25 @@ class TrafficGuardAspectTest {
         verify(joinPoint).proceed();
     }
 
+    @Test
+    void testAround_WhenLaterPolicyRejects_ShouldCallAfterOnlyForEnteredPolicies() throws Throwable {
+        // Given - policy2(먼저 실행)는 통과, policy1 이 거절
+        when(policy1.supports(any(Method.class))).thenReturn(true);
+        when(policy2.supports(any(Method.class))).thenReturn(true);
+        when(policy1.order()).thenReturn(20);
+        when(policy2.order()).thenReturn(10);
+        aspect = new TrafficGuardAspect(Arrays.asList(policy1, policy2), keyResolver);
+        doThrow(new RateLimitExceededException("rejected")).when(policy1).before(any(Method.class), any(JoinPointContext.class));
+
+        // When & Then
+        assertThatThrownBy(() -> aspect.around(joinPoint))
+                .isInstanceOf(RuntimeException.class);
+
+        verify(policy2).after(any(Method.class), any(JoinPointContext.class));
+        verify(policy1, never()).after(any(Method.class), any(JoinPointContext.class));
+        verify(joinPoint, never()).proceed();
+    }
+
     @Test
     void testAround_WithTrafficGuardOnly_ShouldProceedDirectly() throws Throwable {
         // Given - @TrafficGuard만 있고 @UserRateLimit이 없는 경우
@@ -158,6 +180,7 @@ class TrafficGuardAspectTest {
         verify(policy1, never()).before(any(Method.class), any(JoinPointContext.class));
         verify(policy2, never()).before(any(Method.class), any(JoinPointContext.class));
         verify(keyResolver, never()).userId(any(Method.class)); // TrafficKeyResolver 호출하지 않음
+        verify(keyResolver, never()).userId(any(GuardDescriptor.class));
         verify(joinPoint).proceed();
     }
 
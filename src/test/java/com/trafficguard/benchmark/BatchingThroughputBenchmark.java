@@ -0,0 +1,116 @@
+package com.trafficguard.benchmark;
+
+import com.trafficguard.core.DecisionBatcher;
+import com.trafficguard.core.RedisGuard;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 동시 호출 시 단건 EVAL 과 micro-batching 의 처리량/지연 비교.
+ * 실행: ./gradlew benchmark
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("benchmark")
+class BatchingThroughputBenchmark {
+
+    private static final int THREADS = 128;
+    private static final int DECISIONS_PER_THREAD = 500;
+
+    @Autowired
+    private RedisGuard redisGuard;
+
+    @Test
+    void compareDirectAndBatchedThroughput() throws Exception {
+        String run = "bench:batch:" + System.currentTimeMillis();
+
+        Result direct = run("direct", key -> redisGuard.tokenBucketAllow(key, 1000.0, 1000, 60000));
+
+        DecisionBatcher batcher = new DecisionBatcher(redisGuard::batchTokenBucketAllow, 200, 64, 4);
+        Result batched;
+        try {
+            batched = run("batched(200us,64)", key ->
+                    batcher.submit(new RedisGuard.BucketSpec(key, 1000.0, 1000, 60000)).join());
+        } finally {
+            batcher.shutdown();
+        }
+
+        System.out.printf("%-20s %12s %12s %12s%n", "mode", "decisions/s", "p50 us", "p99 us");
+        for (Result r : Arrays.asList(direct, batched)) {
+            System.out.printf("%-20s %12.0f %12d %12d%n", r.name, r.throughput, r.p50Micros, r.p99Micros);
+        }
+        long[] histogram = batcher.batchSizeHistogram();
+        System.out.println("batch size histogram [1,2-3,4-7,8-15,16-31,32-63,64+]: " + Arrays.toString(Arrays.copyOf(histogram, 7)));
+
+        assertThat(batched.throughput).isGreaterThan(0);
+    }
+
+    private Result run(String name, Consumer<String> decide) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        long[][] latencies = new long[THREADS][DECISIONS_PER_THREAD];
+        AtomicLong seq = new AtomicLong();
+
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < DECISIONS_PER_THREAD; i++) {
+                        long begin = System.nanoTime();
+                        decide.accept("bench:batch:user:" + (seq.incrementAndGet() % 1000));
+                        latencies[thread][i] = System.nanoTime() - begin;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await(5, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - begin;
+        pool.shutdown();
+
+        List<Long> all = new ArrayList<>(THREADS * DECISIONS_PER_THREAD);
+        for (long[] perThread : latencies) {
+            for (long l : perThread) {
+                all.add(l);
+            }
+        }
+        all.sort(Long::compare);
+
+        Result r = new Result();
+        r.name = name;
+        r.throughput = all.size() / (elapsed / 1e9);
+        r.p50Micros = all.get(all.size() / 2) / 1000;
+        r.p99Micros = all.get((int) (all.size() * 0.99)) / 1000;
+        return r;
+    }
+
+    private static class Result {
+        private String name;
+        private double throughput;
+        private long p50Micros;
+        private long p99Micros;
+    }
+}
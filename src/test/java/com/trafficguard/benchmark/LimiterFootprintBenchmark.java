@@ -0,0 +1,159 @@
+package com.trafficguard.benchmark;
+
+import com.trafficguard.core.RedisGuard;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 알고리즘별 결정 1건당 Redis 명령 수와 키당 메모리 사용량 비교.
+ * 실행: ./gradlew benchmark (기본 test 태스크에서는 제외)
+ *
+ * 명령 수는 INFO commandstats 의 스크립트 내부 명령(GET/SET/INCR/...) 호출 수 차이로,
+ * 메모리는 MEMORY USAGE 로 측정합니다.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("benchmark")
+class LimiterFootprintBenchmark {
+
+    private static final int DECISIONS = 2_000;
+    private static final int KEYS = 200;
+
+    private static final DefaultRedisScript<String> COMMAND_STATS =
+            new DefaultRedisScript<>("return redis.call('INFO', 'commandstats')", String.class);
+    private static final DefaultRedisScript<Long> MEMORY_USAGE =
+            new DefaultRedisScript<>("return redis.call('MEMORY', 'USAGE', KEYS[1]) or 0", Long.class);
+
+    @Autowired
+    private RedisGuard redisGuard;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Test
+    void compareRedisFootprintPerDecision() {
+        String run = "bench:" + System.currentTimeMillis();
+
+        // 분당 60건, burst 60 으로 같은 한도를 표현
+        Footprint tokenBucket = measure("TOKEN_BUCKET", run + ":tb", key ->
+                redisGuard.tokenBucketAllow(key, 1.0, 60, 60_000));
+        Footprint gcra = measure("GCRA", run + ":gcra", key ->
+                redisGuard.gcraAllow(key, 1.0, 60, 60_000));
+        Footprint slidingWindow = measure("SLIDING_WINDOW", run + ":sw", key ->
+                redisGuard.slidingWindowAllow(key, 60, 60_000L));
+
+        System.out.printf("%-15s %10s %10s %10s %12s%n", "algorithm", "cmds/dec", "reads/dec", "writes/dec", "bytes/user");
+        for (Footprint f : new Footprint[]{tokenBucket, gcra, slidingWindow}) {
+            System.out.printf("%-15s %10.2f %10.2f %10.2f %12.1f%n",
+                    f.name, f.commandsPerDecision(), f.readsPerDecision(), f.writesPerDecision(), f.bytesPerUser);
+        }
+
+        assertThat(tokenBucket.commandsPerDecision()).isGreaterThan(0);
+        assertThat(slidingWindow.bytesPerUser).isGreaterThan(0);
+
+        cleanup(run);
+    }
+
+    private Footprint measure(String name, String prefix, Consumer<String> decide) {
+        Map<String, Long> before = commandStats();
+        for (int i = 0; i < DECISIONS; i++) {
+            decide.accept(prefix + ":" + (i % KEYS));
+        }
+        Map<String, Long> after = commandStats();
+
+        Footprint f = new Footprint(name);
+        for (Map.Entry<String, Long> e : after.entrySet()) {
+            String cmd = e.getKey();
+            long delta = e.getValue() - before.getOrDefault(cmd, 0L);
+            if (delta <= 0 || isHarnessCommand(cmd)) {
+                continue;
+            }
+            if (cmd.equals("get") || cmd.equals("mget") || cmd.equals("exists")) {
+                f.reads += delta;
+            } else {
+                f.writes += delta;
+            }
+        }
+        f.decisions = DECISIONS;
+
+        long bytes = 0;
+        int keyCount = 0;
+        for (String key : redisTemplate.keys("*" + prefix + ":*")) {
+            Long usage = redisTemplate.execute(MEMORY_USAGE, Collections.singletonList(key));
+            bytes += usage == null ? 0 : usage;
+            keyCount++;
+        }
+        f.bytesPerUser = keyCount == 0 ? 0 : (double) bytes / KEYS;
+        return f;
+    }
+
+    // 스크립트 호출 자체와 측정용 명령은 제외하고 스크립트 내부 명령만 센다
+    private static boolean isHarnessCommand(String cmd) {
+        return cmd.startsWith("eval") || cmd.equals("info") || cmd.startsWith("memory")
+                || cmd.startsWith("script") || cmd.equals("keys") || cmd.equals("scan") || cmd.equals("ping");
+    }
+
+    private Map<String, Long> commandStats() {
+        String info = redisTemplate.execute(COMMAND_STATS, Collections.<String>emptyList());
+        Map<String, Long> calls = new HashMap<>();
+        if (info == null) {
+            return calls;
+        }
+        for (String line : info.split("\r?\n")) {
+            // cmdstat_get:calls=12,usec=...
+            if (!line.startsWith("cmdstat_")) {
+                continue;
+            }
+            int colon = line.indexOf(':');
+            int start = line.indexOf("calls=") + "calls=".length();
+            int end = line.indexOf(',', start);
+            calls.put(line.substring("cmdstat_".length(), colon).toLowerCase(),
+                    Long.parseLong(line.substring(start, end)));
+        }
+        return calls;
+    }
+
+    private void cleanup(String run) {
+        List<String> keys = new java.util.ArrayList<>(redisTemplate.keys("*" + run + ":*"));
+        if (!keys.isEmpty()) {
+            redisTemplate.delete(keys);
+        }
+    }
+
+    private static class Footprint {
+        private final String name;
+        private long reads;
+        private long writes;
+        private long decisions;
+        private double bytesPerUser;
+
+        private Footprint(String name) {
+            this.name = name;
+        }
+
+        double commandsPerDecision() {
+            return (double) (reads + writes) / decisions;
+        }
+
+        double readsPerDecision() {
+            return (double) reads / decisions;
+        }
+
+        double writesPerDecision() {
+            return (double) writes / decisions;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.trafficguard.core;
+
+import com.trafficguard.annotation.UserRateLimit;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CalendarWindowTest {
+
+    private static final ZoneId SEOUL = ZoneId.of("Asia/Seoul");
+
+    @Test
+    void testDay_ShouldAlignToMidnightInZone() {
+        // Given - KST 2024-03-10 23:30 (UTC 14:30)
+        long now = ZonedDateTime.of(2024, 3, 10, 23, 30, 0, 0, SEOUL).toInstant().toEpochMilli();
+
+        // When
+        CalendarWindow window = CalendarWindow.of(UserRateLimit.TimeUnit.DAY, SEOUL, now);
+
+        // Then
+        assertThat(window.startMillis()).isEqualTo(ZonedDateTime.of(2024, 3, 10, 0, 0, 0, 0, SEOUL).toInstant().toEpochMilli());
+        assertThat(window.endMillis()).isEqualTo(ZonedDateTime.of(2024, 3, 11, 0, 0, 0, 0, SEOUL).toInstant().toEpochMilli());
+    }
+
+    @Test
+    void testDay_DifferentZones_ShouldDiffer() {
+        // Given - 같은 순간이라도 UTC 에서는 아직 전날
+        long now = ZonedDateTime.of(2024, 3, 11, 1, 0, 0, 0, SEOUL).toInstant().toEpochMilli();
+
+        // When
+        CalendarWindow seoul = CalendarWindow.of(UserRateLimit.TimeUnit.DAY, SEOUL, now);
+        CalendarWindow utc = CalendarWindow.of(UserRateLimit.TimeUnit.DAY, ZoneId.of("UTC"), now);
+
+        // Then
+        assertThat(seoul.startMillis()).isEqualTo(ZonedDateTime.of(2024, 3, 11, 0, 0, 0, 0, SEOUL).toInstant().toEpochMilli());
+        assertThat(utc.startMillis()).isEqualTo(ZonedDateTime.of(2024, 3, 10, 0, 0, 0, 0, ZoneId.of("UTC")).toInstant().toEpochMilli());
+    }
+
+    @Test
+    void testDay_DstTransition_ShouldBe23Hours() {
+        // Given - 미국 서머타임 시작일 (2024-03-10, 02:00 -> 03:00)
+        ZoneId newYork = ZoneId.of("America/New_York");
+        long now = ZonedDateTime.of(2024, 3, 10, 12, 0, 0, 0, newYork).toInstant().toEpochMilli();
+
+        // When
+        CalendarWindow window = CalendarWindow.of(UserRateLimit.TimeUnit.DAY, newYork, now);
+
+        // Then
+        assertThat(window.endMillis() - window.startMillis()).isEqualTo(23 * 3600_000L);
+    }
+
+    @Test
+    void testMonth_ShouldAlignToFirstDayOfMonth() {
+        // Given - 윤년 2월
+        long now = ZonedDateTime.of(2024, 2, 15, 10, 0, 0, 0, SEOUL).toInstant().toEpochMilli();
+
+        // When
+        CalendarWindow window = CalendarWindow.of(UserRateLimit.TimeUnit.MONTH, SEOUL, now);
+
+        // Then
+        assertThat(window.startMillis()).isEqualTo(ZonedDateTime.of(2024, 2, 1, 0, 0, 0, 0, SEOUL).toInstant().toEpochMilli());
+        assertThat(window.endMillis()).isEqualTo(ZonedDateTime.of(2024, 3, 1, 0, 0, 0, 0, SEOUL).toInstant().toEpochMilli());
+        assertThat(window.endMillis() - window.startMillis()).isEqualTo(29 * 86400_000L);
+    }
+
+    @Test
+    void testHour_HalfHourOffsetZone_ShouldAlignToLocalHour() {
+        // Given - 인도 표준시 (UTC+05:30)
+        ZoneId kolkata = ZoneId.of("Asia/Kolkata");
+        long now = ZonedDateTime.of(2024, 1, 1, 10, 45, 0, 0, kolkata).toInstant().toEpochMilli();
+
+        // When
+        CalendarWindow window = CalendarWindow.of(UserRateLimit.TimeUnit.HOUR, kolkata, now);
+
+        // Then
+        assertThat(window.startMillis()).isEqualTo(ZonedDateTime.of(2024, 1, 1, 10, 0, 0, 0, kolkata).toInstant().toEpochMilli());
+    }
+}
@@ -0,0 +1,140 @@
+package com.trafficguard.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DecisionBatcherTest {
+
+    private DecisionBatcher batcher;
+
+    @AfterEach
+    void tearDown() {
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+    }
+
+    /** 버킷 키의 숫자를 retryAfterMs 로 돌려주는 가짜 실행기 (호출자별 결과 확인용) */
+    private static List<RedisGuard.RateDecision> echo(List<RedisGuard.BucketSpec> buckets) {
+        try {
+            Thread.sleep(2); // Redis 왕복 흉내
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<RedisGuard.RateDecision> results = new ArrayList<>();
+        for (RedisGuard.BucketSpec b : buckets) {
+            results.add(new RedisGuard.RateDecision(true, 0, Long.parseLong(b.key())));
+        }
+        return results;
+    }
+
+    @Test
+    void testSubmit_ConcurrentCallers_ShouldCoalesceAndCompleteEachWithOwnDecision() throws Exception {
+        // Given
+        batcher = new DecisionBatcher(DecisionBatcherTest::echo, 500, 64, 2);
+        int callers = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> results = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < callers; i++) {
+            String key = String.valueOf(i);
+            results.add(pool.submit(() -> {
+                start.await();
+                return batcher.submit(new RedisGuard.BucketSpec(key, 1.0, 1, 1000)).get(5, TimeUnit.SECONDS).retryAfterMs();
+            }));
+        }
+        start.countDown();
+
+        // Then
+        for (int i = 0; i < callers; i++) {
+            assertThat(results.get(i).get()).isEqualTo((long) i);
+        }
+        pool.shutdown();
+        assertThat(batcher.decisionCount()).isEqualTo(callers);
+        assertThat(batcher.batchCount()).isLessThan(callers);
+        assertThat(LongStream.of(batcher.batchSizeHistogram()).sum()).isEqualTo(batcher.batchCount());
+    }
+
+    @Test
+    void testSubmit_MaxBatchSize_ShouldNotBeExceeded() throws Exception {
+        // Given
+        List<Integer> sizes = new java.util.concurrent.CopyOnWriteArrayList<>();
+        batcher = new DecisionBatcher(buckets -> {
+            sizes.add(buckets.size());
+            return echo(buckets);
+        }, 5_000, 4, 1);
+
+        // When
+        List<CompletableFuture<RedisGuard.RateDecision>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(batcher.submit(new RedisGuard.BucketSpec(String.valueOf(i), 1.0, 1, 1000)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(sizes).allMatch(size -> size <= 4);
+        assertThat(sizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(10);
+    }
+
+    @Test
+    void testSubmit_RacingShutdown_ShouldCompleteEveryFuture() throws Exception {
+        // Given - 여러 스레드가 제출하는 도중 shutdown
+        batcher = new DecisionBatcher(DecisionBatcherTest::echo, 200, 8, 2);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<List<CompletableFuture<RedisGuard.RateDecision>>>> submitted = new ArrayList<>();
+        CountDownLatch started = new CountDownLatch(8);
+        try {
+            for (int t = 0; t < 8; t++) {
+                submitted.add(callers.submit(() -> {
+                    started.countDown();
+                    List<CompletableFuture<RedisGuard.RateDecision>> futures = new ArrayList<>();
+                    for (int i = 0; i < 2000; i++) {
+                        futures.add(batcher.submit(new RedisGuard.BucketSpec(String.valueOf(i), 1.0, 1, 1000)));
+                    }
+                    return futures;
+                }));
+            }
+            started.await();
+
+            // When
+            batcher.shutdown();
+
+            // Then - 허용이든 "batcher stopped" 든 모두 완료됨
+            for (Future<List<CompletableFuture<RedisGuard.RateDecision>>> f : submitted) {
+                CompletableFuture<?>[] futures = f.get(10, TimeUnit.SECONDS).toArray(new CompletableFuture<?>[0]);
+                CompletableFuture.allOf(futures).handle((v, e) -> null).get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSubmit_ExecutorFails_ShouldCompleteExceptionally() {
+        // Given
+        batcher = new DecisionBatcher(buckets -> {
+            throw new IllegalStateException("redis down");
+        }, 100, 8, 1);
+
+        // When
+        CompletableFuture<RedisGuard.RateDecision> future = batcher.submit(new RedisGuard.BucketSpec("1", 1.0, 1, 1000));
+
+        // Then
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+    }
+}
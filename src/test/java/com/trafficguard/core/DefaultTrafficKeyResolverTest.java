@@ -5,15 +5,21 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 import com.trafficguard.exception.UserIdentificationException;
 import com.trafficguard.exception.InternalTrafficException;
 import com.trafficguard.exception.InvalidRequestException;
+import com.trafficguard.exception.PayloadTooLargeException;
 import com.trafficguard.annotation.UserRateLimit;
 import com.trafficguard.demo.RateLimitDemoController;
+import com.trafficguard.filter.CachedBodyHttpServletRequest;
+import com.trafficguard.filter.RequestBodyCachingFilter;
 
+import javax.servlet.http.HttpServletRequest;
 import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -326,6 +332,90 @@ class DefaultTrafficKeyResolverTest {
                 .hasMessageContaining("missing user identification");
     }
 
+    @Test
+    void testUserId_NestedPointerInBody_ShouldSkipOtherFields() throws Exception {
+        // Given - 앞쪽의 큰 배열은 건너뛰고 /header/memberNo 만 읽음
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("cachedRequestBody",
+                "{\"items\":[{\"id\":1,\"tags\":[\"a\",\"b\"]},{\"id\":2}],\"header\":{\"memberNo\":98765,\"x\":1}}");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        Method method = TestController.class.getMethod("nestedBodyMethod");
+
+        // When
+        String userId = resolver.userId(method);
+
+        // Then
+        assertThat(userId).isEqualTo("mem:98765");
+    }
+
+    @Test
+    void testUserId_FormUrlEncodedBody_ThroughCachingFilter() throws Exception {
+        // Given - 컨테이너처럼 파라미터를 미리 채우지 않은 폼 요청을 RequestBodyCachingFilter 에 통과시킴
+        MockHttpServletRequest raw = new MockHttpServletRequest("POST", "/orders");
+        raw.setContentType("application/x-www-form-urlencoded;charset=UTF-8");
+        raw.setContent("item=a%26b&userId=user%20123&qty=2".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        AtomicReference<HttpServletRequest> wrapped = new AtomicReference<>();
+        new RequestBodyCachingFilter().doFilter(raw, new MockHttpServletResponse(), (req, res) -> wrapped.set((HttpServletRequest) req));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(wrapped.get()));
+        Method method = TestController.class.getMethod("bodyOnlyMethod");
+
+        // When
+        String userId = resolver.userId(method);
+
+        // Then - 캐싱된 body 에서 찾고, 핸들러의 폼 파라미터도 그대로 남음
+        assertThat(wrapped.get()).isInstanceOf(CachedBodyHttpServletRequest.class);
+        assertThat(userId).isEqualTo("mem:user 123");
+        assertThat(wrapped.get().getParameter("item")).isEqualTo("a&b");
+        assertThat(wrapped.get().getParameter("qty")).isEqualTo("2");
+    }
+
+    @Test
+    void testUserId_FromCachingWrapper_ShouldReadBodyOnceAndKeepItReadable() throws Exception {
+        // Given - 속성 없이 RequestBodyCachingFilter 가 감싼 요청만 있는 경우 (ASPECT 모드)
+        MockHttpServletRequest raw = new MockHttpServletRequest("POST", "/orders");
+        raw.setContentType("application/json");
+        raw.setContent("{\"userId\":\"777\"}".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        CachedBodyHttpServletRequest request = new CachedBodyHttpServletRequest(raw);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        Method method = TestController.class.getMethod("bodyOnlyMethod");
+
+        // When
+        String userId = resolver.userId(method);
+
+        // Then - 캐싱된 byte[] 를 속성으로 공유
+        assertThat(userId).isEqualTo("mem:777");
+        assertThat(raw.getAttribute("cachedRequestBody")).isSameAs(request.getBody());
+    }
+
+    @Test
+    void testUserId_BodyOverLimit_ShouldThrowPayloadTooLarge() throws Exception {
+        // Given
+        MockHttpServletRequest raw = new MockHttpServletRequest("POST", "/orders");
+        raw.setContentType("application/json");
+        raw.setContent("{\"userId\":\"777\"}".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new CachedBodyHttpServletRequest(raw, 4)));
+        Method method = TestController.class.getMethod("bodyOnlyMethod");
+
+        // When & Then
+        assertThatThrownBy(() -> resolver.userId(method))
+                .isInstanceOf(PayloadTooLargeException.class)
+                .hasMessageContaining("exceeds 4 bytes");
+    }
+
+    @Test
+    void testUserId_NonJsonBody_ShouldNotReadBody() throws Exception {
+        // Given - RequestBodyCachingFilter 가 감싸지 않는 content type
+        MockHttpServletRequest raw = new MockHttpServletRequest("POST", "/orders");
+        raw.setContentType("application/octet-stream");
+        raw.setContent("{\"userId\":\"777\"}".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(raw));
+        Method method = TestController.class.getMethod("bodyOnlyMethod");
+
+        // When & Then - body 는 건드리지 않고 사용자 식별 실패
+        assertThatThrownBy(() -> resolver.userId(method)).isInstanceOf(UserIdentificationException.class);
+        assertThat(raw.getAttribute("cachedRequestBody")).isNull();
+    }
+
     // Test controller for reflection
     static class TestController {
         @UserRateLimit(rate = 10, userHeader = "X-User-Id")
@@ -335,6 +425,9 @@ class DefaultTrafficKeyResolverTest {
         @UserRateLimit(rate = 10, userBodyField = "userId", userSource = UserRateLimit.UserIdSource.BODY_ONLY)
         public void bodyOnlyMethod() {}
 
+        @UserRateLimit(rate = 10, userBodyField = "/header/memberNo", userSource = UserRateLimit.UserIdSource.BODY_ONLY)
+        public void nestedBodyMethod() {}
+
         @UserRateLimit(rate = 10, userHeader = "X-User-Id", userBodyField = "userId", userSource = UserRateLimit.UserIdSource.HEADER_FIRST)
         public void headerFirstMethod() {}
 
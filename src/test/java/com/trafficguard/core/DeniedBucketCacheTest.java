@@ -0,0 +1,89 @@
+package com.trafficguard.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeniedBucketCacheTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+
+    private DeniedBucketCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new DeniedBucketCache(3, clock::get);
+    }
+
+    @Test
+    void testRetryAfter_UnknownBucket_ShouldBeZero() {
+        assertThat(cache.retryAfterMs("unknown")).isEqualTo(0);
+    }
+
+    @Test
+    void testRetryAfter_DeniedBucket_ShouldCountDownUntilRefill() {
+        // Given
+        cache.recordDenied("user:a", 1000);
+
+        // When - 400ms 경과
+        clock.addAndGet(400);
+
+        // Then
+        assertThat(cache.retryAfterMs("user:a")).isEqualTo(600);
+    }
+
+    @Test
+    void testRetryAfter_Expired_ShouldForgetBucket() {
+        // Given
+        cache.recordDenied("user:a", 1000);
+
+        // When
+        clock.addAndGet(1000);
+
+        // Then
+        assertThat(cache.retryAfterMs("user:a")).isEqualTo(0);
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    void testRecordDenied_Repeated_ShouldKeepLatestDeadline() {
+        // Given
+        cache.recordDenied("user:a", 1000);
+
+        // When - 더 짧은 retry 가 늦게 도착해도 이미 알고 있는 시각을 줄이지 않음
+        cache.recordDenied("user:a", 200);
+
+        // Then
+        assertThat(cache.retryAfterMs("user:a")).isEqualTo(1000);
+    }
+
+    @Test
+    void testRecordDenied_NoRetry_ShouldNotRecord() {
+        // When
+        cache.recordDenied("user:a", 0);
+
+        // Then
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    void testRecordDenied_Full_ShouldSweepExpiredThenStopRecording() {
+        // Given - 가득 찬 캐시, 그중 하나만 만료
+        cache.recordDenied("user:a", 100);
+        cache.recordDenied("user:b", 5000);
+        cache.recordDenied("user:c", 5000);
+        clock.addAndGet(100);
+
+        // When
+        cache.recordDenied("user:d", 5000);
+        cache.recordDenied("user:e", 5000);
+
+        // Then - 만료된 a 자리에 d 가 들어가고, 여유가 없으면 e 는 기록하지 않음
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.retryAfterMs("user:d")).isEqualTo(5000);
+        assertThat(cache.retryAfterMs("user:e")).isEqualTo(0);
+    }
+}
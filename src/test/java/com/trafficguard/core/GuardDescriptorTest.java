@@ -0,0 +1,177 @@
+package com.trafficguard.core;
+
+import com.trafficguard.annotation.GlobalRateLimit;
+import com.trafficguard.annotation.TrafficGuard;
+import com.trafficguard.annotation.UserRateLimit;
+import com.trafficguard.policy.GuardPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class GuardDescriptorTest {
+
+    @Mock
+    private GuardPolicy userPolicy;
+
+    @Mock
+    private GuardPolicy otherPolicy;
+
+    private final DefaultTrafficKeyResolver keyResolver = new DefaultTrafficKeyResolver();
+
+    @Test
+    void testOf_SingleLimit_ShouldPrecomputeRateTtlAndKeys() throws Exception {
+        // When
+        GuardDescriptor d = GuardDescriptor.of(method("minuteLimited"), "TestController:minuteLimited");
+
+        // Then
+        assertThat(d.guarded()).isTrue();
+        assertThat(d.composite()).isFalse();
+        assertThat(d.userKeyPrefix()).isEqualTo("user:TestController:minuteLimited:");
+        assertThat(d.userLimits()).hasSize(1);
+        GuardDescriptor.UserLimit limit = d.userLimits().get(0);
+        assertThat(limit.ratePerSecond()).isEqualTo(1.0);
+        assertThat(limit.ttlMillis()).isEqualTo(120_000L); // 기본 60s < 1분 -> 2분
+        assertThat(limit.keySuffix()).isEmpty();
+        assertThat(d.needsRequestBody()).isFalse();
+    }
+
+    @Test
+    void testOf_MultipleLimitsWithGlobalRate_ShouldBuildCompositeKeys() throws Exception {
+        // When
+        GuardDescriptor d = GuardDescriptor.of(method("multiLimited"), "TestController:multiLimited");
+
+        // Then
+        assertThat(d.composite()).isTrue();
+        assertThat(d.userLimits()).extracting(GuardDescriptor.UserLimit::keySuffix)
+                .containsExactly(":20/SECOND", ":1000/HOUR");
+        assertThat(d.globalBuckets()).extracting(RedisGuard.BucketSpec::key)
+                .containsExactly("global:TestController:multiLimited:100/SECOND");
+        assertThat(d.globalLimits()).containsExactly(100);
+        assertThat(d.needsRequestBody()).isTrue();
+    }
+
+    @Test
+    void testRegistry_ShouldBuildChainOnceInOrder() throws Exception {
+        // Given
+        when(userPolicy.order()).thenReturn(20);
+        when(otherPolicy.order()).thenReturn(10);
+        when(userPolicy.supports(any(Method.class))).thenReturn(true);
+        when(otherPolicy.supports(any(Method.class))).thenReturn(false);
+        GuardDescriptorRegistry registry = new GuardDescriptorRegistry(Arrays.asList(userPolicy, otherPolicy), keyResolver);
+        Method method = method("minuteLimited");
+
+        // When
+        GuardDescriptor first = registry.get(method);
+        GuardDescriptor second = registry.get(method);
+
+        // Then - 두 번째 조회는 같은 인스턴스, supports 는 한 번만 호출
+        assertThat(second).isSameAs(first);
+        assertThat(first.chain()).containsExactly(userPolicy);
+        assertThat(first.resourceKey()).isEqualTo("TestController:minuteLimited");
+        verify(userPolicy, times(1)).supports(method);
+    }
+
+    @Test
+    void testRegistry_WithoutTrafficGuard_ShouldNotBuildChain() throws Exception {
+        // Given
+        GuardDescriptorRegistry registry = new GuardDescriptorRegistry(Arrays.asList(userPolicy, otherPolicy), keyResolver);
+
+        // When
+        GuardDescriptor d = registry.get(method("unguarded"));
+
+        // Then
+        assertThat(d.guarded()).isFalse();
+        assertThat(d.chain()).isEmpty();
+        verify(userPolicy, never()).supports(any(Method.class));
+    }
+
+    @Test
+    void testOf_GlobalRateLimitWithGlobalRate_ShouldReject() throws Exception {
+        // When & Then
+        assertThatThrownBy(() -> GuardDescriptor.of(method("doubleGlobal"), "TestController:doubleGlobal"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("TestController:doubleGlobal");
+    }
+
+    @Test
+    void testOf_InvalidCalendarZone_ShouldReject() throws Exception {
+        // When & Then - 요청마다 500 대신 descriptor 를 만들 때 (시작 시) 실패
+        assertThatThrownBy(() -> GuardDescriptor.of(method("badZone"), "TestController:badZone"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Asia/Nowhere");
+    }
+
+    @Test
+    void testOf_RepeatedLimitWithOtherAlgorithm_ShouldReject() throws Exception {
+        // When & Then - 토큰 버킷으로 조용히 바뀌지 않고 시작 시 실패
+        assertThatThrownBy(() -> GuardDescriptor.of(method("repeatedCalendar"), "TestController:repeatedCalendar"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("CALENDAR_WINDOW");
+        assertThatThrownBy(() -> GuardDescriptor.of(method("repeatedLocal"), "TestController:repeatedLocal"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("LOCAL");
+    }
+
+    @Test
+    void testOf_RepeatedLimitWithSameRateAndUnit_ShouldReject() throws Exception {
+        // When & Then - burst 만 다른 두 제한이 한 버킷을 공유하지 않도록 거절
+        assertThatThrownBy(() -> GuardDescriptor.of(method("duplicateRate"), "TestController:duplicateRate"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("10/SECOND");
+    }
+
+    private Method method(String name) throws Exception {
+        return TestController.class.getMethod(name);
+    }
+
+    static class TestController {
+        @TrafficGuard
+        @UserRateLimit(rate = 60, timeUnit = UserRateLimit.TimeUnit.MINUTE)
+        public void minuteLimited() {}
+
+        @TrafficGuard
+        @UserRateLimit(rate = 20, burst = 20, globalRate = 100, userBodyField = "userId")
+        @UserRateLimit(rate = 1000, timeUnit = UserRateLimit.TimeUnit.HOUR, burst = 50)
+        public void multiLimited() {}
+
+        @UserRateLimit(rate = 5)
+        public void unguarded() {}
+
+        @TrafficGuard
+        @UserRateLimit(rate = 5, globalRate = 100)
+        @GlobalRateLimit(rate = 500, shards = 4)
+        public void doubleGlobal() {}
+
+        @TrafficGuard
+        @UserRateLimit(rate = 100, timeUnit = UserRateLimit.TimeUnit.DAY, algorithm = UserRateLimit.Algorithm.CALENDAR_WINDOW, zone = "Asia/Nowhere")
+        public void badZone() {}
+
+        @TrafficGuard
+        @UserRateLimit(rate = 10)
+        @UserRateLimit(rate = 10000, timeUnit = UserRateLimit.TimeUnit.DAY, algorithm = UserRateLimit.Algorithm.CALENDAR_WINDOW)
+        public void repeatedCalendar() {}
+
+        @TrafficGuard
+        @UserRateLimit(rate = 10)
+        @UserRateLimit(rate = 1000, timeUnit = UserRateLimit.TimeUnit.HOUR, backend = UserRateLimit.Backend.LOCAL)
+        public void repeatedLocal() {}
+
+        @TrafficGuard
+        @UserRateLimit(rate = 10, burst = 5)
+        @UserRateLimit(rate = 10, burst = 20)
+        public void duplicateRate() {}
+    }
+}
@@ -0,0 +1,159 @@
+package com.trafficguard.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalTokenBucketTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    private LocalTokenBucket bucket;
+
+    @BeforeEach
+    void setUp() {
+        bucket = new LocalTokenBucket(clock::get);
+    }
+
+    @Test
+    void testTryAcquire_FirstRequest_ShouldAllow() {
+        // When
+        RedisGuard.RateDecision decision = bucket.tryAcquire("first-request", 10.0, 5, 60000);
+
+        // Then
+        assertThat(decision.allowed()).isTrue();
+        assertThat(decision.remainingTokens()).isEqualTo(4.0); // burst - 1
+        assertThat(decision.retryAfterMs()).isEqualTo(0);
+    }
+
+    @Test
+    void testTryAcquire_ExceedBurst_ShouldReject() {
+        // Given - burst만큼 요청 (2번)
+        for (int i = 0; i < 2; i++) {
+            assertThat(bucket.tryAcquire("exceed-burst", 1.0, 2, 60000).allowed()).isTrue();
+        }
+
+        // When - 3번째 요청
+        RedisGuard.RateDecision decision = bucket.tryAcquire("exceed-burst", 1.0, 2, 60000);
+
+        // Then - 1 token/sec 이므로 1초 후 재시도
+        assertThat(decision.allowed()).isFalse();
+        assertThat(decision.remainingTokens()).isEqualTo(0.0);
+        assertThat(decision.retryAfterMs()).isEqualTo(1000);
+    }
+
+    @Test
+    void testTryAcquire_PartialRefill_ShouldReportRetryAfterRoundedUp() {
+        // Given - 모든 토큰 소진
+        for (int i = 0; i < 2; i++) {
+            bucket.tryAcquire("partial-refill", 1.0, 2, 60000);
+        }
+
+        // When - 0.25초 경과 (0.25 토큰 충전)
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(250));
+        RedisGuard.RateDecision decision = bucket.tryAcquire("partial-refill", 1.0, 2, 60000);
+
+        // Then
+        assertThat(decision.allowed()).isFalse();
+        assertThat(decision.remainingTokens()).isEqualTo(0.25);
+        assertThat(decision.retryAfterMs()).isEqualTo(750);
+    }
+
+    @Test
+    void testTryAcquire_TokenRefill_ShouldAllow() {
+        // Given - 모든 토큰 소진
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire("token-refill", 10.0, 5, 60000);
+        }
+        assertThat(bucket.tryAcquire("token-refill", 10.0, 5, 60000).allowed()).isFalse();
+
+        // When - 150ms 경과 (10 tokens/sec 이므로 100ms에 1개 토큰 충전)
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(150));
+
+        // Then
+        assertThat(bucket.tryAcquire("token-refill", 10.0, 5, 60000).allowed()).isTrue();
+        assertThat(bucket.tryAcquire("token-refill", 10.0, 5, 60000).allowed()).isFalse();
+    }
+
+    @Test
+    void testTryAcquire_LongIdle_ShouldCapAtBurst() {
+        // Given
+        bucket.tryAcquire("idle", 10.0, 3, 60000);
+
+        // When - 한참 뒤 (충전량이 burst를 넘음)
+        clock.addAndGet(TimeUnit.HOURS.toNanos(1));
+        RedisGuard.RateDecision decision = bucket.tryAcquire("idle", 10.0, 3, 60000);
+
+        // Then - burst 이상으로 쌓이지 않음
+        assertThat(decision.allowed()).isTrue();
+        assertThat(decision.remainingTokens()).isEqualTo(2.0);
+    }
+
+    @Test
+    void testTryAcquire_DifferentKeys_Independent() {
+        // Given - 첫 번째 버킷을 모두 소진
+        for (int i = 0; i < 2; i++) {
+            bucket.tryAcquire("independent1", 10.0, 2, 60000);
+        }
+
+        // When
+        RedisGuard.RateDecision decision1 = bucket.tryAcquire("independent1", 10.0, 2, 60000);
+        RedisGuard.RateDecision decision2 = bucket.tryAcquire("independent2", 10.0, 2, 60000);
+
+        // Then
+        assertThat(decision1.allowed()).isFalse();
+        assertThat(decision2.allowed()).isTrue();
+    }
+
+    @Test
+    void testTryAcquire_ZeroRate_ShouldUseTtlAsRetryAfter() {
+        // Given - 리필 없는 버킷
+        for (int i = 0; i < 2; i++) {
+            assertThat(bucket.tryAcquire("zero-rate", 0, 2, 60000).allowed()).isTrue();
+        }
+
+        // When
+        RedisGuard.RateDecision decision = bucket.tryAcquire("zero-rate", 0, 2, 60000);
+
+        // Then
+        assertThat(decision.allowed()).isFalse();
+        assertThat(decision.retryAfterMs()).isEqualTo(60000);
+    }
+
+    @Test
+    void testTryAcquire_Concurrent_ShouldAllowExactlyBurst() throws Exception {
+        // Given - 시간이 흐르지 않으므로 burst 만큼만 허용되어야 함
+        int threads = 8;
+        int attemptsPerThread = 1000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger allowed = new AtomicInteger();
+
+        // When
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    if (bucket.tryAcquire("concurrent", 1.0, 100, 60000).allowed()) {
+                        allowed.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        assertThat(allowed.get()).isEqualTo(100);
+    }
+}
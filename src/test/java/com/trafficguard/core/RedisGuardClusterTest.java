@@ -0,0 +1,171 @@
+package com.trafficguard.core;
+
+import com.trafficguard.config.RedisConfig;
+import com.trafficguard.config.RedisScriptLoader;
+import com.trafficguard.config.TrafficGuardProperties;
+import com.trafficguard.metrics.TrafficGuardMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * 클러스터/샤딩 모드에서 여러 슬롯(샤드)에 걸친 복합 판정 (스크립트 호출은 mock).
+ * 사용자/플랜/전역 버킷은 서로 다른 슬롯(8614, 4547, 14063)에 놓입니다.
+ */
+@ExtendWith(MockitoExtension.class)
+class RedisGuardClusterTest {
+
+    private static final String USER_KEY = "tb:{user:R:u1}";
+    private static final String PLAN_KEY = "tb:{plan:R:gold}";
+    private static final String GLOBAL_KEY = "tb:{global:R:200/SECOND}";
+
+    @Mock
+    private RedisScriptRegistry scripts;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private final DefaultRedisScript<List<Object>> multiTokenBucket = RedisScriptLoader.loadMultiTokenBucketScript();
+    private final DefaultRedisScript<List<Object>> tokenLease = RedisScriptLoader.loadTokenLeaseScript();
+
+    /** 스크립트 호출 기록: "<script>:<key>[:<args>]" */
+    private final List<String> calls = new ArrayList<>();
+
+    private RedisGuard redisGuard;
+
+    @BeforeEach
+    void setUp() {
+        redisGuard = guard(RedisConfig.Mode.CLUSTER);
+    }
+
+    private RedisGuard guard(RedisConfig.Mode mode) {
+        RedisConfig.RedisProperties redisProperties = new RedisConfig.RedisProperties();
+        redisProperties.setMode(mode);
+        // 복합 판정에 쓰는 두 스크립트만 식별 가능하면 됨
+        when(scripts.script(anyString())).thenAnswer(inv -> {
+            String name = inv.getArgument(0);
+            return name.equals("multiTokenBucket") ? multiTokenBucket
+                    : name.equals("tokenLease") ? tokenLease
+                    : RedisScriptLoader.loadTokenBucketScript();
+        });
+        return new RedisGuard(redisTemplate, scripts, new TrafficGuardProperties(), redisProperties, TrafficGuardMetrics.NOOP, null, null);
+    }
+
+    private static List<RedisGuard.BucketSpec> buckets() {
+        return Arrays.asList(
+                new RedisGuard.BucketSpec("user:R:u1", 10, 5, 60000),
+                new RedisGuard.BucketSpec("plan:R:gold", 50, 50, 60000),
+                new RedisGuard.BucketSpec("global:R:200/SECOND", 200, 200, 60000));
+    }
+
+    /** deniedKey 버킷만 거절하고 나머지는 허용하는 multi-token-bucket, token-lease 는 반환만 기록 */
+    @SuppressWarnings("unchecked")
+    private void stubScripts(String deniedKey) {
+        when(scripts.evalAsync(any(), anyList(), any())).thenAnswer(inv -> {
+            DefaultRedisScript<?> script = inv.getArgument(0);
+            String key = ((List<String>) inv.getArgument(1)).get(0);
+            Object[] args = Arrays.copyOfRange(inv.getArguments(), 2, inv.getArguments().length);
+            if (script == tokenLease) {
+                calls.add("refund:" + key + ":" + args[4] + "/" + args[5]);
+                return CompletableFuture.completedFuture(Arrays.<Object>asList(0L, 5_000_000L, 0L));
+            }
+            calls.add("multi:" + key);
+            return CompletableFuture.completedFuture(key.equals(deniedKey)
+                    ? Arrays.<Object>asList(0L, 0L, 1000L, 1L)
+                    : Arrays.<Object>asList(1L, 3_000_000L, 0L, 1L));
+        });
+    }
+
+    @Test
+    void testMultiTokenBucket_UserSlotDenies_ShouldNotTouchSharedBuckets() {
+        // Given - 사용자 버킷이 비어 있음
+        stubScripts(USER_KEY);
+
+        // When
+        RedisGuard.CompositeDecision d = redisGuard.multiTokenBucketAllow(buckets());
+
+        // Then - 플랜/전역 슬롯은 호출하지 않음
+        assertThat(d.allowed()).isFalse();
+        assertThat(d.limitingIndex()).isZero();
+        assertThat(d.retryAfterMs()).isEqualTo(1000);
+        assertThat(calls).containsExactly("multi:" + USER_KEY);
+    }
+
+    @Test
+    void testMultiTokenBucket_GlobalSlotDenies_ShouldRefundAllowedSlots() {
+        // Given - 전역 버킷만 비어 있음
+        stubScripts(GLOBAL_KEY);
+
+        // When
+        RedisGuard.CompositeDecision d = redisGuard.multiTokenBucketAllow(buckets());
+
+        // Then - 사용자/플랜 슬롯에서 차감한 토큰을 1개씩 반환, 전역은 차감하지 않았으므로 반환 없음
+        assertThat(d.allowed()).isFalse();
+        assertThat(d.limitingIndex()).isEqualTo(2);
+        assertThat(calls).startsWith("multi:" + USER_KEY);
+        assertThat(calls).contains("refund:" + USER_KEY + ":0/1", "refund:" + PLAN_KEY + ":0/1");
+        assertThat(calls).doesNotContain("refund:" + GLOBAL_KEY + ":0/1");
+    }
+
+    @Test
+    void testMultiTokenBucket_ShardedUserShardDenies_ShouldNotTouchSharedShards() {
+        // Given - 사용자/플랜/전역 버킷이 서로 다른 샤드
+        redisGuard = guard(RedisConfig.Mode.SHARDED);
+        when(scripts.shardCount()).thenReturn(3);
+        when(scripts.shardIndex(anyString())).thenAnswer(inv -> Arrays.asList(USER_KEY, PLAN_KEY, GLOBAL_KEY).indexOf(inv.<String>getArgument(0)));
+        stubScripts(USER_KEY);
+
+        // When
+        RedisGuard.CompositeDecision d = redisGuard.multiTokenBucketAllow(buckets());
+
+        // Then
+        assertThat(d.allowed()).isFalse();
+        assertThat(calls).containsExactly("multi:" + USER_KEY);
+    }
+
+    @Test
+    void testMultiTokenBucket_ShardedPlanShardDenies_ShouldRefundOtherShards() {
+        // Given
+        redisGuard = guard(RedisConfig.Mode.SHARDED);
+        when(scripts.shardCount()).thenReturn(3);
+        when(scripts.shardIndex(anyString())).thenAnswer(inv -> Arrays.asList(USER_KEY, PLAN_KEY, GLOBAL_KEY).indexOf(inv.<String>getArgument(0)));
+        stubScripts(PLAN_KEY);
+
+        // When
+        RedisGuard.CompositeDecision d = redisGuard.multiTokenBucketAllow(buckets());
+
+        // Then
+        assertThat(d.allowed()).isFalse();
+        assertThat(d.limitingIndex()).isEqualTo(1);
+        assertThat(calls).contains("refund:" + USER_KEY + ":0/1", "refund:" + GLOBAL_KEY + ":0/1");
+        assertThat(calls).doesNotContain("refund:" + PLAN_KEY + ":0/1");
+    }
+
+    @Test
+    void testMultiTokenBucket_AllSlotsAllow_ShouldNotRefund() {
+        // Given
+        stubScripts(null);
+
+        // When
+        RedisGuard.CompositeDecision d = redisGuard.multiTokenBucketAllow(buckets());
+
+        // Then
+        assertThat(d.allowed()).isTrue();
+        assertThat(calls).containsExactlyInAnyOrder("multi:" + USER_KEY, "multi:" + PLAN_KEY, "multi:" + GLOBAL_KEY);
+    }
+}
@@ -1,5 +1,9 @@
 package com.trafficguard.core;
 
+import com.trafficguard.annotation.UserRateLimit;
+import com.trafficguard.config.RedisConfig;
+import com.trafficguard.config.TrafficGuardProperties;
+import com.trafficguard.metrics.TrafficGuardMetrics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,6 +13,9 @@ import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.Collections;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
@@ -21,6 +28,9 @@ class RedisGuardTest {
     @Autowired
     private StringRedisTemplate redisTemplate;
 
+    @Autowired
+    private RedisScriptRegistry scripts;
+
     @BeforeEach
     void setUp() {
         // Redis에서 FLUSHALL이 비활성화되어 있을 수 있으므로
@@ -36,7 +46,18 @@ class RedisGuardTest {
                 "tb:test:exceed-burst:*",
                 "tb:test:token-refill:*",
                 "tb:test:independent1:*",
-                "tb:test:independent2:*"
+                "tb:test:independent2:*",
+                "tb:test:lease:*",
+                "tb:test:migrate:*",
+                "tb:test:deny-no-write:*",
+                "gcra:test:*",
+                "sw:test:*",
+                "fw:test:*",
+                "sem:test:*",
+                "usem:test:*",
+                "tb:test:multi:*",
+                "tb:test:batch:*",
+                "tb:test:async:*"
             };
 
             for (String pattern : patterns) {
@@ -144,7 +165,351 @@ class RedisGuardTest {
         assertThat(decision1.allowed()).isFalse();
         assertThat(decision2.allowed()).isTrue();
     }
-}
 
+    @Test
+    void testLeaseTokens_ShouldGrantAndReturnTokens() {
+        // Given
+        String bucketKey = "test:lease:" + System.currentTimeMillis();
+        double ratePerSec = 0.001;
+        int burst = 10;
+        long ttlMillis = 60000;
+
+        // When - 4개 리스
+        RedisGuard.TokenLease lease = redisGuard.leaseTokens(bucketKey, ratePerSec, burst, ttlMillis, 4, 0);
+
+        // Then
+        assertThat(lease.granted()).isEqualTo(4);
+        assertThat(lease.remainingTokens()).isCloseTo(6.0, org.assertj.core.data.Offset.offset(0.01));
+
+        // When - 남은 3개 반환 후 모두 요청
+        RedisGuard.TokenLease all = redisGuard.leaseTokens(bucketKey, ratePerSec, burst, ttlMillis, 100, 3);
+
+        // Then - 6 + 3 = 9개까지만 빌려줌
+        assertThat(all.granted()).isEqualTo(9);
+
+        // When - 빈 버킷
+        RedisGuard.TokenLease empty = redisGuard.leaseTokens(bucketKey, ratePerSec, burst, ttlMillis, 1, 0);
+
+        // Then
+        assertThat(empty.granted()).isEqualTo(0);
+        assertThat(empty.retryAfterMs()).isGreaterThan(0);
+    }
+
+    @Test
+    void testLeaseTokens_LegacyFormat_ShouldKeepTwoKeyBucket() {
+        // Given - bucket-format: LEGACY
+        TrafficGuardProperties properties = new TrafficGuardProperties();
+        properties.setBucketFormat(TrafficGuardProperties.BucketFormat.LEGACY);
+        RedisGuard legacyGuard = new RedisGuard(redisTemplate, scripts, properties, new RedisConfig.RedisProperties(),
+                TrafficGuardMetrics.NOOP, null, null);
+        String bucketKey = "test:lease:legacy:" + System.currentTimeMillis();
+
+        // When - 4개 리스
+        RedisGuard.TokenLease lease = legacyGuard.leaseTokens(bucketKey, 0.001, 10, 60000, 4, 0);
+
+        // Then - 2-key 포맷으로 저장하고 단일 키는 만들지 않음
+        assertThat(lease.granted()).isEqualTo(4);
+        assertThat(redisTemplate.hasKey("tb:" + bucketKey)).isFalse();
+        assertThat(Double.parseDouble(redisTemplate.opsForValue().get("tb:" + bucketKey + ":tokens")))
+                .isCloseTo(6.0, org.assertj.core.data.Offset.offset(0.01));
+        assertThat(redisTemplate.hasKey("tb:" + bucketKey + ":ts")).isTrue();
+
+        // When - 같은 버킷을 토큰 버킷 판정으로 소비
+        RedisGuard.RateDecision decision = legacyGuard.tokenBucketAllow(bucketKey, 0.001, 10, 60000);
+
+        // Then - 리스한 4개가 반영되어 있음
+        assertThat(decision.allowed()).isTrue();
+        assertThat(decision.remainingTokens()).isCloseTo(5.0, org.assertj.core.data.Offset.offset(0.01));
+        assertThat(redisTemplate.hasKey("tb:" + bucketKey)).isFalse();
+    }
+
+    @Test
+    void testTokenBucket_LegacyKeys_ShouldMigrateToSingleKey() {
+        // Given - 2-key 포맷으로 저장된 버킷 (토큰 1.5개)
+        String bucketKey = "test:migrate:" + System.currentTimeMillis();
+        redisTemplate.opsForValue().set("tb:" + bucketKey + ":tokens", "1.5");
+        redisTemplate.opsForValue().set("tb:" + bucketKey + ":ts", String.valueOf(System.currentTimeMillis()));
+
+        // When
+        RedisGuard.RateDecision decision = redisGuard.tokenBucketAllow(bucketKey, 0.001, 5, 60000);
+
+        // Then - 기존 토큰을 이어받고, 단일 키로 이관
+        assertThat(decision.allowed()).isTrue();
+        assertThat(decision.remainingTokens()).isCloseTo(0.5, org.assertj.core.data.Offset.offset(0.01));
+        assertThat(redisTemplate.hasKey("tb:" + bucketKey)).isTrue();
+        assertThat(redisTemplate.hasKey("tb:" + bucketKey + ":tokens")).isFalse();
+        assertThat(redisTemplate.hasKey("tb:" + bucketKey + ":ts")).isFalse();
+    }
+
+    @Test
+    void testTokenBucket_Denied_ShouldNotRewriteState() {
+        // Given - 토큰 소진
+        String bucketKey = "test:deny-no-write:" + System.currentTimeMillis();
+        redisGuard.tokenBucketAllow(bucketKey, 0.001, 1, 60000);
+        String stored = redisTemplate.opsForValue().get("tb:" + bucketKey);
+
+        // When
+        RedisGuard.RateDecision decision = redisGuard.tokenBucketAllow(bucketKey, 0.001, 1, 60000);
+
+        // Then - 거절 시 저장 상태는 그대로
+        assertThat(decision.allowed()).isFalse();
+        assertThat(redisTemplate.opsForValue().get("tb:" + bucketKey)).isEqualTo(stored);
+    }
+
+    @Test
+    void testGcra_BurstThenReject_ShouldMatchTokenBucket() {
+        // Given
+        String bucketKey = "test:gcra-burst:" + System.currentTimeMillis();
+        double ratePerSec = 1.0;
+        int burst = 3;
+        long ttlMillis = 60000;
+
+        // When - burst만큼 요청
+        for (int i = 0; i < burst; i++) {
+            RedisGuard.RateDecision decision = redisGuard.gcraAllow(bucketKey, ratePerSec, burst, ttlMillis);
+            assertThat(decision.allowed()).isTrue();
+            assertThat(decision.remainingTokens()).isEqualTo(burst - 1 - i);
+        }
+        RedisGuard.RateDecision rejected = redisGuard.gcraAllow(bucketKey, ratePerSec, burst, ttlMillis);
+
+        // Then - 1 token/sec 이므로 1초 이내 재시도
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.retryAfterMs()).isGreaterThan(0).isLessThanOrEqualTo(1000);
+        // 키는 버킷이 다시 가득 차는 시각(약 3초 후)에 만료
+        assertThat(redisTemplate.getExpire("gcra:" + bucketKey, java.util.concurrent.TimeUnit.MILLISECONDS))
+                .isGreaterThan(2000).isLessThanOrEqualTo(3000);
+    }
+
+    @Test
+    void testGcra_Refill_ShouldAllow() throws InterruptedException {
+        // Given
+        String bucketKey = "test:gcra-refill:" + System.currentTimeMillis();
+        for (int i = 0; i < 2; i++) {
+            redisGuard.gcraAllow(bucketKey, 10.0, 2, 60000);
+        }
+        assertThat(redisGuard.gcraAllow(bucketKey, 10.0, 2, 60000).allowed()).isFalse();
 
+        // When - 150ms 대기 (10 tokens/sec이므로 100ms에 1개 충전)
+        Thread.sleep(150);
 
+        // Then
+        assertThat(redisGuard.gcraAllow(bucketKey, 10.0, 2, 60000).allowed()).isTrue();
+    }
+
+    @Test
+    void testSlidingWindow_ExceedLimit_ShouldRejectWithoutWrite() {
+        // Given - 1시간 윈도에 3건
+        String bucketKey = "test:sw-limit:" + System.currentTimeMillis();
+        long windowMillis = 3_600_000L;
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            RedisGuard.RateDecision decision = redisGuard.slidingWindowAllow(bucketKey, 3, windowMillis);
+            assertThat(decision.allowed()).isTrue();
+            assertThat(decision.remainingTokens()).isEqualTo(2 - i);
+        }
+        RedisGuard.RateDecision rejected = redisGuard.slidingWindowAllow(bucketKey, 3, windowMillis);
+
+        // Then - 거절은 카운터를 올리지 않음, 키는 다음 윈도 끝까지만 유지
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.retryAfterMs()).isGreaterThan(0);
+        String curKey = "sw:" + bucketKey + ":" + (System.currentTimeMillis() / windowMillis);
+        assertThat(redisTemplate.opsForValue().get(curKey)).isEqualTo("3");
+        assertThat(redisTemplate.getExpire(curKey, java.util.concurrent.TimeUnit.MILLISECONDS))
+                .isBetween(1L, 2 * windowMillis);
+    }
+
+    @Test
+    void testSlidingWindow_PreviousWindow_ShouldBeWeighted() {
+        // Given - 이전 윈도가 한도를 모두 사용
+        String bucketKey = "test:sw-weighted:" + System.currentTimeMillis();
+        long windowMillis = 3_600_000L;
+        long window = System.currentTimeMillis() / windowMillis;
+        redisTemplate.opsForValue().set("sw:" + bucketKey + ":" + (window - 1), "10");
+
+        // When
+        int allowed = 0;
+        for (int i = 0; i < 10; i++) {
+            if (redisGuard.slidingWindowAllow(bucketKey, 10, windowMillis).allowed()) {
+                allowed++;
+            }
+        }
+
+        // Then - 이전 윈도의 남은 비율만큼 차감되어 한도보다 적게 허용
+        long elapsed = System.currentTimeMillis() % windowMillis;
+        long expected = (long) Math.floor(10 - 10.0 * (windowMillis - elapsed) / windowMillis);
+        assertThat((long) allowed).isBetween(Math.max(0, expected - 1), expected + 1);
+    }
+
+    @Test
+    void testCalendarWindow_DailyQuota_ShouldExpireAtMidnight() {
+        // Given
+        String bucketKey = "test:fw-day:" + System.currentTimeMillis();
+        java.time.ZoneId zone = java.time.ZoneId.of("Asia/Seoul");
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            RedisGuard.RateDecision decision = redisGuard.calendarWindowAllow(bucketKey, 3, UserRateLimit.TimeUnit.DAY, "Asia/Seoul");
+            assertThat(decision.allowed()).isTrue();
+            assertThat(decision.remainingTokens()).isEqualTo(2 - i);
+        }
+        RedisGuard.RateDecision rejected = redisGuard.calendarWindowAllow(bucketKey, 3, UserRateLimit.TimeUnit.DAY, "Asia/Seoul");
+
+        // Then - 자정(KST)까지 재시도 불가, 키도 그때 만료
+        CalendarWindow window = CalendarWindow.of(UserRateLimit.TimeUnit.DAY, zone, System.currentTimeMillis());
+        long untilMidnight = window.endMillis() - System.currentTimeMillis();
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.retryAfterMs()).isBetween(untilMidnight - 1000, untilMidnight + 1000);
+        assertThat(redisTemplate.getExpire("fw:" + bucketKey + ":" + window.startMillis(), java.util.concurrent.TimeUnit.MILLISECONDS))
+                .isBetween(untilMidnight - 1000, untilMidnight + 1000);
+    }
+
+    @Test
+    void testHoldPermits_ShouldLimitAcrossHoldersAndExpireLeases() throws InterruptedException {
+        // Given
+        String semaphoreKey = "test:sem:" + System.currentTimeMillis();
+
+        // When - 노드 A 가 3개, 노드 B 가 3개를 원함 (전체 4개)
+        RedisGuard.PermitLease a = redisGuard.holdPermits(semaphoreKey, 4, "node-a", 3, 100);
+        RedisGuard.PermitLease b = redisGuard.holdPermits(semaphoreKey, 4, "node-b", 3, 10000);
+
+        // Then
+        assertThat(a.held()).isEqualTo(3);
+        assertThat(b.held()).isEqualTo(1);
+        assertThat(b.available()).isZero();
+
+        // When - 노드 A 가 갱신하지 않아 리스 만료
+        Thread.sleep(150);
+        RedisGuard.PermitLease renewed = redisGuard.holdPermits(semaphoreKey, 4, "node-b", 3, 10000);
+
+        // Then - A 의 permit 이 회수되어 B 가 받음
+        assertThat(renewed.held()).isEqualTo(3);
+        assertThat(renewed.available()).isEqualTo(1);
+    }
+
+    @Test
+    void testUserSemaphore_AcquireReleaseAndExpire() throws InterruptedException {
+        // Given
+        String semaphoreKey = "test:usem:" + System.currentTimeMillis();
+        List<String> none = Collections.emptyList();
+
+        // When & Then - permits 2
+        assertThat(redisGuard.userSemaphoreAcquire(semaphoreKey, 2, "l1", 100, none)).isTrue();
+        assertThat(redisGuard.userSemaphoreAcquire(semaphoreKey, 2, "l2", 10000, none)).isTrue();
+        assertThat(redisGuard.userSemaphoreAcquire(semaphoreKey, 2, "l3", 10000, none)).isFalse();
+
+        // 반납분을 acquire 에 실어 보내면 바로 사용 가능
+        assertThat(redisGuard.userSemaphoreAcquire(semaphoreKey, 2, "l4", 10000, Collections.singletonList("l2"))).isTrue();
+
+        // 파이프라인 반납
+        redisGuard.releaseUserSemaphores(Collections.singletonMap(semaphoreKey, Collections.singletonList("l4")));
+
+        // l1 리스 만료 후 회수
+        Thread.sleep(150);
+        assertThat(redisGuard.userSemaphoreAcquire(semaphoreKey, 2, "l5", 10000, none)).isTrue();
+        assertThat(redisGuard.userSemaphoreAcquire(semaphoreKey, 2, "l6", 10000, none)).isTrue();
+        assertThat(redisGuard.userSemaphoreAcquire(semaphoreKey, 2, "l7", 10000, none)).isFalse();
+    }
+
+    @Test
+    void testUserSemaphore_ManyPiggybackedReleases_ShouldRemoveAll() {
+        // Given - permit 1개를 쓰고 있고, Lua 스택 한도를 넘는 수의 반납이 함께 실림
+        String semaphoreKey = "test:usem:many:" + System.currentTimeMillis();
+        assertThat(redisGuard.userSemaphoreAcquire(semaphoreKey, 1, "held", 10000, Collections.emptyList())).isTrue();
+        List<String> released = new java.util.ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            released.add("gone-" + i);
+        }
+        released.add("held");
+
+        // When
+        boolean acquired = redisGuard.userSemaphoreAcquire(semaphoreKey, 1, "next", 10000, released);
+
+        // Then - fail-open 이 아니라 실제로 반납 후 등록됨
+        assertThat(acquired).isTrue();
+        assertThat(redisTemplate.opsForZSet().score("usem:" + semaphoreKey, "next")).isNotNull();
+        assertThat(redisTemplate.opsForZSet().score("usem:" + semaphoreKey, "held")).isNull();
+    }
+
+    @Test
+    void testMultiTokenBucket_AnyRejects_ShouldConsumeNothing() {
+        // Given - 초당 10개(burst 5) AND 시간당 3개(burst 3)
+        String bucketKey = "test:multi:" + System.currentTimeMillis();
+        List<RedisGuard.BucketSpec> buckets = java.util.Arrays.asList(
+                new RedisGuard.BucketSpec(bucketKey + ":s", 10.0, 5, 60000),
+                new RedisGuard.BucketSpec(bucketKey + ":h", 3.0 / 3600, 3, 7200000));
+
+        // When - 3번 허용 후 시간당 제한에서 거절
+        for (int i = 0; i < 3; i++) {
+            RedisGuard.CompositeDecision d = redisGuard.multiTokenBucketAllow(buckets);
+            assertThat(d.allowed()).isTrue();
+            assertThat(d.limitingIndex()).isEqualTo(1);
+            assertThat(d.remainingTokens()).isEqualTo(2 - i, org.assertj.core.data.Offset.offset(0.01));
+        }
+        String secondBucketBefore = redisTemplate.opsForValue().get("tb:" + bucketKey + ":s");
+        RedisGuard.CompositeDecision rejected = redisGuard.multiTokenBucketAllow(buckets);
+
+        // Then - 가장 제한적인 시간당 버킷 기준 retry, 초당 버킷은 차감되지 않음
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.limitingIndex()).isEqualTo(1);
+        assertThat(rejected.retryAfterMs()).isGreaterThan(1000_000L);
+        assertThat(redisTemplate.opsForValue().get("tb:" + bucketKey + ":s")).isEqualTo(secondBucketBefore);
+    }
+
+    @Test
+    void testBatchTokenBucket_DuplicateKeys_ShouldDecideInOrder() {
+        // Given - 같은 버킷(burst 2)에 3건, 다른 버킷에 1건
+        String bucketKey = "test:batch:" + System.currentTimeMillis();
+        RedisGuard.BucketSpec same = new RedisGuard.BucketSpec(bucketKey + ":a", 0.001, 2, 60000);
+        RedisGuard.BucketSpec other = new RedisGuard.BucketSpec(bucketKey + ":b", 0.001, 2, 60000);
+
+        // When
+        List<RedisGuard.RateDecision> decisions = redisGuard.batchTokenBucketAllow(
+                java.util.Arrays.asList(same, other, same, same));
+
+        // Then - 각 요청이 자기 결과를 받고, 세 번째 같은 키 요청만 거절
+        assertThat(decisions).extracting(RedisGuard.RateDecision::allowed).containsExactly(true, true, true, false);
+        assertThat(decisions.get(2).remainingTokens()).isEqualTo(0.0, org.assertj.core.data.Offset.offset(0.01));
+        assertThat(decisions.get(3).retryAfterMs()).isGreaterThan(0);
+
+        // 단건 경로와 상태가 이어짐
+        assertThat(redisGuard.tokenBucketAllow(bucketKey + ":b", 0.001, 2, 60000).remainingTokens())
+                .isEqualTo(0.0, org.assertj.core.data.Offset.offset(0.01));
+    }
+
+    @Test
+    void testTokenBucketAsync_ConcurrentStages_ShouldShareBucket() {
+        // Given - burst 3 버킷에 비동기 판정 5건을 동시에 보냄
+        String bucketKey = "test:async:" + System.currentTimeMillis();
+        List<java.util.concurrent.CompletableFuture<RedisGuard.RateDecision>> futures = new java.util.ArrayList<>();
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            futures.add(redisGuard.tokenBucketAllowAsync(bucketKey, 0.001, 3, 60000).toCompletableFuture());
+        }
+
+        // Then - 정확히 3건만 허용
+        long allowed = futures.stream().map(java.util.concurrent.CompletableFuture::join)
+                .filter(RedisGuard.RateDecision::allowed).count();
+        assertThat(allowed).isEqualTo(3);
+    }
+
+    @Test
+    void testTokenBucketAsync_ScriptCacheFlushed_ShouldReloadScript() {
+        // Given - 서버 스크립트 캐시를 비워 EVALSHA 가 NOSCRIPT 로 실패하게 함
+        String bucketKey = "test:async:noscript:" + System.currentTimeMillis();
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.scriptingCommands().scriptFlush();
+            return null;
+        });
+
+        // When
+        RedisGuard.RateDecision first = redisGuard.tokenBucketAllowAsync(bucketKey, 10.0, 5, 60000).toCompletableFuture().join();
+        RedisGuard.RateDecision second = redisGuard.tokenBucketAllow(bucketKey, 10.0, 5, 60000);
+
+        // Then - fail-open(burst 그대로)이 아니라 실제 버킷에서 차감
+        assertThat(first.allowed()).isTrue();
+        assertThat(first.remainingTokens()).isEqualTo(4.0, org.assertj.core.data.Offset.offset(0.01));
+        assertThat(second.remainingTokens()).isLessThan(4.0);
+    }
+}
@@ -0,0 +1,82 @@
+package com.trafficguard.core;
+
+import com.trafficguard.config.RedisScriptLoader;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RedisScriptRegistryTest {
+
+    @Autowired
+    private RedisScriptRegistry registry;
+
+    @Autowired
+    private RedisGuard redisGuard;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Test
+    void testCacheMisses_ScriptCacheFlushed_ShouldCountMissAndReload() {
+        // Given - 서버 스크립트 캐시를 비워 EVALSHA 가 NOSCRIPT 로 실패하게 함
+        String bucketKey = "test:registry:" + System.currentTimeMillis();
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.scriptingCommands().scriptFlush();
+            return null;
+        });
+        long before = registry.cacheMisses();
+
+        // When - 첫 호출은 miss 후 EVAL 로 다시 올리고, 두 번째 호출은 EVALSHA 로 성공
+        RedisGuard.RateDecision first = redisGuard.gcraAllow(bucketKey, 10.0, 5, 60000);
+        RedisGuard.RateDecision second = redisGuard.gcraAllow(bucketKey, 10.0, 5, 60000);
+
+        // Then
+        assertThat(first.allowed()).isTrue();
+        assertThat(second.allowed()).isTrue();
+        assertThat(registry.cacheMisses()).isEqualTo(before + 1);
+        assertThat(registry.cacheMissesByScript().get("gcra")).isGreaterThanOrEqualTo(1L);
+
+        redisTemplate.delete("gcra:" + bucketKey);
+    }
+
+    @Test
+    void testBuildLibrary_ShouldRegisterFunctionPerScript() {
+        // Given
+        Map<String, DefaultRedisScript<List<Object>>> scripts = new LinkedHashMap<>();
+        scripts.put("gcra", RedisScriptLoader.loadGcraScript());
+        scripts.put("fixedWindow", RedisScriptLoader.loadFixedWindowScript());
+
+        // When
+        String library = RedisScriptRegistry.buildLibrary(scripts);
+
+        // Then
+        assertThat(library).startsWith("#!lua name=trafficguard\n");
+        assertThat(library).contains("redis.register_function('tg_gcra', function(KEYS, ARGV)");
+        assertThat(library).contains("redis.register_function('tg_fixedWindow', function(KEYS, ARGV)");
+        assertThat(RedisScriptRegistry.buildLibrary(Collections.emptyMap())).isEqualTo("#!lua name=trafficguard\n");
+    }
+
+    @Test
+    void testScript_ShouldFindScriptByBeanNameWithoutSuffix() {
+        // When & Then - RedisGuard 는 스크립트를 빈 대신 이름으로 찾음
+        assertThat(registry.script("tokenBucketPacked").getSha1())
+                .isEqualTo(RedisScriptLoader.loadPackedTokenBucketScript().getSha1());
+        assertThatThrownBy(() -> registry.script("unknown"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("unknown");
+    }
+}
@@ -0,0 +1,99 @@
+package com.trafficguard.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedisShardRingTest {
+
+    private static final int KEYS = 100_000;
+
+    private static RedisShardRing<String> ring(String... nodes) {
+        Map<String, String> shards = new LinkedHashMap<>();
+        for (String node : nodes) {
+            shards.put(node, node);
+        }
+        return new RedisShardRing<>(shards, 160);
+    }
+
+    @Test
+    void testIndexOf_ManyKeys_ShouldSpreadEvenly() {
+        // Given
+        RedisShardRing<String> ring = ring("redis://10.0.0.1:6379", "redis://10.0.0.2:6379", "redis://10.0.0.3:6379", "redis://10.0.0.4:6379");
+        int[] counts = new int[4];
+
+        // When
+        for (int i = 0; i < KEYS; i++) {
+            counts[ring.indexOf("user:Api:search:u" + i)]++;
+        }
+
+        // Then - 샤드마다 평균(25%)에서 ±20% 안
+        for (int count : counts) {
+            assertThat(count).isBetween(KEYS / 4 * 8 / 10, KEYS / 4 * 12 / 10);
+        }
+    }
+
+    @Test
+    void testGet_SameKey_ShouldAlwaysReturnSameShard() {
+        // Given - 같은 노드 목록으로 만든 두 링
+        RedisShardRing<String> a = ring("redis://a:6379", "redis://b:6379", "redis://c:6379");
+        RedisShardRing<String> b = ring("redis://a:6379", "redis://b:6379", "redis://c:6379");
+
+        // Then
+        for (int i = 0; i < 1000; i++) {
+            String key = "user:R:u" + i;
+            assertThat(a.get(key)).isEqualTo(a.get(key)).isEqualTo(b.get(key));
+        }
+    }
+
+    @Test
+    void testWithout_RemovedShard_ShouldRemapOnlyItsKeys() {
+        // Given
+        RedisShardRing<String> ring = ring("redis://a:6379", "redis://b:6379", "redis://c:6379", "redis://d:6379");
+        RedisShardRing<String> shrunk = ring.without("redis://c:6379");
+        int moved = 0;
+
+        // When & Then - c 에 있던 키만 다른 샤드로 옮겨짐
+        for (int i = 0; i < KEYS; i++) {
+            String key = "user:R:u" + i;
+            String before = ring.get(key);
+            String after = shrunk.get(key);
+            if (!before.equals("redis://c:6379")) {
+                assertThat(after).isEqualTo(before);
+            } else {
+                assertThat(after).isNotEqualTo("redis://c:6379");
+                moved++;
+            }
+        }
+        assertThat(moved).isBetween(KEYS / 4 * 8 / 10, KEYS / 4 * 12 / 10);
+    }
+
+    @Test
+    void testMap_ShouldKeepAssignment() {
+        // Given
+        RedisShardRing<String> ring = ring("redis://a:6379", "redis://b:6379", "redis://c:6379");
+
+        // When
+        RedisShardRing<Integer> lengths = ring.map(String::length);
+
+        // Then
+        for (int i = 0; i < 1000; i++) {
+            String key = "user:R:u" + i;
+            assertThat(lengths.indexOf(key)).isEqualTo(ring.indexOf(key));
+        }
+    }
+
+    @Test
+    void testIndexOf_SingleShard_ShouldAlwaysReturnZero() {
+        // Given
+        RedisShardRing<String> ring = new RedisShardRing<>(Collections.singletonMap("default", "default"), 1);
+
+        // Then
+        assertThat(ring.indexOf("user:R:u1")).isZero();
+        assertThat(ring.get("anything")).isEqualTo("default");
+    }
+}
@@ -0,0 +1,40 @@
+package com.trafficguard.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedisSlotsTest {
+
+    @Test
+    void testSlot_PlainKey_ShouldMatchClusterKeySlot() {
+        // CLUSTER KEYSLOT 결과와 비교
+        assertThat(RedisSlots.slot("foo")).isEqualTo(12182);
+        assertThat(RedisSlots.slot("user1000")).isEqualTo(3443);
+    }
+
+    @Test
+    void testSlot_HashTag_ShouldHashOnlyTagContent() {
+        // Given - 같은 hash tag 의 버킷 키들
+        int tokens = RedisSlots.slot(RedisSlots.tagged("tb:", "user:Api:search:u1", ":tokens"));
+        int ts = RedisSlots.slot(RedisSlots.tagged("tb:", "user:Api:search:u1", ":ts"));
+        int composite = RedisSlots.slot(RedisSlots.tagged("tb:", "user:Api:search:u1", ":5/SECOND"));
+
+        // Then
+        assertThat(tokens).isEqualTo(ts).isEqualTo(composite).isEqualTo(RedisSlots.slot("user:Api:search:u1"));
+    }
+
+    @Test
+    void testSlot_EmptyOrUnclosedTag_ShouldHashWholeKey() {
+        assertThat(RedisSlots.slot("{}foo")).isEqualTo(RedisSlots.crc16("{}foo".getBytes(), 0, 5) % RedisSlots.SLOTS);
+        assertThat(RedisSlots.slot("{foo")).isEqualTo(RedisSlots.crc16("{foo".getBytes(), 0, 4) % RedisSlots.SLOTS);
+    }
+
+    @Test
+    void testSlot_TagWithBraceInUserId_ShouldStillShareSlot() {
+        // 사용자 ID 에 '}' 가 있어도 같은 호출의 키는 첫 '}' 까지 같은 부분을 해시
+        String tag = "user:Api:search:a}b";
+        assertThat(RedisSlots.slot(RedisSlots.tagged("sw:", tag, ":10")))
+                .isEqualTo(RedisSlots.slot(RedisSlots.tagged("sw:", tag, ":9")));
+    }
+}
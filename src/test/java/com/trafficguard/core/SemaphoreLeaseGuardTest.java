@@ -0,0 +1,194 @@
+package com.trafficguard.core;
+
+import com.trafficguard.config.TrafficGuardProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SemaphoreLeaseGuardTest {
+
+    @Mock
+    private RedisGuard redisGuard;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+
+    private final TrafficGuardProperties properties = new TrafficGuardProperties();
+
+    private SemaphoreLeaseGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        properties.getSemaphore().setPrefetch(2);
+        properties.getSemaphore().setHeartbeatMillis(1000);
+        guard = new SemaphoreLeaseGuard(redisGuard, properties, clock::get, false);
+    }
+
+    /** Redis 세마포어 permits 개를 흉내: 요청한 보유 수를 남은 만큼만 허용 */
+    private void stubRedisSemaphore(int permits) {
+        when(redisGuard.holdPermits(anyString(), anyInt(), anyString(), anyInt(), anyLong()))
+                .thenAnswer(inv -> {
+                    int desired = Math.min(permits, (int) inv.getArgument(3));
+                    return new RedisGuard.PermitLease(desired, permits - desired);
+                });
+    }
+
+    /** semaphore-lease.lua 처럼 보유자별 만료 시각까지 반영하는 Redis 세마포어 흉내 (holder -> {held, expireAt}) */
+    private void stubExpiringRedisSemaphore(int permits) {
+        Map<String, long[]> holders = new HashMap<>();
+        when(redisGuard.holdPermits(anyString(), anyInt(), anyString(), anyInt(), anyLong()))
+                .thenAnswer(inv -> {
+                    long now = clock.get();
+                    holders.values().removeIf(h -> h[1] <= now);
+                    String holder = inv.getArgument(2);
+                    int others = holders.entrySet().stream()
+                            .filter(h -> !h.getKey().equals(holder))
+                            .mapToInt(h -> (int) h.getValue()[0]).sum();
+                    int held = Math.max(0, Math.min((int) inv.getArgument(3), permits - others));
+                    if (held > 0) {
+                        holders.put(holder, new long[]{held, now + (long) inv.getArgument(4)});
+                    } else {
+                        holders.remove(holder);
+                    }
+                    return new RedisGuard.PermitLease(held, permits - others - held);
+                });
+    }
+
+    @Test
+    void testTryAcquire_Prefetch_ShouldSkipRedisForNextAcquires() {
+        // Given
+        stubRedisSemaphore(10);
+
+        // When - 첫 요청에서 1 + prefetch(2) 개 보유
+        boolean first = guard.tryAcquire("global:slow", 10, 5000, 0);
+        boolean second = guard.tryAcquire("global:slow", 10, 5000, 0);
+        boolean third = guard.tryAcquire("global:slow", 10, 5000, 0);
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isTrue();
+        verify(redisGuard, times(1)).holdPermits(eq("global:slow"), eq(10), anyString(), eq(3), eq(5000L));
+    }
+
+    @Test
+    void testTryAcquire_AllPermitsInUse_ShouldReject() {
+        // Given
+        stubRedisSemaphore(2);
+        assertThat(guard.tryAcquire("global:full", 2, 5000, 0)).isTrue();
+        assertThat(guard.tryAcquire("global:full", 2, 5000, 0)).isTrue();
+
+        // When
+        boolean acquired = guard.tryAcquire("global:full", 2, 5000, 0);
+
+        // Then
+        assertThat(acquired).isFalse();
+    }
+
+    @Test
+    void testRelease_ShouldReusePermitLocally() {
+        // Given
+        stubRedisSemaphore(1);
+        assertThat(guard.tryAcquire("global:reuse", 1, 5000, 0)).isTrue();
+
+        // When
+        guard.release("global:reuse");
+        boolean reacquired = guard.tryAcquire("global:reuse", 1, 5000, 0);
+
+        // Then - 반납한 permit 을 Redis 호출 없이 재사용
+        assertThat(reacquired).isTrue();
+        verify(redisGuard, times(1)).holdPermits(anyString(), anyInt(), anyString(), anyInt(), anyLong());
+    }
+
+    @Test
+    void testRenewLeases_IdlePool_ShouldReturnSparePermits() {
+        // Given - 3개 보유, 1개 사용 중
+        stubRedisSemaphore(10);
+        guard.tryAcquire("global:idle", 10, 5000, 0);
+
+        // When - 첫 heartbeat 은 사용 중 + prefetch 로 갱신, 다음 heartbeat 까지 요청이 없으면 여분 반환
+        guard.renewLeases();
+        clock.addAndGet(1000);
+        guard.renewLeases();
+
+        // Then
+        verify(redisGuard, times(2)).holdPermits(eq("global:idle"), eq(10), anyString(), eq(3), eq(5000L));
+        verify(redisGuard).holdPermits(eq("global:idle"), eq(10), anyString(), eq(1), eq(5000L));
+    }
+
+    @Test
+    void testRenewLeases_AllReleasedAndIdle_ShouldEvictPool() {
+        // Given
+        stubRedisSemaphore(10);
+        guard.tryAcquire("global:evict", 10, 5000, 0);
+        guard.release("global:evict");
+
+        // When - 여분 반환 후 한동안 요청이 없으면 풀 정리
+        guard.renewLeases();
+        clock.addAndGet(1000);
+        guard.renewLeases();
+        clock.addAndGet(20_000);
+        guard.renewLeases();
+
+        // Then
+        verify(redisGuard).holdPermits(eq("global:evict"), eq(10), anyString(), eq(0), eq(5000L));
+        assertThat(guard.size()).isZero();
+    }
+
+    @Test
+    void testRenewLeases_LeaseShorterThanHeartbeat_ShouldKeepHeldPermit() {
+        // Given - heartbeat 1000ms, 리스 300ms 인 permit 1개를 이 노드가 사용 중
+        stubExpiringRedisSemaphore(1);
+        SemaphoreLeaseGuard otherNode = new SemaphoreLeaseGuard(redisGuard, properties, clock::get, false);
+        assertThat(guard.tryAcquire("global:short", 1, 300, 0)).isTrue();
+
+        // When - heartbeat 스케줄대로 3초간 갱신
+        long delay = guard.nextRenewDelay();
+        for (long elapsed = 0; elapsed < 3000; elapsed += delay) {
+            clock.addAndGet(delay);
+            guard.renewLeases();
+
+            // Then - 리스가 만료되지 않아 다른 노드가 permit 을 가져가지 못함
+            assertThat(otherNode.tryAcquire("global:short", 1, 300, 0)).isFalse();
+        }
+        assertThat(delay).isEqualTo(100);
+    }
+
+    @Test
+    void testRelease_WhileRedisCallInFlight_ShouldNotWaitForRedis() throws Exception {
+        // Given - permit 1개 사용 중, 다른 스레드가 slow path 에서 Redis 응답을 기다리는 중
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        when(redisGuard.holdPermits(anyString(), anyInt(), anyString(), anyInt(), anyLong()))
+                .thenReturn(new RedisGuard.PermitLease(1, 0))
+                .thenAnswer(inv -> {
+                    entered.countDown();
+                    proceed.await();
+                    return new RedisGuard.PermitLease(1, 0);
+                });
+        assertThat(guard.tryAcquire("global:io", 1, 5000, 0)).isTrue();
+        CompletableFuture<Boolean> blocked = CompletableFuture.supplyAsync(() -> guard.tryAcquire("global:io", 1, 5000, 0));
+        assertThat(entered.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        CompletableFuture<Void> release = CompletableFuture.runAsync(() -> guard.release("global:io"));
+
+        // Then - Redis 호출이 끝나기 전에 반납이 끝남
+        release.get(1, TimeUnit.SECONDS);
+        proceed.countDown();
+        assertThat(blocked.get(1, TimeUnit.SECONDS)).isTrue();
+    }
+}
@@ -0,0 +1,90 @@
+package com.trafficguard.core;
+
+import com.trafficguard.annotation.GlobalRateLimit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShardedBucketGuardTest {
+
+    @Mock
+    private RedisGuard redisGuard;
+
+    private ShardedBucketGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        guard = new ShardedBucketGuard(redisGuard);
+    }
+
+    @Test
+    void testTryAcquire_RoundRobin_ShouldSplitRateAndBurstAcrossShards() {
+        // Given
+        when(redisGuard.tokenBucketAllow(anyString(), anyDouble(), anyInt(), anyLong()))
+                .thenReturn(new RedisGuard.RateDecision(true, 1.0, 0));
+
+        // When - 초당 500, burst 10, 4개 하위 버킷
+        for (int i = 0; i < 4; i++) {
+            guard.tryAcquire("grl:export", 500.0, 10, 60000, 4, GlobalRateLimit.ShardStrategy.ROUND_ROBIN, 2);
+        }
+
+        // Then - 하위 버킷마다 한 번씩, rate 125, burst 3/3/2/2
+        verify(redisGuard).tokenBucketAllow("grl:export:0", 125.0, 3, 60000);
+        verify(redisGuard).tokenBucketAllow("grl:export:1", 125.0, 3, 60000);
+        verify(redisGuard).tokenBucketAllow("grl:export:2", 125.0, 2, 60000);
+        verify(redisGuard).tokenBucketAllow("grl:export:3", 125.0, 2, 60000);
+    }
+
+    @Test
+    void testTryAcquire_ShardEmpty_ShouldFallbackToSibling() {
+        // Given - 첫 하위 버킷만 비어 있음
+        when(redisGuard.tokenBucketAllow(eq("grl:export:0"), anyDouble(), anyInt(), anyLong()))
+                .thenReturn(new RedisGuard.RateDecision(false, 0, 40));
+        when(redisGuard.tokenBucketAllow(eq("grl:export:1"), anyDouble(), anyInt(), anyLong()))
+                .thenReturn(new RedisGuard.RateDecision(true, 2.0, 0));
+
+        // When
+        RedisGuard.RateDecision decision = guard.tryAcquire("grl:export", 500.0, 10, 60000, 4, GlobalRateLimit.ShardStrategy.ROUND_ROBIN, 2);
+
+        // Then
+        assertThat(decision.allowed()).isTrue();
+        verify(redisGuard, times(2)).tokenBucketAllow(anyString(), anyDouble(), anyInt(), anyLong());
+    }
+
+    @Test
+    void testTryAcquire_AllTriedShardsEmpty_ShouldRejectWithShortestRetry() {
+        // Given
+        when(redisGuard.tokenBucketAllow(anyString(), anyDouble(), anyInt(), anyLong()))
+                .thenReturn(new RedisGuard.RateDecision(false, 0, 40))
+                .thenReturn(new RedisGuard.RateDecision(false, 0, 10))
+                .thenReturn(new RedisGuard.RateDecision(false, 0, 30));
+
+        // When
+        RedisGuard.RateDecision decision = guard.tryAcquire("grl:export", 500.0, 10, 60000, 4, GlobalRateLimit.ShardStrategy.HASH, 2);
+
+        // Then - 선택한 하위 버킷 + 이웃 2개까지만 시도
+        assertThat(decision.allowed()).isFalse();
+        assertThat(decision.retryAfterMs()).isEqualTo(10);
+        verify(redisGuard, times(3)).tokenBucketAllow(anyString(), anyDouble(), anyInt(), anyLong());
+    }
+
+    @Test
+    void testTryAcquire_BurstSmallerThanShards_ShouldReduceShards() {
+        // Given
+        when(redisGuard.tokenBucketAllow(anyString(), anyDouble(), anyInt(), anyLong()))
+                .thenReturn(new RedisGuard.RateDecision(true, 0, 0));
+
+        // When - burst 1 이면 나누지 않음
+        guard.tryAcquire("grl:export", 5.0, 1, 60000, 8, GlobalRateLimit.ShardStrategy.ROUND_ROBIN, 2);
+
+        // Then
+        verify(redisGuard).tokenBucketAllow("grl:export", 5.0, 1, 60000);
+    }
+}
@@ -0,0 +1,98 @@
+package com.trafficguard.core;
+
+import com.trafficguard.config.TrafficGuardProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenLeaseGuardTest {
+
+    @Mock
+    private RedisGuard redisGuard;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+
+    private TokenLeaseGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        TrafficGuardProperties properties = new TrafficGuardProperties();
+        properties.getLease().setTtlMillis(100);
+        properties.getLease().setMaxTokens(50);
+        properties.getLease().setMaxBurstRatio(0.5);
+        guard = new TokenLeaseGuard(redisGuard, properties, clock::get, false);
+    }
+
+    @Test
+    void testTryAcquire_SteadyTraffic_ShouldCutRedisCalls() {
+        // Given - Redis 버킷은 요청한 만큼 항상 빌려줌
+        when(redisGuard.leaseTokens(anyString(), anyDouble(), anyInt(), anyLong(), anyInt(), anyInt()))
+                .thenAnswer(inv -> new RedisGuard.TokenLease(inv.getArgument(4), 100, 0));
+
+        // When - 1ms 간격으로 1000건 (1000 rps)
+        for (int i = 0; i < 1000; i++) {
+            assertThat(guard.tryAcquire("steady", 1000.0, 200, 60000).allowed()).isTrue();
+            clock.incrementAndGet();
+        }
+
+        // Then - 리스 크기가 커지면서 Redis 호출이 10배 이상 줄어듦
+        verify(redisGuard, atMost(100)).leaseTokens(eq("steady"), anyDouble(), anyInt(), anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testTryAcquire_LeaseSize_ShouldBeCappedByBurstRatio() {
+        // Given
+        when(redisGuard.leaseTokens(anyString(), anyDouble(), anyInt(), anyLong(), anyInt(), anyInt()))
+                .thenAnswer(inv -> new RedisGuard.TokenLease(inv.getArgument(4), 100, 0));
+
+        // When - 시간이 흐르지 않는 폭주 트래픽
+        for (int i = 0; i < 200; i++) {
+            guard.tryAcquire("capped", 1000.0, 10, 60000);
+        }
+
+        // Then - burst(10) * 0.5 = 5개를 넘게 빌리지 않음
+        verify(redisGuard, never()).leaseTokens(eq("capped"), anyDouble(), anyInt(), anyLong(), intThat(n -> n > 5), anyInt());
+    }
+
+    @Test
+    void testTryAcquire_BucketEmpty_ShouldReject() {
+        // Given
+        when(redisGuard.leaseTokens(anyString(), anyDouble(), anyInt(), anyLong(), anyInt(), anyInt()))
+                .thenReturn(new RedisGuard.TokenLease(0, 0.3, 700));
+
+        // When
+        RedisGuard.RateDecision decision = guard.tryAcquire("empty", 1.0, 2, 60000);
+
+        // Then
+        assertThat(decision.allowed()).isFalse();
+        assertThat(decision.remainingTokens()).isEqualTo(0.3);
+        assertThat(decision.retryAfterMs()).isEqualTo(700);
+    }
+
+    @Test
+    void testReturnExpiredLeases_ShouldReturnUnusedTokens() {
+        // Given - 1개 리스 후 빠르게 소비하여 다음 리스를 크게 받음
+        when(redisGuard.leaseTokens(anyString(), anyDouble(), anyInt(), anyLong(), anyInt(), anyInt()))
+                .thenAnswer(inv -> new RedisGuard.TokenLease(inv.getArgument(4), 100, 0));
+        guard.tryAcquire("leftover", 1000.0, 200, 60000);
+        clock.incrementAndGet();
+        guard.tryAcquire("leftover", 1000.0, 200, 60000);
+        verify(redisGuard).leaseTokens("leftover", 1000.0, 200, 60000, 50, 0);
+
+        // When - 리스 만료 후 반환 작업 실행 (50개 중 1개 사용)
+        clock.addAndGet(101);
+        guard.returnExpiredLeases();
+
+        // Then
+        verify(redisGuard).leaseTokens("leftover", 1000.0, 200, 60000, 0, 49);
+    }
+}
@@ -0,0 +1,203 @@
+package com.trafficguard.core;
+
+import com.trafficguard.config.TrafficGuardProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSemaphoreGuardTest {
+
+    @Mock
+    private RedisGuard redisGuard;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+
+    private final TrafficGuardProperties properties = new TrafficGuardProperties();
+
+    private UserSemaphoreGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        properties.getUserSemaphore().setReleaseBatchSize(3);
+        guard = new UserSemaphoreGuard(redisGuard, properties, clock::get, false);
+    }
+
+    /** 지금부터 5초 뒤 만료되는 리스 */
+    private UserSemaphoreGuard.Lease lease(String id) {
+        return new UserSemaphoreGuard.Lease(id, clock.get() + 5000);
+    }
+
+    @Test
+    void testRelease_ShouldNotCallRedisUntilFlush() {
+        // When
+        guard.release("user:a", lease("lease-1"));
+        guard.release("user:a", lease("lease-2"));
+
+        // Then
+        verifyNoInteractions(redisGuard);
+        assertThat(guard.pendingReleases()).isEqualTo(2);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testFlushReleases_ShouldBatchByKeyAndSize() {
+        // Given
+        guard.release("user:a", lease("lease-1"));
+        guard.release("user:a", lease("lease-2"));
+        guard.release("user:b", lease("lease-3"));
+        guard.release("user:b", lease("lease-4"));
+        when(redisGuard.releaseUserSemaphores(anyMap())).thenReturn(true);
+
+        // When
+        guard.flushReleases();
+
+        // Then - batch 크기 3 이므로 파이프라인 2회, 모두 반납
+        ArgumentCaptor<Map<String, List<String>>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(redisGuard, times(2)).releaseUserSemaphores(captor.capture());
+        int released = captor.getAllValues().stream()
+                .flatMap(m -> m.values().stream())
+                .mapToInt(List::size)
+                .sum();
+        assertThat(released).isEqualTo(4);
+        assertThat(guard.pendingReleases()).isZero();
+    }
+
+    @Test
+    void testTryAcquire_PendingReleases_ShouldPiggybackOnAcquire() {
+        // Given
+        guard.release("user:a", lease("lease-1"));
+        guard.release("user:b", lease("lease-2"));
+        when(redisGuard.userSemaphoreAcquire(anyString(), anyInt(), anyString(), anyLong(), anyList())).thenReturn(true);
+
+        // When
+        UserSemaphoreGuard.Lease lease = guard.tryAcquire("user:a", 1, 5000);
+
+        // Then - 같은 키의 반납분만 acquire 스크립트에 실리고, 반영 확인은 flush 가 하므로 큐에는 남음
+        assertThat(lease).isNotNull();
+        assertThat(lease.expireAtMillis()).isEqualTo(clock.get() + 5000);
+        verify(redisGuard).userSemaphoreAcquire(eq("user:a"), eq(1), eq(lease.id()), eq(5000L), eq(Collections.singletonList("lease-1")));
+        assertThat(guard.pendingReleases()).isEqualTo(2);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testFlushReleases_PipelineFails_ShouldRequeueAndRetry() {
+        // Given
+        guard.release("user:a", lease("lease-1"));
+        guard.release("user:a", lease("lease-2"));
+        when(redisGuard.releaseUserSemaphores(anyMap())).thenReturn(false, true);
+        when(redisGuard.userSemaphoreAcquire(anyString(), anyInt(), anyString(), anyLong(), anyList())).thenReturn(true);
+
+        // When - 첫 flush 는 실패
+        guard.flushReleases();
+
+        // Then - 반납분이 큐로 돌아와 다음 acquire 에도 실림
+        assertThat(guard.pendingReleases()).isEqualTo(2);
+        UserSemaphoreGuard.Lease lease = guard.tryAcquire("user:a", 1, 5000);
+        ArgumentCaptor<List<String>> released = ArgumentCaptor.forClass(List.class);
+        verify(redisGuard).userSemaphoreAcquire(eq("user:a"), eq(1), eq(lease.id()), eq(5000L), released.capture());
+        assertThat(released.getValue()).containsExactlyInAnyOrder("lease-1", "lease-2");
+
+        // When - 다음 flush 는 성공
+        guard.flushReleases();
+
+        // Then
+        verify(redisGuard, times(2)).releaseUserSemaphores(anyMap());
+        assertThat(guard.pendingReleases()).isZero();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testTryAcquire_DuringFlush_ShouldIncludeLeasesBeingSent() {
+        // Given - 파이프라인이 진행 중일 때 같은 사용자의 acquire 가 들어옴
+        guard.release("user:a", lease("lease-1"));
+        when(redisGuard.userSemaphoreAcquire(anyString(), anyInt(), anyString(), anyLong(), anyList())).thenReturn(true);
+        when(redisGuard.releaseUserSemaphores(anyMap())).thenAnswer(inv -> {
+            guard.tryAcquire("user:a", 1, 5000);
+            return true;
+        });
+
+        // When
+        guard.flushReleases();
+
+        // Then - 큐에서는 빠졌지만 아직 반영 확인 전인 반납분도 acquire 가 함께 제거
+        ArgumentCaptor<List<String>> released = ArgumentCaptor.forClass(List.class);
+        verify(redisGuard).userSemaphoreAcquire(eq("user:a"), eq(1), anyString(), eq(5000L), released.capture());
+        assertThat(released.getValue()).containsExactly("lease-1");
+        assertThat(guard.tryAcquire("user:a", 1, 5000)).isNotNull();
+        verify(redisGuard).userSemaphoreAcquire(eq("user:a"), eq(1), anyString(), eq(5000L), eq(Collections.emptyList()));
+    }
+
+    @Test
+    void testTryAcquire_Rejected_ShouldReturnNull() {
+        // Given
+        when(redisGuard.userSemaphoreAcquire(anyString(), anyInt(), anyString(), anyLong(), anyList())).thenReturn(false);
+
+        // When & Then
+        assertThat(guard.tryAcquire("user:a", 1, 5000)).isNull();
+    }
+
+    @Test
+    void testFlushReleases_ExpiredLeases_ShouldDropWithoutSending() {
+        // Given - 반납은 쌓였지만 Redis 장애 동안 리스가 만료됨
+        guard.release("user:a", lease("lease-1"));
+        guard.release("user:a", lease("lease-2"));
+        clock.addAndGet(5000);
+
+        // When
+        guard.flushReleases();
+        guard.release("user:a", new UserSemaphoreGuard.Lease("lease-3", clock.get() - 1));
+
+        // Then - Redis 에서 이미 정리됐으므로 보내지도, 쌓지도 않음
+        verifyNoInteractions(redisGuard);
+        assertThat(guard.pendingReleases()).isZero();
+    }
+
+    @Test
+    void testRelease_QueueFull_ShouldDropOverflow() {
+        // Given
+        properties.getUserSemaphore().setMaxPendingReleases(2);
+        guard.release("user:a", lease("lease-1"));
+        guard.release("user:a", lease("lease-2"));
+
+        // When
+        guard.release("user:a", lease("lease-3"));
+
+        // Then
+        assertThat(guard.pendingReleases()).isEqualTo(2);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testTryAcquire_ManyPendingReleases_ShouldCapPiggyback() {
+        // Given
+        properties.getUserSemaphore().setMaxPiggybackReleases(2);
+        guard.release("user:a", lease("lease-1"));
+        guard.release("user:a", lease("lease-2"));
+        guard.release("user:a", lease("lease-3"));
+        when(redisGuard.userSemaphoreAcquire(anyString(), anyInt(), anyString(), anyLong(), anyList())).thenReturn(true);
+
+        // When
+        guard.tryAcquire("user:a", 1, 5000);
+
+        // Then - 2개만 싣고 나머지는 flush 가 보냄
+        ArgumentCaptor<List<String>> released = ArgumentCaptor.forClass(List.class);
+        verify(redisGuard).userSemaphoreAcquire(eq("user:a"), eq(1), anyString(), eq(5000L), released.capture());
+        assertThat(released.getValue()).containsExactly("lease-1", "lease-2");
+        assertThat(guard.pendingReleases()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,167 @@
+package com.trafficguard.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachedBodyHttpServletRequestTest {
+
+    private static final String BODY = "{\"userId\":\"42\",\"memo\":\"line1\\nline2\"}";
+
+    @Test
+    void testGetBody_ShouldShareBytesWithInputStream() throws Exception {
+        // Given
+        MockHttpServletRequest raw = new MockHttpServletRequest("POST", "/orders");
+        raw.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        CachedBodyHttpServletRequest request = new CachedBodyHttpServletRequest(raw, 1024);
+
+        // When
+        byte[] first = request.getBody();
+        byte[] second = request.getBody();
+
+        // Then - 같은 배열을 재사용하고, 스트림은 몇 번이든 처음부터 (줄바꿈 포함) 읽힘
+        assertThat(second).isSameAs(first);
+        assertThat(StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+        assertThat(StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+    }
+
+    @Test
+    void testGetBody_ContentLengthOverLimit_ShouldRejectWithoutReading() throws Exception {
+        // Given
+        MockHttpServletRequest raw = new MockHttpServletRequest("POST", "/orders");
+        raw.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        CachedBodyHttpServletRequest request = new CachedBodyHttpServletRequest(raw, 8);
+
+        // When & Then - Content-Length 만으로 거절하고, 핸들러는 원래 body 를 그대로 받음
+        assertThat(request.isOversized()).isTrue();
+        assertThatThrownBy(request::getBody)
+                .isInstanceOf(CachedBodyHttpServletRequest.BodyTooLargeException.class)
+                .hasMessageContaining("exceeds 8 bytes");
+        assertThat(StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+    }
+
+    @Test
+    void testGetBody_ChunkedOverLimit_ShouldRejectAndPassThroughWholeBody() throws Exception {
+        // Given - Content-Length 없는 요청
+        MockHttpServletRequest raw = new MockHttpServletRequest("POST", "/orders") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        raw.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        CachedBodyHttpServletRequest request = new CachedBodyHttpServletRequest(raw, 8);
+
+        // When & Then - 읽은 앞부분과 나머지를 이어서 넘김
+        assertThatThrownBy(request::getBody).isInstanceOf(CachedBodyHttpServletRequest.BodyTooLargeException.class);
+        assertThat(StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+    }
+
+    @Test
+    void testGetBody_ChunkedWithinLimit_ShouldCacheExactBytes() throws Exception {
+        // Given
+        MockHttpServletRequest raw = new MockHttpServletRequest("POST", "/orders") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        raw.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        CachedBodyHttpServletRequest request = new CachedBodyHttpServletRequest(raw, 1024);
+
+        // When
+        byte[] body = request.getBody();
+
+        // Then
+        assertThat(new String(body, StandardCharsets.UTF_8)).isEqualTo(BODY);
+        assertThat(request.isOversized()).isFalse();
+    }
+
+    @Test
+    void testGetParameter_FormPost_ShouldServeQueryAndCachedBody() throws Exception {
+        // Given - 컨테이너가 아직 body 를 파싱하지 않은 폼 요청
+        MockHttpServletRequest raw = new MockHttpServletRequest("POST", "/orders");
+        raw.setContentType("application/x-www-form-urlencoded");
+        raw.setQueryString("source=app");
+        raw.setContent("userId=42&productId=p-1&tag=a&tag=b%20c".getBytes(StandardCharsets.UTF_8));
+        CachedBodyHttpServletRequest request = new CachedBodyHttpServletRequest(raw, 1024);
+
+        // When - 핸들러 바인딩이 먼저 파라미터를 읽어도
+        String userId = request.getParameter("userId");
+
+        // Then - body 는 그대로 남아 사용자 ID 추출이 같은 값을 봄
+        assertThat(userId).isEqualTo("42");
+        assertThat(request.getParameter("source")).isEqualTo("app");
+        assertThat(request.getParameterValues("tag")).containsExactly("a", "b c");
+        assertThat(Collections.list(request.getParameterNames())).containsExactly("source", "userId", "productId", "tag");
+        assertThat(new String(request.getBody(), StandardCharsets.UTF_8)).isEqualTo("userId=42&productId=p-1&tag=a&tag=b%20c");
+    }
+
+    @Test
+    void testGetBody_FormAlreadyParsedByContainer_ShouldRebuildFromParameters() throws Exception {
+        // Given - 앞선 필터가 파라미터를 파싱해 스트림이 비어 있음
+        MockHttpServletRequest raw = new MockHttpServletRequest("POST", "/orders") {
+            @Override
+            public long getContentLengthLong() {
+                return 24;
+            }
+        };
+        raw.setContentType("application/x-www-form-urlencoded");
+        raw.addParameter("userId", "42");
+        raw.addParameter("productId", "p 1");
+        CachedBodyHttpServletRequest request = new CachedBodyHttpServletRequest(raw, 1024);
+
+        // When
+        byte[] body = request.getBody();
+
+        // Then
+        assertThat(new String(body, StandardCharsets.UTF_8)).isEqualTo("userId=42&productId=p+1");
+        assertThat(request.getParameter("productId")).isEqualTo("p 1");
+    }
+
+    @Test
+    void testSetReadListener_ShouldNotifyImmediately() throws Exception {
+        // Given
+        MockHttpServletRequest raw = new MockHttpServletRequest("POST", "/orders");
+        raw.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        CachedBodyHttpServletRequest request = new CachedBodyHttpServletRequest(raw, 1024);
+        ServletInputStream in = request.getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        List<String> events = new ArrayList<>();
+
+        // When
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                events.add("data");
+                StreamUtils.copy(in, read);
+            }
+
+            @Override
+            public void onAllDataRead() {
+                events.add("done");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                events.add("error");
+            }
+        });
+
+        // Then
+        assertThat(events).containsExactly("data", "done");
+        assertThat(new String(read.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+    }
+}
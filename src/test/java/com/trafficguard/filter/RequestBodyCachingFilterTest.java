@@ -0,0 +1,100 @@
+package com.trafficguard.filter;
+
+import com.trafficguard.annotation.TrafficGuard;
+import com.trafficguard.annotation.UserRateLimit;
+import com.trafficguard.core.DefaultTrafficKeyResolver;
+import com.trafficguard.core.JoinPointContext;
+import com.trafficguard.policy.GuardPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * RequestBodyCachingFilter -> TrafficGuardHandlerInterceptor -> @RequestParam 핸들러까지 실제 필터 체인을 거치는 폼 요청.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RequestBodyCachingFilterTest {
+
+    @Mock
+    private GuardPolicy policy;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        when(policy.supports(any(Method.class))).thenReturn(true);
+        mockMvc = MockMvcBuilders.standaloneSetup(new FormController())
+                .addFilters(new RequestBodyCachingFilter(1024))
+                .addInterceptors(new TrafficGuardHandlerInterceptor(Collections.singletonList(policy), new DefaultTrafficKeyResolver()))
+                .build();
+    }
+
+    @Test
+    void testFormPost_BodyUserId_ShouldResolveUserAndBindRequestParams() throws Exception {
+        // When - 컨테이너처럼 파라미터를 body 에서만 얻도록 mock 이 미리 채운 파라미터는 지움
+        mockMvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .content("userId=42&productId=p-1")
+                        .with(request -> {
+                            request.removeAllParameters();
+                            return request;
+                        }))
+                .andExpect(status().isOk())
+                .andExpect(content().string("42:p-1"));
+
+        // Then - interceptor 가 body 를 읽은 뒤에도 핸들러는 폼 파라미터를 받음
+        ArgumentCaptor<JoinPointContext> ctx = ArgumentCaptor.forClass(JoinPointContext.class);
+        verify(policy).before(any(Method.class), ctx.capture());
+        assertThat(ctx.getValue().getUserId()).isEqualTo("mem:42");
+    }
+
+    @Test
+    void testIsCacheable_ShouldWrapOnlyJsonAndForm() {
+        assertThat(RequestBodyCachingFilter.isCacheable(withContentType("application/json;charset=UTF-8"))).isTrue();
+        assertThat(RequestBodyCachingFilter.isCacheable(withContentType("application/problem+json"))).isTrue();
+        assertThat(RequestBodyCachingFilter.isCacheable(withContentType("application/x-www-form-urlencoded"))).isTrue();
+        assertThat(RequestBodyCachingFilter.isCacheable(withContentType("multipart/form-data; boundary=x"))).isFalse();
+        assertThat(RequestBodyCachingFilter.isCacheable(withContentType("application/octet-stream"))).isFalse();
+        assertThat(RequestBodyCachingFilter.isCacheable(withContentType(null))).isFalse();
+    }
+
+    private static MockHttpServletRequest withContentType(String contentType) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/orders");
+        request.setContentType(contentType);
+        return request;
+    }
+
+    @RestController
+    static class FormController {
+        @TrafficGuard
+        @UserRateLimit(rate = 5, burst = 5, userBodyField = "userId", userSource = UserRateLimit.UserIdSource.BODY_ONLY)
+        @PostMapping("/orders")
+        public String order(@RequestParam String userId, @RequestParam String productId) {
+            return userId + ":" + productId;
+        }
+    }
+}
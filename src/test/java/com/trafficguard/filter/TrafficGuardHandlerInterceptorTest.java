@@ -0,0 +1,274 @@
+package com.trafficguard.filter;
+
+import com.trafficguard.annotation.TrafficGuard;
+import com.trafficguard.annotation.UserRateLimit;
+import com.trafficguard.core.DefaultTrafficKeyResolver;
+import com.trafficguard.core.GuardDescriptorRegistry;
+import com.trafficguard.core.JoinPointContext;
+import com.trafficguard.exception.RateLimitExceededException;
+import com.trafficguard.metrics.TrafficGuardMetrics;
+import com.trafficguard.policy.GuardPolicy;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.method.HandlerMethod;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TrafficGuardHandlerInterceptorTest {
+
+    @Mock
+    private GuardPolicy policy1;
+
+    @Mock
+    private GuardPolicy policy2;
+
+    private TrafficGuardHandlerInterceptor interceptor;
+
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        when(policy1.order()).thenReturn(10);
+        when(policy2.order()).thenReturn(20);
+        when(policy1.supports(any(Method.class))).thenReturn(true);
+        when(policy2.supports(any(Method.class))).thenReturn(true);
+        interceptor = new TrafficGuardHandlerInterceptor(Arrays.asList(policy1, policy2), new DefaultTrafficKeyResolver());
+        response = new MockHttpServletResponse();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testPreHandle_Allowed_ShouldContinueAndCallAfterOnCompletionInReverseOrder() throws Exception {
+        // Given
+        MockHttpServletRequest request = request("/limited");
+        request.addHeader("openapi-mem-no", "12345");
+
+        // When
+        boolean proceed = interceptor.preHandle(request, response, handler("headerLimited"));
+        interceptor.afterCompletion(request, response, handler("headerLimited"), null);
+
+        // Then
+        assertThat(proceed).isTrue();
+        ArgumentCaptor<JoinPointContext> ctx = ArgumentCaptor.forClass(JoinPointContext.class);
+        verify(policy1).before(any(Method.class), ctx.capture());
+        assertThat(ctx.getValue().getUserId()).isEqualTo("mem:12345");
+        assertThat(ctx.getValue().getResourceKey()).isEqualTo("GuardedController:headerLimited");
+        InOrder inOrder = inOrder(policy1, policy2);
+        inOrder.verify(policy2).after(any(Method.class), any(JoinPointContext.class));
+        inOrder.verify(policy1).after(any(Method.class), any(JoinPointContext.class));
+    }
+
+    @Test
+    void testPreHandle_RateLimitExceeded_ShouldWrite429AndReleaseEnteredPolicies() throws Exception {
+        // Given - 앞 정책은 통과, 뒤 정책이 거절
+        doThrow(new RateLimitExceededException("[USER_RATE_LIMIT] userId: mem:12345"))
+                .when(policy2).before(any(Method.class), any(JoinPointContext.class));
+        MockHttpServletRequest request = request("/limited");
+        request.addHeader("openapi-mem-no", "12345");
+
+        // When
+        boolean proceed = interceptor.preHandle(request, response, handler("headerLimited"));
+        interceptor.afterCompletion(request, response, handler("headerLimited"), null);
+
+        // Then
+        assertThat(proceed).isFalse();
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getContentAsString()).contains("\"error\":\"TOO_MANY_REQUESTS\"");
+        verify(policy1, times(1)).after(any(Method.class), any(JoinPointContext.class));
+        verify(policy2, never()).after(any(Method.class), any(JoinPointContext.class));
+    }
+
+    @Test
+    void testPreHandle_WithMetrics_ShouldCountAllowedAndDeniedPerPolicy() throws Exception {
+        // Given - 앞 정책은 통과, 뒤 정책이 거절
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TrafficGuardHandlerInterceptor metered = new TrafficGuardHandlerInterceptor(
+                new GuardDescriptorRegistry(Arrays.asList(policy1, policy2), new DefaultTrafficKeyResolver()),
+                new TrafficGuardMetrics(registry));
+        doThrow(new RateLimitExceededException("[USER_RATE_LIMIT] userId: mem:12345"))
+                .when(policy2).before(any(Method.class), any(JoinPointContext.class));
+        MockHttpServletRequest request = request("/limited");
+        request.addHeader("openapi-mem-no", "12345");
+
+        // When
+        metered.preHandle(request, response, handler("headerLimited"));
+
+        // Then
+        assertThat(registry.get("trafficguard.decisions").tag("outcome", "allowed").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("trafficguard.decisions").tag("outcome", "denied").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("trafficguard.decision.latency").tag("resource", "GuardedController:headerLimited").timers()
+                .stream().mapToLong(Timer::count).sum()).isEqualTo(2L);
+    }
+
+    @Test
+    void testPreHandle_MissingUserHeader_ShouldReturn401WithoutCallingPolicies() throws Exception {
+        // Given
+        MockHttpServletRequest request = request("/limited");
+
+        // When
+        boolean proceed = interceptor.preHandle(request, response, handler("headerLimited"));
+
+        // Then
+        assertThat(proceed).isFalse();
+        assertThat(response.getStatus()).isEqualTo(401);
+        verify(policy1, never()).before(any(Method.class), any(JoinPointContext.class));
+    }
+
+    @Test
+    void testPreHandle_WithoutTrafficGuard_ShouldPassThrough() throws Exception {
+        // Given
+        MockHttpServletRequest request = request("/open");
+
+        // When
+        boolean proceed = interceptor.preHandle(request, response, handler("unguarded"));
+
+        // Then
+        assertThat(proceed).isTrue();
+        verify(policy1, never()).supports(any(Method.class));
+        verify(policy1, never()).before(any(Method.class), any(JoinPointContext.class));
+    }
+
+    @Test
+    void testPreHandle_BodyUserId_ShouldResolveAndKeepBodyReadable() throws Exception {
+        // Given
+        String body = "{\"userId\":\"42\",\"amount\":1000}";
+        MockHttpServletRequest raw = request("/payments");
+        raw.setContentType("application/json");
+        raw.setContent(body.getBytes(StandardCharsets.UTF_8));
+        HttpServletRequest request = new CachedBodyHttpServletRequest(raw);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+
+        // When
+        boolean proceed = interceptor.preHandle(request, response, handler("bodyLimited"));
+
+        // Then - body 의 userId 로 컨텍스트를 만들고, 핸들러는 같은 body 를 다시 읽을 수 있음
+        assertThat(proceed).isTrue();
+        ArgumentCaptor<JoinPointContext> ctx = ArgumentCaptor.forClass(JoinPointContext.class);
+        verify(policy1).before(any(Method.class), ctx.capture());
+        assertThat(ctx.getValue().getUserId()).isEqualTo("mem:42");
+        assertThat(StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8)).isEqualTo(body);
+    }
+
+    @Test
+    void testPreHandle_BodyOverLimit_ShouldReturn413WithoutCallingPolicies() throws Exception {
+        // Given
+        MockHttpServletRequest raw = request("/payments");
+        raw.setContentType("application/json");
+        raw.setContent("{\"userId\":\"42\",\"amount\":1000}".getBytes(StandardCharsets.UTF_8));
+        HttpServletRequest request = new CachedBodyHttpServletRequest(raw, 8);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+
+        // When
+        boolean proceed = interceptor.preHandle(request, response, handler("bodyLimited"));
+
+        // Then
+        assertThat(proceed).isFalse();
+        assertThat(response.getStatus()).isEqualTo(413);
+        assertThat(response.getContentAsString()).contains("\"error\":\"PAYLOAD_TOO_LARGE\"");
+        verify(policy1, never()).before(any(Method.class), any(JoinPointContext.class));
+    }
+
+    @Test
+    void testAsyncHandler_ShouldChargeOnceAndReleaseAfterAsyncDispatch() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new AsyncController())
+                .addInterceptors(interceptor)
+                .build();
+
+        // When - 첫 dispatch 에서 Callable 반환
+        MvcResult started = mockMvc.perform(get("/async").header("openapi-mem-no", "12345"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        // Then - 비동기 처리가 끝나기 전에는 반납하지 않음
+        verify(policy1, never()).after(any(Method.class), any(JoinPointContext.class));
+
+        // When - ASYNC 재dispatch
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().string("ok"));
+
+        // Then - 정책은 한 번만 차감하고, 재dispatch 가 끝난 뒤 한 번 반납
+        verify(policy1, times(1)).before(any(Method.class), any(JoinPointContext.class));
+        verify(policy2, times(1)).before(any(Method.class), any(JoinPointContext.class));
+        verify(policy1, times(1)).after(any(Method.class), any(JoinPointContext.class));
+        verify(policy2, times(1)).after(any(Method.class), any(JoinPointContext.class));
+    }
+
+    private MockHttpServletRequest request(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        return request;
+    }
+
+    private HandlerMethod handler(String name) throws Exception {
+        return new HandlerMethod(new GuardedController(), GuardedController.class.getMethod(name));
+    }
+
+    static class GuardedController {
+        @TrafficGuard
+        @UserRateLimit(rate = 5, burst = 5)
+        public String headerLimited() {
+            return "ok";
+        }
+
+        @TrafficGuard
+        @UserRateLimit(rate = 1, burst = 1, userBodyField = "userId", userSource = UserRateLimit.UserIdSource.BODY_ONLY)
+        public String bodyLimited() {
+            return "ok";
+        }
+
+        public String unguarded() {
+            return "ok";
+        }
+    }
+
+    @RestController
+    static class AsyncController {
+        @TrafficGuard
+        @UserRateLimit(rate = 5, burst = 5)
+        @GetMapping("/async")
+        public Callable<String> async() {
+            return () -> "ok";
+        }
+    }
+}
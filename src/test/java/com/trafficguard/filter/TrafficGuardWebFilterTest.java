@@ -0,0 +1,289 @@
+package com.trafficguard.filter;
+
+import com.trafficguard.annotation.TrafficGuard;
+import com.trafficguard.annotation.UserRateLimit;
+import com.trafficguard.config.TrafficGuardProperties;
+import com.trafficguard.core.DefaultTrafficKeyResolver;
+import com.trafficguard.core.GuardDescriptorRegistry;
+import com.trafficguard.core.JoinPointContext;
+import com.trafficguard.core.LocalTokenBucket;
+import com.trafficguard.core.RateLimitHeaderSupport;
+import com.trafficguard.core.RedisGuard;
+import com.trafficguard.core.TokenLeaseGuard;
+import com.trafficguard.metrics.TrafficGuardMetrics;
+import com.trafficguard.policy.GuardPolicy;
+import com.trafficguard.policy.UserRateLimitPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TrafficGuardWebFilterTest {
+
+    @Mock
+    private RedisGuard redisGuard;
+
+    @Mock
+    private LocalTokenBucket localTokenBucket;
+
+    @Mock
+    private TokenLeaseGuard tokenLeaseGuard;
+
+    @Mock
+    private RateLimitHeaderSupport rateLimitHeaderSupport;
+
+    @Mock
+    private HandlerMapping handlerMapping;
+
+    @Mock
+    private GuardPolicy blockingPolicy;
+
+    private final DefaultTrafficKeyResolver keyResolver = new DefaultTrafficKeyResolver();
+
+    private UserRateLimitPolicy userRateLimitPolicy;
+
+    private final AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+
+    private final WebFilterChain chain = exchange -> {
+        forwarded.set(exchange);
+        return Mono.empty();
+    };
+
+    @BeforeEach
+    void setUp() {
+        userRateLimitPolicy = new UserRateLimitPolicy(redisGuard, localTokenBucket, tokenLeaseGuard,
+                rateLimitHeaderSupport, new TrafficGuardProperties());
+    }
+
+    @Test
+    void testFilter_AllowedRequest_ShouldWriteHeadersAndContinue() throws Exception {
+        // Given
+        TrafficGuardWebFilter filter = filter(handler("headerLimited"), userRateLimitPolicy);
+        when(redisGuard.tokenBucketAllowAsync(eq("user:ReactiveController:headerLimited:mem:12345"), anyDouble(), anyInt(), anyLong()))
+                .thenReturn(CompletableFuture.completedFuture(new RedisGuard.RateDecision(true, 4.0, 0)));
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/limited").header("openapi-mem-no", "12345"));
+
+        // When
+        filter.filter(exchange, chain).block();
+
+        // Then
+        assertThat(forwarded.get()).isNotNull();
+        assertThat(exchange.getResponse().getHeaders().getFirst("RateLimit-Limit")).isEqualTo("5");
+        assertThat(exchange.getResponse().getHeaders().getFirst("RateLimit-Remaining")).isEqualTo("4");
+        verifyNoInteractions(rateLimitHeaderSupport);
+    }
+
+    @Test
+    void testFilter_RateLimitExceeded_ShouldReturn429WithoutCallingHandler() throws Exception {
+        // Given
+        TrafficGuardWebFilter filter = filter(handler("headerLimited"), userRateLimitPolicy);
+        when(redisGuard.tokenBucketAllowAsync(anyString(), anyDouble(), anyInt(), anyLong()))
+                .thenReturn(CompletableFuture.completedFuture(new RedisGuard.RateDecision(false, 0.0, 2000)));
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/limited").header("openapi-mem-no", "12345"));
+
+        // When
+        filter.filter(exchange, chain).block();
+
+        // Then
+        assertThat(forwarded.get()).isNull();
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(exchange.getResponse().getHeaders().getFirst("Retry-After")).isEqualTo("2");
+        assertThat(exchange.getResponse().getBodyAsString().block()).contains("\"error\":\"TOO_MANY_REQUESTS\"");
+    }
+
+    @Test
+    void testFilter_MissingUserHeader_ShouldReturn401() throws Exception {
+        // Given
+        TrafficGuardWebFilter filter = filter(handler("headerLimited"), userRateLimitPolicy);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/limited"));
+
+        // When
+        filter.filter(exchange, chain).block();
+
+        // Then
+        assertThat(forwarded.get()).isNull();
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        verifyNoInteractions(redisGuard);
+    }
+
+    @Test
+    void testFilter_WithoutTrafficGuard_ShouldPassThrough() throws Exception {
+        // Given
+        TrafficGuardWebFilter filter = filter(handler("unguarded"), userRateLimitPolicy);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/open"));
+
+        // When
+        filter.filter(exchange, chain).block();
+
+        // Then
+        assertThat(forwarded.get()).isSameAs(exchange);
+        verifyNoInteractions(redisGuard);
+    }
+
+    @Test
+    void testFilter_BodyUserId_ShouldResolveAndKeepBodyReadable() throws Exception {
+        // Given
+        TrafficGuardWebFilter filter = filter(handler("bodyLimited"), userRateLimitPolicy);
+        when(redisGuard.tokenBucketAllowAsync(anyString(), anyDouble(), anyInt(), anyLong()))
+                .thenReturn(CompletableFuture.completedFuture(new RedisGuard.RateDecision(true, 0.0, 0)));
+        String body = "{\"userId\":\"42\",\"amount\":1000}";
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.post("/payments").body(body));
+
+        // When
+        filter.filter(exchange, chain).block();
+
+        // Then - body 의 userId 로 버킷 키를 만들고, 핸들러는 같은 body 를 다시 읽을 수 있음
+        verify(redisGuard).tokenBucketAllowAsync(eq("user:ReactiveController:bodyLimited:mem:42"), anyDouble(), anyInt(), anyLong());
+        String forwardedBody = DataBufferUtils.join(forwarded.get().getRequest().getBody())
+                .map(buffer -> buffer.toString(StandardCharsets.UTF_8))
+                .block();
+        assertThat(forwardedBody).isEqualTo(body);
+    }
+
+    @Test
+    void testFilter_ContentLengthOverLimit_ShouldReturn413WithoutReadingBody() throws Exception {
+        // Given
+        TrafficGuardWebFilter filter = filter(handler("bodyLimited"), 8, userRateLimitPolicy);
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.post("/payments").contentLength(1 << 20).body(Flux.<DataBuffer>never()));
+
+        // When
+        filter.filter(exchange, chain).block();
+
+        // Then
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+        verifyNoInteractions(redisGuard);
+    }
+
+    @Test
+    void testFilter_ChunkedBodyOverLimit_ShouldStopReadingAndReturn413() throws Exception {
+        // Given - Content-Length 없이 끝나지 않는 body
+        TrafficGuardWebFilter filter = filter(handler("bodyLimited"), 8, userRateLimitPolicy);
+        Flux<DataBuffer> endless = Flux.<DataBuffer>generate(sink ->
+                sink.next(DefaultDataBufferFactory.sharedInstance.wrap("{\"userId\":".getBytes(StandardCharsets.UTF_8))));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/payments").body(endless));
+
+        // When
+        filter.filter(exchange, chain).block();
+
+        // Then
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+        assertThat(exchange.getResponse().getBodyAsString().block()).contains("\"error\":\"PAYLOAD_TOO_LARGE\"");
+        verifyNoInteractions(redisGuard);
+    }
+
+    @Test
+    void testFilter_BlockingPolicy_ShouldRunOffEventLoopAndCallAfterInReverseOrder() throws Exception {
+        // Given - beforeAsync 가 없는 정책(null)과 비동기 정책을 함께 적용
+        when(blockingPolicy.supports(any(Method.class))).thenReturn(true);
+        when(blockingPolicy.order()).thenReturn(1);
+        AtomicReference<String> beforeThread = new AtomicReference<>();
+        doAnswer(inv -> {
+            beforeThread.set(Thread.currentThread().getName());
+            return null;
+        }).when(blockingPolicy).before(any(Method.class), any(JoinPointContext.class));
+        UserRateLimitPolicy asyncPolicy = spy(userRateLimitPolicy);
+        when(redisGuard.tokenBucketAllowAsync(anyString(), anyDouble(), anyInt(), anyLong()))
+                .thenReturn(CompletableFuture.completedFuture(new RedisGuard.RateDecision(true, 1.0, 0)));
+        TrafficGuardWebFilter filter = filter(handler("headerLimited"), blockingPolicy, asyncPolicy);
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/limited").header("openapi-mem-no", "12345"));
+
+        // When
+        filter.filter(exchange, chain).block();
+
+        // Then
+        assertThat(beforeThread.get()).startsWith("boundedElastic");
+        assertThat(forwarded.get()).isNotNull();
+        InOrder inOrder = inOrder(asyncPolicy, blockingPolicy);
+        inOrder.verify(asyncPolicy).after(any(Method.class), any(JoinPointContext.class));
+        inOrder.verify(blockingPolicy).after(any(Method.class), any(JoinPointContext.class));
+    }
+
+    @Test
+    void testFilter_LaterPolicyRejects_ShouldCallAfterOnlyForEnteredPolicies() throws Exception {
+        // Given - 앞 정책은 통과, 뒤 정책(UserRateLimit)이 거절
+        when(blockingPolicy.supports(any(Method.class))).thenReturn(true);
+        when(blockingPolicy.order()).thenReturn(1);
+        when(redisGuard.tokenBucketAllowAsync(anyString(), anyDouble(), anyInt(), anyLong()))
+                .thenReturn(CompletableFuture.completedFuture(new RedisGuard.RateDecision(false, 0.0, 500)));
+        UserRateLimitPolicy asyncPolicy = spy(userRateLimitPolicy);
+        TrafficGuardWebFilter filter = filter(handler("headerLimited"), blockingPolicy, asyncPolicy);
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/limited").header("openapi-mem-no", "12345"));
+
+        // When
+        filter.filter(exchange, chain).block();
+
+        // Then
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        verify(blockingPolicy).after(any(Method.class), any(JoinPointContext.class));
+        verify(asyncPolicy, never()).after(any(Method.class), any(JoinPointContext.class));
+    }
+
+    private TrafficGuardWebFilter filter(HandlerMethod handler, GuardPolicy... policies) {
+        when(handlerMapping.getHandler(any())).thenReturn(Mono.just(handler));
+        return new TrafficGuardWebFilter(Arrays.asList(policies), keyResolver, keyResolver, handlerMapping);
+    }
+
+    private TrafficGuardWebFilter filter(HandlerMethod handler, int maxBytes, GuardPolicy... policies) {
+        when(handlerMapping.getHandler(any())).thenReturn(Mono.just(handler));
+        return new TrafficGuardWebFilter(new GuardDescriptorRegistry(Arrays.asList(policies), keyResolver), keyResolver, handlerMapping,
+                TrafficGuardMetrics.NOOP, maxBytes);
+    }
+
+    private HandlerMethod handler(String name) throws Exception {
+        return new HandlerMethod(new ReactiveController(), ReactiveController.class.getMethod(name));
+    }
+
+    static class ReactiveController {
+        @TrafficGuard
+        @UserRateLimit(rate = 5, burst = 5)
+        public Mono<String> headerLimited() {
+            return Mono.just("ok");
+        }
+
+        @TrafficGuard
+        @UserRateLimit(rate = 1, burst = 1, userBodyField = "userId", userSource = UserRateLimit.UserIdSource.BODY_ONLY)
+        public Mono<String> bodyLimited() {
+            return Mono.just("ok");
+        }
+
+        public Mono<String> unguarded() {
+            return Mono.just("ok");
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.trafficguard.loadtest;
+
+import com.trafficguard.core.GuardDescriptor;
+import com.trafficguard.demo.RateLimitDemoController;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 데모 엔드포인트에 고정 도착률 부하를 걸어 limiter 정확도와 오버헤드를 확인합니다 (로컬 Redis 필요).
+ *
+ * 실행: ./gradlew loadTest [-Dloadtest.rate=200 -Dloadtest.durationSec=20 -Dloadtest.users=20 -Dloadtest.tolerance=0.1]
+ *
+ * 사용자당 도착률(rate / users)을 제한보다 높게 두고, 사용자별 기대 허용 수
+ * min(보낸 수, burst + ratePerSecond * 사용자의 요청 구간) 과 실제 2xx 수를 비교합니다.
+ * 복합 제한(@UserRateLimit 여러 개)은 제한마다 계산한 값 중 가장 작은 값을 씁니다.
+ * 실행마다 사용자 ID 에 run id 를 붙여 이전 실행의 버킷과 섞이지 않습니다.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@Tag("loadtest")
+class DemoEndpointLoadTest {
+
+    private static final double RATE = Double.parseDouble(System.getProperty("loadtest.rate", "200"));
+    private static final long DURATION_MILLIS = Long.parseLong(System.getProperty("loadtest.durationSec", "20")) * 1000;
+    private static final int USERS = Integer.parseInt(System.getProperty("loadtest.users", "20"));
+    private static final int CONCURRENCY = Integer.parseInt(System.getProperty("loadtest.concurrency", "256"));
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("loadtest.tolerance", "0.1"));
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void demoEndpointsUnderConstantArrivalRate() throws Exception {
+        String run = "lt" + System.currentTimeMillis();
+        List<Scenario> scenarios = Arrays.asList(
+                new Scenario("items", "GET", "/rate-limit-demo/items",
+                        user -> header("openapi-mem-no", run + "-" + user), user -> null),
+                new Scenario("createOrder", "POST", "/rate-limit-demo/orders",
+                        user -> header("X-User-Id", run + "-" + user),
+                        user -> "{\"userId\":\"" + run + "-" + user + "\",\"productId\":\"P1\"}"),
+                new Scenario("processPayment", "POST", "/rate-limit-demo/payments",
+                        user -> new HashMap<>(),
+                        user -> "{\"userId\":\"" + run + "-" + user + "\",\"amount\":\"1000\"}"),
+                new Scenario("search", "GET", "/rate-limit-demo/search",
+                        user -> header("openapi-mem-no", run + "-" + user), user -> null)
+        );
+
+        OpenModelLoadGenerator generator = new OpenModelLoadGenerator(
+                "http://localhost:" + port, RATE, DURATION_MILLIS, USERS, CONCURRENCY);
+        List<Report> reports = new ArrayList<>();
+        for (Scenario scenario : scenarios) {
+            reports.add(scenario.run(generator));
+        }
+
+        System.out.printf("open model: %.0f req/s, %d users, %ds%n", RATE, USERS, DURATION_MILLIS / 1000);
+        System.out.printf("%-16s %9s %10s %8s %8s %8s %9s %9s %9s %9s%n",
+                "scenario", "sent", "thrpt/s", "reject%", "errors", "p50 ms", "p99 ms", "p999 ms", "admit/s", "deviation");
+        for (Report r : reports) {
+            OpenModelLoadGenerator.Result res = r.result;
+            System.out.printf("%-16s %9d %10.1f %7.1f%% %8d %8.1f %9.1f %9.1f %9.2f %+8.1f%%%n",
+                    r.name, res.total, res.throughput(), res.rejectionRate() * 100, res.errors,
+                    res.percentileMicros(0.50) / 1000.0, res.percentileMicros(0.99) / 1000.0, res.percentileMicros(0.999) / 1000.0,
+                    res.admitted() / (res.arrivalNanos / 1e9), r.deviation() * 100);
+            System.out.printf("%-16s expected admitted %.1f, actual %d, generator max lag %.1f ms%n",
+                    "", r.expected, res.admitted(), res.maxLagNanos / 1e6);
+        }
+
+        for (Report r : reports) {
+            assertThat(r.result.errors).as("%s errors", r.name).isZero();
+            assertThat(Math.abs(r.deviation())).as("%s admitted-rate deviation", r.name).isLessThanOrEqualTo(TOLERANCE);
+        }
+    }
+
+    private static Map<String, String> header(String name, String value) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put(name, value);
+        return headers;
+    }
+
+    /** 데모 컨트롤러 메서드 하나. 제한 값은 어노테이션에서 읽습니다. */
+    private static final class Scenario {
+        final String name;
+        final String method;
+        final String path;
+        final IntFunction<Map<String, String>> headers;
+        final IntFunction<String> body;
+        final List<GuardDescriptor.UserLimit> limits;
+
+        Scenario(String name, String method, String path, IntFunction<Map<String, String>> headers, IntFunction<String> body) {
+            this.name = name;
+            this.method = method;
+            this.path = path;
+            this.headers = headers;
+            this.body = body;
+            this.limits = GuardDescriptor.of(handler(name), "RateLimitDemoController:" + name).userLimits();
+        }
+
+        private static Method handler(String name) {
+            return Arrays.stream(RateLimitDemoController.class.getMethods())
+                    .filter(m -> m.getName().equals(name))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("no handler " + name));
+        }
+
+        Report run(OpenModelLoadGenerator generator) throws InterruptedException {
+            OpenModelLoadGenerator.Result result = generator.run(user -> {
+                Map<String, String> h = headers.apply(user);
+                String b = body.apply(user);
+                if (b == null) {
+                    return new OpenModelLoadGenerator.Request(method, path, h, null);
+                }
+                h.put("Content-Type", "application/json");
+                return new OpenModelLoadGenerator.Request(method, path, h, b.getBytes(StandardCharsets.UTF_8));
+            });
+            return new Report(name, result, expectedAdmitted(result));
+        }
+
+        /** 사용자별 min(보낸 수, 제한마다 burst + ratePerSecond * 요청 구간) 의 합 */
+        private double expectedAdmitted(OpenModelLoadGenerator.Result result) {
+            double userIntervalSeconds = USERS / RATE;
+            double expected = 0;
+            for (int sent : result.sentPerUser) {
+                double window = Math.max(0, sent - 1) * userIntervalSeconds;
+                double allowed = sent;
+                for (GuardDescriptor.UserLimit limit : limits) {
+                    allowed = Math.min(allowed, limit.annotation().burst() + limit.ratePerSecond() * window);
+                }
+                expected += allowed;
+            }
+            return expected;
+        }
+    }
+
+    private static final class Report {
+        final String name;
+        final OpenModelLoadGenerator.Result result;
+        final double expected;
+
+        Report(String name, OpenModelLoadGenerator.Result result, double expected) {
+            this.name = name;
+            this.result = result;
+            this.expected = expected;
+        }
+
+        /** (실제 허용 - 기대 허용) / 기대 허용 */
+        double deviation() {
+            return expected == 0 ? 0 : (result.admitted() - expected) / expected;
+        }
+    }
+}
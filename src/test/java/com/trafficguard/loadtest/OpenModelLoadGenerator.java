@@ -0,0 +1,200 @@
+package com.trafficguard.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+
+/**
+ * 고정 도착률(open model) HTTP 부하 생성기.
+ *
+ * - 요청 i 는 응답과 관계없이 start + i / arrivalsPerSecond 에 출발합니다 (closed model 처럼 느린 응답이 부하를 줄이지 않음).
+ * - 지연은 예정 출발 시각부터 응답 완료까지로 재므로, 워커가 밀려 늦게 보낸 시간도 포함됩니다 (coordinated omission 보정).
+ * - 가상 사용자는 round-robin 으로 돌아가며 요청하므로 사용자당 도착률은 arrivalsPerSecond / users 입니다.
+ */
+public class OpenModelLoadGenerator {
+
+    /** 요청 하나 */
+    public static final class Request {
+        final String method;
+        final String path;
+        final Map<String, String> headers;
+        final byte[] body;
+
+        public Request(String method, String path, Map<String, String> headers, byte[] body) {
+            this.method = method;
+            this.path = path;
+            this.headers = headers != null ? headers : Collections.emptyMap();
+            this.body = body;
+        }
+    }
+
+    private final String baseUrl;
+    private final double arrivalsPerSecond;
+    private final long durationMillis;
+    private final int users;
+    private final int maxConcurrency;
+
+    public OpenModelLoadGenerator(String baseUrl, double arrivalsPerSecond, long durationMillis, int users, int maxConcurrency) {
+        this.baseUrl = baseUrl;
+        this.arrivalsPerSecond = arrivalsPerSecond;
+        this.durationMillis = durationMillis;
+        this.users = users;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * @param requests 가상 사용자 번호 -> 요청
+     */
+    public Result run(IntFunction<Request> requests) throws InterruptedException {
+        int total = (int) (arrivalsPerSecond * durationMillis / 1000);
+        long intervalNanos = (long) (1_000_000_000L / arrivalsPerSecond);
+        long[] latencies = new long[total];
+        AtomicIntegerArray admitted = new AtomicIntegerArray(users);
+        AtomicIntegerArray sent = new AtomicIntegerArray(users);
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        AtomicLong maxLagNanos = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(total);
+        ExecutorService workers = Executors.newFixedThreadPool(maxConcurrency);
+
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < total; i++) {
+                long intended = start + i * intervalNanos;
+                long wait;
+                while ((wait = intended - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                maxLagNanos.accumulateAndGet(-wait, Math::max);
+
+                int seq = i;
+                int user = i % users;
+                Request request = requests.apply(user);
+                sent.incrementAndGet(user);
+                workers.execute(() -> {
+                    try {
+                        int status = send(request);
+                        if (status >= 200 && status < 300) {
+                            admitted.incrementAndGet(user);
+                        } else if (status == 429) {
+                            rejected.incrementAndGet();
+                        } else {
+                            errors.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    } finally {
+                        latencies[seq] = System.nanoTime() - intended;
+                        done.countDown();
+                    }
+                });
+            }
+            long arrivalNanos = System.nanoTime() - start;
+            done.await(durationMillis + 60_000, TimeUnit.MILLISECONDS);
+            long elapsedNanos = System.nanoTime() - start;
+            return new Result(total, arrivalNanos, elapsedNanos, latencies, toArray(sent), toArray(admitted),
+                    rejected.get(), errors.get(), maxLagNanos.get());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private int send(Request request) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(baseUrl + request.path).openConnection();
+        conn.setRequestMethod(request.method);
+        conn.setConnectTimeout(5_000);
+        conn.setReadTimeout(30_000);
+        request.headers.forEach(conn::setRequestProperty);
+        if (request.body != null) {
+            conn.setDoOutput(true);
+            conn.setFixedLengthStreamingMode(request.body.length);
+            try (OutputStream out = conn.getOutputStream()) {
+                out.write(request.body);
+            }
+        }
+        int status = conn.getResponseCode();
+        // keep-alive 재사용을 위해 본문을 끝까지 읽음
+        try (InputStream in = status < 400 ? conn.getInputStream() : conn.getErrorStream()) {
+            if (in != null) {
+                byte[] buf = new byte[1024];
+                while (in.read(buf) >= 0) {
+                    // drain
+                }
+            }
+        }
+        return status;
+    }
+
+    private static int[] toArray(AtomicIntegerArray a) {
+        int[] r = new int[a.length()];
+        for (int i = 0; i < r.length; i++) {
+            r[i] = a.get(i);
+        }
+        return r;
+    }
+
+    /** 실행 결과 */
+    public static final class Result {
+        public final int total;
+        /** 첫 요청부터 마지막 요청 출발까지 */
+        public final long arrivalNanos;
+        /** 첫 요청부터 마지막 응답까지 */
+        public final long elapsedNanos;
+        public final int[] sentPerUser;
+        public final int[] admittedPerUser;
+        public final long rejected;
+        public final long errors;
+        /** 예정 출발 시각보다 늦게 보낸 최대 시간 (부하 생성기 자체가 병목인지 확인용) */
+        public final long maxLagNanos;
+        private final long[] sortedLatencies;
+
+        Result(int total, long arrivalNanos, long elapsedNanos, long[] latencies, int[] sentPerUser, int[] admittedPerUser,
+               long rejected, long errors, long maxLagNanos) {
+            this.total = total;
+            this.arrivalNanos = arrivalNanos;
+            this.elapsedNanos = elapsedNanos;
+            this.sentPerUser = sentPerUser;
+            this.admittedPerUser = admittedPerUser;
+            this.rejected = rejected;
+            this.errors = errors;
+            this.maxLagNanos = maxLagNanos;
+            this.sortedLatencies = latencies.clone();
+            Arrays.sort(sortedLatencies);
+        }
+
+        public long admitted() {
+            return Arrays.stream(admittedPerUser).asLongStream().sum();
+        }
+
+        /** 완료된 요청 수 / 경과 시간 */
+        public double throughput() {
+            return (admitted() + rejected + errors) / (elapsedNanos / 1e9);
+        }
+
+        public double rejectionRate() {
+            return total == 0 ? 0 : (double) rejected / total;
+        }
+
+        /** 지연 분위수 (us) */
+        public long percentileMicros(double p) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int idx = (int) Math.ceil(p * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(idx, sortedLatencies.length - 1))] / 1_000;
+        }
+    }
+}
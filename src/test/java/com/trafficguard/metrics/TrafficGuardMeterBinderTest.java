@@ -0,0 +1,107 @@
+package com.trafficguard.metrics;
+
+import com.trafficguard.config.TrafficGuardProperties;
+import com.trafficguard.core.DecisionBatcher;
+import com.trafficguard.core.LocalTokenBucket;
+import com.trafficguard.core.RedisGuard;
+import com.trafficguard.core.RedisScriptRegistry;
+import com.trafficguard.core.SemaphoreLeaseGuard;
+import com.trafficguard.core.TokenLeaseGuard;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TrafficGuardMeterBinderTest {
+
+    @Mock
+    private RedisGuard redisGuard;
+
+    @Mock
+    private LocalTokenBucket localTokenBucket;
+
+    @Mock
+    private TokenLeaseGuard tokenLeaseGuard;
+
+    @Mock
+    private SemaphoreLeaseGuard semaphoreLeaseGuard;
+
+    @Mock
+    private RedisScriptRegistry scripts;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private DecisionBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        // window 0 이므로 순서대로 보낸 판정은 크기 1 배치로 나감
+        batcher = new DecisionBatcher(TrafficGuardMeterBinderTest::allow, 0, 64, 1);
+        when(redisGuard.batcher()).thenReturn(batcher);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.shutdown();
+    }
+
+    private static List<RedisGuard.RateDecision> allow(List<RedisGuard.BucketSpec> buckets) {
+        List<RedisGuard.RateDecision> results = new ArrayList<>();
+        for (int i = 0; i < buckets.size(); i++) {
+            results.add(new RedisGuard.RateDecision(true, 1, 0));
+        }
+        return results;
+    }
+
+    private void submit(int decisions) throws Exception {
+        for (int i = 0; i < decisions; i++) {
+            batcher.submit(new RedisGuard.BucketSpec("user:R:u" + i, 10, 10, 60000)).get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void testBindTo_Batcher_ShouldExportBatchSizeDistribution() throws Exception {
+        // Given
+        new TrafficGuardMeterBinder(redisGuard, localTokenBucket, tokenLeaseGuard, semaphoreLeaseGuard, scripts).bindTo(registry);
+
+        // When
+        submit(3);
+
+        // Then - 조회 시점에 batcher 값을 읽음
+        assertThat(registry.get("trafficguard.batch.size").tag("size", "1").functionCounter().count()).isEqualTo(3.0);
+        assertThat(registry.get("trafficguard.batch.size").tag("size", "2048+").functionCounter().count()).isZero();
+        assertThat(registry.get("trafficguard.batch.size").functionCounters()).hasSize(DecisionBatcher.HISTOGRAM_BUCKETS);
+        assertThat(registry.get("trafficguard.batch.decisions").functionCounter().count()).isEqualTo(3.0);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testEndpoint_Batcher_ShouldShowBatchStats() throws Exception {
+        // Given
+        TrafficGuardEndpoint endpoint = new TrafficGuardEndpoint(new TrafficGuardMetrics(registry), scripts,
+                new TrafficGuardProperties(), redisGuard);
+        submit(2);
+
+        // When
+        Map<String, Object> batch = (Map<String, Object>) endpoint.trafficGuard().get("batch");
+
+        // Then
+        assertThat(batch).containsEntry("batches", 2L).containsEntry("decisions", 2L).containsEntry("meanSize", 1.0);
+        assertThat((Map<String, Long>) batch.get("sizeHistogram")).containsEntry("1", 2L).containsEntry("2-3", 0L);
+    }
+}
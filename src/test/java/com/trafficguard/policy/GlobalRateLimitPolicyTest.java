@@ -0,0 +1,79 @@
+package com.trafficguard.policy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import com.trafficguard.annotation.GlobalRateLimit;
+import com.trafficguard.annotation.UserRateLimit;
+import com.trafficguard.core.JoinPointContext;
+import com.trafficguard.core.RedisGuard;
+import com.trafficguard.core.ShardedBucketGuard;
+import com.trafficguard.exception.RateLimitExceededException;
+
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GlobalRateLimitPolicyTest {
+
+    @Mock
+    private ShardedBucketGuard shardedBucketGuard;
+
+    private GlobalRateLimitPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        policy = new GlobalRateLimitPolicy(shardedBucketGuard);
+    }
+
+    @Test
+    void testSupports_WithGlobalRateLimitAnnotation_ShouldReturnTrue() throws Exception {
+        // When & Then
+        assertThat(policy.supports(TestController.class.getMethod("exportMethod"))).isTrue();
+        assertThat(policy.supports(TestController.class.getMethod("normalMethod"))).isFalse();
+    }
+
+    @Test
+    void testBefore_ShouldUseShardedResourceBucket() throws Exception {
+        // Given
+        Method method = TestController.class.getMethod("exportMethod");
+        JoinPointContext context = new JoinPointContext("TestController:exportMethod", "mem:12345", "default");
+        when(shardedBucketGuard.tryAcquire(anyString(), anyDouble(), anyInt(), anyLong(), anyInt(), any(), anyInt()))
+                .thenReturn(new RedisGuard.RateDecision(true, 10, 0));
+
+        // When
+        policy.before(method, context);
+
+        // Then - burst 미지정이면 rate 와 같음
+        verify(shardedBucketGuard).tryAcquire("grl:TestController:exportMethod", 500.0, 500, 60000L,
+                8, GlobalRateLimit.ShardStrategy.ROUND_ROBIN, 2);
+    }
+
+    @Test
+    void testBefore_Rejected_ShouldThrow() throws Exception {
+        // Given
+        Method method = TestController.class.getMethod("exportMethod");
+        JoinPointContext context = new JoinPointContext("TestController:exportMethod", "mem:12345", "default");
+        when(shardedBucketGuard.tryAcquire(anyString(), anyDouble(), anyInt(), anyLong(), anyInt(), any(), anyInt()))
+                .thenReturn(new RedisGuard.RateDecision(false, 0, 20));
+
+        // When & Then
+        assertThatThrownBy(() -> policy.before(method, context))
+                .isInstanceOf(RateLimitExceededException.class)
+                .hasMessageContaining("GLOBAL_RATE_LIMIT");
+    }
+
+    // Test controller for reflection
+    static class TestController {
+        @GlobalRateLimit(rate = 500, timeUnit = UserRateLimit.TimeUnit.SECOND, shards = 8)
+        public void exportMethod() {}
+
+        public void normalMethod() {}
+    }
+}
@@ -7,11 +7,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import com.trafficguard.exception.RateLimitExceededException;
 import com.trafficguard.annotation.UserRateLimit;
+import com.trafficguard.config.TrafficGuardProperties;
 import com.trafficguard.core.JoinPointContext;
+import com.trafficguard.core.LocalTokenBucket;
 import com.trafficguard.core.RateLimitHeaderSupport;
 import com.trafficguard.core.RedisGuard;
+import com.trafficguard.core.TokenLeaseGuard;
 
 import java.lang.reflect.Method;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -24,14 +28,23 @@ class UserRateLimitPolicyTest {
     @Mock
     private RedisGuard redisGuard;
 
+    @Mock
+    private LocalTokenBucket localTokenBucket;
+
+    @Mock
+    private TokenLeaseGuard tokenLeaseGuard;
+
     @Mock
     private RateLimitHeaderSupport rateLimitHeaderSupport;
 
+    private TrafficGuardProperties properties;
+
     private UserRateLimitPolicy policy;
 
     @BeforeEach
     void setUp() {
-        policy = new UserRateLimitPolicy(redisGuard, rateLimitHeaderSupport);
+        properties = new TrafficGuardProperties();
+        policy = new UserRateLimitPolicy(redisGuard, localTokenBucket, tokenLeaseGuard, rateLimitHeaderSupport, properties);
     }
 
     @Test
@@ -250,6 +263,265 @@ class UserRateLimitPolicyTest {
         verify(redisGuard).tokenBucketAllow(anyString(), eq(1.0), eq(5), eq(172800000L));
     }
 
+    @Test
+    void testBefore_LocalBackend_ShouldNotCallRedis() throws Exception {
+        // Given
+        Method method = TestController.class.getMethod("localBackendMethod");
+        JoinPointContext context = new JoinPointContext("TestController:localBackendMethod", "mem:12345", "default");
+
+        RedisGuard.RateDecision decision = new RedisGuard.RateDecision(false, 0.0, 100);
+        when(localTokenBucket.tryAcquire(anyString(), anyDouble(), anyInt(), anyLong()))
+                .thenReturn(decision);
+
+        // When & Then
+        assertThatThrownBy(() -> policy.before(method, context))
+                .isInstanceOf(RateLimitExceededException.class);
+
+        verify(localTokenBucket).tryAcquire("user:TestController:localBackendMethod:mem:12345", 10.0, 5, 60000);
+        verify(rateLimitHeaderSupport).writeHeaders(10, 0.0, 100);
+        verifyNoInteractions(redisGuard);
+    }
+
+    @Test
+    void testBefore_HybridBackend_ShouldUseTokenLease() throws Exception {
+        // Given
+        Method method = TestController.class.getMethod("hybridBackendMethod");
+        JoinPointContext context = new JoinPointContext("TestController:hybridBackendMethod", "mem:12345", "default");
+
+        RedisGuard.RateDecision decision = new RedisGuard.RateDecision(true, 3.0, 0);
+        when(tokenLeaseGuard.tryAcquire(anyString(), anyDouble(), anyInt(), anyLong()))
+                .thenReturn(decision);
+
+        // When
+        policy.before(method, context);
+
+        // Then
+        verify(tokenLeaseGuard).tryAcquire("user:TestController:hybridBackendMethod:mem:12345", 10.0, 5, 60000);
+        verify(rateLimitHeaderSupport).writeHeaders(10, 3.0, 0);
+        verifyNoInteractions(redisGuard);
+    }
+
+    @Test
+    void testBefore_GcraAlgorithm_ShouldUseGcra() throws Exception {
+        // Given
+        Method method = TestController.class.getMethod("gcraMethod");
+        JoinPointContext context = new JoinPointContext("TestController:gcraMethod", "mem:12345", "default");
+
+        RedisGuard.RateDecision decision = new RedisGuard.RateDecision(true, 4.0, 0);
+        when(redisGuard.gcraAllow(anyString(), anyDouble(), anyInt(), anyLong()))
+                .thenReturn(decision);
+
+        // When
+        policy.before(method, context);
+
+        // Then
+        verify(redisGuard).gcraAllow("user:TestController:gcraMethod:mem:12345", 10.0, 5, 60000);
+        verify(redisGuard, never()).tokenBucketAllow(anyString(), anyDouble(), anyInt(), anyLong());
+        verify(rateLimitHeaderSupport).writeHeaders(10, 4.0, 0);
+    }
+
+    @Test
+    void testBefore_SlidingWindowAlgorithm_ShouldUseWindowCounter() throws Exception {
+        // Given
+        Method method = TestController.class.getMethod("slidingWindowMethod");
+        JoinPointContext context = new JoinPointContext("TestController:slidingWindowMethod", "mem:12345", "default");
+
+        RedisGuard.RateDecision decision = new RedisGuard.RateDecision(true, 99.0, 0);
+        when(redisGuard.slidingWindowAllow(anyString(), anyInt(), anyLong()))
+                .thenReturn(decision);
+
+        // When
+        policy.before(method, context);
+
+        // Then - 분당 100건: 윈도 60초
+        verify(redisGuard).slidingWindowAllow("user:TestController:slidingWindowMethod:mem:12345", 100, 60000L);
+        verify(redisGuard, never()).tokenBucketAllow(anyString(), anyDouble(), anyInt(), anyLong());
+        verify(rateLimitHeaderSupport).writeHeaders(100, 99.0, 0);
+    }
+
+    @Test
+    void testBefore_CalendarWindowAlgorithm_ShouldUseCalendarQuota() throws Exception {
+        // Given
+        Method method = TestController.class.getMethod("calendarWindowMethod");
+        JoinPointContext context = new JoinPointContext("TestController:calendarWindowMethod", "mem:12345", "default");
+
+        RedisGuard.RateDecision decision = new RedisGuard.RateDecision(false, 0, 3_600_000L);
+        when(redisGuard.calendarWindowAllow(anyString(), anyInt(), any(), anyString()))
+                .thenReturn(decision);
+
+        // When & Then
+        assertThatThrownBy(() -> policy.before(method, context))
+                .isInstanceOf(RateLimitExceededException.class);
+        verify(redisGuard).calendarWindowAllow("user:TestController:calendarWindowMethod:mem:12345",
+                1000, UserRateLimit.TimeUnit.DAY, "Asia/Seoul");
+        verify(rateLimitHeaderSupport).writeHeaders(1000, 0.0, 3_600_000L);
+    }
+
+    @Test
+    void testSupports_WithRepeatedAnnotations_ShouldReturnTrue() throws Exception {
+        // Given
+        Method method = TestController.class.getMethod("multiLimitMethod");
+
+        // When & Then
+        assertThat(policy.supports(method)).isTrue();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testBefore_MultipleLimits_ShouldEvaluateInOneCallAndUseLimitingHeaders() throws Exception {
+        // Given
+        Method method = TestController.class.getMethod("multiLimitMethod");
+        JoinPointContext context = new JoinPointContext("TestController:multiLimitMethod", "mem:12345", "default");
+
+        // 시간당 제한(index 1)이 가장 제한적
+        when(redisGuard.multiTokenBucketAllow(anyList()))
+                .thenReturn(new RedisGuard.CompositeDecision(false, 0.2, 36000, 1));
+
+        // When & Then
+        assertThatThrownBy(() -> policy.before(method, context))
+                .isInstanceOf(RateLimitExceededException.class);
+
+        org.mockito.ArgumentCaptor<List<RedisGuard.BucketSpec>> captor = org.mockito.ArgumentCaptor.forClass(List.class);
+        verify(redisGuard).multiTokenBucketAllow(captor.capture());
+        List<RedisGuard.BucketSpec> buckets = captor.getValue();
+        assertThat(buckets).extracting(RedisGuard.BucketSpec::key).containsExactly(
+                "user:TestController:multiLimitMethod:mem:12345:20/SECOND",
+                "user:TestController:multiLimitMethod:mem:12345:1000/HOUR");
+        assertThat(buckets.get(1).ratePerSec()).isEqualTo(1000.0 / 3600);
+        verify(redisGuard, never()).tokenBucketAllow(anyString(), anyDouble(), anyInt(), anyLong());
+        verify(rateLimitHeaderSupport).writeHeaders(1000, 0.2, 36000);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testBefore_PlanAndGlobalLimits_ShouldCheckAllLevelsInOneCall() throws Exception {
+        // Given - gold 플랜은 리소스당 초당 50개, 리소스 전체 초당 200개
+        TrafficGuardProperties.PlanLimit gold = new TrafficGuardProperties.PlanLimit();
+        gold.setRate(50);
+        properties.getPlans().put("gold", gold);
+
+        Method method = TestController.class.getMethod("globalLimitMethod");
+        JoinPointContext context = new JoinPointContext("TestController:globalLimitMethod", "mem:12345", "gold");
+
+        // 테넌트 버킷(index 1)이 가장 제한적
+        when(redisGuard.multiTokenBucketAllow(anyList()))
+                .thenReturn(new RedisGuard.CompositeDecision(true, 3.0, 0, 1));
+
+        // When
+        policy.before(method, context);
+
+        // Then - 사용자 버킷은 단일 제한과 같은 키
+        org.mockito.ArgumentCaptor<List<RedisGuard.BucketSpec>> captor = org.mockito.ArgumentCaptor.forClass(List.class);
+        verify(redisGuard).multiTokenBucketAllow(captor.capture());
+        List<RedisGuard.BucketSpec> buckets = captor.getValue();
+        assertThat(buckets).extracting(RedisGuard.BucketSpec::key).containsExactly(
+                "user:TestController:globalLimitMethod:mem:12345",
+                "plan:TestController:globalLimitMethod:gold",
+                "global:TestController:globalLimitMethod:200/SECOND");
+        assertThat(buckets.get(1).burst()).isEqualTo(50);
+        assertThat(buckets.get(2).burst()).isEqualTo(200);
+        verify(redisGuard, never()).tokenBucketAllow(anyString(), anyDouble(), anyInt(), anyLong());
+        verify(rateLimitHeaderSupport).writeHeaders(50, 3.0, 0);
+    }
+
+    @Test
+    void testBefore_UnknownPlanWithoutDefault_ShouldUseSingleBucket() throws Exception {
+        // Given
+        TrafficGuardProperties.PlanLimit gold = new TrafficGuardProperties.PlanLimit();
+        gold.setRate(50);
+        properties.getPlans().put("gold", gold);
+
+        Method method = TestController.class.getMethod("rateLimitedMethod");
+        JoinPointContext context = new JoinPointContext("TestController:rateLimitedMethod", "mem:12345", "free");
+        when(redisGuard.tokenBucketAllow(anyString(), anyDouble(), anyInt(), anyLong()))
+                .thenReturn(new RedisGuard.RateDecision(true, 4.0, 0));
+
+        // When
+        policy.before(method, context);
+
+        // Then
+        verify(redisGuard).tokenBucketAllow("user:TestController:rateLimitedMethod:mem:12345", 10.0, 5, 60000);
+        verify(redisGuard, never()).multiTokenBucketAllow(anyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testBefore_GcraWithDefaultPlan_ShouldKeepGcraAndCheckPlanAfterUser() throws Exception {
+        // Given - default 플랜만 설정되어 있어도 사용자 제한은 어노테이션의 GCRA 키 그대로
+        TrafficGuardProperties.PlanLimit defaultPlan = new TrafficGuardProperties.PlanLimit();
+        defaultPlan.setRate(50);
+        properties.getPlans().put("default", defaultPlan);
+
+        Method method = TestController.class.getMethod("gcraMethod");
+        JoinPointContext context = new JoinPointContext("TestController:gcraMethod", "mem:12345", "free");
+        when(redisGuard.gcraAllow(anyString(), anyDouble(), anyInt(), anyLong()))
+                .thenReturn(new RedisGuard.RateDecision(true, 4.0, 0));
+        when(redisGuard.multiTokenBucketAllow(anyList()))
+                .thenReturn(new RedisGuard.CompositeDecision(true, 40.0, 0, 0));
+
+        // When
+        policy.before(method, context);
+
+        // Then - 테넌트 버킷만 따로 판정, 헤더는 더 제한적인 사용자 기준
+        verify(redisGuard).gcraAllow("user:TestController:gcraMethod:mem:12345", 10.0, 5, 60000);
+        org.mockito.ArgumentCaptor<List<RedisGuard.BucketSpec>> captor = org.mockito.ArgumentCaptor.forClass(List.class);
+        verify(redisGuard).multiTokenBucketAllow(captor.capture());
+        assertThat(captor.getValue()).extracting(RedisGuard.BucketSpec::key).containsExactly("plan:TestController:gcraMethod:free");
+        verify(rateLimitHeaderSupport).writeHeaders(10, 4.0, 0);
+        verify(rateLimitHeaderSupport, never()).writeHeaders(eq(50), anyDouble(), anyLong());
+        assertThat(policy.engine(com.trafficguard.core.GuardDescriptor.of(method, "TestController:gcraMethod"))).isEqualTo("REDIS_GCRA");
+    }
+
+    @Test
+    void testBefore_DeniedUserWithPlan_ShouldNotConsumePlanBucket() throws Exception {
+        // Given
+        TrafficGuardProperties.PlanLimit defaultPlan = new TrafficGuardProperties.PlanLimit();
+        defaultPlan.setRate(50);
+        properties.getPlans().put("default", defaultPlan);
+
+        Method method = TestController.class.getMethod("slidingWindowMethod");
+        JoinPointContext context = new JoinPointContext("TestController:slidingWindowMethod", "mem:12345", "free");
+        when(redisGuard.slidingWindowAllow(anyString(), anyInt(), anyLong()))
+                .thenReturn(new RedisGuard.RateDecision(false, 0.0, 2000));
+
+        // When & Then
+        assertThatThrownBy(() -> policy.before(method, context))
+                .isInstanceOf(RateLimitExceededException.class);
+        verify(redisGuard, never()).multiTokenBucketAllow(anyList());
+    }
+
+    @Test
+    void testBeforeAsync_MultipleLimits_ShouldRejectWithoutBlockingCall() throws Exception {
+        // Given
+        Method method = TestController.class.getMethod("multiLimitMethod");
+        JoinPointContext context = new JoinPointContext("TestController:multiLimitMethod", "mem:12345", "default");
+        java.util.Map<String, String> headers = new java.util.HashMap<>();
+        context.put(RateLimitHeaderSupport.HEADER_WRITER_ATTR, (java.util.function.BiConsumer<String, String>) headers::put);
+        when(redisGuard.multiTokenBucketAllowAsync(anyList()))
+                .thenReturn(java.util.concurrent.CompletableFuture.completedFuture(new RedisGuard.CompositeDecision(false, 0.0, 3000, 1)));
+
+        // When
+        java.util.concurrent.CompletableFuture<Void> result = policy.beforeAsync(method, context).toCompletableFuture();
+
+        // Then - 컨텍스트의 헤더 writer 로 쓰고, 거절은 예외 완료
+        assertThat(result).isCompletedExceptionally();
+        assertThatThrownBy(result::join).hasCauseInstanceOf(RateLimitExceededException.class);
+        assertThat(headers).containsEntry("RateLimit-Limit", "1000").containsEntry("Retry-After", "3");
+        verify(redisGuard, never()).multiTokenBucketAllow(anyList());
+        verifyNoInteractions(rateLimitHeaderSupport);
+    }
+
+    @Test
+    void testBeforeAsync_GcraAlgorithm_ShouldFallBackToBlockingBefore() throws Exception {
+        // Given
+        Method method = TestController.class.getMethod("gcraMethod");
+        JoinPointContext context = new JoinPointContext("TestController:gcraMethod", "mem:12345", "default");
+
+        // When & Then - 비동기 구현이 없으면 null
+        assertThat(policy.beforeAsync(method, context)).isNull();
+        verifyNoInteractions(redisGuard);
+    }
+
     // Test controller for reflection
     static class TestController {
         @UserRateLimit(rate = 10, timeUnit = UserRateLimit.TimeUnit.SECOND, burst = 5, ttlMillis = 60000)
@@ -267,6 +539,28 @@ class UserRateLimitPolicyTest {
         @UserRateLimit(rate = 1, timeUnit = UserRateLimit.TimeUnit.MINUTE, burst = 5, ttlMillis = 60000)
         public void fractionalRateMethod() {}
 
+        @UserRateLimit(rate = 10, burst = 5, backend = UserRateLimit.Backend.LOCAL)
+        public void localBackendMethod() {}
+
+        @UserRateLimit(rate = 10, burst = 5, backend = UserRateLimit.Backend.HYBRID)
+        public void hybridBackendMethod() {}
+
+        @UserRateLimit(rate = 10, burst = 5, algorithm = UserRateLimit.Algorithm.GCRA)
+        public void gcraMethod() {}
+
+        @UserRateLimit(rate = 100, timeUnit = UserRateLimit.TimeUnit.MINUTE, algorithm = UserRateLimit.Algorithm.SLIDING_WINDOW)
+        public void slidingWindowMethod() {}
+
+        @UserRateLimit(rate = 1000, timeUnit = UserRateLimit.TimeUnit.DAY, algorithm = UserRateLimit.Algorithm.CALENDAR_WINDOW, zone = "Asia/Seoul")
+        public void calendarWindowMethod() {}
+
+        @UserRateLimit(rate = 20, burst = 20)
+        @UserRateLimit(rate = 1000, timeUnit = UserRateLimit.TimeUnit.HOUR, burst = 1000)
+        public void multiLimitMethod() {}
+
+        @UserRateLimit(rate = 10, burst = 5, globalRate = 200)
+        public void globalLimitMethod() {}
+
         public void normalMethod() {}
     }
 }
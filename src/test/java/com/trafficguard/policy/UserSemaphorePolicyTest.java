@@ -0,0 +1,83 @@
+package com.trafficguard.policy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import com.trafficguard.annotation.UserSemaphore;
+import com.trafficguard.core.JoinPointContext;
+import com.trafficguard.core.UserSemaphoreGuard;
+import com.trafficguard.exception.RateLimitExceededException;
+
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSemaphorePolicyTest {
+
+    @Mock
+    private UserSemaphoreGuard userSemaphoreGuard;
+
+    private UserSemaphorePolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        policy = new UserSemaphorePolicy(userSemaphoreGuard);
+    }
+
+    @Test
+    void testSupports_WithUserSemaphoreAnnotation_ShouldReturnTrue() throws Exception {
+        // Given
+        Method method = TestController.class.getMethod("reportMethod");
+
+        // When & Then
+        assertThat(policy.supports(method)).isTrue();
+        assertThat(policy.supports(TestController.class.getMethod("normalMethod"))).isFalse();
+    }
+
+    @Test
+    void testBeforeAfter_LeaseAcquired_ShouldReleaseSameLease() throws Exception {
+        // Given
+        Method method = TestController.class.getMethod("reportMethod");
+        JoinPointContext context = new JoinPointContext("TestController:reportMethod", "mem:12345", "default");
+        UserSemaphoreGuard.Lease lease = new UserSemaphoreGuard.Lease("lease-1", System.currentTimeMillis() + 30000);
+        when(userSemaphoreGuard.tryAcquire(anyString(), anyInt(), anyLong())).thenReturn(lease);
+
+        // When
+        policy.before(method, context);
+        policy.after(method, context);
+
+        // Then - UserRateLimit 버킷 키와 같은 형식
+        verify(userSemaphoreGuard).tryAcquire("user:TestController:reportMethod:mem:12345", 2, 30000L);
+        verify(userSemaphoreGuard).release("user:TestController:reportMethod:mem:12345", lease);
+    }
+
+    @Test
+    void testBefore_TooManyInFlight_ShouldThrow() throws Exception {
+        // Given
+        Method method = TestController.class.getMethod("reportMethod");
+        JoinPointContext context = new JoinPointContext("TestController:reportMethod", "mem:12345", "default");
+        when(userSemaphoreGuard.tryAcquire(anyString(), anyInt(), anyLong())).thenReturn(null);
+
+        // When & Then
+        assertThatThrownBy(() -> policy.before(method, context))
+                .isInstanceOf(RateLimitExceededException.class)
+                .hasMessageContaining("USER_SEMAPHORE");
+
+        policy.after(method, context);
+        verify(userSemaphoreGuard, never()).release(anyString(), any(UserSemaphoreGuard.Lease.class));
+    }
+
+    // Test controller for reflection
+    static class TestController {
+        @UserSemaphore(permits = 2, leaseMillis = 30000)
+        public void reportMethod() {}
+
+        public void normalMethod() {}
+    }
+}